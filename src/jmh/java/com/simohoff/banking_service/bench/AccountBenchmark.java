@@ -0,0 +1,53 @@
+package com.simohoff.banking_service.bench;
+
+import com.simohoff.banking_service.domain.Account;
+import com.simohoff.banking_service.domain.Transaction;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reine Domain-Logik: Cent-Arithmetik und Allokation der {@link Transaction}, einmal mit Umrechnung
+ * von {@code BigDecimal} (wie aus dem Controller) und einmal direkt mit Cent-Beträgen.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccountBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("12.34");
+    private static final long AMOUNT_MINOR_UNITS = 1_234;
+
+    private Account account;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        // Genug Deckung, damit debit() innerhalb einer Iteration nie an der Deckungsprüfung scheitert
+        account = new Account("DE_BENCH_ACCOUNT", "Bench");
+        account.credit(new BigDecimal("1000000000000"), "Initial");
+    }
+
+    @Benchmark
+    public Transaction credit() {
+        return account.credit(AMOUNT, "Bench");
+    }
+
+    @Benchmark
+    public Transaction debit() {
+        return account.debit(AMOUNT, "Bench");
+    }
+
+    @Benchmark
+    public Transaction creditMinorUnits() {
+        return account.credit(AMOUNT_MINOR_UNITS, "Bench");
+    }
+
+    @Benchmark
+    public Transaction debitMinorUnits() {
+        return account.debit(AMOUNT_MINOR_UNITS, "Bench");
+    }
+}
@@ -0,0 +1,60 @@
+package com.simohoff.banking_service.bench;
+
+import com.simohoff.banking_service.repository.AccountRepository;
+import com.simohoff.banking_service.service.AccountService;
+import com.simohoff.banking_service.service.cache.AccountSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Laden eines Kontos am {@code AccountCache} vorbei: Entity mit Persistence Context und Dirty Checking gegen den
+ * Konstruktor-Ausdruck {@link AccountRepository#findSnapshotByIban}, beide in einer lesenden Transaktion.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class AccountReadBenchmark {
+
+    private static final String IBAN = "DE_BENCH_READ";
+
+    private ConfigurableApplicationContext context;
+    private AccountRepository accountRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchContext.start(Map.of());
+        AccountService accountService = context.getBean(AccountService.class);
+        accountService.createAccount(IBAN, "Bench Read");
+        accountService.credit(IBAN, new BigDecimal("100"), "Initial");
+
+        accountRepository = context.getBean(AccountRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountSnapshot entity() {
+        return readOnly.execute(status -> accountRepository.findByIban(IBAN).map(AccountSnapshot::from).orElseThrow());
+    }
+
+    @Benchmark
+    public AccountSnapshot projection() {
+        return readOnly.execute(status -> accountRepository.findSnapshotByIban(IBAN).orElseThrow());
+    }
+}
@@ -0,0 +1,58 @@
+package com.simohoff.banking_service.bench;
+
+import com.simohoff.banking_service.service.memory.BalanceTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kontostand und Deckungsprüfung aus der {@link BalanceTable} mit einer Million Konten:
+ * Index-Lookup über die IBAN plus Lesen bzw. Abbuchen und Zurückbuchen, ohne Allokation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BalanceTableBenchmark {
+
+    private static final int ACCOUNTS = 1_000_000;
+
+    private BalanceTable table;
+    private String[] ibans;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = new BalanceTable(ACCOUNTS, 1024);
+        ibans = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ibans[i] = "DE%020d".formatted(i);
+            table.insert(ibans[i], i, 100_000, 0);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        String nextIban(String[] ibans) {
+            next = (next + 7919) % ibans.length;
+            return ibans[next];
+        }
+    }
+
+    @Benchmark
+    public long balance(Cursor cursor) {
+        return table.balance(table.slotOf(cursor.nextIban(ibans)));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long debitAndCredit(Cursor cursor) {
+        int slot = table.slotOf(cursor.nextIban(ibans));
+        table.debit(slot, 1_234);
+        table.credit(slot, 1_234);
+        return table.balance(slot);
+    }
+}
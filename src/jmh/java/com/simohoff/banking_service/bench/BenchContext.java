@@ -0,0 +1,32 @@
+package com.simohoff.banking_service.bench;
+
+import com.simohoff.banking_service.BankingServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Startet die Anwendung ohne Webserver gegen eine eigene H2-In-Memory-Datenbank.
+ */
+final class BenchContext {
+
+    private BenchContext() {
+    }
+
+    static ConfigurableApplicationContext start(Map<String, Object> overrides) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID());
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("logging.level.root", "WARN");
+        properties.putAll(overrides);
+
+        return new SpringApplicationBuilder(BankingServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .run();
+    }
+}
@@ -0,0 +1,41 @@
+package com.simohoff.banking_service.bench;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Startet alle JMH-Benchmarks dieses Pakets und schreibt die Ergebnisse als JSON,
+ * damit sie zwischen Releases verglichen werden können.
+ * Läuft nur mit {@code ./mvnw test -Pbench -Dtest=LedgerBenchmarkTest}.
+ * Einzelne Benchmarks: {@code -Djmh.include=TransferBenchmark}, Ziel-Datei: {@code -Djmh.result=...}.
+ */
+@Tag("benchmark")
+class LedgerBenchmarkTest {
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(System.getProperty("jmh.include", LedgerBenchmarkTest.class.getPackageName() + ".*"))
+                // Allokationsrate pro Operation (gc.alloc.rate.norm) für alle Benchmarks
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty("jmh.result", "target/jmh-result.json"))
+                .shouldFailOnError(true)
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        assertThat(results).isNotEmpty();
+    }
+}
@@ -0,0 +1,54 @@
+package com.simohoff.banking_service.bench;
+
+import com.simohoff.banking_service.domain.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deckungsprüfung plus Abbuchung und Einzahlung, einmal wie früher in {@code Account} mit {@link BigDecimal}
+ * und einmal mit Cent-Beträgen aus {@link Money}. Die Allokationsrate pro Operation steht in
+ * {@code gc.alloc.rate.norm} (GC-Profiler aus {@link LedgerBenchmarkTest}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("12.34");
+    private static final long AMOUNT_MINOR_UNITS = 1_234;
+
+    private BigDecimal balance;
+    private long balanceMinorUnits;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        balance = new BigDecimal("1000000.00");
+        balanceMinorUnits = 100_000_000;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        if (AMOUNT.compareTo(BigDecimal.ZERO) <= 0 || balance.compareTo(AMOUNT) < 0) {
+            throw new IllegalArgumentException("Insufficient funds. Balance: " + balance + ", Required: " + AMOUNT);
+        }
+        balance = balance.subtract(AMOUNT);
+        balance = balance.add(AMOUNT);
+        return balance;
+    }
+
+    @Benchmark
+    public long minorUnits() {
+        if (AMOUNT_MINOR_UNITS <= 0 || balanceMinorUnits < AMOUNT_MINOR_UNITS) {
+            throw new IllegalArgumentException("Insufficient funds. Balance: " + Money.format(balanceMinorUnits)
+                    + ", Required: " + Money.format(AMOUNT_MINOR_UNITS));
+        }
+        balanceMinorUnits = Money.subtract(balanceMinorUnits, AMOUNT_MINOR_UNITS);
+        balanceMinorUnits = Money.add(balanceMinorUnits, AMOUNT_MINOR_UNITS);
+        return balanceMinorUnits;
+    }
+}
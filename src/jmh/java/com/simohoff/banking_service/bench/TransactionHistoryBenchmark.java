@@ -0,0 +1,84 @@
+package com.simohoff.banking_service.bench;
+
+import com.simohoff.banking_service.domain.Account;
+import com.simohoff.banking_service.domain.Transaction;
+import com.simohoff.banking_service.domain.TransactionType;
+import com.simohoff.banking_service.dto.TransactionPage;
+import com.simohoff.banking_service.dto.TransactionResponse;
+import com.simohoff.banking_service.service.AccountService;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AccountService#getTransactions} (Entities) gegen {@link AccountService#getTransactionHistory}
+ * (DTO-Projektion) bei Historien mit 10, 10k und 1M Einträgen, zum Vergleich die erste Keyset-Seite.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+// Die komplette 1M-Historie liegt als Entity-Liste im Speicher
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TransactionHistoryBenchmark {
+
+    private static final String IBAN = "DE_BENCH_HISTORY";
+    private static final int CHUNK = 1_000;
+
+    @Param({"10", "10000", "1000000"})
+    public int historySize;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchContext.start(Map.of());
+        accountService = context.getBean(AccountService.class);
+        Long accountId = accountService.createAccount(IBAN, "Bench History").getId();
+
+        EntityManager entityManager = context.getBean(EntityManager.class);
+        TransactionTemplate transactionTemplate =
+                new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        for (int offset = 0; offset < historySize; offset += CHUNK) {
+            int rows = Math.min(CHUNK, historySize - offset);
+            long booked = offset;
+            transactionTemplate.executeWithoutResult(status -> {
+                Account account = entityManager.getReference(Account.class, accountId);
+                for (int i = 0; i < rows; i++) {
+                    entityManager.persist(new Transaction(100L, TransactionType.CREDIT, "Bench", account,
+                            100L * (booked + i + 1)));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Transaction> getTransactions() {
+        return accountService.getTransactions(IBAN);
+    }
+
+    @Benchmark
+    public List<TransactionResponse> getTransactionHistory() {
+        return accountService.getTransactionHistory(IBAN);
+    }
+
+    @Benchmark
+    public TransactionPage getFirstPage() {
+        return accountService.getTransactionPage(IBAN, null, null, 50);
+    }
+}
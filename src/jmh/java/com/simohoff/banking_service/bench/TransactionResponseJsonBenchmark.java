@@ -0,0 +1,61 @@
+package com.simohoff.banking_service.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.simohoff.banking_service.domain.TransactionType;
+import com.simohoff.banking_service.dto.TransactionResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON-Serialisierung von {@link TransactionResponse} mit derselben Jackson-Konfiguration wie die REST-API,
+ * einzeln und als Liste in Seitengröße.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionResponseJsonBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    private ObjectMapper objectMapper;
+    private TransactionResponse response;
+    private List<TransactionResponse> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        LocalDateTime timestamp = LocalDateTime.of(2026, 1, 25, 10, 30, 0, 123_456_000);
+        response = new TransactionResponse(4711L, new BigDecimal("1234.56"), TransactionType.DEBIT,
+                "Transfer to DE89370400440532013000: Miete Januar", timestamp, new BigDecimal("8765.44"));
+
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(new TransactionResponse((long) i, new BigDecimal("12.34"), TransactionType.CREDIT,
+                    "Bench " + i, timestamp.minusSeconds(i), new BigDecimal("1000.00")));
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,102 @@
+package com.simohoff.banking_service.bench;
+
+import com.simohoff.banking_service.dto.TransferResponse;
+import com.simohoff.banking_service.service.AccountService;
+import com.simohoff.banking_service.service.TransferService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link TransferService#transfer} gegen H2 mit 1, 8 und 64 Threads.
+ * {@code disjoint}: jeder Thread bucht auf einem eigenen Kontenpaar,
+ * {@code shared}: alle Threads buchen auf demselben Kontenpaar.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransferBenchmark {
+
+    private static final int MAX_THREADS = 64;
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @Param({"disjoint", "shared"})
+    public String accounts;
+
+    // Optimistic scheitert bei 64 Threads auf einem Konto an den Retries, daher striped als Vorgabe
+    @Param({"striped"})
+    public String strategy;
+
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private final AtomicInteger nextRoute = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchContext.start(Map.of("banking.concurrency.strategy", strategy));
+        transferService = context.getBean(TransferService.class);
+
+        AccountService accountService = context.getBean(AccountService.class);
+        for (int i = 0; i < MAX_THREADS; i++) {
+            accountService.createAccount(fromIban(i), "Bench Source " + i);
+            accountService.createAccount(toIban(i), "Bench Target " + i);
+            accountService.credit(fromIban(i), new BigDecimal("1000000000000"), "Initial");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Route {
+
+        String fromIban;
+        String toIban;
+
+        @Setup(Level.Trial)
+        public void assign(TransferBenchmark benchmark) {
+            int index = "shared".equals(benchmark.accounts) ? 0 : benchmark.nextRoute.getAndIncrement();
+            fromIban = fromIban(index);
+            toIban = toIban(index);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransferResponse transferSingleThread(Route route) {
+        return transfer(route);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransferResponse transfer8Threads(Route route) {
+        return transfer(route);
+    }
+
+    @Benchmark
+    @Threads(MAX_THREADS)
+    public TransferResponse transfer64Threads(Route route) {
+        return transfer(route);
+    }
+
+    private TransferResponse transfer(Route route) {
+        return transferService.transfer(route.fromIban, route.toIban, AMOUNT, "Bench");
+    }
+
+    private static String fromIban(int index) {
+        return "DE_BENCH_FROM_" + index;
+    }
+
+    private static String toIban(int index) {
+        return "DE_BENCH_TO_" + index;
+    }
+}
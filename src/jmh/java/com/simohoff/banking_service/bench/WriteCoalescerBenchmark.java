@@ -0,0 +1,81 @@
+package com.simohoff.banking_service.bench;
+
+import com.simohoff.banking_service.dto.TransactionResponse;
+import com.simohoff.banking_service.service.AccountService;
+import com.simohoff.banking_service.service.LedgerWriteCoalescer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Durchsatz von {@link LedgerWriteCoalescer} in Abhängigkeit vom Sammelfenster:
+ * 64 Threads buchen auf je einem eigenen Konto. {@code off} ist der Vergleich ohne Coalescer
+ * ({@link AccountService#credit} mit der Strategie {@code striped}).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(WriteCoalescerBenchmark.THREADS)
+@State(Scope.Benchmark)
+public class WriteCoalescerBenchmark {
+
+    static final int THREADS = 64;
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @Param({"off", "0ms", "1ms", "5ms"})
+    public String window;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private LedgerWriteCoalescer coalescer;
+    private final AtomicInteger nextAccount = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        boolean enabled = !"off".equals(window);
+        context = BenchContext.start(Map.of(
+                "banking.concurrency.strategy", "striped",
+                "banking.coalescer.enabled", String.valueOf(enabled),
+                "banking.coalescer.window", enabled ? window : "0ms"));
+        accountService = context.getBean(AccountService.class);
+        coalescer = enabled ? context.getBean(LedgerWriteCoalescer.class) : null;
+
+        for (int i = 0; i < THREADS; i++) {
+            accountService.createAccount(iban(i), "Bench " + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+
+        String iban;
+
+        @Setup(Level.Trial)
+        public void assign(WriteCoalescerBenchmark benchmark) {
+            iban = iban(benchmark.nextAccount.getAndIncrement());
+        }
+    }
+
+    @Benchmark
+    public TransactionResponse credit(Caller caller) {
+        if (coalescer == null) {
+            return TransactionResponse.from(accountService.credit(caller.iban, AMOUNT, "Bench"));
+        }
+        return coalescer.credit(caller.iban, AMOUNT, "Bench").join();
+    }
+
+    private static String iban(int index) {
+        return "DE_BENCH_GRP_" + index;
+    }
+}
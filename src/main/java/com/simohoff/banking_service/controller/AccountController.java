@@ -3,26 +3,71 @@ package com.simohoff.banking_service.controller;
 import com.simohoff.banking_service.domain.Account;
 import com.simohoff.banking_service.domain.Transaction;
 import com.simohoff.banking_service.dto.*;
+import com.simohoff.banking_service.service.AccountCommandEngine;
 import com.simohoff.banking_service.service.AccountService;
+import com.simohoff.banking_service.service.AsyncLedgerService;
+import com.simohoff.banking_service.service.HotAccountService;
+import com.simohoff.banking_service.service.LedgerWriteCoalescer;
 import com.simohoff.banking_service.service.TransferService;
-import com.simohoff.banking_service.service.TransferService;
+import com.simohoff.banking_service.service.idempotency.IdempotencyService;
+import com.simohoff.banking_service.service.ledger.EventSourcedLedger;
+import com.simohoff.banking_service.service.memory.LedgerEngine;
+import com.simohoff.banking_service.service.statement.StatementService;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 @RestController
 @RequestMapping("/api/accounts")
 public class AccountController {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final AccountService accountService;
     private final TransferService transferService;
+    private final Optional<AccountCommandEngine> commandEngine;
+    private final Optional<LedgerWriteCoalescer> writeCoalescer;
+    private final Optional<EventSourcedLedger> ledger;
+    private final Optional<LedgerEngine> ledgerEngine;
+    private final Optional<AsyncLedgerService> asyncLedger;
+    private final Optional<HotAccountService> hotAccounts;
+    private final StatementService statementService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
 
-    public AccountController(AccountService accountService, TransferService transferService) {
+    public AccountController(AccountService accountService, TransferService transferService,
+            Optional<AccountCommandEngine> commandEngine, Optional<LedgerWriteCoalescer> writeCoalescer,
+            Optional<EventSourcedLedger> ledger, Optional<LedgerEngine> ledgerEngine,
+            Optional<AsyncLedgerService> asyncLedger, Optional<HotAccountService> hotAccounts,
+            StatementService statementService,
+            IdempotencyService idempotencyService, ObjectMapper objectMapper) {
         this.accountService = accountService;
         this.transferService = transferService;
+        this.commandEngine = commandEngine;
+        this.writeCoalescer = writeCoalescer;
+        this.ledger = ledger;
+        this.ledgerEngine = ledgerEngine;
+        this.asyncLedger = asyncLedger;
+        this.hotAccounts = hotAccounts;
+        this.statementService = statementService;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -42,18 +87,80 @@ public class AccountController {
      */
     @GetMapping("/{iban}")
     public AccountResponse getAccount(@PathVariable String iban) {
-        Account account = accountService.getAccount(iban);
-        return AccountResponse.from(account);
+        // Mit der LedgerEngine kommt der Saldo aus dem Speicher, die Kontozeile wird nur verzögert nachgezogen
+        if (ledgerEngine.isPresent()) {
+            return ledgerEngine.get().account(iban);
+        }
+        AccountResponse account = accountService.getAccountSnapshot(iban).toResponse();
+        // Im Event-Sourcing-Modus ist der Saldo der Kontozeile nicht maßgeblich,
+        // bei Hot Accounts kommen die Buckets dazu
+        if (ledger.isPresent()) {
+            return account.withBalance(ledger.get().balance(iban));
+        }
+        if (isHot(iban)) {
+            return account.withBalance(hotAccounts.get().balance(iban));
+        }
+        return account;
     }
 
     /**
      * POST /api/accounts/{iban}/credit
-     * Bucht Geld auf ein Konto ein
+     * Bucht Geld auf ein Konto ein (optional mit Idempotency-Key)
      */
     @PostMapping("/{iban}/credit")
-    public TransactionResponse credit(
+    public CompletableFuture<TransactionResponse> credit(
             @PathVariable String iban,
-            @Valid @RequestBody TransactionRequest request) {
+            @Valid @RequestBody TransactionRequest request,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+
+        String fingerprint = fingerprint("credit", iban, request.amount(), request.reference());
+        Function<UnaryOperator<TransactionResponse>, CompletableFuture<TransactionResponse>> async =
+                asyncCredit(iban, request);
+        if (async != null) {
+            return idempotencyService.executeAsync(idempotencyKey, fingerprint, TransactionResponse.class, async);
+        }
+        return CompletableFuture.completedFuture(idempotencyService.execute(idempotencyKey, fingerprint,
+                TransactionResponse.class, () -> credit(iban, request)));
+    }
+
+    /**
+     * Buchung über eine der asynchronen Engines, die Antwort wird in deren Transaktion gespeichert;
+     * {@code null}, wenn synchron gebucht wird.
+     */
+    private Function<UnaryOperator<TransactionResponse>, CompletableFuture<TransactionResponse>> asyncCredit(
+            String iban, TransactionRequest request) {
+        if (ledger.isPresent()) {
+            return null;
+        }
+        if (ledgerEngine.isPresent()) {
+            return inTransaction -> ledgerEngine.get().credit(
+                    iban, request.amount(), request.reference(), inTransaction);
+        }
+        if (isHot(iban)) {
+            return null;
+        }
+        if (commandEngine.isPresent()) {
+            return inTransaction -> commandEngine.get().credit(
+                    iban, request.amount(), request.reference(), inTransaction);
+        }
+        if (writeCoalescer.isPresent()) {
+            return inTransaction -> writeCoalescer.get().credit(
+                    iban, request.amount(), request.reference(), inTransaction);
+        }
+        if (asyncLedger.isPresent()) {
+            return inTransaction -> asyncLedger.get().credit(
+                    iban, request.amount(), request.reference(), inTransaction);
+        }
+        return null;
+    }
+
+    private TransactionResponse credit(String iban, TransactionRequest request) {
+        if (ledger.isPresent()) {
+            return TransactionResponse.from(ledger.get().credit(iban, request.amount(), request.reference()));
+        }
+        if (isHot(iban)) {
+            return TransactionResponse.from(hotAccounts.get().credit(iban, request.amount(), request.reference()));
+        }
 
         Transaction transaction = accountService.credit(
                 iban,
@@ -65,12 +172,58 @@ public class AccountController {
 
     /**
      * POST /api/accounts/{iban}/debit
-     * Bucht Geld von einem Konto ab
+     * Bucht Geld von einem Konto ab (optional mit Idempotency-Key)
      */
     @PostMapping("/{iban}/debit")
-    public TransactionResponse debit(
+    public CompletableFuture<TransactionResponse> debit(
             @PathVariable String iban,
-            @Valid @RequestBody TransactionRequest request) {
+            @Valid @RequestBody TransactionRequest request,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+
+        String fingerprint = fingerprint("debit", iban, request.amount(), request.reference());
+        Function<UnaryOperator<TransactionResponse>, CompletableFuture<TransactionResponse>> async =
+                asyncDebit(iban, request);
+        if (async != null) {
+            return idempotencyService.executeAsync(idempotencyKey, fingerprint, TransactionResponse.class, async);
+        }
+        return CompletableFuture.completedFuture(idempotencyService.execute(idempotencyKey, fingerprint,
+                TransactionResponse.class, () -> debit(iban, request)));
+    }
+
+    private Function<UnaryOperator<TransactionResponse>, CompletableFuture<TransactionResponse>> asyncDebit(
+            String iban, TransactionRequest request) {
+        if (ledger.isPresent()) {
+            return null;
+        }
+        if (ledgerEngine.isPresent()) {
+            return inTransaction -> ledgerEngine.get().debit(
+                    iban, request.amount(), request.reference(), inTransaction);
+        }
+        if (isHot(iban)) {
+            return null;
+        }
+        if (commandEngine.isPresent()) {
+            return inTransaction -> commandEngine.get().debit(
+                    iban, request.amount(), request.reference(), inTransaction);
+        }
+        if (writeCoalescer.isPresent()) {
+            return inTransaction -> writeCoalescer.get().debit(
+                    iban, request.amount(), request.reference(), inTransaction);
+        }
+        if (asyncLedger.isPresent()) {
+            return inTransaction -> asyncLedger.get().debit(
+                    iban, request.amount(), request.reference(), inTransaction);
+        }
+        return null;
+    }
+
+    private TransactionResponse debit(String iban, TransactionRequest request) {
+        if (ledger.isPresent()) {
+            return TransactionResponse.from(ledger.get().debit(iban, request.amount(), request.reference()));
+        }
+        if (isHot(iban)) {
+            return TransactionResponse.from(hotAccounts.get().debit(iban, request.amount(), request.reference()));
+        }
 
         Transaction transaction = accountService.debit(
                 iban,
@@ -80,27 +233,188 @@ public class AccountController {
         return TransactionResponse.from(transaction);
     }
 
+    /**
+     * GET /api/accounts/{iban}/balance?at=2026-01-31T23:59:59
+     * Gibt den Saldo zu einem Zeitpunkt zurück (aus dem laufenden Saldo der Transaktionen)
+     */
+    @GetMapping("/{iban}/balance")
+    public BigDecimal getBalanceAt(
+            @PathVariable String iban,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return statementService.balanceAt(iban, at);
+    }
+
+    /**
+     * GET /api/accounts/{iban}/statements/{period}
+     * Gibt den Auszug für einen Monat (2026-01) oder Tag (2026-01-31) zurück
+     */
+    @GetMapping("/{iban}/statements/{period}")
+    public StatementResponse getStatement(@PathVariable String iban, @PathVariable String period) {
+        return statementService.statement(iban, period);
+    }
+
     /**
      * GET /api/accounts/{iban}/transactions
      * Gibt alle Transaktionen eines Kontos zurück
      */
     @GetMapping("/{iban}/transactions")
     public List<TransactionResponse> getTransactions(@PathVariable String iban) {
-        return accountService.getTransactions(iban).stream()
-                .map(TransactionResponse::from)
-                .toList();
+        return accountService.getTransactionHistory(iban);
+    }
+
+    /**
+     * GET /api/accounts/{iban}/transactions/page?limit=50&before=...|after=...
+     * Gibt eine Seite der Transaktionen zurück (Keyset-Pagination, neueste zuerst)
+     */
+    @GetMapping("/{iban}/transactions/page")
+    public TransactionPage getTransactionPage(
+            @PathVariable String iban,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after) {
+        return accountService.getTransactionPage(
+                iban,
+                TransactionCursor.decode(before),
+                TransactionCursor.decode(after),
+                limit);
+    }
+
+    /**
+     * GET /api/accounts/{iban}/transactions/export
+     * Streamt die gesamte Historie als NDJSON (eine Transaktion pro Zeile)
+     */
+    @GetMapping(value = "/{iban}/transactions/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@PathVariable String iban) {
+        // 404 noch vor dem Start des Streams
+        accountService.getAccountSnapshot(iban);
+
+        StreamingResponseBody body = out -> accountService.forEachTransaction(iban, transaction -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(transaction));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
      * POST /api/accounts/transfer
-     * Überweist Geld zwischen zwei Konten
+     * Überweist Geld zwischen zwei Konten (optional mit Idempotency-Key)
      */
     @PostMapping("/transfer")
-    public TransferResponse transfer(@Valid @RequestBody TransferRequest request) {
+    public CompletableFuture<TransferResponse> transfer(
+            @Valid @RequestBody TransferRequest request,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+
+        String fingerprint = fingerprint("transfer", request.fromIban() + ">" + request.toIban(), request.amount(),
+                request.reference());
+        Function<UnaryOperator<TransferResponse>, CompletableFuture<TransferResponse>> async = asyncTransfer(request);
+        if (async != null) {
+            return idempotencyService.executeAsync(idempotencyKey, fingerprint, TransferResponse.class, async);
+        }
+        return CompletableFuture.completedFuture(idempotencyService.execute(idempotencyKey, fingerprint,
+                TransferResponse.class, () -> transfer(request)));
+    }
+
+    private Function<UnaryOperator<TransferResponse>, CompletableFuture<TransferResponse>> asyncTransfer(
+            TransferRequest request) {
+        if (ledger.isPresent()) {
+            return null;
+        }
+        if (ledgerEngine.isPresent()) {
+            return inTransaction -> ledgerEngine.get().transfer(
+                    request.fromIban(),
+                    request.toIban(),
+                    request.amount(),
+                    request.reference(),
+                    inTransaction);
+        }
+        if (isHot(request.fromIban()) || isHot(request.toIban())) {
+            return null;
+        }
+        if (commandEngine.isPresent()) {
+            return inTransaction -> commandEngine.get().transfer(
+                    request.fromIban(),
+                    request.toIban(),
+                    request.amount(),
+                    request.reference(),
+                    inTransaction);
+        }
+        if (writeCoalescer.isPresent()) {
+            return inTransaction -> writeCoalescer.get().transfer(
+                    request.fromIban(),
+                    request.toIban(),
+                    request.amount(),
+                    request.reference(),
+                    inTransaction);
+        }
+        if (asyncLedger.isPresent()) {
+            return inTransaction -> asyncLedger.get().transfer(
+                    request.fromIban(),
+                    request.toIban(),
+                    request.amount(),
+                    request.reference(),
+                    inTransaction);
+        }
+        return null;
+    }
+
+    private TransferResponse transfer(TransferRequest request) {
+        if (ledger.isPresent()) {
+            return ledger.get().transfer(
+                    request.fromIban(),
+                    request.toIban(),
+                    request.amount(),
+                    request.reference());
+        }
+        if (isHot(request.fromIban()) || isHot(request.toIban())) {
+            return hotAccounts.get().transfer(
+                    request.fromIban(),
+                    request.toIban(),
+                    request.amount(),
+                    request.reference());
+        }
+
         return transferService.transfer(
                 request.fromIban(),
                 request.toIban(),
                 request.amount(),
                 request.reference());
     }
+
+    /**
+     * POST /api/accounts/transfers/batch
+     * Führt viele Überweisungen gesammelt aus, mit Ergebnis pro Überweisung
+     */
+    @PostMapping("/transfers/batch")
+    public BatchTransferResponse transferBatch(@Valid @RequestBody BatchTransferRequest request) {
+        if (ledger.isPresent()) {
+            return ledger.get().transferBatch(request.transfers());
+        }
+        if (ledgerEngine.isPresent()) {
+            return ledgerEngine.get().transferBatch(request.transfers());
+        }
+        if (commandEngine.isPresent()) {
+            return commandEngine.get().transferBatch(request.transfers());
+        }
+        return transferService.transferBatch(request.transfers());
+    }
+
+    private boolean isHot(String iban) {
+        return hotAccounts.isPresent() && hotAccounts.get().isHot(iban);
+    }
+
+    /**
+     * Identifiziert den Request für den Idempotency-Key; 100 und 100.00 gelten als gleicher Betrag. Der
+     * Verwendungszweck steht mit Längenpräfix am Ende, damit fehlender Zweck und "null" verschieden bleiben.
+     */
+    private static String fingerprint(String operation, String ibans, BigDecimal amount, String reference) {
+        return String.join("|", operation, ibans, amount.stripTrailingZeros().toPlainString(),
+                reference == null ? "~" : reference.length() + ":" + reference);
+    }
 }
\ No newline at end of file
@@ -12,8 +12,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 public class Account {
 
+    // Sequence statt IDENTITY: IDs kommen blockweise (pooled), Inserts können gebatcht werden
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", sequenceName = "account_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false, length = 22)
@@ -22,8 +24,10 @@ public class Account {
     @Column(nullable = false)
     private String ownerName;
 
-    @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal balance;
+    // In Cent, siehe Money
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "balance", nullable = false, precision = 15, scale = 2)
+    private long balanceMinorUnits;
 
     @Column(nullable = false)
     private LocalDateTime createdAt;
@@ -34,34 +38,43 @@ public class Account {
     public Account(String iban, String ownerName) {
         this.iban = iban;
         this.ownerName = ownerName;
-        this.balance = BigDecimal.ZERO;
         this.createdAt = LocalDateTime.now();
     }
 
-    // ... rest bleibt gleich (debit, credit, validateAmount)
+    public BigDecimal getBalance() {
+        return Money.toBigDecimal(balanceMinorUnits);
+    }
 
     public Transaction debit(BigDecimal amount, String reference) {
+        return debit(Money.toMinorUnits(amount), reference);
+    }
+
+    public Transaction debit(long amount, String reference) {
         validateAmount(amount);
 
-        if (this.balance.compareTo(amount) < 0) {
-            throw new IllegalArgumentException(
-                    "Insufficient funds. Balance: " + this.balance + ", Required: " + amount);
+        if (this.balanceMinorUnits < amount) {
+            throw new IllegalArgumentException("Insufficient funds. Balance: " + Money.format(this.balanceMinorUnits)
+                    + ", Required: " + Money.format(amount));
         }
 
-        this.balance = this.balance.subtract(amount);
-        return new Transaction(amount, TransactionType.DEBIT, reference, this);
+        this.balanceMinorUnits = Money.subtract(this.balanceMinorUnits, amount);
+        return new Transaction(amount, TransactionType.DEBIT, reference, this, this.balanceMinorUnits);
     }
 
     public Transaction credit(BigDecimal amount, String reference) {
+        return credit(Money.toMinorUnits(amount), reference);
+    }
+
+    public Transaction credit(long amount, String reference) {
         validateAmount(amount);
 
-        this.balance = this.balance.add(amount);
-        return new Transaction(amount, TransactionType.CREDIT, reference, this);
+        this.balanceMinorUnits = Money.add(this.balanceMinorUnits, amount);
+        return new Transaction(amount, TransactionType.CREDIT, reference, this, this.balanceMinorUnits);
     }
 
-    private void validateAmount(BigDecimal amount) {
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+    public static void validateAmount(long amount) {
+        if (amount <= 0) {
             throw new IllegalArgumentException("Amount must be positive");
         }
     }
-}
\ No newline at end of file
+}
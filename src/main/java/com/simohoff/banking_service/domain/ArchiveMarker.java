@@ -0,0 +1,38 @@
+package com.simohoff.banking_service.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Saldovortrag eines Kontos, dessen ältere Transaktionen ins Archiv verschoben wurden: bis {@code archivedUntil}
+ * (exklusiv) liegt die Historie in den Segmenten, {@code balanceAfter} ist der Saldo nach der letzten archivierten
+ * Buchung. Geschrieben wird nur vom {@code HistoryArchiver} per JDBC.
+ */
+@Entity
+@Table(name = "archive_markers")
+@Getter
+@NoArgsConstructor
+public class ArchiveMarker {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(name = "archived_until", nullable = false)
+    private LocalDateTime archivedUntil;
+
+    // In Cent, siehe Money
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "balance_after", nullable = false, precision = 15, scale = 2)
+    private long balanceAfterMinorUnits;
+
+    @Column(name = "transaction_count", nullable = false)
+    private long transactionCount;
+
+    public BigDecimal getBalanceAfter() {
+        return Money.toBigDecimal(balanceAfterMinorUnits);
+    }
+}
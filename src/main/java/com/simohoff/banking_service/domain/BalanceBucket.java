@@ -0,0 +1,30 @@
+package com.simohoff.banking_service.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+/**
+ * Teilsaldo eines Hot Accounts: der Saldo des Kontos ist die Kontozeile plus die Summe seiner Buckets.
+ * Geschrieben wird nur per JDBC mit relativen bzw. bedingten Updates (siehe {@code HotAccountService}),
+ * deshalb ohne {@code @Version}.
+ */
+@Entity
+@Table(name = "balance_buckets")
+@Getter
+@NoArgsConstructor
+public class BalanceBucket {
+
+    @EmbeddedId
+    private BalanceBucketId id;
+
+    // In Cent, siehe Money
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "balance", nullable = false, precision = 15, scale = 2)
+    private long balanceMinorUnits;
+
+    public BigDecimal getBalance() {
+        return Money.toBigDecimal(balanceMinorUnits);
+    }
+}
@@ -0,0 +1,52 @@
+package com.simohoff.banking_service.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Kontostand nach der Transaktion {@code lastTransactionId}.
+ * Snapshots werden nur angehängt, nie geändert; der aktuelle Stand ist der neueste Snapshot
+ * plus alle späteren Transaktionen des Kontos.
+ */
+@Entity
+@Table(name = "balance_snapshots", indexes = {
+        @Index(name = "idx_balance_snapshots_account", columnList = "account_id, last_transaction_id desc")
+})
+@Getter
+@NoArgsConstructor
+public class BalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_snapshot_seq")
+    @SequenceGenerator(name = "balance_snapshot_seq", sequenceName = "balance_snapshot_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false)
+    private Account account;
+
+    @Column(nullable = false)
+    private Long lastTransactionId;
+
+    // In Cent, siehe Money
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "balance", nullable = false, precision = 15, scale = 2)
+    private long balanceMinorUnits;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public BalanceSnapshot(Account account, LedgerBalance state) {
+        this.account = account;
+        this.lastTransactionId = state.lastTransactionId();
+        this.balanceMinorUnits = state.balance();
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public BigDecimal getBalance() {
+        return Money.toBigDecimal(balanceMinorUnits);
+    }
+}
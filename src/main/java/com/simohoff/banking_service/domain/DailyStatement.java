@@ -0,0 +1,34 @@
+package com.simohoff.banking_service.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Umsätze eines Kontos an einem Tag: Summen der Gut- und Lastschriften und Anzahl der Buchungen.
+ * Wird bei jeder Buchung inkrementell fortgeschrieben (siehe {@code StatementRollup}), nur gelesen über JPA.
+ * Der Primärschlüssel (account_id, booking_date, slot) ist zugleich der Index für Monatsauszüge; Hot Accounts
+ * haben mehrere Zeilen pro Tag, die beim Lesen addiert werden. Anfangs- und Endsaldo stehen nicht hier, sie
+ * kommen aus dem laufenden Saldo der Transaktionen.
+ */
+@Entity
+@Table(name = "daily_statements")
+@Getter
+@NoArgsConstructor
+public class DailyStatement {
+
+    @EmbeddedId
+    private DailyStatementId id;
+
+    // Alle Beträge in Cent, siehe Money
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "total_credits", nullable = false, precision = 15, scale = 2)
+    private long totalCreditsMinorUnits;
+
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "total_debits", nullable = false, precision = 15, scale = 2)
+    private long totalDebitsMinorUnits;
+
+    @Column(name = "transaction_count", nullable = false)
+    private long transactionCount;
+}
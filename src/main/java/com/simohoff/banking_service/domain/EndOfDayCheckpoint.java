@@ -0,0 +1,62 @@
+package com.simohoff.banking_service.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+/**
+ * Fortschritt einer Partition des Tagesabschlusses: Konten mit ID unter {@code nextAccountId} sind für den
+ * Geschäftstag abgeglichen und verbucht, dazu die bisherigen Summen. Wird mit jedem Chunk in derselben
+ * Transaktion wie dessen Buchungen fortgeschrieben (per JDBC vom {@code EndOfDayJob}), ein abgebrochener Lauf
+ * setzt also genau hinter dem letzten committeten Chunk wieder auf.
+ */
+@Entity
+@Table(name = "end_of_day_checkpoints")
+@Getter
+@NoArgsConstructor
+public class EndOfDayCheckpoint {
+
+    @EmbeddedId
+    private EndOfDayCheckpointId id;
+
+    // Exklusiv; erledigt ist die Partition, wenn nextAccountId hier angekommen ist
+    @Column(name = "range_end", nullable = false)
+    private long rangeEnd;
+
+    @Column(name = "next_account_id", nullable = false)
+    private long nextAccountId;
+
+    @Column(name = "accounts", nullable = false)
+    private long accounts;
+
+    @Column(name = "mismatches", nullable = false)
+    private long mismatches;
+
+    @Column(name = "interest_postings", nullable = false)
+    private long interestPostings;
+
+    // In Cent, siehe Money
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "interest_total", nullable = false, precision = 15, scale = 2)
+    private long interestTotalMinorUnits;
+
+    @Column(name = "fee_postings", nullable = false)
+    private long feePostings;
+
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "fee_total", nullable = false, precision = 15, scale = 2)
+    private long feeTotalMinorUnits;
+
+    public boolean isCompleted() {
+        return nextAccountId >= rangeEnd;
+    }
+
+    public BigDecimal getInterestTotal() {
+        return Money.toBigDecimal(interestTotalMinorUnits);
+    }
+
+    public BigDecimal getFeeTotal() {
+        return Money.toBigDecimal(feeTotalMinorUnits);
+    }
+}
@@ -0,0 +1,26 @@
+package com.simohoff.banking_service.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class EndOfDayCheckpointId implements Serializable {
+
+    @Column(name = "business_date", nullable = false)
+    private LocalDate businessDate;
+
+    // Erste Konto-ID der Partition (inklusiv)
+    @Column(name = "range_start", nullable = false)
+    private Long rangeStart;
+}
@@ -0,0 +1,68 @@
+package com.simohoff.banking_service.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Ergebnis einer Buchung zu einem {@code Idempotency-Key}.
+ * Der Primärschlüssel ist der Key selbst: parallele Requests mit demselben Key scheitern beim Insert,
+ * auch über mehrere Instanzen hinweg. Solange {@code responseBody} leer ist, läuft die Buchung noch.
+ * Ein solcher Claim, der älter ist als {@code banking.idempotency.claim-timeout}, gilt als verwaist.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Getter
+@NoArgsConstructor
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    // SHA-256 über Operation und Request-Inhalt, erkennt wiederverwendete Keys
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(length = 4000)
+    private String responseBody;
+
+    // Zeitpunkt des Claims, bei Übernahme eines verwaisten Claims neu gesetzt; weist zugleich aus, wer ihn hält
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Zugewiesene ID: ohne das Flag würde save() ein merge (SELECT + INSERT) statt persist machen
+    @Transient
+    private boolean isNew = true;
+
+    public IdempotencyRecord(String key, String requestHash) {
+        this.key = key;
+        this.requestHash = requestHash;
+        // Auf die Genauigkeit der Spalte gekürzt, der Zeitpunkt wird später in Bedingungen verglichen
+        this.createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    public boolean isCompleted() {
+        return responseBody != null;
+    }
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -0,0 +1,59 @@
+package com.simohoff.banking_service.domain;
+
+/**
+ * Event-Sourcing: Kontostand (in Cent, siehe {@link Money}) nach Anwendung aller Transaktionen bis
+ * {@code lastTransactionId}. {@code eventsSinceSnapshot} zählt die Transaktionen seit dem letzten
+ * {@link BalanceSnapshot}.
+ */
+public record LedgerBalance(
+        long balance,
+        Long lastTransactionId,
+        long eventsSinceSnapshot) {
+
+    public static final LedgerBalance EMPTY = new LedgerBalance(0, 0L, 0);
+
+    public static LedgerBalance of(BalanceSnapshot snapshot) {
+        return new LedgerBalance(snapshot.getBalanceMinorUnits(), snapshot.getLastTransactionId(), 0);
+    }
+
+    /**
+     * Gleiche Regeln wie {@link Account#debit}, aber ohne den Stand zu verändern.
+     */
+    public void checkDebit(long amount) {
+        Account.validateAmount(amount);
+        if (balance < amount) {
+            throw new IllegalArgumentException("Insufficient funds. Balance: " + Money.format(balance)
+                    + ", Required: " + Money.format(amount));
+        }
+    }
+
+    public void checkCredit(long amount) {
+        Account.validateAmount(amount);
+    }
+
+    public LedgerBalance apply(Transaction transaction) {
+        long amount = transaction.getAmountMinorUnits();
+        long next = transaction.getType() == TransactionType.CREDIT
+                ? Money.add(balance, amount)
+                : Money.subtract(balance, amount);
+        return new LedgerBalance(next, transaction.getId(), eventsSinceSnapshot + 1);
+    }
+
+    /**
+     * Hängt den Tail (Summe und Anzahl der Transaktionen nach {@code lastTransactionId}) an.
+     */
+    public LedgerBalance plus(long amount, Long lastTransactionId, long events) {
+        if (events == 0) {
+            return this;
+        }
+        return new LedgerBalance(Money.add(balance, amount), lastTransactionId, eventsSinceSnapshot + events);
+    }
+
+    public LedgerBalance snapshotted() {
+        return new LedgerBalance(balance, lastTransactionId, 0);
+    }
+
+    public boolean isNewerThan(LedgerBalance other) {
+        return other == null || lastTransactionId >= other.lastTransactionId;
+    }
+}
@@ -0,0 +1,72 @@
+package com.simohoff.banking_service.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Geldbeträge als {@code long} in Cent (Minor Units), passend zu {@code precision = 15, scale = 2} der Spalten.
+ *
+ * Beträge und Salden werden in der Domain als primitiver {@code long} gehalten, damit Prüfen und Buchen
+ * ohne Allokation auskommen. {@link BigDecimal} gibt es nur noch an der REST-Schnittstelle und in der Datenbank
+ * ({@link MoneyConverter}). Jede Rechnung prüft auf Überlauf über den Wertebereich der Spalten.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    /**
+     * 9.999.999.999.999,99 – größter Wert in {@code numeric(15, 2)}.
+     */
+    public static final long MAX_MINOR_UNITS = 999_999_999_999_999L;
+
+    private Money() {
+    }
+
+    /**
+     * Übergang von der REST-Schnittstelle in die Domain.
+     *
+     * @throws IllegalArgumentException ohne Betrag, bei mehr als zwei Nachkommastellen oder außerhalb
+     *                                  des Wertebereichs
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        if (amount.scale() > SCALE && amount.stripTrailingZeros().scale() > SCALE) {
+            throw new IllegalArgumentException("Amount must not have more than " + SCALE + " decimal places");
+        }
+        long minorUnits;
+        try {
+            minorUnits = amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range: " + amount.toPlainString());
+        }
+        return checkRange(minorUnits);
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public static long add(long a, long b) {
+        return checkRange(a + b);
+    }
+
+    public static long subtract(long a, long b) {
+        return checkRange(a - b);
+    }
+
+    /**
+     * Für Fehlermeldungen, z.B. {@code 1234} als {@code "12.34"}.
+     */
+    public static String format(long minorUnits) {
+        return toBigDecimal(minorUnits).toPlainString();
+    }
+
+    // Beide Operanden liegen im Wertebereich, die Summe kann daher nicht über long hinauslaufen
+    private static long checkRange(long minorUnits) {
+        if (minorUnits > MAX_MINOR_UNITS || minorUnits < -MAX_MINOR_UNITS) {
+            throw new IllegalArgumentException("Amount out of range: " + format(minorUnits));
+        }
+        return minorUnits;
+    }
+}
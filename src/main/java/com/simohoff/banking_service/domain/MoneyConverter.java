@@ -0,0 +1,24 @@
+package com.simohoff.banking_service.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Bildet Cent-Beträge ({@link Money}) auf die {@code numeric(15, 2)}-Spalten ab.
+ * Nicht {@code autoApply}, weil sonst jedes {@code Long}-Attribut (auch IDs) konvertiert würde.
+ */
+@Converter
+public class MoneyConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long minorUnits) {
+        return minorUnits != null ? Money.toBigDecimal(minorUnits) : null;
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal amount) {
+        return amount != null ? Money.toMinorUnits(amount) : null;
+    }
+}
@@ -0,0 +1,48 @@
+package com.simohoff.banking_service.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Eine noch nicht ausgelieferte Buchung in der Transactional Outbox: wird in derselben Transaktion wie die
+ * {@link Transaction} angelegt und nach der Auslieferung gelöscht. Geschrieben und gelesen wird nur per JDBC
+ * ({@code OutboxWriter}, {@code OutboxRelay}), die Entity beschreibt nur das Schema.
+ */
+@Entity
+@Table(name = "outbox")
+@Getter
+@NoArgsConstructor
+public class OutboxEntry {
+
+    // Vergabe über OutboxSequence, die Reihenfolge der Auslieferung
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    // In Cent, siehe Money
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "amount", nullable = false, precision = 15, scale = 2)
+    private long amountMinorUnits;
+
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "balance_after", nullable = false, precision = 15, scale = 2)
+    private long balanceAfterMinorUnits;
+
+    private String reference;
+
+    @Column(name = "booked_at", nullable = false)
+    private LocalDateTime bookedAt;
+}
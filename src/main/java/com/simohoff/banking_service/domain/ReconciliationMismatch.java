@@ -0,0 +1,42 @@
+package com.simohoff.banking_service.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Konto, dessen Saldo beim Tagesabschluss nicht zur Summe seiner Buchungen gepasst hat. {@code balance} ist der
+ * gespeicherte Saldo (Kontozeile plus Buckets eines Hot Accounts), {@code expected} Saldovortrag aus dem Archiv
+ * plus Gutschriften minus Lastschriften. Geschrieben wird nur vom {@code EndOfDayJob} per JDBC.
+ */
+@Entity
+@Table(name = "reconciliation_mismatches")
+@Getter
+@NoArgsConstructor
+public class ReconciliationMismatch {
+
+    @EmbeddedId
+    private ReconciliationMismatchId id;
+
+    // In Cent, siehe Money
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "balance", nullable = false, precision = 15, scale = 2)
+    private long balanceMinorUnits;
+
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "expected", nullable = false, precision = 15, scale = 2)
+    private long expectedMinorUnits;
+
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+
+    public BigDecimal getBalance() {
+        return Money.toBigDecimal(balanceMinorUnits);
+    }
+
+    public BigDecimal getExpected() {
+        return Money.toBigDecimal(expectedMinorUnits);
+    }
+}
@@ -5,19 +5,30 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        // Deckt die Historie ab: Filter auf account_id, Sortierung timestamp/id ohne extra Sort-Schritt. Enthält alle
+        // gelesenen Spalten; H2 bewertet sonst den Foreign-Key-Index (nur account_id) als billiger und sortiert
+        @Index(name = "idx_transactions_account_history",
+                columnList = "account_id, timestamp desc, id desc, amount, type, reference, balance_after"),
+        // Event-Sourcing: Tail nach dem letzten Snapshot (account_id, id > ?)
+        @Index(name = "idx_transactions_account_id", columnList = "account_id, id")
+})
 @Getter
 @NoArgsConstructor
 public class Transaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 100)
     private Long id;
     
-    @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal amount;
+    // In Cent, siehe Money
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "amount", nullable = false, precision = 15, scale = 2)
+    private long amountMinorUnits;
     
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -28,15 +39,35 @@ public class Transaction {
     
     private String reference;
     
+    // Saldo direkt nach dieser Buchung (in Cent), damit Stände zu einem Zeitpunkt ohne Summieren lesbar sind
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "balance_after", nullable = false, precision = 15, scale = 2)
+    private long balanceAfterMinorUnits;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "account_id", nullable = false)
     private Account account;
     
-    public Transaction(BigDecimal amount, TransactionType type, String reference, Account account) {
-        this.amount = amount;
+    public Transaction(BigDecimal amount, TransactionType type, String reference, Account account,
+            BigDecimal balanceAfter) {
+        this(Money.toMinorUnits(amount), type, reference, account, Money.toMinorUnits(balanceAfter));
+    }
+
+    public Transaction(long amount, TransactionType type, String reference, Account account, long balanceAfter) {
+        this.amountMinorUnits = amount;
+        this.balanceAfterMinorUnits = balanceAfter;
         this.type = type;
         this.reference = reference;
         this.account = account;
-        this.timestamp = LocalDateTime.now();
+        // Auf DB-Präzision (Mikrosekunden) gekürzt, damit Keyset-Cursor im Speicher und in der DB gleich sind
+        this.timestamp = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    public BigDecimal getAmount() {
+        return Money.toBigDecimal(amountMinorUnits);
+    }
+
+    public BigDecimal getBalanceAfter() {
+        return Money.toBigDecimal(balanceAfterMinorUnits);
     }
-}
\ No newline at end of file
+}
@@ -18,4 +18,8 @@ public record AccountResponse(
                 account.getBalance(),
                 account.getCreatedAt());
     }
+
+    public AccountResponse withBalance(BigDecimal balance) {
+        return new AccountResponse(id, iban, ownerName, balance, createdAt);
+    }
 }
\ No newline at end of file
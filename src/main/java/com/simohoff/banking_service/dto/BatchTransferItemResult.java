@@ -0,0 +1,15 @@
+package com.simohoff.banking_service.dto;
+
+public record BatchTransferItemResult(
+        int index,
+        boolean success,
+        TransferResponse transfer,
+        String error) {
+    public static BatchTransferItemResult success(int index, TransferResponse transfer) {
+        return new BatchTransferItemResult(index, true, transfer, null);
+    }
+
+    public static BatchTransferItemResult failure(int index, String error) {
+        return new BatchTransferItemResult(index, false, null, error);
+    }
+}
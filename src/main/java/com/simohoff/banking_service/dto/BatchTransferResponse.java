@@ -0,0 +1,14 @@
+package com.simohoff.banking_service.dto;
+
+import java.util.List;
+
+public record BatchTransferResponse(
+        int total,
+        int succeeded,
+        int failed,
+        List<BatchTransferItemResult> results) {
+    public static BatchTransferResponse from(List<BatchTransferItemResult> results) {
+        int succeeded = (int) results.stream().filter(BatchTransferItemResult::success).count();
+        return new BatchTransferResponse(results.size(), succeeded, results.size() - succeeded, results);
+    }
+}
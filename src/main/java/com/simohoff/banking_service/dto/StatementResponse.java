@@ -0,0 +1,19 @@
+package com.simohoff.banking_service.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Kontoauszug für einen Tag oder Monat ({@code period} wie angefragt, {@code from}/{@code to} inklusive).
+ */
+public record StatementResponse(
+        String iban,
+        String period,
+        LocalDate from,
+        LocalDate to,
+        BigDecimal openingBalance,
+        BigDecimal closingBalance,
+        BigDecimal totalCredits,
+        BigDecimal totalDebits,
+        long transactionCount) {
+}
@@ -0,0 +1,13 @@
+package com.simohoff.banking_service.dto;
+
+import java.util.List;
+
+/**
+ * Eine Seite der Transaktionshistorie, neueste zuerst.
+ * {@code nextCursor} zeigt auf ältere, {@code previousCursor} auf neuere Einträge ({@code null} wenn keine).
+ */
+public record TransactionPage(
+        List<TransactionResponse> items,
+        String nextCursor,
+        String previousCursor) {
+}
@@ -1,5 +1,6 @@
 package com.simohoff.banking_service.dto;
 
+import com.simohoff.banking_service.domain.Money;
 import com.simohoff.banking_service.domain.Transaction;
 import com.simohoff.banking_service.domain.TransactionType;
 import java.math.BigDecimal;
@@ -10,13 +11,23 @@ public record TransactionResponse(
         BigDecimal amount,
         TransactionType type,
         String reference,
-        LocalDateTime timestamp) {
+        LocalDateTime timestamp,
+        BigDecimal balanceAfter) {
+    /**
+     * Für Konstruktor-Ausdrücke in JPQL: die Historie wird ohne Entities direkt in die Antwort gelesen.
+     */
+    public TransactionResponse(Long id, long amount, TransactionType type, String reference, LocalDateTime timestamp,
+            long balanceAfter) {
+        this(id, Money.toBigDecimal(amount), type, reference, timestamp, Money.toBigDecimal(balanceAfter));
+    }
+
     public static TransactionResponse from(Transaction transaction) {
         return new TransactionResponse(
                 transaction.getId(),
                 transaction.getAmount(),
                 transaction.getType(),
                 transaction.getReference(),
-                transaction.getTimestamp());
+                transaction.getTimestamp(),
+                transaction.getBalanceAfter());
     }
 }
\ No newline at end of file
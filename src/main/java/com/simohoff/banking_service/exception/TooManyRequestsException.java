@@ -0,0 +1,7 @@
+package com.simohoff.banking_service.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(int limit) {
+        super("Too many bookings in progress (limit " + limit + "), please retry later");
+    }
+}
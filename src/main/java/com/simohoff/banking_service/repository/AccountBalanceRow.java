@@ -0,0 +1,11 @@
+package com.simohoff.banking_service.repository;
+
+/**
+ * Schlanke Projektion eines Kontos für das Laden der {@code LedgerEngine}, Saldo in Cent.
+ */
+public record AccountBalanceRow(
+        Long id,
+        String iban,
+        Long balance,
+        Long version) {
+}
@@ -1,10 +1,21 @@
 package com.simohoff.banking_service.repository;
 
 import com.simohoff.banking_service.domain.Account;
+import com.simohoff.banking_service.service.cache.AccountSnapshot;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
@@ -12,4 +23,46 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByIban(String iban);
 
     boolean existsByIban(String iban);
-}
\ No newline at end of file
+
+    /**
+     * Löst die IBAN einmal in die technische ID auf, Folgeabfragen laufen dann ohne Join über account_id.
+     */
+    @Query("select a.id from Account a where a.iban = :iban")
+    Optional<Long> findIdByIban(@Param("iban") String iban);
+
+    List<Account> findByIbanIn(Collection<String> ibans);
+
+    /**
+     * Stand eines Kontos ohne Entity (nur die Spalten des Snapshots, nichts im Persistence Context).
+     */
+    @Query("""
+            select new com.simohoff.banking_service.service.cache.AccountSnapshot(
+                a.id, a.iban, a.ownerName, a.balanceMinorUnits, a.createdAt, a.version)
+            from Account a
+            where a.iban = :iban
+            """)
+    Optional<AccountSnapshot> findSnapshotByIban(@Param("iban") String iban);
+
+    /**
+     * Lädt und sperrt alle Konten mit einem {@code SELECT ... ORDER BY id FOR UPDATE}; die Zeilen werden in
+     * ID-Reihenfolge gesperrt. Muss innerhalb einer Transaktion aufgerufen werden.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.iban in :ibans order by a.id")
+    List<Account> findByIbanInForUpdate(@Param("ibans") Collection<String> ibans);
+
+    /**
+     * Alle Konten als Cursor-Stream ohne Entities, für das Laden der {@code LedgerEngine}.
+     * Muss innerhalb einer Transaktion konsumiert und geschlossen werden.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new com.simohoff.banking_service.repository.AccountBalanceRow(
+                a.id, a.iban, a.balanceMinorUnits, a.version)
+            from Account a
+            """)
+    Stream<AccountBalanceRow> streamBalances();
+}
@@ -0,0 +1,9 @@
+package com.simohoff.banking_service.repository;
+
+import com.simohoff.banking_service.domain.ArchiveMarker;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArchiveMarkerRepository extends JpaRepository<ArchiveMarker, Long> {
+}
@@ -0,0 +1,17 @@
+package com.simohoff.banking_service.repository;
+
+import com.simohoff.banking_service.domain.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    /**
+     * Neuester Snapshot eines Kontos, über idx_balance_snapshots_account. Sortierung beginnt mit account_id wie in
+     * {@link TransactionRepository}, sonst nimmt H2 den Index des Foreign Keys.
+     */
+    Optional<BalanceSnapshot> findFirstByAccountIdOrderByAccountIdAscLastTransactionIdDesc(Long accountId);
+}
@@ -0,0 +1,19 @@
+package com.simohoff.banking_service.repository;
+
+import com.simohoff.banking_service.domain.DailyStatement;
+import com.simohoff.banking_service.domain.DailyStatementId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyStatementRepository extends JpaRepository<DailyStatement, DailyStatementId> {
+
+    /**
+     * Tagesauszüge eines Zeitraums, Range-Scan über den Primärschlüssel.
+     */
+    List<DailyStatement> findByIdAccountIdAndIdBookingDateBetweenOrderByIdBookingDateAsc(Long accountId,
+            LocalDate from, LocalDate to);
+}
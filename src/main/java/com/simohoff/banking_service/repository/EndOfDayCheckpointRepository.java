@@ -0,0 +1,18 @@
+package com.simohoff.banking_service.repository;
+
+import com.simohoff.banking_service.domain.EndOfDayCheckpoint;
+import com.simohoff.banking_service.domain.EndOfDayCheckpointId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface EndOfDayCheckpointRepository extends JpaRepository<EndOfDayCheckpoint, EndOfDayCheckpointId> {
+
+    /**
+     * Alle Partitionen eines Geschäftstags, nach Konto-ID.
+     */
+    List<EndOfDayCheckpoint> findByIdBusinessDateOrderByIdRangeStartAsc(LocalDate businessDate);
+}
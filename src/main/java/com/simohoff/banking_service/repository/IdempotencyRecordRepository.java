@@ -0,0 +1,55 @@
+package com.simohoff.banking_service.repository;
+
+import com.simohoff.banking_service.domain.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Speichert die Antwort, sofern der Aufrufer den Claim noch hält ({@code claimedAt} ist sein Zeitpunkt des
+     * Claims); läuft in der Transaktion des Aufrufers, sofern es eine gibt.
+     *
+     * @return 0, wenn der Claim inzwischen übernommen wurde
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update IdempotencyRecord r set r.responseBody = :responseBody
+            where r.key = :key and r.responseBody is null and r.createdAt = :claimedAt
+            """)
+    int complete(@Param("key") String key, @Param("claimedAt") LocalDateTime claimedAt,
+            @Param("responseBody") String responseBody);
+
+    /**
+     * Gibt den Claim nach einer gescheiterten Buchung frei, sofern ihn niemand übernommen hat.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            delete from IdempotencyRecord r
+            where r.key = :key and r.responseBody is null and r.createdAt = :claimedAt
+            """)
+    int release(@Param("key") String key, @Param("claimedAt") LocalDateTime claimedAt);
+
+    /**
+     * Übernimmt einen verwaisten Claim, sofern ihn seit dem Lesen niemand beendet oder übernommen hat.
+     *
+     * @return 1, wenn der Aufrufer den Claim jetzt hält
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update IdempotencyRecord r set r.createdAt = :now
+            where r.key = :key and r.responseBody is null and r.createdAt = :claimedAt
+            """)
+    int takeOver(@Param("key") String key, @Param("claimedAt") LocalDateTime claimedAt,
+            @Param("now") LocalDateTime now);
+}
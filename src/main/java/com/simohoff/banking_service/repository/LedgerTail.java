@@ -0,0 +1,19 @@
+package com.simohoff.banking_service.repository;
+
+import com.simohoff.banking_service.domain.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregat über die Transaktionen nach einem Snapshot: Saldo-Veränderung (in Cent), letzte ID und Anzahl.
+ */
+public record LedgerTail(
+        long amount,
+        Long lastTransactionId,
+        long events) {
+
+    // Konstruktor-Ausdruck in TransactionRepository#sumTail, die Summe kommt als numeric aus der Datenbank
+    public LedgerTail(BigDecimal amount, Long lastTransactionId, Long events) {
+        this(amount != null ? Money.toMinorUnits(amount) : 0L, lastTransactionId, events != null ? events : 0L);
+    }
+}
@@ -0,0 +1,16 @@
+package com.simohoff.banking_service.repository;
+
+import com.simohoff.banking_service.domain.ReconciliationMismatch;
+import com.simohoff.banking_service.domain.ReconciliationMismatchId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ReconciliationMismatchRepository
+        extends JpaRepository<ReconciliationMismatch, ReconciliationMismatchId> {
+
+    List<ReconciliationMismatch> findByIdBusinessDateOrderByIdAccountIdAsc(LocalDate businessDate);
+}
@@ -1,13 +1,153 @@
 package com.simohoff.banking_service.repository;
 
 import com.simohoff.banking_service.domain.Transaction;
+import com.simohoff.banking_service.dto.TransactionResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
-    List<Transaction> findByAccountIbanOrderByTimestampDesc(String iban);
-}
\ No newline at end of file
+    // Alle Historien-Abfragen laufen über account_id und nutzen idx_transactions_account_history. Sortiert wird
+    // zuerst nach account_id (bei einem Konto ohne Wirkung): H2 erkennt ein Index-sortiertes Ergebnis nur, wenn die
+    // Sortierung mit der ersten Index-Spalte beginnt, und nimmt sonst den gleich teuren Index des Foreign Keys
+    // (nur account_id) plus eine Sortierung aller Zeilen des Kontos
+
+    @Query("""
+            select t from Transaction t
+            where t.account.id = :accountId
+            order by t.account.id, t.timestamp desc, t.id desc
+            """)
+    List<Transaction> findByAccountIdOrderByTimestampDescIdDesc(@Param("accountId") Long accountId);
+
+    // Lesende Endpunkte: Konstruktor-Ausdrücke direkt in TransactionResponse, ohne Entities, Dirty Checking und
+    // Account-Proxy; gelesen werden nur die Spalten der Antwort
+
+    /**
+     * Gesamte Historie als Antwort-DTOs (neueste zuerst).
+     */
+    @Query("""
+            select new com.simohoff.banking_service.dto.TransactionResponse(
+                t.id, t.amountMinorUnits, t.type, t.reference, t.timestamp, t.balanceAfterMinorUnits)
+            from Transaction t
+            where t.account.id = :accountId
+            order by t.account.id, t.timestamp desc, t.id desc
+            """)
+    List<TransactionResponse> findResponsesByAccountId(@Param("accountId") Long accountId);
+
+    /**
+     * Erste Seite der Historie (neueste zuerst).
+     */
+    @Query("""
+            select new com.simohoff.banking_service.dto.TransactionResponse(
+                t.id, t.amountMinorUnits, t.type, t.reference, t.timestamp, t.balanceAfterMinorUnits)
+            from Transaction t
+            where t.account.id = :accountId
+            order by t.account.id, t.timestamp desc, t.id desc
+            """)
+    List<TransactionResponse> findFirstPage(@Param("accountId") Long accountId, Pageable pageable);
+
+    /**
+     * Letzte Buchung bis einschließlich {@code at}; ihr {@code balanceAfter} ist der Saldo zu diesem Zeitpunkt.
+     * Ein Index-Seek über idx_transactions_account_history, unabhängig von der Länge der Historie.
+     */
+    @Query("""
+            select t from Transaction t
+            where t.account.id = :accountId and t.timestamp <= :at
+            order by t.account.id, t.timestamp desc, t.id desc
+            fetch first 1 rows only
+            """)
+    Optional<Transaction> findFirstByAccountIdAndTimestampLessThanEqualOrderByTimestampDescIdDesc(
+            @Param("accountId") Long accountId, @Param("at") LocalDateTime at);
+
+    /**
+     * Summe aller Buchungen bis einschließlich {@code at} ({@code null} ohne Buchung), für Hot Accounts, deren
+     * {@code balanceAfter} nur eine Näherung ist. Liest die Buchungen über idx_transactions_account_history, also
+     * proportional zur Länge der Historie. Cast wie bei {@link #sumTail}.
+     */
+    @Query("""
+            select sum(case when t.type = com.simohoff.banking_service.domain.TransactionType.CREDIT
+                            then cast(t.amountMinorUnits as BigDecimal)
+                            else -cast(t.amountMinorUnits as BigDecimal) end)
+            from Transaction t
+            where t.account.id = :accountId and t.timestamp <= :at
+            """)
+    BigDecimal sumUpTo(@Param("accountId") Long accountId, @Param("at") LocalDateTime at);
+
+    /**
+     * Keyset-Seite: Einträge älter als {@code (timestamp, id)}, neueste zuerst.
+     */
+    @Query("""
+            select new com.simohoff.banking_service.dto.TransactionResponse(
+                t.id, t.amountMinorUnits, t.type, t.reference, t.timestamp, t.balanceAfterMinorUnits)
+            from Transaction t
+            where t.account.id = :accountId
+              and (t.timestamp < :timestamp or (t.timestamp = :timestamp and t.id < :id))
+            order by t.account.id, t.timestamp desc, t.id desc
+            """)
+    List<TransactionResponse> findPageBefore(@Param("accountId") Long accountId,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    /**
+     * Keyset-Seite: Einträge neuer als {@code (timestamp, id)}, älteste zuerst. Der Index liefert die Zeilen ab dem
+     * Cursor, sortiert werden sie danach (H2 liest den absteigenden Index nicht rückwärts).
+     */
+    @Query("""
+            select new com.simohoff.banking_service.dto.TransactionResponse(
+                t.id, t.amountMinorUnits, t.type, t.reference, t.timestamp, t.balanceAfterMinorUnits)
+            from Transaction t
+            where t.account.id = :accountId
+              and (t.timestamp > :timestamp or (t.timestamp = :timestamp and t.id > :id))
+            order by t.timestamp asc, t.id asc
+            """)
+    List<TransactionResponse> findPageAfter(@Param("accountId") Long accountId,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    /**
+     * Event-Sourcing: Summe aller Buchungen nach {@code afterId}, über idx_transactions_account_id.
+     * Der Cast summiert die numeric-Spalte selbst; ohne ihn würde das Ergebnis als {@code long} (Cent-Typ des
+     * Attributs) gelesen und die Nachkommastellen abgeschnitten.
+     */
+    @Query("""
+            select new com.simohoff.banking_service.repository.LedgerTail(
+                sum(case when t.type = com.simohoff.banking_service.domain.TransactionType.CREDIT
+                         then cast(t.amountMinorUnits as BigDecimal)
+                         else -cast(t.amountMinorUnits as BigDecimal) end),
+                max(t.id),
+                count(t))
+            from Transaction t
+            where t.account.id = :accountId and t.id > :afterId
+            """)
+    LedgerTail sumTail(@Param("accountId") Long accountId, @Param("afterId") Long afterId);
+
+    /**
+     * Gesamte Historie als Cursor-Stream von Antwort-DTOs für Exporte; der Persistence Context bleibt leer,
+     * der Speicherbedarf damit unabhängig von der Länge der Historie. Muss innerhalb einer Transaktion
+     * konsumiert und geschlossen werden.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new com.simohoff.banking_service.dto.TransactionResponse(
+                t.id, t.amountMinorUnits, t.type, t.reference, t.timestamp, t.balanceAfterMinorUnits)
+            from Transaction t
+            where t.account.id = :accountId
+            order by t.account.id, t.timestamp desc, t.id desc
+            """)
+    Stream<TransactionResponse> streamResponsesByAccountId(@Param("accountId") Long accountId);
+}
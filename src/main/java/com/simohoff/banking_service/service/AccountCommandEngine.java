@@ -0,0 +1,274 @@
+package com.simohoff.banking_service.service;
+
+import com.simohoff.banking_service.dto.BatchTransferItemResult;
+import com.simohoff.banking_service.dto.BatchTransferResponse;
+import com.simohoff.banking_service.dto.TransactionResponse;
+import com.simohoff.banking_service.dto.TransferRequest;
+import com.simohoff.banking_service.dto.TransferResponse;
+import com.simohoff.banking_service.exception.AccountNotFoundException;
+import com.simohoff.banking_service.exception.TooManyRequestsException;
+import com.simohoff.banking_service.service.concurrency.AccountConcurrencyStrategy;
+import com.simohoff.banking_service.service.metrics.LedgerMetrics;
+import com.simohoff.banking_service.service.metrics.LedgerOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Single-Writer Engine: alle Buchungen einer IBAN laufen über genau einen Shard-Thread
+ * und werden in Eingangsreihenfolge angewendet. Untereinander kommen sich die Buchungen der Engine
+ * nicht in die Quere; Versionskonflikte gibt es nur mit Schreibern außerhalb der Engine (Tagesabschluss,
+ * Batch-Überweisungen ohne Engine, Admin-Zugriffe). Jede Buchung läuft deshalb über die
+ * {@link AccountConcurrencyStrategy}, mit {@code optimistic} also mit Retry und Backoff. Der Backoff
+ * belegt den Shard-Thread: spätere Buchungen derselben IBANs warten und überholen nicht.
+ *
+ * Überweisungen zwischen zwei Shards: der Shard mit dem kleineren Index führt die Buchung aus,
+ * der andere Shard wird vorher geparkt (Phase 1) und nach dem Commit wieder freigegeben (Phase 2).
+ * Da immer nur ein kleinerer Shard auf einen größeren wartet, gibt es keinen Deadlock.
+ *
+ * Buchungen auf Hot Accounts laufen am Shard vorbei direkt über den {@link HotAccountService}: ihr Saldo liegt in
+ * den Buckets, nicht in der Kontozeile, und die Buckets vertragen parallele Buchungen.
+ *
+ * Back-Pressure: pro Shard sind höchstens {@code queue-capacity} Buchungen angenommen (laufend oder wartend);
+ * jede weitere wird sofort mit {@link TooManyRequestsException} (429) abgewiesen und zählt
+ * {@code banking.engine.rejected}. Das Parken eines Shards für eine Überweisung zählt nicht mit.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.engine", name = "enabled", havingValue = "true")
+public class AccountCommandEngine {
+
+    private final AccountService accountService;
+    private final TransferService transferService;
+    private final AccountConcurrencyStrategy concurrencyStrategy;
+    private final LedgerMetrics ledgerMetrics;
+    private final ObjectProvider<HotAccountService> hotAccounts;
+    // Die Queues selbst sind unbegrenzt, begrenzt wird über admissions: das Parken eines Shards für eine
+    // bereits angenommene Überweisung darf nie abgewiesen werden
+    private final ExecutorService[] shards;
+    private final Semaphore[] admissions;
+    private final int limit;
+    private final Counter rejected;
+
+    public AccountCommandEngine(AccountService accountService,
+            TransferService transferService,
+            AccountConcurrencyStrategy concurrencyStrategy,
+            LedgerMetrics ledgerMetrics,
+            ObjectProvider<HotAccountService> hotAccounts,
+            MeterRegistry meterRegistry,
+            CommandEngineProperties properties) {
+        this.accountService = accountService;
+        this.transferService = transferService;
+        this.concurrencyStrategy = concurrencyStrategy;
+        this.ledgerMetrics = ledgerMetrics;
+        this.hotAccounts = hotAccounts;
+        this.limit = properties.queueCapacity();
+        this.rejected = Counter.builder("banking.engine.rejected")
+                .description("Wegen voller Shard-Queue abgewiesene Buchungen")
+                .register(meterRegistry);
+        this.shards = new ExecutorService[properties.shards()];
+        this.admissions = new Semaphore[properties.shards()];
+        for (int i = 0; i < shards.length; i++) {
+            admissions[i] = new Semaphore(limit);
+            String name = "ledger-shard-" + i;
+            shards[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public CompletableFuture<TransactionResponse> credit(String iban, BigDecimal amount, String reference) {
+        HotAccountService hot = hotAccount(iban);
+        if (hot != null) {
+            return CompletableFuture.completedFuture(TransactionResponse.from(hot.credit(iban, amount, reference)));
+        }
+        return credit(iban, amount, reference, UnaryOperator.identity());
+    }
+
+    /**
+     * Wie {@link #credit(String, BigDecimal, String)}; {@code inTransaction} läuft mit der Antwort in der
+     * Transaktion der Buchung (z.B. um die Antwort zu einem Idempotency-Key mit zu committen). Hot Accounts
+     * buchen nicht über die Shards, die bucht der Aufrufer direkt beim {@link HotAccountService}.
+     */
+    public CompletableFuture<TransactionResponse> credit(String iban, BigDecimal amount, String reference,
+            UnaryOperator<TransactionResponse> inTransaction) {
+        requireNotHot(iban);
+        return ledgerMetrics.recordAsync(LedgerOperation.CREDIT, List.of(iban),
+                () -> submit(shardFor(iban), () -> concurrencyStrategy.execute("Credit", List.of(iban),
+                        () -> inTransaction.apply(
+                                TransactionResponse.from(accountService.applyCredit(iban, amount, reference))))));
+    }
+
+    public CompletableFuture<TransactionResponse> debit(String iban, BigDecimal amount, String reference) {
+        HotAccountService hot = hotAccount(iban);
+        if (hot != null) {
+            return CompletableFuture.completedFuture(TransactionResponse.from(hot.debit(iban, amount, reference)));
+        }
+        return debit(iban, amount, reference, UnaryOperator.identity());
+    }
+
+    public CompletableFuture<TransactionResponse> debit(String iban, BigDecimal amount, String reference,
+            UnaryOperator<TransactionResponse> inTransaction) {
+        requireNotHot(iban);
+        return ledgerMetrics.recordAsync(LedgerOperation.DEBIT, List.of(iban),
+                () -> submit(shardFor(iban), () -> concurrencyStrategy.execute("Debit", List.of(iban),
+                        () -> inTransaction.apply(
+                                TransactionResponse.from(accountService.applyDebit(iban, amount, reference))))));
+    }
+
+    public CompletableFuture<TransferResponse> transfer(String fromIban, String toIban, BigDecimal amount,
+            String reference) {
+        HotAccountService hot = hotAccount(fromIban, toIban);
+        if (hot != null) {
+            return CompletableFuture.completedFuture(hot.transfer(fromIban, toIban, amount, reference));
+        }
+        return transfer(fromIban, toIban, amount, reference, UnaryOperator.identity());
+    }
+
+    public CompletableFuture<TransferResponse> transfer(String fromIban, String toIban, BigDecimal amount,
+            String reference, UnaryOperator<TransferResponse> inTransaction) {
+        requireNotHot(fromIban, toIban);
+        return ledgerMetrics.recordAsync(LedgerOperation.TRANSFER, List.of(fromIban, toIban),
+                () -> submitTransfer(fromIban, toIban, amount, reference, inTransaction));
+    }
+
+    /**
+     * Alle Überweisungen werden zuerst eingereiht und laufen parallel auf ihren Shards, dann wird in der
+     * Reihenfolge der Anfrage eingesammelt. Abgelehnte Überweisungen (Deckung, unbekanntes Konto, volle Queue)
+     * sind Fehler pro Eintrag.
+     */
+    public BatchTransferResponse transferBatch(List<TransferRequest> requests) {
+        List<CompletableFuture<TransferResponse>> futures = new ArrayList<>(requests.size());
+        for (TransferRequest request : requests) {
+            try {
+                futures.add(transfer(request.fromIban(), request.toIban(), request.amount(), request.reference()));
+            } catch (IllegalArgumentException | AccountNotFoundException | TooManyRequestsException e) {
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        List<BatchTransferItemResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                results.add(BatchTransferItemResult.success(i, futures.get(i).join()));
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof IllegalArgumentException
+                        || e.getCause() instanceof AccountNotFoundException
+                        || e.getCause() instanceof TooManyRequestsException) {
+                    results.add(BatchTransferItemResult.failure(i, e.getCause().getMessage()));
+                } else if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                } else {
+                    throw e;
+                }
+            }
+        }
+        return BatchTransferResponse.from(results);
+    }
+
+    private CompletableFuture<TransferResponse> submitTransfer(String fromIban, String toIban, BigDecimal amount,
+            String reference, UnaryOperator<TransferResponse> inTransaction) {
+        int fromShard = shardFor(fromIban);
+        int toShard = shardFor(toIban);
+        Supplier<TransferResponse> work = () -> concurrencyStrategy.execute("Transfer", List.of(fromIban, toIban),
+                () -> inTransaction.apply(transferService.performTransfer(fromIban, toIban, amount, reference)));
+
+        if (fromShard == toShard) {
+            return submit(fromShard, work);
+        }
+
+        int owner = Math.min(fromShard, toShard);
+        int parked = Math.max(fromShard, toShard);
+        return submit(owner, () -> {
+            // Phase 1: zweiten Shard parken, damit dort nichts parallel auf das Konto bucht
+            CountDownLatch arrived = new CountDownLatch(1);
+            CountDownLatch released = new CountDownLatch(1);
+            shards[parked].execute(() -> {
+                arrived.countDown();
+                awaitUninterruptibly(released);
+            });
+
+            // Phase 2: Buchung in einer Transaktion, danach Shard freigeben
+            try {
+                awaitUninterruptibly(arrived);
+                return work.get();
+            } finally {
+                released.countDown();
+            }
+        });
+    }
+
+    // Der HotAccountService, sofern eines der Konten ein Hot Account ist
+    private HotAccountService hotAccount(String... ibans) {
+        HotAccountService hot = hotAccounts.getIfAvailable();
+        if (hot != null) {
+            for (String iban : ibans) {
+                if (hot.isHot(iban)) {
+                    return hot;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void requireNotHot(String... ibans) {
+        if (hotAccount(ibans) != null) {
+            throw new IllegalStateException("Hot account bookings do not run on the command engine");
+        }
+    }
+
+    int shardFor(String iban) {
+        return Math.floorMod(iban.hashCode(), shards.length);
+    }
+
+    private <T> CompletableFuture<T> submit(int shard, Supplier<T> command) {
+        if (!admissions[shard].tryAcquire()) {
+            rejected.increment();
+            throw new TooManyRequestsException(limit);
+        }
+        return CompletableFuture.supplyAsync(command, shards[shard])
+                .whenComplete((result, error) -> admissions[shard].release());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        for (ExecutorService shard : shards) {
+            shard.shutdown();
+        }
+        for (ExecutorService shard : shards) {
+            shard.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
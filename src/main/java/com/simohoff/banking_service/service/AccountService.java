@@ -2,28 +2,56 @@ package com.simohoff.banking_service.service;
 
 import com.simohoff.banking_service.domain.Account;
 import com.simohoff.banking_service.domain.Transaction;
+import com.simohoff.banking_service.dto.TransactionCursor;
+import com.simohoff.banking_service.dto.TransactionPage;
+import com.simohoff.banking_service.dto.TransactionResponse;
 import com.simohoff.banking_service.exception.AccountNotFoundException;
 import com.simohoff.banking_service.repository.AccountRepository;
 import com.simohoff.banking_service.repository.TransactionRepository;
+import com.simohoff.banking_service.service.archive.TransactionArchive;
+import com.simohoff.banking_service.service.cache.AccountCache;
+import com.simohoff.banking_service.service.cache.AccountSnapshot;
+import com.simohoff.banking_service.service.concurrency.AccountConcurrencyStrategy;
+import com.simohoff.banking_service.service.metrics.LedgerMetrics;
+import com.simohoff.banking_service.service.metrics.LedgerOperation;
 
-import jakarta.persistence.OptimisticLockException;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class AccountService {
 
+    static final int MAX_PAGE_SIZE = 1000;
+
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
+    private final AccountConcurrencyStrategy concurrencyStrategy;
+    private final AccountCache accountCache;
+    private final LedgerMetrics ledgerMetrics;
+    // ObjectProvider, weil das Archiv optional ist
+    private final ObjectProvider<TransactionArchive> archive;
 
     public AccountService(AccountRepository accountRepository,
-            TransactionRepository transactionRepository) {
+            TransactionRepository transactionRepository,
+            AccountConcurrencyStrategy concurrencyStrategy,
+            AccountCache accountCache,
+            LedgerMetrics ledgerMetrics,
+            ObjectProvider<TransactionArchive> archive) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
+        this.concurrencyStrategy = concurrencyStrategy;
+        this.accountCache = accountCache;
+        this.ledgerMetrics = ledgerMetrics;
+        this.archive = archive;
     }
 
     /**
@@ -48,85 +76,191 @@ public class AccountService {
                 .orElseThrow(() -> new AccountNotFoundException(iban));
     }
 
+    /**
+     * Gibt den aktuellen Stand eines Kontos zurück, bevorzugt aus dem {@link AccountCache}.
+     */
+    @Transactional(readOnly = true)
+    public AccountSnapshot getAccountSnapshot(String iban) {
+        return accountCache.get(iban)
+                .orElseThrow(() -> new AccountNotFoundException(iban));
+    }
+
     /**
      * Bucht einen Betrag vom Konto ab.
      * Wichtig: Die gesamte Operation ist atomar!
+     * Transaktion und Schutz vor parallelen Buchungen übernimmt die {@link AccountConcurrencyStrategy}.
      */
-    @Transactional
     public Transaction debit(String iban, BigDecimal amount, String reference) {
-        int maxRetries = 10;
-        int attempt = 0;
-
-        while (attempt < maxRetries) {
-            try {
-                Account account = getAccount(iban);
-                Transaction transaction = account.debit(amount, reference);
-
-                accountRepository.save(account);
-                transactionRepository.save(transaction);
-
-                return transaction;
-            } catch (OptimisticLockException | ObjectOptimisticLockingFailureException e) {
-                attempt++;
-                if (attempt >= maxRetries) {
-                    throw new RuntimeException("Debit failed after retries", e);
-                }
-                try {
-                    long waitTime = 50L * (long) Math.pow(2, attempt); // 100ms, 200ms, 400ms, 800ms...
-                    Thread.sleep(waitTime);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Debit interrupted", ie);
-                }
-            }
-        }
-        throw new RuntimeException("Debit failed");
+        return ledgerMetrics.record(LedgerOperation.DEBIT, List.of(iban),
+                () -> concurrencyStrategy.execute("Debit", List.of(iban),
+                        () -> applyDebit(iban, amount, reference)));
     }
 
     /**
      * Bucht einen Betrag auf das Konto ein.
      */
-    @Transactional
     public Transaction credit(String iban, BigDecimal amount, String reference) {
-        int maxRetries = 10;
-        int attempt = 0;
-
-        while (attempt < maxRetries) {
-            try {
-                Account account = getAccount(iban);
-                Transaction transaction = account.credit(amount, reference);
-
-                accountRepository.save(account);
-                transactionRepository.save(transaction);
-
-                return transaction;
-            } catch (OptimisticLockException | ObjectOptimisticLockingFailureException e) {
-                attempt++;
-                if (attempt >= maxRetries) {
-                    throw new RuntimeException("Credit failed after retries", e);
-                }
-                try {
-                    long waitTime = 50L * (long) Math.pow(2, attempt); // 100ms, 200ms, 400ms, 800ms...
-                    Thread.sleep(waitTime);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Credit interrupted", ie);
-                }
-            }
-        }
-        throw new RuntimeException("Credit failed");
+        return ledgerMetrics.record(LedgerOperation.CREDIT, List.of(iban),
+                () -> concurrencyStrategy.execute("Credit", List.of(iban),
+                        () -> applyCredit(iban, amount, reference)));
+    }
+
+    /**
+     * Eigentliche Abbuchung, erwartet eine laufende Transaktion.
+     */
+    Transaction applyDebit(String iban, BigDecimal amount, String reference) {
+        Account account = loadAccount(iban);
+        Transaction transaction = account.debit(amount, reference);
+
+        accountRepository.save(account);
+        transactionRepository.save(transaction);
+
+        return transaction;
     }
 
     /**
-     * Gibt alle Transaktionen eines Kontos zurück.
+     * Eigentliche Einzahlung, erwartet eine laufende Transaktion.
+     */
+    Transaction applyCredit(String iban, BigDecimal amount, String reference) {
+        Account account = loadAccount(iban);
+        Transaction transaction = account.credit(amount, reference);
+
+        accountRepository.save(account);
+        transactionRepository.save(transaction);
+
+        return transaction;
+    }
+
+    /**
+     * Gibt alle Transaktionen eines Kontos als Entities zurück (für Auswertungen im Service, die API liest
+     * über {@link #getTransactionHistory}). Archivierte Transaktionen sind keine Entities mehr und fehlen hier.
      */
     @Transactional(readOnly = true)
     public List<Transaction> getTransactions(String iban) {
-        // Prüft erst ob Account existiert
-        if (!accountRepository.existsByIban(iban)) {
-            throw new AccountNotFoundException(iban);
+        return ledgerMetrics.record(LedgerOperation.HISTORY, List.of(iban),
+                () -> transactionRepository.findByAccountIdOrderByTimestampDescIdDesc(resolveAccountId(iban)));
+    }
+
+    /**
+     * Gibt alle Transaktionen eines Kontos zurück (neueste zuerst), direkt als Antwort-DTOs; archivierte
+     * Transaktionen (siehe {@link TransactionArchive}) folgen hinter denen aus der Tabelle.
+     */
+    @Transactional(readOnly = true)
+    public List<TransactionResponse> getTransactionHistory(String iban) {
+        return ledgerMetrics.record(LedgerOperation.HISTORY, List.of(iban), () -> {
+            Long accountId = resolveAccountId(iban);
+            List<TransactionResponse> history = transactionRepository.findResponsesByAccountId(accountId);
+            TransactionArchive cold = archive.getIfAvailable();
+            if (cold == null) {
+                return history;
+            }
+            List<TransactionResponse> merged = new ArrayList<>(history);
+            merged.addAll(cold.history(accountId));
+            return merged;
+        });
+    }
+
+    /**
+     * Gibt eine Seite der Transaktionen zurück (Keyset-Pagination über timestamp und id).
+     * Ohne Cursor beginnt die Seite bei der neuesten Transaktion. Reicht die Tabelle nicht für die Seite, wird mit
+     * archivierten Transaktionen aufgefüllt; die sind immer älter als jede Zeile in der Tabelle.
+     */
+    @Transactional(readOnly = true)
+    public TransactionPage getTransactionPage(String iban, TransactionCursor before, TransactionCursor after,
+            int limit) {
+        return ledgerMetrics.record(LedgerOperation.HISTORY, List.of(iban),
+                () -> loadTransactionPage(iban, before, after, limit));
+    }
+
+    private TransactionPage loadTransactionPage(String iban, TransactionCursor before, TransactionCursor after,
+            int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Only one of 'before' and 'after' may be set");
         }
+        Long accountId = resolveAccountId(iban);
+
+        // Ein Eintrag mehr laden, um zu erkennen ob es weitere Seiten gibt
+        PageRequest page = PageRequest.ofSize(limit + 1);
+
+        TransactionArchive cold = archive.getIfAvailable();
+
+        if (after != null) {
+            // Älteste zuerst: erst das Archiv, dann die Tabelle
+            List<TransactionResponse> rows = new ArrayList<>(limit + 1);
+            if (cold != null) {
+                rows.addAll(cold.after(accountId, after, limit + 1));
+            }
+            if (rows.size() <= limit) {
+                rows.addAll(transactionRepository.findPageAfter(accountId, after.timestamp(), after.id(),
+                        PageRequest.ofSize(limit + 1 - rows.size())));
+            }
+            boolean hasNewer = rows.size() > limit;
+            if (hasNewer) {
+                rows.remove(limit);
+            }
+            Collections.reverse(rows);
+            return toPage(rows, !rows.isEmpty(), hasNewer);
+        }
+
+        List<TransactionResponse> rows = before == null
+                ? transactionRepository.findFirstPage(accountId, page)
+                : transactionRepository.findPageBefore(accountId, before.timestamp(), before.id(), page);
+        if (cold != null && rows.size() <= limit) {
+            TransactionCursor from = rows.isEmpty() ? before : TransactionCursor.of(rows.get(rows.size() - 1));
+            rows = new ArrayList<>(rows);
+            rows.addAll(cold.before(accountId, from, limit + 1 - rows.size()));
+        }
+        boolean hasOlder = rows.size() > limit;
+        if (hasOlder) {
+            rows = rows.subList(0, limit);
+        }
+        return toPage(rows, hasOlder, before != null && !rows.isEmpty());
+    }
+
+    /**
+     * Liest die gesamte Historie (neueste zuerst) über einen Datenbank-Cursor, direkt als Antwort-DTOs, danach
+     * die archivierten Monate. Es entstehen keine Entities, der Speicherbedarf bleibt dadurch unabhängig von der
+     * Länge der Historie (aus dem Archiv höchstens ein Konto-Monat).
+     */
+    @Transactional(readOnly = true)
+    public void forEachTransaction(String iban, Consumer<TransactionResponse> action) {
+        ledgerMetrics.record(LedgerOperation.HISTORY, List.of(iban), () -> {
+            Long accountId = resolveAccountId(iban);
+            try (Stream<TransactionResponse> transactions =
+                    transactionRepository.streamResponsesByAccountId(accountId)) {
+                transactions.forEach(action);
+            }
+            TransactionArchive cold = archive.getIfAvailable();
+            if (cold != null) {
+                cold.forEach(accountId, action);
+            }
+        });
+    }
+
+    /**
+     * IBAN → technische ID (über den {@link AccountCache}), wirft AccountNotFoundException
+     * wenn das Konto nicht existiert.
+     */
+    private Long resolveAccountId(String iban) {
+        return accountCache.resolveId(iban)
+                .orElseThrow(() -> new AccountNotFoundException(iban));
+    }
+
+    /**
+     * Lädt das Konto zum Buchen: ID aus dem Cache, danach Zugriff über den Primärschlüssel
+     * (bereits gesperrte oder geladene Konten kommen direkt aus dem Persistence Context).
+     */
+    private Account loadAccount(String iban) {
+        return accountRepository.findById(resolveAccountId(iban))
+                .orElseThrow(() -> new AccountNotFoundException(iban));
+    }
 
-        return transactionRepository.findByAccountIbanOrderByTimestampDesc(iban);
+    private static TransactionPage toPage(List<TransactionResponse> rows, boolean hasOlder, boolean hasNewer) {
+        String nextCursor = hasOlder ? TransactionCursor.of(rows.get(rows.size() - 1)).encode() : null;
+        String previousCursor = hasNewer ? TransactionCursor.of(rows.get(0)).encode() : null;
+        return new TransactionPage(List.copyOf(rows), nextCursor, previousCursor);
     }
 }
\ No newline at end of file
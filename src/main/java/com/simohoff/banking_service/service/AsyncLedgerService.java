@@ -0,0 +1,142 @@
+package com.simohoff.banking_service.service;
+
+import com.simohoff.banking_service.dto.TransactionResponse;
+import com.simohoff.banking_service.dto.TransferResponse;
+import com.simohoff.banking_service.exception.TooManyRequestsException;
+import com.simohoff.banking_service.service.concurrency.AccountConcurrencyStrategy;
+import com.simohoff.banking_service.service.metrics.LedgerMetrics;
+import com.simohoff.banking_service.service.metrics.LedgerOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Nicht-blockierende Variante von {@link AccountService#credit}, {@link AccountService#debit} und
+ * {@link TransferService#transfer}: die Buchung läuft auf einem eigenen, begrenzten Pool, der Servlet-Thread ist
+ * sofort wieder frei (für Lesezugriffe). Backoff bei Versionskonflikten wird eingeplant statt geschlafen, siehe
+ * {@link AccountConcurrencyStrategy#executeAsync}.
+ *
+ * Back-Pressure: höchstens {@code threads + queue-capacity} Buchungen sind gleichzeitig angenommen (laufend,
+ * wartend oder im Backoff); jede weitere wird sofort mit {@link TooManyRequestsException} (429) abgewiesen und
+ * zählt {@code banking.async.rejected}.
+ */
+@Service
+@ConditionalOnProperty(prefix = "banking.async", name = "enabled", havingValue = "true")
+public class AsyncLedgerService {
+
+    private final AccountService accountService;
+    private final TransferService transferService;
+    private final AccountConcurrencyStrategy concurrencyStrategy;
+    private final LedgerMetrics ledgerMetrics;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore admissions;
+    private final int limit;
+    private final Counter rejected;
+
+    public AsyncLedgerService(AccountService accountService,
+            TransferService transferService,
+            AccountConcurrencyStrategy concurrencyStrategy,
+            LedgerMetrics ledgerMetrics,
+            MeterRegistry meterRegistry,
+            AsyncProperties properties) {
+        this.accountService = accountService;
+        this.transferService = transferService;
+        this.concurrencyStrategy = concurrencyStrategy;
+        this.ledgerMetrics = ledgerMetrics;
+        AtomicInteger threadIndex = new AtomicInteger();
+        // Die Queue selbst ist unbegrenzt, begrenzt wird über admissions: ein eingeplanter Retry darf
+        // nie abgewiesen werden, sonst bliebe sein Future offen
+        this.executor = new ThreadPoolExecutor(properties.threads(), properties.threads(),
+                0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "ledger-async-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.limit = properties.threads() + properties.queueCapacity();
+        this.admissions = new Semaphore(limit);
+        this.rejected = Counter.builder("banking.async.rejected")
+                .description("Wegen voller Queue abgewiesene Buchungen")
+                .register(meterRegistry);
+        Gauge.builder("banking.async.queued", executor, pool -> pool.getQueue().size())
+                .description("Buchungen, die auf einen Thread warten")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<TransactionResponse> credit(String iban, BigDecimal amount, String reference) {
+        return credit(iban, amount, reference, UnaryOperator.identity());
+    }
+
+    /**
+     * Wie {@link #credit(String, BigDecimal, String)}; {@code inTransaction} läuft mit der Antwort in der
+     * Transaktion der Buchung (z.B. um die Antwort zu einem Idempotency-Key mit zu committen).
+     */
+    public CompletableFuture<TransactionResponse> credit(String iban, BigDecimal amount, String reference,
+            UnaryOperator<TransactionResponse> inTransaction) {
+        return ledgerMetrics.recordAsync(LedgerOperation.CREDIT, List.of(iban),
+                () -> admit(() -> concurrencyStrategy.executeAsync("Credit", List.of(iban),
+                        () -> inTransaction.apply(
+                                TransactionResponse.from(accountService.applyCredit(iban, amount, reference))),
+                        executor)));
+    }
+
+    public CompletableFuture<TransactionResponse> debit(String iban, BigDecimal amount, String reference) {
+        return debit(iban, amount, reference, UnaryOperator.identity());
+    }
+
+    public CompletableFuture<TransactionResponse> debit(String iban, BigDecimal amount, String reference,
+            UnaryOperator<TransactionResponse> inTransaction) {
+        return ledgerMetrics.recordAsync(LedgerOperation.DEBIT, List.of(iban),
+                () -> admit(() -> concurrencyStrategy.executeAsync("Debit", List.of(iban),
+                        () -> inTransaction.apply(
+                                TransactionResponse.from(accountService.applyDebit(iban, amount, reference))),
+                        executor)));
+    }
+
+    public CompletableFuture<TransferResponse> transfer(String fromIban, String toIban, BigDecimal amount,
+            String reference) {
+        return transfer(fromIban, toIban, amount, reference, UnaryOperator.identity());
+    }
+
+    public CompletableFuture<TransferResponse> transfer(String fromIban, String toIban, BigDecimal amount,
+            String reference, UnaryOperator<TransferResponse> inTransaction) {
+        return ledgerMetrics.recordAsync(LedgerOperation.TRANSFER, List.of(fromIban, toIban),
+                () -> admit(() -> concurrencyStrategy.executeAsync("Transfer", List.of(fromIban, toIban),
+                        () -> inTransaction.apply(transferService.performTransfer(fromIban, toIban, amount, reference)),
+                        executor)));
+    }
+
+    <T> CompletableFuture<T> admit(Supplier<CompletableFuture<T>> booking) {
+        if (!admissions.tryAcquire()) {
+            rejected.increment();
+            throw new TooManyRequestsException(limit);
+        }
+        CompletableFuture<T> future;
+        try {
+            future = booking.get();
+        } catch (RuntimeException e) {
+            admissions.release();
+            throw e;
+        }
+        return future.whenComplete((result, error) -> admissions.release());
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
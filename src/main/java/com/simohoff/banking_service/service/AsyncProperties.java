@@ -0,0 +1,17 @@
+package com.simohoff.banking_service.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguration unter {@code banking.async.*}.
+ */
+@ConfigurationProperties(prefix = "banking.async")
+public record AsyncProperties(
+        @DefaultValue("false") boolean enabled,
+
+        @DefaultValue("16") int threads,
+
+        // Buchungen, die zusätzlich zu den laufenden warten dürfen (inkl. eingeplanter Retries), danach 429
+        @DefaultValue("1000") int queueCapacity) {
+}
@@ -0,0 +1,12 @@
+package com.simohoff.banking_service.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguration unter {@code banking.batch.*}.
+ */
+@ConfigurationProperties(prefix = "banking.batch")
+public record BatchProperties(
+        @DefaultValue("1000") int chunkSize) {
+}
@@ -0,0 +1,19 @@
+package com.simohoff.banking_service.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Konfiguration unter {@code banking.coalescer.*}.
+ */
+@ConfigurationProperties(prefix = "banking.coalescer")
+public record CoalescerProperties(
+        @DefaultValue("false") boolean enabled,
+
+        // 0 = nur sammeln, was beim Start des Batches schon wartet
+        @DefaultValue("1ms") Duration window,
+
+        @DefaultValue("256") int maxBatchSize) {
+}
@@ -0,0 +1,17 @@
+package com.simohoff.banking_service.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguration unter {@code banking.engine.*}.
+ */
+@ConfigurationProperties(prefix = "banking.engine")
+public record CommandEngineProperties(
+        @DefaultValue("false") boolean enabled,
+
+        @DefaultValue("16") int shards,
+
+        // Angenommene Buchungen pro Shard (laufend oder wartend), jede weitere → 429
+        @DefaultValue("1000") int queueCapacity) {
+}
@@ -0,0 +1,20 @@
+package com.simohoff.banking_service.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Konfiguration unter {@code banking.hot-accounts.*}.
+ */
+@ConfigurationProperties(prefix = "banking.hot-accounts")
+public record HotAccountProperties(
+        @DefaultValue("false") boolean enabled,
+
+        // Konten mit vielen parallelen Buchungen, z. B. Gebühren- und Verrechnungskonten
+        @DefaultValue List<String> ibans,
+
+        // Teilsalden pro Konto; mehr Buckets = weniger Kollisionen, aber teurere Saldo-Abfrage
+        @DefaultValue("16") int buckets) {
+}
@@ -0,0 +1,306 @@
+package com.simohoff.banking_service.service;
+
+import com.simohoff.banking_service.domain.Account;
+import com.simohoff.banking_service.domain.BalanceBucket;
+import com.simohoff.banking_service.domain.Money;
+import com.simohoff.banking_service.domain.Transaction;
+import com.simohoff.banking_service.domain.TransactionType;
+import com.simohoff.banking_service.dto.TransferResponse;
+import com.simohoff.banking_service.exception.AccountNotFoundException;
+import com.simohoff.banking_service.repository.TransactionRepository;
+import com.simohoff.banking_service.service.cache.AccountCache;
+import com.simohoff.banking_service.service.concurrency.AccountConcurrencyStrategy;
+import com.simohoff.banking_service.service.ledger.LedgerProperties;
+import com.simohoff.banking_service.service.memory.LedgerEngineProperties;
+import com.simohoff.banking_service.service.metrics.LedgerMetrics;
+import com.simohoff.banking_service.service.metrics.LedgerOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Hot Accounts (Gebühren-, Verrechnungskonten), auf die sehr viele Buchungen parallel laufen: statt in der
+ * Kontozeile mit ihrem {@code @Version} liegt der Saldo in {@code banking.hot-accounts.buckets} Teilsalden
+ * ({@link BalanceBucket}).
+ *
+ * Eine Gutschrift erhöht per relativem Update einen zufälligen Bucket; parallele Gutschriften treffen nur mit
+ * Wahrscheinlichkeit 1/n dieselbe Zeile und es gibt keinen Versionskonflikt. Eine Lastschrift bucht per bedingtem
+ * Update ({@code balance >= Betrag}) vom ersten Bucket mit genug Deckung, beginnend bei einem zufälligen. Reicht
+ * keiner allein, werden alle Buckets in Index-Reihenfolge gesperrt, die Deckung gegen die Summe geprüft und der Rest
+ * in Bucket 0 zusammengelegt (Rebalancing, zählt {@code banking.hot-accounts.rebalances}).
+ *
+ * Der Saldo ist Kontozeile plus Summe der Buckets, vor der ersten Buchung wandert der Saldo der Kontozeile in
+ * Bucket 0. {@code balanceAfter} ist die Summe, die die Buchung selbst sieht (sie selbst plus bis dahin committete
+ * Buchungen) und bei sich überlappenden Buchungen nur eine Näherung. Deshalb rechnen Saldo-zum-Zeitpunkt und
+ * Auszüge Hot Accounts aus der Summe der Buchungen, und der {@code HistoryArchiver} lässt ihre Historie in der
+ * Tabelle.
+ *
+ * Alle Pfade, die auf die Kontozeile buchen (Standard, Async, Command Engine, Coalescer, Batch-Überweisungen),
+ * geben Hot Accounts hierher ab. LedgerEngine und Event-Sourcing führen den Saldo selbst und sind nicht mit Hot
+ * Accounts kombinierbar.
+ */
+@Service
+@ConditionalOnProperty(prefix = "banking.hot-accounts", name = "enabled", havingValue = "true")
+public class HotAccountService {
+
+    private static final String CREDIT = """
+            update balance_buckets set balance = balance + ? where account_id = ? and bucket = ?
+            """;
+
+    private static final String DEBIT = """
+            update balance_buckets set balance = balance - ?
+            where account_id = ? and bucket = ? and balance >= ?
+            """;
+
+    private static final String TOTAL = """
+            select a.balance + coalesce((select sum(b.balance) from balance_buckets b where b.account_id = a.id), 0)
+            from accounts a where a.id = ?
+            """;
+
+    private final AccountService accountService;
+    private final TransactionRepository transactionRepository;
+    private final AccountConcurrencyStrategy concurrencyStrategy;
+    private final AccountCache accountCache;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerMetrics ledgerMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate setupTemplate;
+    private final Set<String> ibans;
+    private final int buckets;
+    private final Set<Long> prepared = ConcurrentHashMap.newKeySet();
+    private final Counter rebalances;
+
+    public HotAccountService(AccountService accountService,
+            TransactionRepository transactionRepository,
+            AccountConcurrencyStrategy concurrencyStrategy,
+            AccountCache accountCache,
+            EntityManager entityManager,
+            JdbcTemplate jdbcTemplate,
+            LedgerMetrics ledgerMetrics,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            HotAccountProperties properties,
+            LedgerProperties ledgerProperties,
+            LedgerEngineProperties engineProperties) {
+        if (properties.buckets() < 1) {
+            throw new IllegalArgumentException("banking.hot-accounts.buckets must be positive");
+        }
+        if (ledgerProperties.eventSourced()) {
+            throw new IllegalStateException(
+                    "banking.hot-accounts.enabled cannot be combined with banking.ledger.event-sourced");
+        }
+        if (engineProperties.enabled()) {
+            throw new IllegalStateException(
+                    "banking.hot-accounts.enabled cannot be combined with banking.ledger-engine.enabled");
+        }
+        this.accountService = accountService;
+        this.transactionRepository = transactionRepository;
+        this.concurrencyStrategy = concurrencyStrategy;
+        this.accountCache = accountCache;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ledgerMetrics = ledgerMetrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.setupTemplate = new TransactionTemplate(transactionManager);
+        this.setupTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ibans = Set.copyOf(properties.ibans());
+        this.buckets = properties.buckets();
+        this.rebalances = Counter.builder("banking.hot-accounts.rebalances")
+                .description("Lastschriften, für die die Buckets eines Hot Accounts zusammengelegt wurden")
+                .register(meterRegistry);
+    }
+
+    public boolean isHot(String iban) {
+        return ibans.contains(iban);
+    }
+
+    /**
+     * IDs aller angelegten Hot Accounts.
+     */
+    public List<Long> accountIds() {
+        return ibans.stream()
+                .map(accountCache::resolveId)
+                .flatMap(Optional::stream)
+                .sorted()
+                .toList();
+    }
+
+    public Transaction credit(String iban, BigDecimal amount, String reference) {
+        return ledgerMetrics.record(LedgerOperation.CREDIT, List.of(iban), () -> {
+            long minorUnits = Money.toMinorUnits(amount);
+            Account.validateAmount(minorUnits);
+            long accountId = prepare(iban);
+            return transactionTemplate.execute(status -> creditBucket(accountId, minorUnits, reference));
+        });
+    }
+
+    public Transaction debit(String iban, BigDecimal amount, String reference) {
+        return ledgerMetrics.record(LedgerOperation.DEBIT, List.of(iban), () -> {
+            long minorUnits = Money.toMinorUnits(amount);
+            Account.validateAmount(minorUnits);
+            long accountId = prepare(iban);
+            return transactionTemplate.execute(status -> debitBucket(accountId, minorUnits, reference));
+        });
+    }
+
+    /**
+     * Überweisung, bei der mindestens eine Seite ein Hot Account ist. Das andere Konto wird wie gewohnt über die
+     * {@link AccountConcurrencyStrategy} geschützt, die Buckets brauchen das nicht.
+     */
+    public TransferResponse transfer(String fromIban, String toIban, BigDecimal amount, String reference) {
+        return ledgerMetrics.record(LedgerOperation.TRANSFER, List.of(fromIban, toIban), () -> {
+            if (fromIban.equals(toIban)) {
+                throw new IllegalArgumentException("Cannot transfer to same account");
+            }
+            long minorUnits = Money.toMinorUnits(amount);
+            Account.validateAmount(minorUnits);
+            String transferReference = reference != null ? reference : "Transfer";
+            Long fromId = isHot(fromIban) ? prepare(fromIban) : null;
+            Long toId = isHot(toIban) ? prepare(toIban) : null;
+
+            Supplier<TransferResponse> work = () -> {
+                String debitReference = "Transfer to " + toIban + ": " + transferReference;
+                String creditReference = "Transfer from " + fromIban + ": " + transferReference;
+                Transaction debitTransaction = fromId != null
+                        ? debitBucket(fromId, minorUnits, debitReference)
+                        : accountService.applyDebit(fromIban, amount, debitReference);
+                Transaction creditTransaction = toId != null
+                        ? creditBucket(toId, minorUnits, creditReference)
+                        : accountService.applyCredit(toIban, amount, creditReference);
+                return new TransferResponse(
+                        debitTransaction.getId(),
+                        creditTransaction.getId(),
+                        fromIban,
+                        toIban,
+                        amount,
+                        transferReference,
+                        debitTransaction.getTimestamp());
+            };
+
+            List<String> guarded = isHot(fromIban) ? List.of(toIban) : List.of(fromIban);
+            return fromId != null && toId != null
+                    ? transactionTemplate.execute(status -> work.get())
+                    : concurrencyStrategy.execute("Transfer", guarded, work);
+        });
+    }
+
+    /**
+     * Saldo eines Hot Accounts: Kontozeile plus Summe der Buckets.
+     */
+    public BigDecimal balance(String iban) {
+        return Money.toBigDecimal(total(resolveAccountId(iban)));
+    }
+
+    /**
+     * Zeile in {@code daily_statements} für eine Buchung: zufällig 1..n bei Hot Accounts, sonst 0.
+     */
+    public int statementSlot(long accountId) {
+        return prepared.contains(accountId) ? 1 + ThreadLocalRandom.current().nextInt(buckets) : 0;
+    }
+
+    // Erwartet eine laufende Transaktion
+    private Transaction creditBucket(long accountId, long amount, String reference) {
+        int bucket = ThreadLocalRandom.current().nextInt(buckets);
+        jdbcTemplate.update(CREDIT, Money.toBigDecimal(amount), accountId, bucket);
+        return book(accountId, amount, TransactionType.CREDIT, reference);
+    }
+
+    // Erwartet eine laufende Transaktion
+    private Transaction debitBucket(long accountId, long amount, String reference) {
+        BigDecimal value = Money.toBigDecimal(amount);
+        int start = ThreadLocalRandom.current().nextInt(buckets);
+        boolean booked = false;
+        for (int i = 0; i < buckets && !booked; i++) {
+            booked = jdbcTemplate.update(DEBIT, value, accountId, (start + i) % buckets, value) == 1;
+        }
+        if (!booked) {
+            rebalance(accountId, amount);
+        }
+        return book(accountId, amount, TransactionType.DEBIT, reference);
+    }
+
+    /**
+     * Legt alle Buckets zusammen und bucht dabei ab. Gesperrt wird in Index-Reihenfolge, zwei Rebalancings
+     * auf demselben Konto warten also aufeinander statt sich zu verklemmen.
+     */
+    private void rebalance(long accountId, long amount) {
+        List<BigDecimal> balances = jdbcTemplate.queryForList(
+                "select balance from balance_buckets where account_id = ? order by bucket for update",
+                BigDecimal.class, accountId);
+        long sum = 0;
+        for (BigDecimal balance : balances) {
+            sum = Money.add(sum, Money.toMinorUnits(balance));
+        }
+        if (sum < amount) {
+            throw new IllegalArgumentException("Insufficient funds. Balance: " + Money.format(sum)
+                    + ", Required: " + Money.format(amount));
+        }
+        jdbcTemplate.update(
+                "update balance_buckets set balance = case when bucket = 0 then ? else 0 end where account_id = ?",
+                Money.toBigDecimal(sum - amount), accountId);
+        rebalances.increment();
+    }
+
+    private Transaction book(long accountId, long amount, TransactionType type, String reference) {
+        Account account = entityManager.getReference(Account.class, accountId);
+        return transactionRepository.save(new Transaction(amount, type, reference, account, total(accountId)));
+    }
+
+    private long total(long accountId) {
+        BigDecimal total = jdbcTemplate.queryForObject(TOTAL, BigDecimal.class, accountId);
+        if (total == null) {
+            throw new IllegalStateException("Account " + accountId + " disappeared");
+        }
+        return Money.toMinorUnits(total);
+    }
+
+    /**
+     * Legt beim ersten Zugriff seit dem Start die fehlenden Buckets an und verschiebt den Saldo der Kontozeile
+     * (z. B. aus Buchungen vor der Umstellung) nach Bucket 0. Läuft in eigener Transaktion unter dem Lock der
+     * Kontozeile; {@code version} wird erhöht, damit ein paralleles Update über JPA scheitert.
+     */
+    private long prepare(String iban) {
+        long accountId = resolveAccountId(iban);
+        if (prepared.contains(accountId)) {
+            return accountId;
+        }
+        setupTemplate.executeWithoutResult(status -> {
+            BigDecimal rowBalance = jdbcTemplate.queryForObject(
+                    "select balance from accounts where id = ? for update", BigDecimal.class, accountId);
+            Integer existing = jdbcTemplate.queryForObject(
+                    "select count(*) from balance_buckets where account_id = ?", Integer.class, accountId);
+            for (int bucket = existing; bucket < buckets; bucket++) {
+                jdbcTemplate.update("insert into balance_buckets (account_id, bucket, balance) values (?, ?, 0)",
+                        accountId, bucket);
+            }
+            if (rowBalance.signum() != 0) {
+                jdbcTemplate.update(CREDIT, rowBalance, accountId, 0);
+                jdbcTemplate.update("update accounts set balance = 0, version = version + 1 where id = ?",
+                        accountId);
+            }
+        });
+        accountCache.invalidate(iban);
+        prepared.add(accountId);
+        return accountId;
+    }
+
+    private long resolveAccountId(String iban) {
+        return accountCache.resolveId(iban)
+                .orElseThrow(() -> new AccountNotFoundException(iban));
+    }
+}
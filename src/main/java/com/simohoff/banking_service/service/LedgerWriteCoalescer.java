@@ -0,0 +1,328 @@
+package com.simohoff.banking_service.service;
+
+import com.simohoff.banking_service.domain.Account;
+import com.simohoff.banking_service.domain.Transaction;
+import com.simohoff.banking_service.dto.TransactionResponse;
+import com.simohoff.banking_service.dto.TransferResponse;
+import com.simohoff.banking_service.exception.AccountNotFoundException;
+import com.simohoff.banking_service.repository.AccountRepository;
+import com.simohoff.banking_service.repository.TransactionRepository;
+import com.simohoff.banking_service.service.concurrency.AccountConcurrencyStrategy;
+import com.simohoff.banking_service.service.concurrency.LockingStrategy;
+import com.simohoff.banking_service.service.metrics.LedgerMetrics;
+import com.simohoff.banking_service.service.metrics.LedgerOperation;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Group Commit: sammelt Einzahlungen, Abbuchungen und Überweisungen, die innerhalb von
+ * {@code banking.coalescer.window} (höchstens {@code max-batch-size} Stück) eintreffen, und wendet sie
+ * in einer einzigen Transaktion an. Alle Konten werden mit einer Query geladen, jedes Konto wird beim Flush
+ * nur einmal aktualisiert und alle Transaktionen gehen als JDBC-Batch raus.
+ *
+ * Fachliche Fehler (Deckung, unbekanntes Konto) betreffen nur den jeweiligen Aufrufer; die anderen Buchungen
+ * des Batches werden trotzdem committet. Scheitert der Commit selbst, scheitern alle Buchungen des Batches.
+ * Jeder Aufrufer bekommt sein Ergebnis erst nach dem Commit.
+ *
+ * Ein einzelner Thread sammelt und schreibt. Während ein Batch läuft, wartet der nächste in der Queue,
+ * unter Last wachsen die Batches dadurch von selbst. Deshalb gibt es hier keinen Backoff: bei Optimistic Locking
+ * scheitert ein Batch mit Versionskonflikt als Ganzes, die Aufrufer bekommen den Konflikt und wiederholen selbst.
+ *
+ * Buchungen auf Hot Accounts laufen am Batch vorbei direkt über den {@link HotAccountService}, ihr Saldo liegt
+ * nicht in der Kontozeile.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.coalescer", name = "enabled", havingValue = "true")
+public class LedgerWriteCoalescer {
+
+    // Wie lange der Thread ohne Arbeit wartet, bevor er auf Shutdown prüft
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransferService transferService;
+    private final AccountConcurrencyStrategy concurrencyStrategy;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerMetrics ledgerMetrics;
+    private final ObjectProvider<HotAccountService> hotAccounts;
+    private final DistributionSummary batchSizes;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    private final BlockingQueue<Command<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    public LedgerWriteCoalescer(AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            TransferService transferService,
+            AccountConcurrencyStrategy concurrencyStrategy,
+            PlatformTransactionManager transactionManager,
+            LedgerMetrics ledgerMetrics,
+            ObjectProvider<HotAccountService> hotAccounts,
+            MeterRegistry meterRegistry,
+            CoalescerProperties properties) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transferService = transferService;
+        this.concurrencyStrategy = concurrencyStrategy;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ledgerMetrics = ledgerMetrics;
+        this.hotAccounts = hotAccounts;
+        this.batchSizes = DistributionSummary.builder("banking.coalescer.batch.size")
+                .description("Buchungen pro Group-Commit-Transaktion")
+                .register(meterRegistry);
+        this.windowNanos = properties.window().toNanos();
+        this.maxBatchSize = properties.maxBatchSize();
+        this.writer = new Thread(this::writeLoop, "ledger-write-coalescer");
+        writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        writer.start();
+    }
+
+    public CompletableFuture<TransactionResponse> credit(String iban, BigDecimal amount, String reference) {
+        HotAccountService hot = hotAccount(iban);
+        if (hot != null) {
+            return CompletableFuture.completedFuture(TransactionResponse.from(hot.credit(iban, amount, reference)));
+        }
+        return credit(iban, amount, reference, UnaryOperator.identity());
+    }
+
+    /**
+     * Wie {@link #credit(String, BigDecimal, String)}; {@code inTransaction} läuft mit der Antwort in der
+     * Transaktion des Batches (z.B. um die Antwort zu einem Idempotency-Key mit zu committen). Wirft er, scheitert
+     * der ganze Batch. Hot Accounts bucht der Aufrufer direkt beim {@link HotAccountService}.
+     */
+    public CompletableFuture<TransactionResponse> credit(String iban, BigDecimal amount, String reference,
+            UnaryOperator<TransactionResponse> inTransaction) {
+        requireNotHot(iban);
+        return ledgerMetrics.recordAsync(LedgerOperation.CREDIT, List.of(iban),
+                () -> submit(List.of(iban), accounts -> {
+                    Transaction transaction = account(accounts, iban).credit(amount, reference);
+                    transactionRepository.save(transaction);
+                    return inTransaction.apply(TransactionResponse.from(transaction));
+                }));
+    }
+
+    public CompletableFuture<TransactionResponse> debit(String iban, BigDecimal amount, String reference) {
+        HotAccountService hot = hotAccount(iban);
+        if (hot != null) {
+            return CompletableFuture.completedFuture(TransactionResponse.from(hot.debit(iban, amount, reference)));
+        }
+        return debit(iban, amount, reference, UnaryOperator.identity());
+    }
+
+    public CompletableFuture<TransactionResponse> debit(String iban, BigDecimal amount, String reference,
+            UnaryOperator<TransactionResponse> inTransaction) {
+        requireNotHot(iban);
+        return ledgerMetrics.recordAsync(LedgerOperation.DEBIT, List.of(iban),
+                () -> submit(List.of(iban), accounts -> {
+                    Transaction transaction = account(accounts, iban).debit(amount, reference);
+                    transactionRepository.save(transaction);
+                    return inTransaction.apply(TransactionResponse.from(transaction));
+                }));
+    }
+
+    public CompletableFuture<TransferResponse> transfer(String fromIban, String toIban, BigDecimal amount,
+            String reference) {
+        HotAccountService hot = hotAccount(fromIban, toIban);
+        if (hot != null) {
+            return CompletableFuture.completedFuture(hot.transfer(fromIban, toIban, amount, reference));
+        }
+        return transfer(fromIban, toIban, amount, reference, UnaryOperator.identity());
+    }
+
+    public CompletableFuture<TransferResponse> transfer(String fromIban, String toIban, BigDecimal amount,
+            String reference, UnaryOperator<TransferResponse> inTransaction) {
+        requireNotHot(fromIban, toIban);
+        return ledgerMetrics.recordAsync(LedgerOperation.TRANSFER, List.of(fromIban, toIban),
+                () -> submit(List.of(fromIban, toIban), accounts -> {
+                    if (fromIban.equals(toIban)) {
+                        throw new IllegalArgumentException("Cannot transfer to same account");
+                    }
+                    return inTransaction.apply(transferService.book(account(accounts, fromIban),
+                            account(accounts, toIban), amount, reference));
+                }));
+    }
+
+    // Der HotAccountService, sofern eines der Konten ein Hot Account ist
+    private HotAccountService hotAccount(String... ibans) {
+        HotAccountService hot = hotAccounts.getIfAvailable();
+        if (hot != null) {
+            for (String iban : ibans) {
+                if (hot.isHot(iban)) {
+                    return hot;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void requireNotHot(String... ibans) {
+        if (hotAccount(ibans) != null) {
+            throw new IllegalStateException("Hot account bookings do not run through the write coalescer");
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(List<String> ibans, Function<Map<String, Account>, T> action) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Write coalescer is shut down"));
+        }
+        Command<T> command = new Command<>(ibans, action);
+        queue.add(command);
+        return command.future;
+    }
+
+    private void writeLoop() {
+        List<Command<?>> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                Command<?> first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Command<?> next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Eine Transaktion für den ganzen Batch. Die Concurrency-Strategie schützt alle beteiligten Konten
+     * gegen Buchungen außerhalb des Coalescers. Optimistic Locking läuft genau einmal: der Retry der Strategie
+     * würde den einzigen Writer-Thread schlafen legen und alle folgenden Batches aufhalten.
+     */
+    private void write(List<Command<?>> batch) {
+        Set<String> ibans = new LinkedHashSet<>();
+        for (Command<?> command : batch) {
+            ibans.addAll(command.ibans);
+        }
+        batchSizes.record(batch.size());
+
+        try {
+            if (concurrencyStrategy.type() == LockingStrategy.OPTIMISTIC) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> apply(batch, ibans));
+                } catch (OptimisticLockException e) {
+                    // Beim Commit geflusht kommt der Konflikt unübersetzt an, die Aufrufer sollen 409 sehen
+                    throw new ObjectOptimisticLockingFailureException("Write batch conflicted", e);
+                }
+            } else {
+                concurrencyStrategy.execute("Write batch", ibans, () -> {
+                    apply(batch, ibans);
+                    return null;
+                });
+            }
+        } catch (RuntimeException e) {
+            for (Command<?> command : batch) {
+                command.future.completeExceptionally(e);
+            }
+            return;
+        }
+
+        for (Command<?> command : batch) {
+            command.complete();
+        }
+    }
+
+    private void apply(List<Command<?>> batch, Set<String> ibans) {
+        Map<String, Account> accounts = accountRepository.findByIbanIn(ibans).stream()
+                .collect(Collectors.toMap(Account::getIban, Function.identity()));
+        for (Command<?> command : batch) {
+            command.apply(accounts);
+        }
+    }
+
+    private static Account account(Map<String, Account> accounts, String iban) {
+        Account account = accounts.get(iban);
+        if (account == null) {
+            throw new AccountNotFoundException(iban);
+        }
+        return account;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        closed = true;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Eine Buchung im Batch. Das Ergebnis des letzten Versuchs wird erst nach dem Commit weitergegeben.
+     */
+    private static final class Command<T> {
+
+        private final List<String> ibans;
+        private final Function<Map<String, Account>, T> action;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private RuntimeException failure;
+
+        private Command(List<String> ibans, Function<Map<String, Account>, T> action) {
+            this.ibans = ibans;
+            this.action = action;
+        }
+
+        private void apply(Map<String, Account> accounts) {
+            result = null;
+            failure = null;
+            try {
+                result = action.apply(accounts);
+            } catch (IllegalArgumentException | AccountNotFoundException e) {
+                // Account.debit/credit und TransferService.book prüfen vor jeder Änderung (bei Überweisungen
+                // beide Seiten), beteiligte Konten bleiben unverändert
+                failure = e;
+            }
+        }
+
+        private void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
@@ -1,90 +1,190 @@
 package com.simohoff.banking_service.service;
 
 import com.simohoff.banking_service.domain.Account;
+import com.simohoff.banking_service.domain.Money;
 import com.simohoff.banking_service.domain.Transaction;
+import com.simohoff.banking_service.dto.BatchTransferItemResult;
+import com.simohoff.banking_service.dto.BatchTransferResponse;
+import com.simohoff.banking_service.dto.TransferRequest;
 import com.simohoff.banking_service.dto.TransferResponse;
 import com.simohoff.banking_service.exception.AccountNotFoundException;
 import com.simohoff.banking_service.repository.AccountRepository;
 import com.simohoff.banking_service.repository.TransactionRepository;
-import jakarta.persistence.OptimisticLockException;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import com.simohoff.banking_service.service.cache.AccountCache;
+import com.simohoff.banking_service.service.concurrency.AccountConcurrencyStrategy;
+import com.simohoff.banking_service.service.metrics.LedgerMetrics;
+import com.simohoff.banking_service.service.metrics.LedgerOperation;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class TransferService {
 
         private final AccountRepository accountRepository;
         private final TransactionRepository transactionRepository;
+        private final AccountConcurrencyStrategy concurrencyStrategy;
+        private final AccountCache accountCache;
+        private final int batchChunkSize;
+        private final LedgerMetrics ledgerMetrics;
+        // ObjectProvider, weil Hot Accounts optional sind (und selbst auf AccountService aufbauen)
+        private final ObjectProvider<HotAccountService> hotAccounts;
 
         public TransferService(AccountRepository accountRepository,
-                        TransactionRepository transactionRepository) {
+                        TransactionRepository transactionRepository,
+                        AccountConcurrencyStrategy concurrencyStrategy,
+                        AccountCache accountCache,
+                        BatchProperties batchProperties,
+                        LedgerMetrics ledgerMetrics,
+                        ObjectProvider<HotAccountService> hotAccounts) {
                 this.accountRepository = accountRepository;
                 this.transactionRepository = transactionRepository;
+                this.concurrencyStrategy = concurrencyStrategy;
+                this.accountCache = accountCache;
+                this.batchChunkSize = batchProperties.chunkSize();
+                this.ledgerMetrics = ledgerMetrics;
+                this.hotAccounts = hotAccounts;
         }
 
         /**
-         * Überweist Geld zwischen zwei Konten mit Retry bei Optimistic Lock Failures.
+         * Überweist Geld zwischen zwei Konten.
+         * Transaktion und Schutz vor parallelen Buchungen übernimmt die {@link AccountConcurrencyStrategy},
+         * Überweisungen von oder an Hot Accounts bucht der {@link HotAccountService}.
          */
         public TransferResponse transfer(String fromIban, String toIban, BigDecimal amount, String reference) {
-                int maxRetries = 10;
-                int attempt = 0;
+                HotAccountService hot = hotAccounts.getIfAvailable();
+                if (hot != null && (hot.isHot(fromIban) || hot.isHot(toIban))) {
+                        return hot.transfer(fromIban, toIban, amount, reference);
+                }
+                return ledgerMetrics.record(LedgerOperation.TRANSFER, List.of(fromIban, toIban),
+                                () -> concurrencyStrategy.execute("Transfer", List.of(fromIban, toIban),
+                                                () -> performTransfer(fromIban, toIban, amount, reference)));
+        }
 
-                while (attempt < maxRetries) {
-                        try {
-                                return performTransfer(fromIban, toIban, amount, reference);
-                        } catch (OptimisticLockException | ObjectOptimisticLockingFailureException e) {
-                                attempt++;
-                                if (attempt >= maxRetries) {
-                                        throw new RuntimeException(
-                                                        "Transfer failed after " + maxRetries
-                                                                        + " retries due to concurrent modifications",
-                                                        e);
-                                }
-                                // Längeres exponentielles Backoff vor erneutem Versuch
-                                try {
-                                        long waitTime = 50L * (long) Math.pow(2, attempt); // 100ms, 200ms, 400ms,
-                                                                                           // 800ms...
-                                        Thread.sleep(waitTime);
-                                } catch (InterruptedException ie) {
-                                        Thread.currentThread().interrupt();
-                                        throw new RuntimeException("Transfer interrupted", ie);
-                                }
+        /**
+         * Führt viele Überweisungen in Chunks aus: pro Chunk eine Transaktion, alle Konten mit einer Query geladen,
+         * jedes Konto wird nur einmal (mit dem Netto-Saldo) geschrieben und alle Transaktionen gebatcht eingefügt.
+         * Fachliche Fehler (Deckung, unbekanntes Konto) betreffen nur die jeweilige Überweisung.
+         * Überweisungen mit einem Hot Account beenden den laufenden Chunk und gehen einzeln über den
+         * {@link HotAccountService}; die Reihenfolge der Überweisungen bleibt erhalten.
+         */
+        public BatchTransferResponse transferBatch(List<TransferRequest> requests) {
+                HotAccountService hot = hotAccounts.getIfAvailable();
+                List<BatchTransferItemResult> results = new ArrayList<>(requests.size());
+
+                int offset = 0;
+                while (offset < requests.size()) {
+                        if (involvesHotAccount(hot, requests.get(offset))) {
+                                results.add(transferHot(hot, requests.get(offset), offset));
+                                offset++;
+                                continue;
                         }
+                        int end = offset;
+                        while (end < requests.size() && end - offset < batchChunkSize
+                                        && !involvesHotAccount(hot, requests.get(end))) {
+                                end++;
+                        }
+                        List<TransferRequest> chunk = requests.subList(offset, end);
+                        int chunkOffset = offset;
+                        offset = end;
+
+                        Set<String> ibans = ibansOf(chunk);
+                        results.addAll(ledgerMetrics.record(LedgerOperation.TRANSFER_BATCH, ibans,
+                                        () -> concurrencyStrategy.execute("Transfer batch", ibans,
+                                                        () -> performTransferChunk(chunk, chunkOffset))));
                 }
 
-                throw new RuntimeException("Transfer failed");
+                return BatchTransferResponse.from(results);
         }
 
-        @Transactional
-        private TransferResponse performTransfer(String fromIban, String toIban, BigDecimal amount, String reference) {
+        /**
+         * Eigentliche Überweisung, erwartet eine laufende Transaktion.
+         */
+        TransferResponse performTransfer(String fromIban, String toIban, BigDecimal amount, String reference) {
                 // Validierung
                 if (fromIban.equals(toIban)) {
                         throw new IllegalArgumentException("Cannot transfer to same account");
                 }
 
-                // Beide Konten laden
-                Account fromAccount = accountRepository.findByIban(fromIban)
+                // Beide Konten laden (IBAN → ID aus dem Cache, dann über den Primärschlüssel)
+                Account fromAccount = accountCache.resolveId(fromIban)
+                                .flatMap(accountRepository::findById)
                                 .orElseThrow(() -> new AccountNotFoundException(fromIban));
 
-                Account toAccount = accountRepository.findByIban(toIban)
+                Account toAccount = accountCache.resolveId(toIban)
+                                .flatMap(accountRepository::findById)
                                 .orElseThrow(() -> new AccountNotFoundException(toIban));
 
+                return book(fromAccount, toAccount, amount, reference);
+        }
+
+        /**
+         * Ein Chunk der Batch-Überweisung, erwartet eine laufende Transaktion.
+         */
+        List<BatchTransferItemResult> performTransferChunk(List<TransferRequest> chunk, int offset) {
+                Map<String, Account> accounts = accountRepository.findByIbanIn(ibansOf(chunk)).stream()
+                                .collect(Collectors.toMap(Account::getIban, Function.identity()));
+
+                List<BatchTransferItemResult> results = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                        TransferRequest request = chunk.get(i);
+                        try {
+                                if (request.fromIban().equals(request.toIban())) {
+                                        throw new IllegalArgumentException("Cannot transfer to same account");
+                                }
+                                Account fromAccount = accounts.get(request.fromIban());
+                                if (fromAccount == null) {
+                                        throw new AccountNotFoundException(request.fromIban());
+                                }
+                                Account toAccount = accounts.get(request.toIban());
+                                if (toAccount == null) {
+                                        throw new AccountNotFoundException(request.toIban());
+                                }
+
+                                TransferResponse response = book(fromAccount, toAccount, request.amount(),
+                                                request.reference());
+                                results.add(BatchTransferItemResult.success(offset + i, response));
+                        } catch (IllegalArgumentException | AccountNotFoundException e) {
+                                results.add(BatchTransferItemResult.failure(offset + i, e.getMessage()));
+                        }
+                }
+
+                return results;
+        }
+
+        /**
+         * Bucht die Überweisung auf zwei geladene Konten, erwartet eine laufende Transaktion.
+         */
+        TransferResponse book(Account fromAccount, Account toAccount, BigDecimal amount, String reference) {
+                String fromIban = fromAccount.getIban();
+                String toIban = toAccount.getIban();
+
                 // Domain-Logik
                 String transferReference = reference != null ? reference : "Transfer";
 
-                Transaction debitTransaction = fromAccount.debit(amount,
+                long minorUnits = Money.toMinorUnits(amount);
+
+                // Erst den Überlauf beim Empfänger prüfen, dann buchen: debit prüft vor jeder Änderung,
+                // danach kann credit nicht mehr scheitern und kein Konto bleibt halb gebucht
+                Money.add(toAccount.getBalanceMinorUnits(), minorUnits);
+
+                Transaction debitTransaction = fromAccount.debit(minorUnits,
                                 "Transfer to " + toIban + ": " + transferReference);
-                Transaction creditTransaction = toAccount.credit(amount,
+                Transaction creditTransaction = toAccount.credit(minorUnits,
                                 "Transfer from " + fromIban + ": " + transferReference);
 
                 // Speichern (Version wird automatisch geprüft!)
-                accountRepository.save(fromAccount);
-                accountRepository.save(toAccount);
-                transactionRepository.save(debitTransaction);
-                transactionRepository.save(creditTransaction);
+                // Beide Konten sind managed und werden beim Flush per Dirty Checking aktualisiert;
+                // die zwei Updates und die zwei Inserts gehen dann jeweils als ein JDBC-Batch raus.
+                transactionRepository.saveAll(List.of(debitTransaction, creditTransaction));
 
                 return new TransferResponse(
                                 debitTransaction.getId(),
@@ -95,4 +195,27 @@ public class TransferService {
                                 transferReference,
                                 debitTransaction.getTimestamp());
         }
-}
\ No newline at end of file
+
+        private static boolean involvesHotAccount(HotAccountService hot, TransferRequest request) {
+                return hot != null && (hot.isHot(request.fromIban()) || hot.isHot(request.toIban()));
+        }
+
+        private static BatchTransferItemResult transferHot(HotAccountService hot, TransferRequest request,
+                        int index) {
+                try {
+                        return BatchTransferItemResult.success(index, hot.transfer(request.fromIban(),
+                                        request.toIban(), request.amount(), request.reference()));
+                } catch (IllegalArgumentException | AccountNotFoundException e) {
+                        return BatchTransferItemResult.failure(index, e.getMessage());
+                }
+        }
+
+        private static Set<String> ibansOf(List<TransferRequest> requests) {
+                Set<String> ibans = new LinkedHashSet<>();
+                for (TransferRequest request : requests) {
+                        ibans.add(request.fromIban());
+                        ibans.add(request.toIban());
+                }
+                return ibans;
+        }
+}
@@ -0,0 +1,22 @@
+package com.simohoff.banking_service.service.archive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Konfiguration unter {@code banking.archive.*}.
+ */
+@ConfigurationProperties(prefix = "banking.archive")
+public record ArchiveProperties(
+        @DefaultValue("false") boolean enabled,
+
+        @DefaultValue("data/archive") Path directory,
+
+        // Archiviert werden ganze Monate, die vollständig vor jetzt - horizon liegen
+        @DefaultValue("90d") Duration horizon,
+
+        @DefaultValue("1h") Duration interval) {
+}
@@ -0,0 +1,373 @@
+package com.simohoff.banking_service.service.archive;
+
+import com.simohoff.banking_service.domain.TransactionType;
+import com.simohoff.banking_service.dto.TransactionResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Ein Monat archivierter Transaktionen als unveränderliche Datei, gelesen über ein {@link MappedByteBuffer}.
+ *
+ * Aufbau: {@code [Block]* [Index] [Footer]}. Pro Konto ein Deflate-komprimierter Block mit den Buchungen des Monats
+ * (neueste zuerst), spaltenweise abgelegt: IDs, Zeitstempel, Typen, Beträge, Salden, Verwendungszwecke. IDs,
+ * Zeitstempel und Salden als Differenz zur Vorzeile, alles als Varint; nah beieinander liegende Werte werden so zu
+ * ein bis zwei Bytes, den Rest erledigt Deflate. Der Index ({@code accountId, offset, komprimierte und rohe Länge,
+ * Zeilen}) ist nach Konto sortiert, ein Konto wird per Binärsuche gefunden und nur sein Block entpackt.
+ * Der Footer ({@code indexOffset, Konten, Magic}) steht am Dateiende.
+ */
+final class ArchiveSegment {
+
+    private static final int MAGIC = 0x41524331; // "ARC1"
+    private static final int INDEX_ENTRY_BYTES = 8 + 8 + 4 + 4 + 4;
+    private static final int FOOTER_BYTES = 8 + 4 + 4;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final YearMonth month;
+    private final MappedByteBuffer data;
+    private final long[] accountIds;
+    private final int[] offsets;
+    private final int[] compressedLengths;
+    private final int[] rawLengths;
+    private final int[] rows;
+
+    private ArchiveSegment(YearMonth month, MappedByteBuffer data, int accounts) {
+        this.month = month;
+        this.data = data;
+        this.accountIds = new long[accounts];
+        this.offsets = new int[accounts];
+        this.compressedLengths = new int[accounts];
+        this.rawLengths = new int[accounts];
+        this.rows = new int[accounts];
+    }
+
+    static String fileName(YearMonth month) {
+        return "transactions-" + month + ".seg";
+    }
+
+    static YearMonth monthOf(Path file) {
+        String name = file.getFileName().toString();
+        return YearMonth.parse(name.substring("transactions-".length(), name.length() - ".seg".length()));
+    }
+
+    /**
+     * Mappt ein fertig geschriebenes Segment und liest seinen Index.
+     */
+    static ArchiveSegment open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < FOOTER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Invalid archive segment " + file);
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int footer = (int) size - FOOTER_BYTES;
+            if (data.getInt(footer + 12) != MAGIC) {
+                throw new IllegalStateException("Invalid archive segment " + file);
+            }
+            int indexOffset = (int) data.getLong(footer);
+            int accounts = data.getInt(footer + 8);
+
+            ArchiveSegment segment = new ArchiveSegment(monthOf(file), data, accounts);
+            for (int i = 0; i < accounts; i++) {
+                int entry = indexOffset + i * INDEX_ENTRY_BYTES;
+                segment.accountIds[i] = data.getLong(entry);
+                segment.offsets[i] = (int) data.getLong(entry + 8);
+                segment.compressedLengths[i] = data.getInt(entry + 16);
+                segment.rawLengths[i] = data.getInt(entry + 20);
+                segment.rows[i] = data.getInt(entry + 24);
+            }
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open archive segment " + file, e);
+        }
+    }
+
+    YearMonth month() {
+        return month;
+    }
+
+    int accounts() {
+        return accountIds.length;
+    }
+
+    boolean contains(long accountId) {
+        return Arrays.binarySearch(accountIds, accountId) >= 0;
+    }
+
+    /**
+     * Alle Buchungen des Kontos in diesem Monat, neueste zuerst; leer, wenn das Konto keine hat.
+     * Thread-safe: gelesen wird nur über absolute Slices des gemappten Puffers.
+     */
+    List<TransactionResponse> read(long accountId) {
+        int index = Arrays.binarySearch(accountIds, accountId);
+        if (index < 0) {
+            return List.of();
+        }
+        byte[] raw = new byte[rawLengths[index]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data.slice(offsets[index], compressedLengths[index]));
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, raw.length - length);
+                if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != raw.length) {
+                throw new IllegalStateException("Truncated block for account " + accountId + " in " + month);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt block for account " + accountId + " in " + month, e);
+        } finally {
+            inflater.end();
+        }
+        return decode(ByteBuffer.wrap(raw), rows[index]);
+    }
+
+    private static List<TransactionResponse> decode(ByteBuffer block, int count) {
+        long[] ids = new long[count];
+        long[] micros = new long[count];
+        long[] amounts = new long[count];
+        long[] balances = new long[count];
+        TransactionType[] types = new TransactionType[count];
+
+        for (int i = 0; i < count; i++) {
+            long value = unzigzag(readVarLong(block));
+            ids[i] = i == 0 ? value : ids[i - 1] - value;
+        }
+        for (int i = 0; i < count; i++) {
+            long value = unzigzag(readVarLong(block));
+            micros[i] = i == 0 ? value : micros[i - 1] - value;
+        }
+        for (int i = 0; i < count; i++) {
+            types[i] = TYPES[block.get()];
+        }
+        for (int i = 0; i < count; i++) {
+            amounts[i] = readVarLong(block);
+        }
+        for (int i = 0; i < count; i++) {
+            long value = unzigzag(readVarLong(block));
+            balances[i] = i == 0 ? value : balances[i - 1] + value;
+        }
+
+        List<TransactionResponse> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = (int) readVarLong(block) - 1;
+            String reference = null;
+            if (length >= 0) {
+                reference = new String(block.array(), block.position(), length, StandardCharsets.UTF_8);
+                block.position(block.position() + length);
+            }
+            result.add(new TransactionResponse(ids[i], amounts[i], types[i], reference, fromMicros(micros[i]),
+                    balances[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Schreibt ein Segment in eine temporäre Datei und benennt sie erst nach dem fsync atomar um; ein
+     * abgebrochener Lauf hinterlässt also nie ein halbes Segment unter dem endgültigen Namen. Die Zeilen müssen
+     * nach Konto aufsteigend und pro Konto neueste zuerst kommen. Nicht thread-safe.
+     */
+    static final class Writer implements AutoCloseable {
+
+        private final Path target;
+        private final Path temporary;
+        private final FileChannel channel;
+        private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+        private final List<ArchivedRow> block = new ArrayList<>();
+        private long position;
+        private int accounts;
+        private long rowCount;
+
+        Writer(Path target) {
+            this.target = target;
+            this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+            try {
+                this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create archive segment " + temporary, e);
+            }
+        }
+
+        void append(ArchivedRow row) {
+            if (!block.isEmpty()) {
+                long current = block.get(0).accountId();
+                if (row.accountId() < current) {
+                    throw new IllegalStateException("Rows must be ordered by account, got " + row.accountId()
+                            + " after " + current);
+                }
+                if (row.accountId() != current) {
+                    flushBlock();
+                }
+            }
+            block.add(row);
+            rowCount++;
+        }
+
+        long rows() {
+            return rowCount;
+        }
+
+        /**
+         * Schreibt Index und Footer, synchronisiert und gibt das Segment unter seinem endgültigen Namen frei.
+         */
+        void commit() {
+            if (!block.isEmpty()) {
+                flushBlock();
+            }
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER_BYTES)
+                    .putLong(position)
+                    .putInt(accounts)
+                    .putInt(MAGIC)
+                    .flip();
+            write(ByteBuffer.wrap(index.toByteArray()));
+            write(footer);
+            try {
+                channel.force(true);
+                channel.close();
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot commit archive segment " + target, e);
+            }
+        }
+
+        @Override
+        public void close() {
+            deflater.end();
+            try {
+                if (channel.isOpen()) {
+                    channel.close();
+                }
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot remove " + temporary, e);
+            }
+        }
+
+        private void flushBlock() {
+            byte[] raw = encode(block);
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                compressed.write(buffer, 0, length);
+            }
+
+            ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES)
+                    .putLong(block.get(0).accountId())
+                    .putLong(position)
+                    .putInt(compressed.size())
+                    .putInt(raw.length)
+                    .putInt(block.size());
+            index.write(entry.array(), 0, INDEX_ENTRY_BYTES);
+            write(ByteBuffer.wrap(compressed.toByteArray()));
+            accounts++;
+            block.clear();
+        }
+
+        private void write(ByteBuffer buffer) {
+            try {
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write archive segment " + temporary, e);
+            }
+        }
+    }
+
+    private static byte[] encode(List<ArchivedRow> block) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(block.size() * 16);
+        for (int i = 0; i < block.size(); i++) {
+            long id = block.get(i).id();
+            writeVarLong(out, zigzag(i == 0 ? id : block.get(i - 1).id() - id));
+        }
+        for (int i = 0; i < block.size(); i++) {
+            long micros = toMicros(block.get(i).timestamp());
+            writeVarLong(out, zigzag(i == 0 ? micros : toMicros(block.get(i - 1).timestamp()) - micros));
+        }
+        for (ArchivedRow row : block) {
+            out.write(row.type().ordinal());
+        }
+        for (ArchivedRow row : block) {
+            writeVarLong(out, row.amount());
+        }
+        for (int i = 0; i < block.size(); i++) {
+            long balance = block.get(i).balanceAfter();
+            writeVarLong(out, zigzag(i == 0 ? balance : balance - block.get(i - 1).balanceAfter()));
+        }
+        for (ArchivedRow row : block) {
+            if (row.reference() == null) {
+                writeVarLong(out, 0);
+            } else {
+                byte[] reference = row.reference().getBytes(StandardCharsets.UTF_8);
+                writeVarLong(out, reference.length + 1L);
+                out.write(reference, 0, reference.length);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = in.get();
+            value |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        } while (current < 0);
+        return value;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
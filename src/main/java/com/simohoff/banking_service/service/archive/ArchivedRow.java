@@ -0,0 +1,18 @@
+package com.simohoff.banking_service.service.archive;
+
+import com.simohoff.banking_service.domain.TransactionType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Eine Transaktion auf dem Weg ins Archiv, Beträge in Cent.
+ */
+record ArchivedRow(
+        long accountId,
+        long id,
+        LocalDateTime timestamp,
+        TransactionType type,
+        long amount,
+        long balanceAfter,
+        String reference) {
+}
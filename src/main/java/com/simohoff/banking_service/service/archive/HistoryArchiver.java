@@ -0,0 +1,242 @@
+package com.simohoff.banking_service.service.archive;
+
+import com.simohoff.banking_service.domain.Money;
+import com.simohoff.banking_service.domain.TransactionType;
+import com.simohoff.banking_service.service.HotAccountService;
+import com.simohoff.banking_service.service.ledger.LedgerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Verschiebt alte Transaktionen aus der Tabelle ins {@link TransactionArchive}, damit die Tabelle (und ihre
+ * Indizes) nur noch die letzten {@code horizon} plus höchstens einen Monat enthält.
+ *
+ * Pro Lauf wird Monat für Monat archiviert, solange der älteste Monat in der Tabelle vollständig vor
+ * jetzt - {@code horizon} liegt: Zeilen sortiert nach Konto lesen und als Segment schreiben (fsync, dann atomar
+ * umbenennen), danach in einer Transaktion den Saldovortrag ({@code archive_markers}) fortschreiben und die Zeilen
+ * löschen; erst nach dem Commit wird das Segment für Leser sichtbar. Findet ein Lauf schon ein Segment für den
+ * Monat vor (Abbruch nach dem Umbenennen), werden die Zeilen nur noch gelöscht.
+ *
+ * Läuft einmal nach dem Start (nach einem Journal-Replay) und danach alle {@code interval}. Nicht mit
+ * Event-Sourcing kombinierbar, dort werden Salden aus den Transaktionen nach dem letzten Snapshot berechnet.
+ * Hot Accounts bleiben in der Tabelle: ihr {@code balanceAfter} ist nur eine Näherung und taugt nicht als
+ * Saldovortrag, ihr Saldo zu einem Zeitpunkt wird aus der Summe der Buchungen berechnet.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.archive", name = "enabled", havingValue = "true")
+public class HistoryArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(HistoryArchiver.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    // %s: Ausschluss der Hot Accounts, siehe excluding()
+    private static final String OLDEST = "select min(timestamp) from transactions where timestamp is not null%s";
+
+    private static final String SELECT_MONTH = """
+            select account_id, id, timestamp, type, amount, balance_after, reference
+            from transactions
+            where timestamp >= ? and timestamp < ?%s
+            order by account_id, timestamp desc, id desc
+            """;
+
+    private static final String DELETE_MONTH = "delete from transactions where timestamp >= ? and timestamp < ?%s";
+
+    private static final String UPDATE_MARKER = """
+            update archive_markers
+            set archived_until = ?, balance_after = ?, transaction_count = transaction_count + ?
+            where account_id = ?
+            """;
+
+    private static final String INSERT_MARKER = """
+            insert into archive_markers (archived_until, balance_after, transaction_count, account_id)
+            values (?, ?, ?, ?)
+            """;
+
+    private final TransactionArchive archive;
+    private final ObjectProvider<HotAccountService> hotAccounts;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration horizon;
+    private final Duration interval;
+    private final Counter archived;
+    private final ScheduledExecutorService scheduler;
+
+    public HistoryArchiver(ArchiveProperties properties, LedgerProperties ledgerProperties,
+            TransactionArchive archive, ObjectProvider<HotAccountService> hotAccounts, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        if (ledgerProperties.eventSourced()) {
+            throw new IllegalStateException(
+                    "banking.archive.enabled cannot be combined with banking.ledger.event-sourced");
+        }
+        this.archive = archive;
+        this.hotAccounts = hotAccounts;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.horizon = properties.horizon();
+        this.interval = properties.interval();
+        this.archived = Counter.builder("banking.archive.transactions")
+                .description("In Segmente verschobene Transaktionen")
+                .register(meterRegistry);
+        Gauge.builder("banking.archive.segments", archive, TransactionArchive::segmentCount)
+                .description("Archivierte Monate")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "history-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        scheduler.scheduleWithFixedDelay(this::runSafely, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Archiviert alle fälligen Monate.
+     *
+     * @return Anzahl der aus der Tabelle entfernten Transaktionen
+     */
+    public synchronized long archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(horizon);
+        String excluded = excluding();
+        long total = 0;
+        while (true) {
+            Timestamp oldest = jdbcTemplate.queryForObject(OLDEST.formatted(excluded), Timestamp.class);
+            if (oldest == null) {
+                break;
+            }
+            YearMonth month = YearMonth.from(oldest.toLocalDateTime());
+            if (month.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoff)) {
+                break;
+            }
+            total += archiveMonth(month, excluded);
+        }
+        return total;
+    }
+
+    private long archiveMonth(YearMonth month, String excluded) {
+        long start = System.nanoTime();
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        boolean existing = archive.contains(month);
+
+        // Pro Konto: Saldo nach der neuesten Buchung des Monats (erste Zeile) und Anzahl
+        Map<Long, long[]> markers = new LinkedHashMap<>();
+        try (ArchiveSegment.Writer writer = existing ? null : archive.writer(month)) {
+            jdbcTemplate.query(SELECT_MONTH.formatted(excluded), rs -> {
+                ArchivedRow row = new ArchivedRow(
+                        rs.getLong("account_id"),
+                        rs.getLong("id"),
+                        rs.getTimestamp("timestamp").toLocalDateTime(),
+                        TransactionType.valueOf(rs.getString("type")),
+                        Money.toMinorUnits(rs.getBigDecimal("amount")),
+                        Money.toMinorUnits(rs.getBigDecimal("balance_after")),
+                        rs.getString("reference"));
+                markers.computeIfAbsent(row.accountId(), id -> new long[]{row.balanceAfter(), 0})[1]++;
+                if (writer != null) {
+                    writer.append(row);
+                }
+            }, from, to);
+            if (writer != null) {
+                writer.commit();
+            }
+        }
+
+        LocalDateTime archivedUntil = to.toLocalDateTime();
+        Integer deleted = transactionTemplate.execute(status -> {
+            writeMarkers(markers, archivedUntil);
+            return jdbcTemplate.update(DELETE_MONTH.formatted(excluded), from, to);
+        });
+        if (!existing) {
+            archive.publish(month);
+        }
+
+        long count = deleted != null ? deleted : 0;
+        archived.increment(count);
+        log.info("Archived {} transactions of {} accounts for {} in {} ms", count, markers.size(), month,
+                (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+
+    private void writeMarkers(Map<Long, long[]> markers, LocalDateTime archivedUntil) {
+        List<Map.Entry<Long, long[]>> rows = new ArrayList<>(markers.entrySet());
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_MARKER, rows, BATCH_SIZE,
+                (ps, row) -> setMarkerParameters(ps, row, archivedUntil));
+
+        List<Map.Entry<Long, long[]>> missing = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : updated) {
+            for (int count : batch) {
+                if (count == 0) {
+                    missing.add(rows.get(index));
+                }
+                index++;
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_MARKER, missing, BATCH_SIZE,
+                    (ps, row) -> setMarkerParameters(ps, row, archivedUntil));
+        }
+    }
+
+    // Bedingung, die die Hot Accounts ausnimmt (IDs direkt im SQL, es sind nur wenige)
+    private String excluding() {
+        HotAccountService hot = hotAccounts.getIfAvailable();
+        List<Long> ids = hot != null ? hot.accountIds() : List.of();
+        if (ids.isEmpty()) {
+            return "";
+        }
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(", ", " and account_id not in (", ")"));
+    }
+
+    // Gleiche Parameter-Reihenfolge in UPDATE_MARKER und INSERT_MARKER
+    private static void setMarkerParameters(PreparedStatement ps, Map.Entry<Long, long[]> row,
+            LocalDateTime archivedUntil) throws SQLException {
+        ps.setTimestamp(1, Timestamp.valueOf(archivedUntil));
+        ps.setBigDecimal(2, Money.toBigDecimal(row.getValue()[0]));
+        ps.setLong(3, row.getValue()[1]);
+        ps.setLong(4, row.getKey());
+    }
+
+    private void runSafely() {
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            log.error("Archiving transaction history failed", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
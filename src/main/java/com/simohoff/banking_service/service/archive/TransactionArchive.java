@@ -0,0 +1,160 @@
+package com.simohoff.banking_service.service.archive;
+
+import com.simohoff.banking_service.dto.TransactionCursor;
+import com.simohoff.banking_service.dto.TransactionResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Kalte Historie: ein {@link ArchiveSegment} pro archiviertem Monat unter {@code banking.archive.directory}.
+ *
+ * Archiviert werden nur ganze Monate, alle archivierten Buchungen sind also älter als jede Zeile in der Tabelle.
+ * Lesende Zugriffe hängen das Archiv deshalb einfach hinter die Tabelle an (bzw. davor, beim Blättern zu neueren
+ * Einträgen) und öffnen nur die Monate, die ein Cursor erreichen kann.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.archive", name = "enabled", havingValue = "true")
+public class TransactionArchive {
+
+    private final Path directory;
+    private final ConcurrentNavigableMap<YearMonth, ArchiveSegment> segments = new ConcurrentSkipListMap<>();
+
+    public TransactionArchive(ArchiveProperties properties) {
+        this.directory = properties.directory();
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    String name = file.getFileName().toString();
+                    if (name.matches("transactions-\\d{4}-\\d{2}\\.seg\\.tmp")) {
+                        // Abgebrochener Lauf, der Monat liegt noch vollständig in der Tabelle
+                        Files.delete(file);
+                    } else if (name.matches("transactions-\\d{4}-\\d{2}\\.seg")) {
+                        ArchiveSegment segment = ArchiveSegment.open(file);
+                        segments.put(segment.month(), segment);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open archive in " + directory, e);
+        }
+    }
+
+    /**
+     * Alle archivierten Buchungen des Kontos, neueste zuerst.
+     */
+    public List<TransactionResponse> history(long accountId) {
+        List<TransactionResponse> result = new ArrayList<>();
+        forEach(accountId, result::add);
+        return result;
+    }
+
+    public void forEach(long accountId, Consumer<TransactionResponse> action) {
+        for (ArchiveSegment segment : segments.descendingMap().values()) {
+            segment.read(accountId).forEach(action);
+        }
+    }
+
+    /**
+     * Keyset-Seite: bis zu {@code limit} Buchungen älter als {@code cursor} (ohne Cursor ab der neuesten
+     * archivierten), neueste zuerst.
+     */
+    public List<TransactionResponse> before(long accountId, TransactionCursor cursor, int limit) {
+        List<TransactionResponse> result = new ArrayList<>();
+        Map<YearMonth, ArchiveSegment> candidates = cursor == null
+                ? segments.descendingMap()
+                : segments.headMap(YearMonth.from(cursor.timestamp()), true).descendingMap();
+        for (ArchiveSegment segment : candidates.values()) {
+            for (TransactionResponse row : segment.read(accountId)) {
+                if (cursor == null || compare(row, cursor) < 0) {
+                    result.add(row);
+                    if (result.size() == limit) {
+                        return result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Keyset-Seite: bis zu {@code limit} Buchungen neuer als {@code cursor}, älteste zuerst.
+     */
+    public List<TransactionResponse> after(long accountId, TransactionCursor cursor, int limit) {
+        List<TransactionResponse> result = new ArrayList<>();
+        for (ArchiveSegment segment : segments.tailMap(YearMonth.from(cursor.timestamp()), true).values()) {
+            List<TransactionResponse> rows = segment.read(accountId);
+            for (int i = rows.size() - 1; i >= 0; i--) {
+                if (compare(rows.get(i), cursor) > 0) {
+                    result.add(rows.get(i));
+                    if (result.size() == limit) {
+                        return result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Letzte archivierte Buchung bis einschließlich {@code at}.
+     */
+    public Optional<TransactionResponse> latestAtOrBefore(long accountId, LocalDateTime at) {
+        for (ArchiveSegment segment : segments.headMap(YearMonth.from(at), true).descendingMap().values()) {
+            for (TransactionResponse row : segment.read(accountId)) {
+                if (!row.timestamp().isAfter(at)) {
+                    return Optional.of(row);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    boolean contains(YearMonth month) {
+        return segments.containsKey(month);
+    }
+
+    /**
+     * Liegen die Buchungen des Kontos aus diesem Monat im Archiv? Hot Accounts werden nie archiviert, sie stehen
+     * auch in archivierten Monaten nur in der Tabelle.
+     */
+    public boolean contains(YearMonth month, long accountId) {
+        ArchiveSegment segment = segments.get(month);
+        return segment != null && segment.contains(accountId);
+    }
+
+    /**
+     * Neues Segment für den Monat; sichtbar wird es erst mit {@link #publish}.
+     */
+    ArchiveSegment.Writer writer(YearMonth month) {
+        return new ArchiveSegment.Writer(directory.resolve(ArchiveSegment.fileName(month)));
+    }
+
+    void publish(YearMonth month) {
+        segments.put(month, ArchiveSegment.open(directory.resolve(ArchiveSegment.fileName(month))));
+    }
+
+    private static int compare(TransactionResponse row, TransactionCursor cursor) {
+        int byTimestamp = row.timestamp().compareTo(cursor.timestamp());
+        return byTimestamp != 0 ? byTimestamp : Long.compare(row.id(), cursor.id());
+    }
+}
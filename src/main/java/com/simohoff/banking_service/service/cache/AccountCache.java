@@ -0,0 +1,75 @@
+package com.simohoff.banking_service.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.simohoff.banking_service.repository.AccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * Read-Through Cache IBAN → {@link AccountSnapshot} vor dem {@link AccountRepository}.
+ *
+ * Geschrieben wird nur mit committeten Ständen: nach jedem Commit legt der {@link AccountCacheListener}
+ * den neuen Stand ab, ein älterer {@code @Version}-Stand überschreibt nie einen neueren.
+ * Hits, Misses und Evictions stehen als {@code cache.*}-Metriken mit {@code cache=accounts} bereit.
+ */
+@Component
+public class AccountCache {
+
+    private final Cache<String, AccountSnapshot> cache;
+    private final AccountRepository accountRepository;
+
+    public AccountCache(AccountRepository accountRepository,
+            AccountCacheProperties properties,
+            MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "accounts");
+    }
+
+    public Optional<AccountSnapshot> get(String iban) {
+        AccountSnapshot cached = cache.getIfPresent(iban);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<AccountSnapshot> loaded = accountRepository.findSnapshotByIban(iban);
+        if (loaded.isPresent() && readsCommittedState()) {
+            update(loaded.get());
+        }
+        return loaded;
+    }
+
+    public Optional<Long> resolveId(String iban) {
+        return get(iban).map(AccountSnapshot::id);
+    }
+
+    /**
+     * Übernimmt einen committeten Stand, sofern er nicht älter ist als der gecachte.
+     */
+    void update(AccountSnapshot snapshot) {
+        cache.asMap().merge(snapshot.iban(), snapshot,
+                (current, fresh) -> fresh.isNewerThan(current) ? fresh : current);
+    }
+
+    public void invalidate(String iban) {
+        cache.invalidate(iban);
+    }
+
+    /**
+     * In einer schreibenden Transaktion kann der geladene Stand noch nicht committet sein,
+     * dann wird er nicht in den Cache übernommen.
+     */
+    private static boolean readsCommittedState() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
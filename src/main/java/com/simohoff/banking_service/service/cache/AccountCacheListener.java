@@ -0,0 +1,50 @@
+package com.simohoff.banking_service.service.cache;
+
+import com.simohoff.banking_service.domain.Account;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA Entity Listener auf {@link Account}: aktualisiert den {@link AccountCache} erst nach dem Commit.
+ * Bei Rollback wird der Eintrag verworfen.
+ */
+@Component
+public class AccountCacheListener {
+
+    // ObjectProvider, weil Hibernate den Listener auch in JPA-Slices ohne Cache instanziiert
+    private final ObjectProvider<AccountCache> accountCache;
+
+    public AccountCacheListener(ObjectProvider<AccountCache> accountCache) {
+        this.accountCache = accountCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void afterWrite(Account account) {
+        AccountCache cache = accountCache.getIfAvailable();
+        if (cache == null) {
+            return;
+        }
+
+        AccountSnapshot snapshot = AccountSnapshot.from(account);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.update(snapshot);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    cache.update(snapshot);
+                } else {
+                    cache.invalidate(snapshot.iban());
+                }
+            }
+        });
+    }
+}
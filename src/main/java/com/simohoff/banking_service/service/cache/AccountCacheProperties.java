@@ -0,0 +1,16 @@
+package com.simohoff.banking_service.service.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Konfiguration unter {@code banking.cache.*}.
+ */
+@ConfigurationProperties(prefix = "banking.cache")
+public record AccountCacheProperties(
+        @DefaultValue("100000") long maxSize,
+
+        @DefaultValue("5m") Duration ttl) {
+}
@@ -0,0 +1,48 @@
+package com.simohoff.banking_service.service.cache;
+
+import com.simohoff.banking_service.domain.Account;
+import com.simohoff.banking_service.domain.Money;
+import com.simohoff.banking_service.dto.AccountResponse;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Unveränderlicher Stand eines Kontos zum Zeitpunkt {@code version}.
+ */
+public record AccountSnapshot(
+        Long id,
+        String iban,
+        String ownerName,
+        BigDecimal balance,
+        LocalDateTime createdAt,
+        Long version) {
+    /**
+     * Für den Konstruktor-Ausdruck in {@code AccountRepository#findSnapshotByIban} (Saldo in Cent).
+     */
+    public AccountSnapshot(Long id, String iban, String ownerName, long balance, LocalDateTime createdAt,
+            Long version) {
+        this(id, iban, ownerName, Money.toBigDecimal(balance), createdAt, version);
+    }
+
+    public static AccountSnapshot from(Account account) {
+        return new AccountSnapshot(
+                account.getId(),
+                account.getIban(),
+                account.getOwnerName(),
+                account.getBalance(),
+                account.getCreatedAt(),
+                account.getVersion());
+    }
+
+    public AccountResponse toResponse() {
+        return new AccountResponse(id, iban, ownerName, balance, createdAt);
+    }
+
+    boolean isNewerThan(AccountSnapshot other) {
+        return other == null || versionOrZero() >= other.versionOrZero();
+    }
+
+    private long versionOrZero() {
+        return version != null ? version : 0L;
+    }
+}
@@ -0,0 +1,31 @@
+package com.simohoff.banking_service.service.concurrency;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Führt eine Buchung auf einem oder mehreren Konten in einer eigenen Transaktion aus
+ * und sorgt dafür, dass parallele Buchungen auf dieselben Konten sich nicht überschreiben.
+ */
+public interface AccountConcurrencyStrategy {
+
+    /**
+     * @param operation Name der Operation (für Fehlermeldungen)
+     * @param ibans     alle Konten, die von {@code work} verändert werden
+     * @param work      die eigentliche Buchung, läuft innerhalb einer Transaktion
+     */
+    <T> T execute(String operation, Collection<String> ibans, Supplier<T> work);
+
+    /**
+     * Asynchrone Variante: {@code work} läuft auf {@code executor}, der Aufrufer wartet nicht.
+     * Strategien mit Retry planen Wiederholungen ein, statt einen Thread schlafen zu lassen.
+     */
+    default <T> CompletableFuture<T> executeAsync(String operation, Collection<String> ibans, Supplier<T> work,
+            Executor executor) {
+        return CompletableFuture.supplyAsync(() -> execute(operation, ibans, work), executor);
+    }
+
+    LockingStrategy type();
+}
@@ -0,0 +1,100 @@
+package com.simohoff.banking_service.service.concurrency;
+
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Gestreifte Locks pro IBAN.
+ * Mehrere Konten werden immer in aufsteigender Stripe-Reihenfolge gesperrt,
+ * dadurch können sich gegenläufige Überweisungen (A→B, B→A) nicht verklemmen.
+ */
+@Component
+public class AccountLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutNanos;
+
+    public AccountLockManager(ConcurrencyProperties properties) {
+        int size = Integer.highestOneBit(Math.max(1, properties.lockStripes() - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutNanos = properties.lockTimeout().toNanos();
+    }
+
+    public <T> T withLocks(Collection<String> ibans, Supplier<T> action) {
+        int[] indexes = lock(ibans);
+        try {
+            return action.get();
+        } finally {
+            unlock(indexes);
+        }
+    }
+
+    /**
+     * Sperrt die Konten bis zum Ende der laufenden Transaktion: freigegeben wird erst nach Commit oder Rollback,
+     * wenn Änderungen und Commit-Hooks (z.B. Journal, Saldo-Caches) durch sind.
+     */
+    public void lockUntilCompletion(Collection<String> ibans) {
+        int[] indexes = lock(ibans);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlock(indexes);
+            }
+        });
+    }
+
+    private int[] lock(Collection<String> ibans) {
+        int[] indexes = ibans.stream()
+                .mapToInt(this::stripeFor)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        int acquired = 0;
+        try {
+            for (int index : indexes) {
+                if (!stripes[index].tryLock(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                    throw new CannotAcquireLockException("Timed out waiting for account lock on " + ibans);
+                }
+                acquired++;
+            }
+            return indexes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted while waiting for account lock on " + ibans, e);
+        } finally {
+            if (acquired < indexes.length) {
+                for (int i = acquired - 1; i >= 0; i--) {
+                    stripes[indexes[i]].unlock();
+                }
+            }
+        }
+    }
+
+    private void unlock(int[] indexes) {
+        for (int i = indexes.length - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    int stripeFor(String iban) {
+        int h = iban.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+}
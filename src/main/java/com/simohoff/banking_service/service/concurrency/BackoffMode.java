@@ -0,0 +1,22 @@
+package com.simohoff.banking_service.service.concurrency;
+
+/**
+ * Wartezeit vor dem n-ten Retry, jeweils begrenzt auf {@code max-delay}.
+ */
+public enum BackoffMode {
+
+    /**
+     * {@code base * 2^n} ohne Zufall: kollidierende Buchungen wachen gleichzeitig auf und kollidieren erneut.
+     */
+    EXPONENTIAL,
+
+    /**
+     * Zufällig zwischen 0 und {@code base * 2^n}.
+     */
+    FULL_JITTER,
+
+    /**
+     * Zufällig zwischen {@code base} und dem Dreifachen der letzten Wartezeit.
+     */
+    DECORRELATED
+}
@@ -0,0 +1,29 @@
+package com.simohoff.banking_service.service.concurrency;
+
+import com.simohoff.banking_service.repository.AccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class ConcurrencyConfig {
+
+    /**
+     * Wählt die Strategie anhand von {@code banking.concurrency.strategy}.
+     */
+    @Bean
+    public AccountConcurrencyStrategy accountConcurrencyStrategy(ConcurrencyProperties properties,
+            RetryProperties retryProperties,
+            AccountLockManager lockManager,
+            AccountRepository accountRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        return switch (properties.strategy()) {
+            case OPTIMISTIC -> new OptimisticConcurrencyStrategy(transactionManager,
+                    new RetryPolicy(retryProperties, meterRegistry));
+            case STRIPED -> new StripedLockConcurrencyStrategy(lockManager, transactionManager);
+            case PESSIMISTIC -> new PessimisticConcurrencyStrategy(accountRepository, transactionManager);
+        };
+    }
+}
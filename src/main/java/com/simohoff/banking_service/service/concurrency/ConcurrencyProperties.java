@@ -0,0 +1,18 @@
+package com.simohoff.banking_service.service.concurrency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Konfiguration unter {@code banking.concurrency.*}.
+ */
+@ConfigurationProperties(prefix = "banking.concurrency")
+public record ConcurrencyProperties(
+        @DefaultValue("optimistic") LockingStrategy strategy,
+
+        @DefaultValue("1024") int lockStripes,
+
+        @DefaultValue("5s") Duration lockTimeout) {
+}
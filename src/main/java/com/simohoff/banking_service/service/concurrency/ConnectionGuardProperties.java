@@ -0,0 +1,17 @@
+package com.simohoff.banking_service.service.concurrency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Konfiguration unter {@code banking.connection-guard.*}.
+ */
+@ConfigurationProperties(prefix = "banking.connection-guard")
+public record ConnectionGuardProperties(
+        // 0 = Größe des Hikari-Pools
+        @DefaultValue("0") int permits,
+
+        @DefaultValue("10s") Duration timeout) {
+}
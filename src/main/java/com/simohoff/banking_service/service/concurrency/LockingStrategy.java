@@ -0,0 +1,10 @@
+package com.simohoff.banking_service.service.concurrency;
+
+/**
+ * Verfügbare Strategien zur Absicherung paralleler Buchungen auf demselben Konto.
+ */
+public enum LockingStrategy {
+    OPTIMISTIC, // @Version + Retry mit Backoff
+    STRIPED,    // In-Process Lock-Striping pro IBAN
+    PESSIMISTIC // SELECT ... FOR UPDATE
+}
@@ -0,0 +1,100 @@
+package com.simohoff.banking_service.service.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Optimistic Locking über {@code @Version}: jede Buchung läuft in einer eigenen Transaktion,
+ * bei einem Versionskonflikt wird nach dem Backoff aus der {@link RetryPolicy} wiederholt.
+ *
+ * Jeder Versuch bekommt eine neue Transaktion und damit einen frischen Persistence Context. Läuft der Aufrufer
+ * schon in einer Transaktion, gibt es keinen Retry: der Versuch würde dieselbe, bereits als rollback-only
+ * markierte Transaktion wiederverwenden; der Konflikt geht dann an den Aufrufer.
+ */
+public class OptimisticConcurrencyStrategy implements AccountConcurrencyStrategy {
+
+    private final TransactionTemplate transactionTemplate;
+    private final RetryPolicy retryPolicy;
+
+    public OptimisticConcurrencyStrategy(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this(transactionManager, new RetryPolicy(RetryProperties.defaults(), meterRegistry));
+    }
+
+    public OptimisticConcurrencyStrategy(PlatformTransactionManager transactionManager, RetryPolicy retryPolicy) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retryPolicy = retryPolicy;
+    }
+
+    @Override
+    public <T> T execute(String operation, Collection<String> ibans, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactionTemplate.execute(status -> work.get());
+        }
+        RetryPolicy.Retry retry = retryPolicy.start(operation, ibans);
+
+        while (true) {
+            try {
+                T result = transactionTemplate.execute(status -> work.get());
+                retry.succeeded();
+                return result;
+            } catch (OptimisticLockException | ObjectOptimisticLockingFailureException e) {
+                long delay = retry.nextDelayMillis(e);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(operation + " interrupted", ie);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wie {@link #execute}, der Backoff wird aber eingeplant: zwischen zwei Versuchen belegt die Buchung
+     * keinen Thread des Executors.
+     */
+    @Override
+    public <T> CompletableFuture<T> executeAsync(String operation, Collection<String> ibans, Supplier<T> work,
+            Executor executor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        RetryPolicy.Retry retry = retryPolicy.start(operation, ibans);
+        executor.execute(() -> attempt(retry, work, executor, result));
+        return result;
+    }
+
+    private <T> void attempt(RetryPolicy.Retry retry, Supplier<T> work, Executor executor,
+            CompletableFuture<T> result) {
+        try {
+            T value = transactionTemplate.execute(status -> work.get());
+            retry.succeeded();
+            result.complete(value);
+        } catch (OptimisticLockException | ObjectOptimisticLockingFailureException e) {
+            long delay;
+            try {
+                delay = retry.nextDelayMillis(e);
+            } catch (RuntimeException exhausted) {
+                result.completeExceptionally(exhausted);
+                return;
+            }
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor)
+                    .execute(() -> attempt(retry, work, executor, result));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public LockingStrategy type() {
+        return LockingStrategy.OPTIMISTIC;
+    }
+}
@@ -0,0 +1,39 @@
+package com.simohoff.banking_service.service.concurrency;
+
+import com.simohoff.banking_service.repository.AccountRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Sperrt alle beteiligten Konten mit einem {@code SELECT ... FOR UPDATE}, bevor die Buchung läuft.
+ * Die Zeilen werden in ID-Reihenfolge gesperrt, damit sich Überweisungen
+ * in der Datenbank nicht gegenseitig blockieren.
+ */
+public class PessimisticConcurrencyStrategy implements AccountConcurrencyStrategy {
+
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public PessimisticConcurrencyStrategy(AccountRepository accountRepository,
+            PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public <T> T execute(String operation, Collection<String> ibans, Supplier<T> work) {
+        return transactionTemplate.execute(status -> {
+            // Fehlende Konten werden hier ignoriert, die Buchung selbst meldet AccountNotFound
+            accountRepository.findByIbanInForUpdate(ibans);
+            return work.get();
+        });
+    }
+
+    @Override
+    public LockingStrategy type() {
+        return LockingStrategy.PESSIMISTIC;
+    }
+}
@@ -0,0 +1,193 @@
+package com.simohoff.banking_service.service.concurrency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wann und wie lange nach einem Versionskonflikt wiederholt wird (siehe {@link RetryProperties}).
+ *
+ * Statt einer festen Anzahl Versuche hat jede Buchung ein Zeitbudget ({@code deadline}); ein Retry, dessen
+ * Backoff das Budget überschreiten würde, findet nicht mehr statt. Pro Konto wird die Konfliktrate als
+ * gleitender Mittelwert über die Versuche geführt (1 = Konflikt, 0 = Erfolg). Im adaptiven Modus skaliert sie den
+ * Backoff zwischen 0,5× (kaum Konflikte) und 2× (fast nur Konflikte); bei Überweisungen zählt das heißere Konto.
+ *
+ * Metriken: {@code banking.concurrency.retries{operation, attempt}}, {@code banking.concurrency.retries.exhausted
+ * {operation}}, {@code banking.concurrency.backoff{operation}} (Wartezeit in ms) und
+ * {@code banking.concurrency.contention.hot} (Konten mit einer Konfliktrate ab 50 %).
+ */
+public class RetryPolicy {
+
+    static final double HOT_RATE = 0.5;
+
+    // Gewicht eines neuen Versuchs im gleitenden Mittelwert
+    private static final double ALPHA = 0.2;
+    private static final int MAX_ATTEMPT_TAG = 10;
+
+    private final BackoffMode mode;
+    private final long baseMillis;
+    private final long maxMillis;
+    private final long deadlineNanos;
+    private final Duration deadline;
+    private final boolean adaptive;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, Contention> contention = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(Duration.ofMinutes(5))
+            .build();
+
+    public RetryPolicy(RetryProperties properties, MeterRegistry meterRegistry) {
+        this.mode = properties.backoff();
+        this.baseMillis = Math.max(1, properties.baseDelay().toMillis());
+        this.maxMillis = Math.max(baseMillis, properties.maxDelay().toMillis());
+        this.deadline = properties.deadline();
+        this.deadlineNanos = properties.deadline().toNanos();
+        this.adaptive = properties.adaptive();
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("banking.concurrency.contention.hot", contention,
+                        cache -> cache.asMap().values().stream().filter(c -> c.rate() >= HOT_RATE).count())
+                .description("Konten, auf denen zuletzt mindestens jeder zweite Versuch kollidiert ist")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Beginnt eine Buchung, vor ihrem ersten Versuch.
+     */
+    public Retry start(String operation, Collection<String> ibans) {
+        return new Retry(operation, List.copyOf(ibans), System.nanoTime());
+    }
+
+    /**
+     * Konfliktrate eines Kontos, 0 wenn nichts bekannt ist.
+     */
+    double contention(String iban) {
+        Contention current = contention.getIfPresent(iban);
+        return current != null ? current.rate() : 0;
+    }
+
+    /**
+     * Zustand einer Buchung über ihre Versuche, nicht thread-safe (die Versuche laufen nacheinander).
+     */
+    public final class Retry {
+
+        private final String operation;
+        private final List<String> ibans;
+        private final long startNanos;
+        private int attempt;
+        private long previousDelay = baseMillis;
+
+        private Retry(String operation, List<String> ibans, long startNanos) {
+            this.operation = operation;
+            this.ibans = ibans;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Nach einem Konflikt: Wartezeit bis zum nächsten Versuch.
+         *
+         * @throws RuntimeException wenn das Zeitbudget aufgebraucht ist, mit dem Konflikt als Ursache
+         */
+        public long nextDelayMillis(RuntimeException conflict) {
+            attempt++;
+            double rate = record(1);
+            long delay = backoff();
+            if (adaptive) {
+                delay = Math.min(maxMillis, Math.round(delay * (0.5 + 1.5 * rate)));
+            }
+
+            if (System.nanoTime() - startNanos + delay * 1_000_000 > deadlineNanos) {
+                Counter.builder("banking.concurrency.retries.exhausted")
+                        .tag("operation", operationTag(operation))
+                        .register(meterRegistry)
+                        .increment();
+                throw new RuntimeException(
+                        operation + " failed after " + attempt + " attempts within " + deadline
+                                + " due to concurrent modifications",
+                        conflict);
+            }
+            Counter.builder("banking.concurrency.retries")
+                    .tag("operation", operationTag(operation))
+                    .tag("attempt", attempt < MAX_ATTEMPT_TAG ? String.valueOf(attempt) : MAX_ATTEMPT_TAG + "+")
+                    .register(meterRegistry)
+                    .increment();
+            DistributionSummary.builder("banking.concurrency.backoff")
+                    .baseUnit("milliseconds")
+                    .tag("operation", operationTag(operation))
+                    .register(meterRegistry)
+                    .record(delay);
+            return delay;
+        }
+
+        /**
+         * Nach dem erfolgreichen Versuch.
+         */
+        public void succeeded() {
+            record(0);
+        }
+
+        int attempts() {
+            return attempt;
+        }
+
+        private long backoff() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long exponential = baseMillis << Math.min(attempt, 20);
+            long ceiling = Math.min(maxMillis, exponential);
+            return switch (mode) {
+                case EXPONENTIAL -> ceiling;
+                case FULL_JITTER -> random.nextLong(ceiling + 1);
+                case DECORRELATED -> {
+                    long upper = Math.min(maxMillis, previousDelay * 3);
+                    previousDelay = upper > baseMillis ? random.nextLong(baseMillis, upper + 1) : baseMillis;
+                    yield previousDelay;
+                }
+            };
+        }
+
+        /**
+         * @return höchste Konfliktrate der beteiligten Konten nach dem Versuch
+         */
+        private double record(double sample) {
+            double max = 0;
+            for (String iban : ibans) {
+                max = Math.max(max, contention.get(iban, key -> new Contention()).update(sample));
+            }
+            return max;
+        }
+    }
+
+    // "Transfer batch" → "transfer_batch"
+    private static String operationTag(String operation) {
+        return operation.toLowerCase(Locale.ROOT).replace(' ', '_');
+    }
+
+    private static final class Contention {
+
+        private final AtomicLong bits = new AtomicLong(Double.doubleToLongBits(0));
+
+        double rate() {
+            return Double.longBitsToDouble(bits.get());
+        }
+
+        double update(double sample) {
+            while (true) {
+                long current = bits.get();
+                double rate = Double.longBitsToDouble(current);
+                double updated = rate + ALPHA * (sample - rate);
+                if (bits.compareAndSet(current, Double.doubleToLongBits(updated))) {
+                    return updated;
+                }
+            }
+        }
+    }
+}
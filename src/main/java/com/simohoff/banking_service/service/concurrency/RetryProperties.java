@@ -0,0 +1,29 @@
+package com.simohoff.banking_service.service.concurrency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Konfiguration unter {@code banking.concurrency.retry.*}, gilt für die Strategie {@code optimistic}.
+ */
+@ConfigurationProperties(prefix = "banking.concurrency.retry")
+public record RetryProperties(
+        @DefaultValue("full-jitter") BackoffMode backoff,
+
+        @DefaultValue("50ms") Duration baseDelay,
+
+        @DefaultValue("1s") Duration maxDelay,
+
+        // Zeitbudget einer Buchung über alle Versuche; statt einer festen Anzahl Retries
+        @DefaultValue("5s") Duration deadline,
+
+        // Backoff je nach beobachteter Konfliktrate der beteiligten Konten kürzen (0,5×) oder verlängern (2×)
+        @DefaultValue("false") boolean adaptive) {
+
+    public static RetryProperties defaults() {
+        return new RetryProperties(BackoffMode.FULL_JITTER, Duration.ofMillis(50), Duration.ofSeconds(1),
+                Duration.ofSeconds(5), false);
+    }
+}
@@ -0,0 +1,41 @@
+package com.simohoff.banking_service.service.concurrency;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Serialisiert Buchungen pro Konto über {@link AccountLockManager}.
+ * Der Lock wird erst nach dem Commit freigegeben, dadurch gibt es keine Versionskonflikte
+ * innerhalb einer Instanz und keine Wartezeiten durch Backoff.
+ */
+public class StripedLockConcurrencyStrategy implements AccountConcurrencyStrategy {
+
+    private final AccountLockManager lockManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public StripedLockConcurrencyStrategy(AccountLockManager lockManager,
+            PlatformTransactionManager transactionManager) {
+        this.lockManager = lockManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public <T> T execute(String operation, Collection<String> ibans, Supplier<T> work) {
+        // In einer fremden Transaktion (z.B. mit Idempotency-Claim) erst nach deren Commit freigeben
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            lockManager.lockUntilCompletion(ibans);
+            return work.get();
+        }
+        return lockManager.withLocks(ibans,
+                () -> transactionTemplate.execute(status -> work.get()));
+    }
+
+    @Override
+    public LockingStrategy type() {
+        return LockingStrategy.STRIPED;
+    }
+}
@@ -0,0 +1,43 @@
+package com.simohoff.banking_service.service.concurrency;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Nur mit {@code spring.threads.virtual.enabled=true} (Java 21): Requests und Service-Aufrufe laufen dann
+ * auf virtuellen Threads, die DataSource wird durch {@link BoundedDataSource} abgesichert.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor boundedDataSourcePostProcessor(ObjectProvider<ConnectionGuardProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof BoundedDataSource) {
+                    return bean;
+                }
+                ConnectionGuardProperties guard = properties.getObject();
+                int permits = guard.permits() > 0 ? guard.permits() : poolSize(dataSource);
+                return new BoundedDataSource(dataSource, permits, guard.timeout().toNanos());
+            }
+        };
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            return hikari.getMaximumPoolSize();
+        }
+        throw new IllegalStateException("banking.connection-guard.permits must be set for "
+                + dataSource.getClass().getName());
+    }
+}
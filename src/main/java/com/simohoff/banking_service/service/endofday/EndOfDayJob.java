@@ -0,0 +1,462 @@
+package com.simohoff.banking_service.service.endofday;
+
+import com.simohoff.banking_service.domain.Account;
+import com.simohoff.banking_service.domain.EndOfDayCheckpoint;
+import com.simohoff.banking_service.domain.Money;
+import com.simohoff.banking_service.domain.Transaction;
+import com.simohoff.banking_service.repository.AccountRepository;
+import com.simohoff.banking_service.repository.EndOfDayCheckpointRepository;
+import com.simohoff.banking_service.repository.TransactionRepository;
+import com.simohoff.banking_service.service.HotAccountService;
+import com.simohoff.banking_service.service.concurrency.AccountConcurrencyStrategy;
+import com.simohoff.banking_service.service.ledger.LedgerProperties;
+import com.simohoff.banking_service.service.memory.LedgerEngineProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tagesabschluss: gleicht den Saldo jedes Kontos gegen die Summe seiner Buchungen ab und bucht Zinsen und die
+ * Kontoführungsgebühr.
+ *
+ * Der ID-Raum der Konten wird in Partitionen zu {@code partition-size} IDs geteilt, die {@code threads} Worker
+ * parallel abarbeiten. Eine Partition wird in Chunks zu {@code chunk-size} Konten gelesen (Keyset über die ID,
+ * kein Offset); pro Chunk eine Transaktion über die {@link AccountConcurrencyStrategy}, Live-Buchungen auf diese
+ * Konten warten also höchstens einen Chunk lang. In der Transaktion:
+ * <ul>
+ *   <li>ein Statement für den Abgleich: Kontozeile plus Buckets gegen Saldovortrag plus Gutschriften minus
+ *       Lastschriften, gruppiert über den ID-Bereich des Chunks; Abweichungen landen in
+ *       {@code reconciliation_mismatches}, auf solche Konten wird nichts gebucht</li>
+ *   <li>Zinsen (act/365 auf den Saldo zum Ende des Geschäftstags, abgerundet auf Cent) und am Monatsletzten die
+ *       Gebühr als normale Buchungen, die Inserts gehen als JDBC-Batch raus</li>
+ *   <li>der Checkpoint der Partition ({@code end_of_day_checkpoints})</li>
+ * </ul>
+ * Buchungen und Checkpoint committen zusammen, ein abgebrochener Lauf setzt mit {@link #run} für denselben Tag
+ * hinter dem letzten Chunk wieder auf, ohne doppelt zu buchen. Hot Accounts werden nur abgeglichen.
+ *
+ * Läuft nach {@code schedule} für den Vortag; nach dem Start werden unterbrochene Läufe fortgesetzt. Gedacht für
+ * genau eine Instanz pro Datenbank. Nicht mit Event-Sourcing oder der In-Memory-Engine kombinierbar, dort ist die
+ * Kontozeile nicht der maßgebliche Saldo.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.end-of-day", name = "enabled", havingValue = "true")
+public class EndOfDayJob {
+
+    private static final Logger log = LoggerFactory.getLogger(EndOfDayJob.class);
+
+    private static final BigDecimal DAYS_PER_YEAR = BigDecimal.valueOf(365);
+
+    private static final String SELECT_CHUNK = """
+            select id, iban from accounts where id >= ? and id < ? order by id fetch first ? rows only
+            """;
+
+    // Saldo und Erwartung in einem Statement, damit beide denselben Stand sehen
+    private static final String RECONCILE = """
+            select a.id, a.iban,
+                   a.balance + coalesce(b.total, 0) as balance,
+                   coalesce(m.balance_after, 0) + coalesce(t.total, 0) as expected,
+                   coalesce(t.after_close, 0) as after_close
+            from accounts a
+            left join (select account_id,
+                              sum(case when type = 'CREDIT' then amount else -amount end) as total,
+                              sum(case when timestamp < ? then 0
+                                       when type = 'CREDIT' then amount else -amount end) as after_close
+                       from transactions
+                       where account_id between ? and ?
+                       group by account_id) t on t.account_id = a.id
+            left join (select account_id, sum(balance) as total
+                       from balance_buckets
+                       where account_id between ? and ?
+                       group by account_id) b on b.account_id = a.id
+            left join archive_markers m on m.account_id = a.id
+            where a.id between ? and ?
+            """;
+
+    private static final String INSERT_CHECKPOINT = """
+            insert into end_of_day_checkpoints (business_date, range_start, range_end, next_account_id, accounts,
+                    mismatches, interest_postings, interest_total, fee_postings, fee_total)
+            values (?, ?, ?, ?, 0, 0, 0, 0, 0, 0)
+            """;
+
+    private static final String ADVANCE_CHECKPOINT = """
+            update end_of_day_checkpoints
+            set next_account_id = ?, accounts = accounts + ?, mismatches = mismatches + ?,
+                interest_postings = interest_postings + ?, interest_total = interest_total + ?,
+                fee_postings = fee_postings + ?, fee_total = fee_total + ?
+            where business_date = ? and range_start = ?
+            """;
+
+    private static final String INSERT_MISMATCH = """
+            insert into reconciliation_mismatches (business_date, account_id, balance, expected, detected_at)
+            values (?, ?, ?, ?, ?)
+            """;
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final EndOfDayCheckpointRepository checkpointRepository;
+    private final AccountConcurrencyStrategy concurrencyStrategy;
+    // ObjectProvider, weil HotAccountService optional ist
+    private final ObjectProvider<HotAccountService> hotAccounts;
+    private final JdbcTemplate jdbcTemplate;
+    private final CronExpression schedule;
+    private final long partitionSize;
+    private final int chunkSize;
+    private final BigDecimal interestRate;
+    private final long monthlyFee;
+    private final Counter reconciled;
+    private final Counter mismatches;
+    private final Counter postings;
+    private final Timer duration;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService scheduler;
+
+    public EndOfDayJob(EndOfDayProperties properties, LedgerProperties ledgerProperties,
+            LedgerEngineProperties ledgerEngineProperties,
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            EndOfDayCheckpointRepository checkpointRepository,
+            AccountConcurrencyStrategy concurrencyStrategy,
+            ObjectProvider<HotAccountService> hotAccounts,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry) {
+        if (ledgerProperties.eventSourced() || ledgerEngineProperties.enabled()) {
+            throw new IllegalStateException("banking.end-of-day.enabled cannot be combined with "
+                    + "banking.ledger.event-sourced or banking.ledger-engine.enabled");
+        }
+        if (properties.partitionSize() < 1 || properties.threads() < 1 || properties.chunkSize() < 1) {
+            throw new IllegalArgumentException(
+                    "banking.end-of-day.partition-size, threads and chunk-size must be positive");
+        }
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.concurrencyStrategy = concurrencyStrategy;
+        this.hotAccounts = hotAccounts;
+        this.jdbcTemplate = jdbcTemplate;
+        this.schedule = CronExpression.parse(properties.schedule());
+        this.partitionSize = properties.partitionSize();
+        this.chunkSize = properties.chunkSize();
+        this.interestRate = properties.interestRate();
+        this.monthlyFee = Money.toMinorUnits(properties.monthlyFee());
+        this.reconciled = Counter.builder("banking.end-of-day.accounts")
+                .description("Beim Tagesabschluss abgeglichene Konten")
+                .register(meterRegistry);
+        this.mismatches = Counter.builder("banking.end-of-day.mismatches")
+                .description("Konten, deren Saldo nicht zur Summe der Buchungen passt")
+                .register(meterRegistry);
+        this.postings = Counter.builder("banking.end-of-day.postings")
+                .description("Gebuchte Zinsen und Gebühren")
+                .register(meterRegistry);
+        this.duration = Timer.builder("banking.end-of-day.duration")
+                .description("Dauer eines Tagesabschlusses")
+                .register(meterRegistry);
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(properties.threads(), runnable -> {
+            Thread thread = new Thread(runnable, "end-of-day-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "end-of-day-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        scheduler.execute(() -> {
+            List<LocalDate> interrupted = jdbcTemplate.queryForList("""
+                    select distinct business_date from end_of_day_checkpoints
+                    where next_account_id < range_end order by business_date
+                    """, LocalDate.class);
+            for (LocalDate businessDate : interrupted) {
+                runSafely(businessDate);
+            }
+            scheduleNext();
+        });
+    }
+
+    /**
+     * Tagesabschluss für den Geschäftstag; setzt einen abgebrochenen Lauf fort, ein fertiger Tag ist ein No-op.
+     */
+    public synchronized EndOfDayReport run(LocalDate businessDate) {
+        long start = System.nanoTime();
+        List<Future<Long>> futures = new ArrayList<>();
+        for (Range range : plan(businessDate)) {
+            futures.add(workers.submit(() -> processRange(businessDate, range)));
+        }
+
+        // Auf alle Partitionen warten, auch wenn eine fehlschlägt: die übrigen committen ihren Fortschritt
+        long processed = 0;
+        Throwable failure = null;
+        for (Future<Long> future : futures) {
+            try {
+                processed += future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("End of day run for " + businessDate + " interrupted", e);
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        duration.record(elapsed);
+        if (failure != null) {
+            throw new IllegalStateException("End of day run for " + businessDate + " failed after "
+                    + processed + " accounts, run again to resume", failure);
+        }
+
+        EndOfDayReport report = report(businessDate, processed, elapsed);
+        log.info("End of day {}: {} accounts, {} mismatches, {} interest ({}), {} fees ({}); "
+                        + "{} accounts in {} ms ({} accounts/s)",
+                businessDate, report.accounts(), report.mismatches(), report.interestPostings(),
+                report.interestTotal(), report.feePostings(), report.feeTotal(), processed, elapsed.toMillis(),
+                Math.round(report.accountsPerSecond()));
+        return report;
+    }
+
+    /**
+     * Partitionen des Tages: die schon angelegten (mit ihren Grenzen, auch wenn sich {@code partition-size}
+     * inzwischen geändert hat), dahinter neue bis zur höchsten Konto-ID.
+     */
+    private List<Range> plan(LocalDate businessDate) {
+        List<Range> ranges = new ArrayList<>(checkpointRepository
+                .findByIdBusinessDateOrderByIdRangeStartAsc(businessDate).stream()
+                .map(checkpoint -> new Range(checkpoint.getId().getRangeStart(), checkpoint.getRangeEnd()))
+                .toList());
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from accounts", Long.class);
+        if (maxId == null) {
+            return ranges;
+        }
+
+        long next = ranges.isEmpty()
+                ? jdbcTemplate.queryForObject("select min(id) from accounts", Long.class)
+                : ranges.get(ranges.size() - 1).end();
+        List<Range> added = new ArrayList<>();
+        for (; next <= maxId; next += partitionSize) {
+            added.add(new Range(next, next + partitionSize));
+        }
+        if (!added.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_CHECKPOINT, added, added.size(), (ps, range) -> {
+                ps.setDate(1, Date.valueOf(businessDate));
+                ps.setLong(2, range.start());
+                ps.setLong(3, range.end());
+                ps.setLong(4, range.start());
+            });
+            ranges.addAll(added);
+        }
+        return ranges;
+    }
+
+    /**
+     * Arbeitet eine Partition ab dem Checkpoint ab.
+     *
+     * @return Anzahl der in diesem Lauf abgeglichenen Konten
+     */
+    private long processRange(LocalDate businessDate, Range range) {
+        long next = jdbcTemplate.queryForObject(
+                "select next_account_id from end_of_day_checkpoints where business_date = ? and range_start = ?",
+                Long.class, Date.valueOf(businessDate), range.start());
+        long processed = 0;
+        while (next < range.end()) {
+            List<AccountRef> chunk = jdbcTemplate.query(SELECT_CHUNK,
+                    (rs, rowNum) -> new AccountRef(rs.getLong("id"), rs.getString("iban")),
+                    next, range.end(), chunkSize);
+            // Ein unvollständiger Chunk ist der letzte der Partition
+            long advanceTo = chunk.size() < chunkSize ? range.end() : chunk.get(chunk.size() - 1).id() + 1;
+            if (chunk.isEmpty()) {
+                advance(businessDate, range, advanceTo, ChunkResult.EMPTY);
+            } else {
+                List<String> ibans = chunk.stream().map(AccountRef::iban).toList();
+                ChunkResult result = concurrencyStrategy.execute("End of day", ibans,
+                        () -> processChunk(businessDate, range, chunk, advanceTo));
+                reconciled.increment(result.accounts());
+                mismatches.increment(result.mismatches());
+                postings.increment(result.interestPostings() + result.feePostings());
+                processed += result.accounts();
+            }
+            next = advanceTo;
+        }
+        return processed;
+    }
+
+    private ChunkResult processChunk(LocalDate businessDate, Range range, List<AccountRef> chunk, long advanceTo) {
+        long first = chunk.get(0).id();
+        long last = chunk.get(chunk.size() - 1).id();
+        Timestamp close = Timestamp.valueOf(businessDate.plusDays(1).atStartOfDay());
+        List<Reconciled> rows = jdbcTemplate.query(RECONCILE, (rs, rowNum) -> new Reconciled(
+                rs.getLong("id"),
+                rs.getString("iban"),
+                Money.toMinorUnits(rs.getBigDecimal("balance")),
+                Money.toMinorUnits(rs.getBigDecimal("expected")),
+                Money.toMinorUnits(rs.getBigDecimal("after_close"))), close, first, last, first, last, first, last);
+
+        List<Reconciled> mismatched = new ArrayList<>();
+        Map<Long, Reconciled> postable = new HashMap<>();
+        HotAccountService hot = hotAccounts.getIfAvailable();
+        for (Reconciled row : rows) {
+            if (row.balance() != row.expected()) {
+                log.warn("End of day {}: balance of {} is {} but transactions sum up to {}", businessDate,
+                        row.iban(), Money.format(row.balance()), Money.format(row.expected()));
+                mismatched.add(row);
+            } else if (hot == null || !hot.isHot(row.iban())) {
+                postable.put(row.id(), row);
+            }
+        }
+
+        ChunkResult result = post(businessDate, postable, rows.size(), mismatched.size());
+        if (!mismatched.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.batchUpdate(INSERT_MISMATCH, mismatched, mismatched.size(), (ps, row) -> {
+                ps.setDate(1, Date.valueOf(businessDate));
+                ps.setLong(2, row.id());
+                ps.setBigDecimal(3, Money.toBigDecimal(row.balance()));
+                ps.setBigDecimal(4, Money.toBigDecimal(row.expected()));
+                ps.setTimestamp(5, Timestamp.valueOf(now));
+            });
+        }
+        advance(businessDate, range, advanceTo, result);
+        return result;
+    }
+
+    private ChunkResult post(LocalDate businessDate, Map<Long, Reconciled> postable, long accounts,
+            long mismatchCount) {
+        boolean monthEnd = businessDate.equals(YearMonth.from(businessDate).atEndOfMonth());
+        boolean chargeFee = monthEnd && monthlyFee > 0;
+        if (postable.isEmpty() || (interestRate.signum() == 0 && !chargeFee)) {
+            return new ChunkResult(accounts, mismatchCount, 0, 0, 0, 0);
+        }
+
+        List<Transaction> transactions = new ArrayList<>();
+        long interestPostings = 0;
+        long interestTotal = 0;
+        long feePostings = 0;
+        for (Account account : accountRepository.findAllById(postable.keySet())) {
+            Reconciled row = postable.get(account.getId());
+            long interest = interest(row.balance() - row.afterClose());
+            if (interest > 0) {
+                transactions.add(account.credit(interest, "Zinsen " + businessDate));
+                interestPostings++;
+                interestTotal += interest;
+            }
+            if (chargeFee && account.getBalanceMinorUnits() >= monthlyFee) {
+                transactions.add(account.debit(monthlyFee, "Kontoführungsgebühr " + YearMonth.from(businessDate)));
+                feePostings++;
+            }
+        }
+        transactionRepository.saveAll(transactions);
+        return new ChunkResult(accounts, mismatchCount, interestPostings, interestTotal, feePostings,
+                feePostings * monthlyFee);
+    }
+
+    private long interest(long closingBalance) {
+        if (closingBalance <= 0 || interestRate.signum() <= 0) {
+            return 0;
+        }
+        return BigDecimal.valueOf(closingBalance)
+                .multiply(interestRate)
+                .divide(DAYS_PER_YEAR, 0, RoundingMode.DOWN)
+                .longValueExact();
+    }
+
+    private void advance(LocalDate businessDate, Range range, long nextAccountId, ChunkResult result) {
+        jdbcTemplate.update(ADVANCE_CHECKPOINT, nextAccountId, result.accounts(), result.mismatches(),
+                result.interestPostings(), Money.toBigDecimal(result.interestTotal()), result.feePostings(),
+                Money.toBigDecimal(result.feeTotal()), Date.valueOf(businessDate), range.start());
+    }
+
+    private EndOfDayReport report(LocalDate businessDate, long processed, Duration elapsed) {
+        long accounts = 0;
+        long mismatchCount = 0;
+        long interestPostings = 0;
+        long interestTotal = 0;
+        long feePostings = 0;
+        long feeTotal = 0;
+        for (EndOfDayCheckpoint checkpoint : checkpointRepository
+                .findByIdBusinessDateOrderByIdRangeStartAsc(businessDate)) {
+            accounts += checkpoint.getAccounts();
+            mismatchCount += checkpoint.getMismatches();
+            interestPostings += checkpoint.getInterestPostings();
+            interestTotal += checkpoint.getInterestTotalMinorUnits();
+            feePostings += checkpoint.getFeePostings();
+            feeTotal += checkpoint.getFeeTotalMinorUnits();
+        }
+        return new EndOfDayReport(businessDate, accounts, mismatchCount, interestPostings,
+                Money.toBigDecimal(interestTotal), feePostings, Money.toBigDecimal(feeTotal), processed, elapsed);
+    }
+
+    private void scheduleNext() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = schedule.next(now);
+        if (next == null) {
+            return;
+        }
+        scheduler.schedule(() -> {
+            runSafely(next.toLocalDate().minusDays(1));
+            scheduleNext();
+        }, Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void runSafely(LocalDate businessDate) {
+        try {
+            run(businessDate);
+        } catch (RuntimeException e) {
+            log.error("End of day run for {} failed", businessDate, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private record Range(long start, long end) {
+    }
+
+    private record AccountRef(long id, String iban) {
+    }
+
+    // Beträge in Cent; afterClose sind die Buchungen nach Ende des Geschäftstags
+    private record Reconciled(long id, String iban, long balance, long expected, long afterClose) {
+    }
+
+    private record ChunkResult(long accounts, long mismatches, long interestPostings, long interestTotal,
+            long feePostings, long feeTotal) {
+
+        static final ChunkResult EMPTY = new ChunkResult(0, 0, 0, 0, 0, 0);
+    }
+}
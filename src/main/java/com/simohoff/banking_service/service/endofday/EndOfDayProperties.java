@@ -0,0 +1,32 @@
+package com.simohoff.banking_service.service.endofday;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.math.BigDecimal;
+
+/**
+ * Konfiguration unter {@code banking.end-of-day.*}.
+ */
+@ConfigurationProperties(prefix = "banking.end-of-day")
+public record EndOfDayProperties(
+        @DefaultValue("false") boolean enabled,
+
+        // Spring-Cron; verarbeitet wird jeweils der Vortag
+        @DefaultValue("0 30 0 * * *") String schedule,
+
+        // Konto-IDs pro Partition, jede Partition hat ihren eigenen Checkpoint
+        @DefaultValue("10000") long partitionSize,
+
+        // Parallel bearbeitete Partitionen, jede belegt eine Connection
+        @DefaultValue("4") int threads,
+
+        // Konten pro Transaktion; so lange sind sie für Live-Buchungen gesperrt
+        @DefaultValue("200") int chunkSize,
+
+        // Zinssatz p.a. als Dezimalbruch (0.02 = 2 %), act/365 auf den Tagesendsaldo
+        @DefaultValue("0") BigDecimal interestRate,
+
+        // Wird am Monatsletzten abgebucht, nur bei ausreichender Deckung
+        @DefaultValue("0") BigDecimal monthlyFee) {
+}
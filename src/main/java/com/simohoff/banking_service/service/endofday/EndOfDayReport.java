@@ -0,0 +1,26 @@
+package com.simohoff.banking_service.service.endofday;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Ergebnis eines Tagesabschlusses. Die Summen gelten für den ganzen Geschäftstag (auch für Chunks, die ein
+ * abgebrochener Lauf schon committet hat), {@code processed} und {@code elapsed} nur für diesen Lauf.
+ */
+public record EndOfDayReport(
+        LocalDate businessDate,
+        long accounts,
+        long mismatches,
+        long interestPostings,
+        BigDecimal interestTotal,
+        long feePostings,
+        BigDecimal feeTotal,
+        long processed,
+        Duration elapsed) {
+
+    public double accountsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : processed * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,19 @@
+package com.simohoff.banking_service.service.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Konfiguration unter {@code banking.idempotency.*}.
+ */
+@ConfigurationProperties(prefix = "banking.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("100000") long maxSize,
+
+        @DefaultValue("24h") Duration ttl,
+
+        // Ein Claim ohne Antwort, der älter ist, gilt als verwaist (Prozess abgebrochen) und darf übernommen werden
+        @DefaultValue("30s") Duration claimTimeout) {
+}
@@ -0,0 +1,317 @@
+package com.simohoff.banking_service.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.simohoff.banking_service.domain.IdempotencyRecord;
+import com.simohoff.banking_service.exception.IdempotencyConflictException;
+import com.simohoff.banking_service.repository.IdempotencyRecordRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Führt eine Buchung pro {@code Idempotency-Key} genau einmal aus.
+ *
+ * Vorne liegt ein größenbeschränkter In-Memory-Store: parallele Duplikate warten auf dieselbe laufende
+ * Ausführung, spätere Wiederholungen bekommen das Ergebnis ohne Datenbankzugriff.
+ * Dahinter sichert die Tabelle {@code idempotency_keys} (Key als Primärschlüssel) die Eindeutigkeit
+ * über Neustarts und Instanzen hinweg; Wiederholungen lesen nur diese Tabelle, nie das Konto.
+ *
+ * Die Antwort wird immer in der Transaktion der Buchung gespeichert: ist die Buchung committet, ist es auch die
+ * Antwort, ein Claim ohne Antwort heißt also "noch nicht oder gar nicht gebucht". Synchrone Buchungen laufen mit
+ * Claim und Antwort in einer Transaktion. Asynchrone Buchungen committen auf einem anderen Thread, dort wird der
+ * Key vorab belegt und die Buchung schreibt die Antwort über den Hook aus {@link #executeAsync} selbst mit.
+ *
+ * Bricht der Prozess vor dem Commit ab, bleibt ein Claim ohne Antwort; nach {@code claim-timeout} darf eine
+ * Wiederholung ihn übernehmen. Läuft der ursprüngliche Besitzer doch noch, scheitert seine Buchung: Antwort und
+ * Freigabe setzen voraus, dass der Claim noch seinen Zeitpunkt trägt, sonst wird seine Transaktion zurückgerollt
+ * ({@link IdempotencyConflictException}, 409). So wird pro Key höchstens einmal gebucht.
+ *
+ * Scheitert die Buchung, wird der Key wieder freigegeben und der Client darf es erneut versuchen.
+ */
+@Service
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration claimTimeout;
+    private final Cache<String, Execution> executions;
+    // Gibt Claims gescheiterter asynchroner Buchungen frei, nicht der Thread, der deren Future erfüllt
+    // (z.B. ein Writer-Thread)
+    private final ExecutorService claimReleaser;
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            IdempotencyProperties properties) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.claimTimeout = properties.claimTimeout();
+        this.executions = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfterWrite(properties.ttl())
+                .build();
+        this.claimReleaser = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-release");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param key         Wert des {@code Idempotency-Key}-Headers, ohne Key wird {@code work} direkt ausgeführt
+     * @param fingerprint Operation und Request-Inhalt, ein Key darf nur für denselben Request verwendet werden
+     * @param type        Typ der Antwort, wird für Wiederholungen als JSON gespeichert
+     * @param work        die eigentliche Buchung; nimmt an der Transaktion des Claims teil
+     */
+    public <T> T execute(String key, String fingerprint, Class<T> type, Supplier<T> work) {
+        if (key == null || key.isBlank()) {
+            return work.get();
+        }
+
+        Execution mine = new Execution(hash(fingerprint), new CompletableFuture<>());
+        Execution existing = executions.asMap().putIfAbsent(key, mine);
+        if (existing != null) {
+            return await(key, existing, mine.requestHash(), type);
+        }
+
+        try {
+            T result = claimAndExecute(key, mine.requestHash(), type, work);
+            mine.response().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            executions.asMap().remove(key, mine);
+            mine.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Wie {@link #execute}, für Buchungen, die ein Future liefern. Der Key wird sofort belegt; parallele Duplikate
+     * bekommen dasselbe Future, ohne zu blockieren.
+     *
+     * @param work bekommt einen Hook, den die Buchung innerhalb ihrer Transaktion mit ihrer Antwort aufrufen muss;
+     *             er speichert die Antwort und gibt sie zurück. Wurde der Claim inzwischen übernommen, wirft er
+     *             {@link IdempotencyConflictException} und die Buchung wird zurückgerollt.
+     */
+    public <T> CompletableFuture<T> executeAsync(String key, String fingerprint, Class<T> type,
+            Function<UnaryOperator<T>, CompletableFuture<T>> work) {
+        if (key == null || key.isBlank()) {
+            return work.apply(UnaryOperator.identity());
+        }
+
+        Execution mine = new Execution(hash(fingerprint), new CompletableFuture<>());
+        Execution existing = executions.asMap().putIfAbsent(key, mine);
+        if (existing != null) {
+            checkSameRequest(key, existing.requestHash(), mine.requestHash());
+            return existing.response().thenApply(type::cast);
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = claimAndExecuteAsync(key, mine.requestHash(), type, work);
+        } catch (RuntimeException e) {
+            executions.asMap().remove(key, mine);
+            mine.response().completeExceptionally(e);
+            throw e;
+        }
+        return result.whenComplete((response, error) -> {
+            if (error != null) {
+                executions.asMap().remove(key, mine);
+                mine.response().completeExceptionally(error);
+            } else {
+                mine.response().complete(response);
+            }
+        });
+    }
+
+    private <T> CompletableFuture<T> claimAndExecuteAsync(String key, String requestHash, Class<T> type,
+            Function<UnaryOperator<T>, CompletableFuture<T>> work) {
+        IdempotencyRecord stored = repository.findById(key).orElse(null);
+        if (stored != null && !isOrphaned(stored)) {
+            return CompletableFuture.completedFuture(replay(stored, requestHash, type));
+        }
+
+        LocalDateTime claimedAt;
+        if (stored != null) {
+            checkSameRequest(key, stored.getRequestHash(), requestHash);
+            claimedAt = now();
+            if (repository.takeOver(key, stored.getCreatedAt(), claimedAt) == 0) {
+                throw new IdempotencyConflictException(key);
+            }
+        } else {
+            IdempotencyRecord claim = new IdempotencyRecord(key, requestHash);
+            try {
+                repository.saveAndFlush(claim);
+            } catch (DataIntegrityViolationException e) {
+                return CompletableFuture.completedFuture(replay(findOrConflict(key), requestHash, type));
+            }
+            claimedAt = claim.getCreatedAt();
+        }
+
+        CompletableFuture<T> booking;
+        try {
+            booking = work.apply(response -> complete(key, claimedAt, response));
+        } catch (RuntimeException e) {
+            repository.release(key, claimedAt);
+            throw e;
+        }
+
+        // Die Antwort ist mit der Buchung committet, hier wird nur noch ein gescheiterter Claim freigegeben
+        return booking.handleAsync((result, error) -> {
+            if (error != null) {
+                repository.release(key, claimedAt);
+                throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+            }
+            return result;
+        }, claimReleaser);
+    }
+
+    private <T> T claimAndExecute(String key, String requestHash, Class<T> type, Supplier<T> work) {
+        IdempotencyRecord stored = repository.findById(key).orElse(null);
+        if (stored != null && !isOrphaned(stored)) {
+            return replay(stored, requestHash, type);
+        }
+        if (stored != null) {
+            checkSameRequest(key, stored.getRequestHash(), requestHash);
+        }
+
+        // Scheitert erst die Buchung, ist der Fehler ihrer, nicht der des Claims
+        AtomicBoolean claimed = new AtomicBoolean();
+        try {
+            return transactionTemplate.execute(status -> {
+                LocalDateTime claimedAt;
+                if (stored == null) {
+                    IdempotencyRecord claim = new IdempotencyRecord(key, requestHash);
+                    repository.saveAndFlush(claim);
+                    claimedAt = claim.getCreatedAt();
+                } else {
+                    claimedAt = now();
+                    if (repository.takeOver(key, stored.getCreatedAt(), claimedAt) == 0) {
+                        throw new IdempotencyConflictException(key);
+                    }
+                }
+                claimed.set(true);
+
+                return complete(key, claimedAt, work.get());
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (claimed.get()) {
+                throw e;
+            }
+            // Eine andere Instanz war schneller
+            return replay(findOrConflict(key), requestHash, type);
+        }
+    }
+
+    /**
+     * Speichert die Antwort in der laufenden Transaktion, sofern der Claim noch {@code claimedAt} trägt.
+     */
+    private <T> T complete(String key, LocalDateTime claimedAt, T response) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Response for Idempotency-Key " + key
+                    + " must be stored in the booking transaction");
+        }
+        if (repository.complete(key, claimedAt, toJson(response)) == 0) {
+            throw new IdempotencyConflictException(key);
+        }
+        return response;
+    }
+
+    /**
+     * Claim ohne Antwort, dessen Besitzer nach {@code claim-timeout} nicht fertig geworden ist.
+     */
+    private boolean isOrphaned(IdempotencyRecord stored) {
+        return !stored.isCompleted() && stored.getCreatedAt().isBefore(LocalDateTime.now().minus(claimTimeout));
+    }
+
+    // Auf die Genauigkeit der Spalte gekürzt, wie in IdempotencyRecord
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private IdempotencyRecord findOrConflict(String key) {
+        return repository.findById(key).orElseThrow(() -> new IdempotencyConflictException(key));
+    }
+
+    private <T> T replay(IdempotencyRecord stored, String requestHash, Class<T> type) {
+        checkSameRequest(stored.getKey(), stored.getRequestHash(), requestHash);
+        if (!stored.isCompleted()) {
+            throw new IdempotencyConflictException(stored.getKey());
+        }
+        try {
+            return objectMapper.readValue(stored.getResponseBody(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for Idempotency-Key " + stored.getKey()
+                    + " is not readable", e);
+        }
+    }
+
+    private static <T> T await(String key, Execution execution, String requestHash, Class<T> type) {
+        checkSameRequest(key, execution.requestHash(), requestHash);
+        try {
+            return type.cast(execution.response().join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void checkSameRequest(String key, String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IllegalArgumentException("Idempotency-Key " + key + " was already used for a different request");
+        }
+    }
+
+    private String toJson(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response cannot be stored as JSON", e);
+        }
+    }
+
+    private static String hash(String fingerprint) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(fingerprint.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        claimReleaser.shutdown();
+        claimReleaser.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private record Execution(String requestHash, CompletableFuture<Object> response) {
+    }
+}
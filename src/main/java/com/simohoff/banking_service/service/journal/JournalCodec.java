@@ -0,0 +1,137 @@
+package com.simohoff.banking_service.service.journal;
+
+import com.simohoff.banking_service.domain.TransactionType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * Binärformat des Journals. Ein Record besteht aus {@code [int Länge][int CRC32C][Payload]},
+ * Länge 0 markiert das Ende eines Segments. Ein Record mit falscher Prüfsumme (abgerissener Schreibvorgang)
+ * beendet das Lesen des Segments.
+ */
+final class JournalCodec {
+
+    static final int HEADER_BYTES = 8;
+
+    private static final byte ACCOUNT_CREATED = 1;
+    private static final byte TRANSACTION_APPLIED = 2;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private JournalCodec() {
+    }
+
+    /**
+     * Kodiert den Eintrag inklusive Header.
+     */
+    static byte[] encode(JournalEntry entry) {
+        byte[] body = entry instanceof JournalEntry.AccountCreated account
+                ? encodeAccount(account)
+                : encodeTransaction((JournalEntry.TransactionApplied) entry);
+
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        return ByteBuffer.allocate(HEADER_BYTES + body.length)
+                .putInt(body.length)
+                .putInt((int) crc.getValue())
+                .put(body)
+                .array();
+    }
+
+    /**
+     * Liest den nächsten Record ab der aktuellen Position, {@code null} am Segment-Ende
+     * oder bei einem unvollständigen Record.
+     */
+    static JournalEntry decode(ByteBuffer segment) {
+        if (segment.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int start = segment.position();
+        int length = segment.getInt();
+        int checksum = segment.getInt();
+        if (length <= 0 || length > segment.remaining()) {
+            segment.position(start);
+            return null;
+        }
+
+        ByteBuffer payload = segment.slice(segment.position(), length);
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            segment.position(start);
+            return null;
+        }
+        segment.position(segment.position() + length);
+
+        byte kind = payload.get();
+        if (kind == ACCOUNT_CREATED) {
+            long id = payload.getLong();
+            LocalDateTime createdAt = fromMicros(payload.getLong());
+            String iban = readString(payload);
+            String ownerName = readString(payload);
+            return new JournalEntry.AccountCreated(id, iban, ownerName, createdAt);
+        }
+        if (kind == TRANSACTION_APPLIED) {
+            long id = payload.getLong();
+            long accountId = payload.getLong();
+            TransactionType type = TYPES[payload.get()];
+            long amount = payload.getLong();
+            LocalDateTime timestamp = fromMicros(payload.getLong());
+            String reference = readString(payload);
+            return new JournalEntry.TransactionApplied(id, accountId, type, amount, reference, timestamp);
+        }
+        throw new IllegalStateException("Unknown journal record type " + kind);
+    }
+
+    private static byte[] encodeAccount(JournalEntry.AccountCreated account) {
+        byte[] iban = utf8(account.iban());
+        byte[] ownerName = utf8(account.ownerName());
+        return ByteBuffer.allocate(1 + 8 + 8 + 4 + iban.length + 4 + ownerName.length)
+                .put(ACCOUNT_CREATED)
+                .putLong(account.id())
+                .putLong(toMicros(account.createdAt()))
+                .putInt(iban.length).put(iban)
+                .putInt(ownerName.length).put(ownerName)
+                .array();
+    }
+
+    private static byte[] encodeTransaction(JournalEntry.TransactionApplied transaction) {
+        byte[] reference = transaction.reference() != null ? utf8(transaction.reference()) : new byte[0];
+        return ByteBuffer.allocate(1 + 8 + 8 + 1 + 8 + 8 + 4 + reference.length)
+                .put(TRANSACTION_APPLIED)
+                .putLong(transaction.id())
+                .putLong(transaction.accountId())
+                .put((byte) transaction.type().ordinal())
+                .putLong(transaction.amount())
+                .putLong(toMicros(transaction.timestamp()))
+                .putInt(transaction.reference() != null ? reference.length : -1)
+                .put(reference)
+                .array();
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,28 @@
+package com.simohoff.banking_service.service.journal;
+
+import com.simohoff.banking_service.domain.TransactionType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ein Eintrag im Journal. Salden werden nicht gespeichert, sie ergeben sich beim Replay aus den Transaktionen.
+ */
+public sealed interface JournalEntry {
+
+    record AccountCreated(
+            long id,
+            String iban,
+            String ownerName,
+            LocalDateTime createdAt) implements JournalEntry {
+    }
+
+    record TransactionApplied(
+            long id,
+            long accountId,
+            TransactionType type,
+            // In Cent, siehe Money
+            long amount,
+            String reference,
+            LocalDateTime timestamp) implements JournalEntry {
+    }
+}
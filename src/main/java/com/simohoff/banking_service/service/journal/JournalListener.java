@@ -0,0 +1,46 @@
+package com.simohoff.banking_service.service.journal;
+
+import com.simohoff.banking_service.domain.Account;
+import com.simohoff.banking_service.domain.Transaction;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA Entity Listener auf {@link Account} und {@link Transaction}: schreibt neue Konten und Buchungen
+ * ins {@link LedgerJournal}, sofern das Journal aktiv ist. Geschrieben wird erst nach dem Commit.
+ */
+@Component
+public class JournalListener {
+
+    // ObjectProvider, weil das Journal optional ist
+    private final ObjectProvider<LedgerJournal> journal;
+
+    public JournalListener(ObjectProvider<LedgerJournal> journal) {
+        this.journal = journal;
+    }
+
+    @PostPersist
+    void afterPersist(Object entity) {
+        LedgerJournal ledgerJournal = journal.getIfAvailable();
+        if (ledgerJournal == null) {
+            return;
+        }
+
+        if (entity instanceof Account account) {
+            ledgerJournal.stage(new JournalEntry.AccountCreated(
+                    account.getId(),
+                    account.getIban(),
+                    account.getOwnerName(),
+                    account.getCreatedAt()));
+        } else if (entity instanceof Transaction transaction) {
+            ledgerJournal.stage(new JournalEntry.TransactionApplied(
+                    transaction.getId(),
+                    transaction.getAccount().getId(),
+                    transaction.getType(),
+                    transaction.getAmountMinorUnits(),
+                    transaction.getReference(),
+                    transaction.getTimestamp()));
+        }
+    }
+}
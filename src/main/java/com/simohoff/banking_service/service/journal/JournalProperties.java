@@ -0,0 +1,19 @@
+package com.simohoff.banking_service.service.journal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Konfiguration unter {@code banking.journal.*}.
+ */
+@ConfigurationProperties(prefix = "banking.journal")
+public record JournalProperties(
+        @DefaultValue("false") boolean enabled,
+
+        @DefaultValue("data/journal") Path directory,
+
+        @DefaultValue("64MB") DataSize segmentSize) {
+}
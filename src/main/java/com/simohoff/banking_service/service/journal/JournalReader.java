@@ -0,0 +1,64 @@
+package com.simohoff.banking_service.service.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Liest alle Segmente eines Journals in Schreibreihenfolge.
+ */
+final class JournalReader {
+
+    private JournalReader() {
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().matches("journal-\\d{8}\\.log"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static int lastSegmentIndex(Path directory) throws IOException {
+        List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            return 0;
+        }
+        String name = segments.get(segments.size() - 1).getFileName().toString();
+        return Integer.parseInt(name.substring("journal-".length(), name.length() - ".log".length()));
+    }
+
+    /**
+     * @return Anzahl der gelesenen Einträge
+     */
+    static long read(Path directory, Consumer<JournalEntry> consumer) {
+        long entries = 0;
+        try {
+            for (Path file : segments(directory)) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    JournalEntry entry;
+                    while ((entry = JournalCodec.decode(segment)) != null) {
+                        consumer.accept(entry);
+                        entries++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read journal in " + directory, e);
+        }
+        return entries;
+    }
+}
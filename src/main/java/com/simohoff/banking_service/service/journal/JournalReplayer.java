@@ -0,0 +1,227 @@
+package com.simohoff.banking_service.service.journal;
+
+import com.simohoff.banking_service.domain.DailyStatementId;
+import com.simohoff.banking_service.domain.Money;
+import com.simohoff.banking_service.domain.TransactionType;
+import com.simohoff.banking_service.service.archive.TransactionArchive;
+import com.simohoff.banking_service.service.statement.DailyTotals;
+import com.simohoff.banking_service.service.statement.StatementRollup;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stellt beim Start Konten und Transaktionen aus dem {@link LedgerJournal} wieder her.
+ * Gedacht für die In-Memory-Datenbank mit {@code create-drop}: ist die Tabelle {@code accounts} nicht leer,
+ * wird nichts eingespielt.
+ *
+ * Zwei Durchläufe über die Segmente: zuerst Konten und Salden (Summe der Transaktionen), dann die Transaktionen
+ * selbst als JDBC-Batches, mit dem laufenden Saldo und den Tagesauszügen. Danach werden die Sequenzen hinter die
+ * höchste eingespielte ID gesetzt.
+ *
+ * Mit {@link TransactionArchive} werden Buchungen, deren Konto-Monat schon in einem Segment liegt, nicht wieder
+ * in die Tabelle geschrieben; für diese Konten entsteht stattdessen der Saldovortrag in {@code archive_markers},
+ * wie ihn der {@code HistoryArchiver} hinterlassen hätte. Geprüft wird pro Konto, nicht pro Monat: Hot Accounts
+ * fehlen in den Segmenten und kommen vollständig in die Tabelle.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.journal", name = "enabled", havingValue = "true")
+public class JournalReplayer {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalReplayer.class);
+
+    private static final int BATCH_SIZE = 10_000;
+    // Müssen zu den allocationSize-Werten in Account und Transaction passen
+    private static final int ACCOUNT_SEQUENCE_INCREMENT = 50;
+    private static final int TRANSACTION_SEQUENCE_INCREMENT = 100;
+
+    private final Path directory;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<TransactionArchive> archive;
+
+    // EntityManagerFactory nur als Abhängigkeit: das Schema muss vor dem Replay angelegt sein
+    public JournalReplayer(JournalProperties properties, JdbcTemplate jdbcTemplate,
+            ObjectProvider<TransactionArchive> archive, EntityManagerFactory entityManagerFactory) {
+        this.directory = properties.directory();
+        this.jdbcTemplate = jdbcTemplate;
+        this.archive = archive;
+    }
+
+    @PostConstruct
+    void replay() {
+        Integer existing = jdbcTemplate.queryForObject("select count(*) from accounts", Integer.class);
+        if (existing != null && existing > 0) {
+            log.warn("Skipping journal replay, accounts table already contains {} rows", existing);
+            return;
+        }
+
+        long start = System.nanoTime();
+        ReplayResult result = replay(directory, jdbcTemplate, archive.getIfAvailable());
+        if (result.entries() > 0) {
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            log.info("Replayed {} journal entries ({} accounts, {} transactions, {} already archived) in {} ms",
+                    result.entries(), result.accounts(), result.transactions(), result.archived(), millis);
+        }
+    }
+
+    static ReplayResult replay(Path directory, JdbcTemplate jdbcTemplate) {
+        return replay(directory, jdbcTemplate, null);
+    }
+
+    /**
+     * @param archive {@code null} ohne Archivierung
+     */
+    static ReplayResult replay(Path directory, JdbcTemplate jdbcTemplate, TransactionArchive archive) {
+        // Durchlauf 1: Konten und Salden
+        List<JournalEntry.AccountCreated> accounts = new ArrayList<>();
+        Map<Long, Long> balances = new HashMap<>();
+        long entries = JournalReader.read(directory, entry -> {
+            if (entry instanceof JournalEntry.AccountCreated account) {
+                accounts.add(account);
+            } else if (entry instanceof JournalEntry.TransactionApplied transaction) {
+                long amount = transaction.type() == TransactionType.CREDIT
+                        ? transaction.amount()
+                        : -transaction.amount();
+                balances.merge(transaction.accountId(), amount, Money::add);
+            }
+        });
+        if (accounts.isEmpty()) {
+            return new ReplayResult(entries, 0, 0, 0);
+        }
+
+        jdbcTemplate.batchUpdate("""
+                insert into accounts (id, iban, owner_name, balance, created_at, version)
+                values (?, ?, ?, ?, ?, 0)
+                """, accounts, BATCH_SIZE, (ps, account) -> {
+            ps.setLong(1, account.id());
+            ps.setString(2, account.iban());
+            ps.setString(3, account.ownerName());
+            ps.setBigDecimal(4, Money.toBigDecimal(balances.getOrDefault(account.id(), 0L)));
+            ps.setTimestamp(5, Timestamp.valueOf(account.createdAt()));
+        });
+
+        // Durchlauf 2: Transaktionen in Commit-Reihenfolge, dabei laufende Salden, Tagesauszüge und Saldovorträge
+        List<JournalEntry.TransactionApplied> batch = new ArrayList<>(BATCH_SIZE);
+        long[] balancesAfter = new long[BATCH_SIZE];
+        Map<Long, Long> running = new HashMap<>();
+        Map<DailyStatementId, DailyTotals> statements = new LinkedHashMap<>();
+        Map<Long, ArchivedTail> markers = new LinkedHashMap<>();
+        // Eingefügte und übersprungene Transaktionen, höchste ID
+        long[] counts = {0, 0, 0};
+        JournalReader.read(directory, entry -> {
+            if (entry instanceof JournalEntry.TransactionApplied transaction) {
+                long before = running.getOrDefault(transaction.accountId(), 0L);
+                long after = transaction.type() == TransactionType.CREDIT
+                        ? Money.add(before, transaction.amount())
+                        : Money.subtract(before, transaction.amount());
+                running.put(transaction.accountId(), after);
+                statements.computeIfAbsent(
+                                new DailyStatementId(transaction.accountId(), transaction.timestamp().toLocalDate(), 0),
+                                id -> new DailyTotals(transaction.accountId(), id.getBookingDate(), 0))
+                        .add(transaction.type(), transaction.amount());
+                counts[2] = Math.max(counts[2], transaction.id());
+
+                YearMonth month = YearMonth.from(transaction.timestamp());
+                if (archive != null && archive.contains(month, transaction.accountId())) {
+                    markers.computeIfAbsent(transaction.accountId(), id -> new ArchivedTail()).add(month, after);
+                    counts[1]++;
+                    return;
+                }
+                balancesAfter[batch.size()] = after;
+                batch.add(transaction);
+                if (batch.size() == BATCH_SIZE) {
+                    counts[0] += insertTransactions(jdbcTemplate, batch, balancesAfter);
+                }
+            }
+        });
+        counts[0] += insertTransactions(jdbcTemplate, batch, balancesAfter);
+        StatementRollup.write(jdbcTemplate, statements.values());
+        insertMarkers(jdbcTemplate, markers);
+
+        long maxAccountId = accounts.stream().mapToLong(JournalEntry.AccountCreated::id).max().orElse(0);
+        restartSequence(jdbcTemplate, "account_seq", maxAccountId + ACCOUNT_SEQUENCE_INCREMENT);
+        // Aus dem Journal statt aus der Tabelle: die höchste ID kann in einem archivierten Monat liegen
+        restartSequence(jdbcTemplate, "transaction_seq", counts[2] + TRANSACTION_SEQUENCE_INCREMENT);
+
+        return new ReplayResult(entries, accounts.size(), counts[0], counts[1]);
+    }
+
+    // Gleiche Bedeutung wie beim HistoryArchiver: bis archived_until (exklusiv) liegt die Historie im Archiv
+    private static void insertMarkers(JdbcTemplate jdbcTemplate, Map<Long, ArchivedTail> markers) {
+        jdbcTemplate.batchUpdate("""
+                insert into archive_markers (account_id, archived_until, balance_after, transaction_count)
+                values (?, ?, ?, ?)
+                """, new ArrayList<>(markers.entrySet()), BATCH_SIZE, (ps, marker) -> {
+            ps.setLong(1, marker.getKey());
+            ps.setTimestamp(2, Timestamp.valueOf(marker.getValue().archivedUntil));
+            ps.setBigDecimal(3, Money.toBigDecimal(marker.getValue().balanceAfter));
+            ps.setLong(4, marker.getValue().count);
+        });
+    }
+
+    private static int insertTransactions(JdbcTemplate jdbcTemplate, List<JournalEntry.TransactionApplied> batch,
+            long[] balancesAfter) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int[] row = {0};
+        jdbcTemplate.batchUpdate("""
+                insert into transactions (id, amount, type, timestamp, reference, account_id, balance_after)
+                values (?, ?, ?, ?, ?, ?, ?)
+                """, batch, BATCH_SIZE, (ps, transaction) -> {
+            ps.setLong(1, transaction.id());
+            ps.setBigDecimal(2, Money.toBigDecimal(transaction.amount()));
+            ps.setString(3, transaction.type().name());
+            ps.setTimestamp(4, Timestamp.valueOf(transaction.timestamp()));
+            ps.setString(5, transaction.reference());
+            ps.setLong(6, transaction.accountId());
+            ps.setBigDecimal(7, Money.toBigDecimal(balancesAfter[row[0]++]));
+        });
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+
+    // Pooled Optimizer: der nächste Sequenzwert ist das obere Ende des nächsten ID-Blocks
+    private static void restartSequence(JdbcTemplate jdbcTemplate, String sequence, long nextValue) {
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + nextValue);
+    }
+
+    // Saldovortrag eines Kontos: Saldo nach der letzten übersprungenen Buchung
+    private static final class ArchivedTail {
+        private LocalDateTime archivedUntil = LocalDateTime.MIN;
+        private long balanceAfter;
+        private long count;
+
+        void add(YearMonth month, long balance) {
+            LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+            if (end.isAfter(archivedUntil)) {
+                archivedUntil = end;
+            }
+            balanceAfter = balance;
+            count++;
+        }
+    }
+
+    /**
+     * @param transactions in die Tabelle geschriebene Transaktionen
+     * @param archived übersprungene Transaktionen, die schon im Archiv liegen
+     */
+    record ReplayResult(long entries, long accounts, long transactions, long archived) {
+    }
+}
@@ -0,0 +1,312 @@
+package com.simohoff.banking_service.service.journal;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-Ahead Journal auf memory-mapped Segment-Dateien ({@code journal-00000001.log}, ...).
+ *
+ * Jede committete Buchung wird angehängt, bevor der Aufrufer eine Antwort bekommt; erst nach dem
+ * {@code force()} gilt sie als dauerhaft. Ein einzelner Flush-Thread synchronisiert alles, was seit dem
+ * letzten Flush geschrieben wurde, auf einmal (Group Commit): viele parallele Buchungen teilen sich ein fsync.
+ * Nach einem Neustart wird in ein neues Segment geschrieben, die alten liest der {@link JournalReplayer}.
+ *
+ * Die Reihenfolge im Journal ist die Reihenfolge, in der die Konten gesperrt waren: jede Transaktion zieht mit
+ * ihrem ersten Eintrag eine Nummer, solange die Concurrency-Strategie die Konten hält, und hängt nach dem Commit
+ * erst an, wenn alle kleineren Nummern angehängt oder zurückgerollt sind. Der {@link JournalReplayer} rechnet die
+ * laufenden Salden deshalb in derselben Reihenfolge nach, in der sie gebucht wurden.
+ *
+ * Gesperrt wird nur mit {@link ReentrantLock}, damit virtuelle Threads beim Warten nicht ihren Carrier blockieren.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.journal", name = "enabled", havingValue = "true")
+public class LedgerJournal {
+
+    private static final String SEGMENT_PATTERN = "journal-%08d.log";
+
+    private final Path directory;
+    private final int segmentSize;
+
+    // Nummern in Sperr-Reihenfolge; zurückgerollte Nummern werden beim Weiterschalten übersprungen
+    private final ReentrantLock orderLock = new ReentrantLock();
+    private final Condition turn = orderLock.newCondition();
+    private final Set<Long> skipped = new HashSet<>();
+    private long nextTicket;
+    private long nextAppend;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+
+    // Positionen sind fortlaufende Byte-Zähler über alle Segmente dieser Laufzeit
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition dirty = syncLock.newCondition();
+    private final Condition synced = syncLock.newCondition();
+    private long written;
+    private long durable;
+    private boolean closed;
+    private RuntimeException failure;
+    private final Thread flusher;
+
+    public LedgerJournal(JournalProperties properties) {
+        this.directory = properties.directory();
+        this.segmentSize = Math.toIntExact(properties.segmentSize().toBytes());
+        try {
+            Files.createDirectories(directory);
+            this.segmentIndex = JournalReader.lastSegmentIndex(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal in " + directory, e);
+        }
+        this.segment = openSegment(++segmentIndex);
+        this.flusher = new Thread(this::flushLoop, "ledger-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Nimmt den Eintrag in die laufende Transaktion auf: nach dem Commit werden alle Einträge der Transaktion
+     * gemeinsam angehängt und der Aufrufer wartet auf das fsync. Bei Rollback wird nichts geschrieben.
+     */
+    public void stage(JournalEntry entry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            awaitDurable(appendInTurn(reserve(), List.of(entry)));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<JournalEntry> pending = (List<JournalEntry>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<JournalEntry> entries = new ArrayList<>();
+            // Beim ersten Eintrag sind die Konten gesperrt (Lock-Striping, SELECT ... FOR UPDATE, Writer-Thread)
+            long ticket = reserve();
+            TransactionSynchronizationManager.bindResource(this, entries);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean appended;
+
+                @Override
+                public void afterCommit() {
+                    appended = true;
+                    awaitDurable(appendInTurn(ticket, entries));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LedgerJournal.this);
+                    if (!appended) {
+                        skip(ticket);
+                    }
+                }
+            });
+            pending = entries;
+        }
+        pending.add(entry);
+    }
+
+    private long reserve() {
+        orderLock.lock();
+        try {
+            return nextTicket++;
+        } finally {
+            orderLock.unlock();
+        }
+    }
+
+    /**
+     * Wartet, bis alle kleineren Nummern angehängt oder übersprungen sind, und hängt dann an.
+     */
+    private long appendInTurn(long ticket, List<JournalEntry> entries) {
+        orderLock.lock();
+        try {
+            while (nextAppend != ticket) {
+                turn.awaitUninterruptibly();
+            }
+        } finally {
+            orderLock.unlock();
+        }
+        try {
+            return append(entries);
+        } finally {
+            orderLock.lock();
+            try {
+                advance();
+            } finally {
+                orderLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Die Transaktion zu {@code ticket} wurde nach dem Ziehen der Nummer zurückgerollt.
+     */
+    private void skip(long ticket) {
+        orderLock.lock();
+        try {
+            if (ticket == nextAppend) {
+                advance();
+            } else {
+                skipped.add(ticket);
+            }
+        } finally {
+            orderLock.unlock();
+        }
+    }
+
+    // Läuft unter orderLock
+    private void advance() {
+        nextAppend++;
+        while (skipped.remove(nextAppend)) {
+            nextAppend++;
+        }
+        turn.signalAll();
+    }
+
+    /**
+     * Hängt die Einträge an und gibt die Position zurück, bis zu der sie geschrieben sind.
+     */
+    long append(List<JournalEntry> entries) {
+        List<byte[]> records = new ArrayList<>(entries.size());
+        for (JournalEntry entry : entries) {
+            records.add(JournalCodec.encode(entry));
+        }
+
+        long position;
+        appendLock.lock();
+        try {
+            long bytes = 0;
+            for (byte[] record : records) {
+                if (record.length + Integer.BYTES > segmentSize) {
+                    throw new IllegalArgumentException("Journal record larger than segment size");
+                }
+                // Platz für den Record und die abschließende Länge 0
+                if (segment.remaining() < record.length + Integer.BYTES) {
+                    rotate();
+                }
+                segment.put(record);
+                bytes += record.length;
+            }
+            position = advance(bytes);
+        } finally {
+            appendLock.unlock();
+        }
+        return position;
+    }
+
+    /**
+     * Blockiert, bis alles bis {@code position} per fsync auf der Platte liegt.
+     */
+    void awaitDurable(long position) {
+        syncLock.lock();
+        try {
+            while (durable < position) {
+                if (failure != null) {
+                    throw new IllegalStateException("Journal entry could not be made durable", failure);
+                }
+                synced.awaitUninterruptibly();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private long advance(long bytes) {
+        syncLock.lock();
+        try {
+            written += bytes;
+            dirty.signal();
+            return written;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            syncLock.lock();
+            try {
+                while (written == durable && !closed) {
+                    dirty.awaitUninterruptibly();
+                }
+                if (closed && written == durable) {
+                    return;
+                }
+                target = written;
+            } finally {
+                syncLock.unlock();
+            }
+
+            // Alles bis target liegt im aktuellen Segment oder wurde beim Rotieren bereits synchronisiert
+            appendLock.lock();
+            MappedByteBuffer current = segment;
+            appendLock.unlock();
+            try {
+                current.force();
+            } catch (RuntimeException e) {
+                syncLock.lock();
+                try {
+                    failure = e;
+                    synced.signalAll();
+                } finally {
+                    syncLock.unlock();
+                }
+                return;
+            }
+
+            syncLock.lock();
+            try {
+                durable = Math.max(durable, target);
+                synced.signalAll();
+            } finally {
+                syncLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Schließt das volle Segment ab (fsync) und mappt das nächste. Läuft unter {@code appendLock}.
+     */
+    private void rotate() {
+        segment.force();
+        segment = openSegment(++segmentIndex);
+    }
+
+    private MappedByteBuffer openSegment(int index) {
+        Path file = directory.resolve(SEGMENT_PATTERN.formatted(index));
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal segment " + file, e);
+        }
+    }
+
+    @PreDestroy
+    void close() throws InterruptedException {
+        syncLock.lock();
+        try {
+            closed = true;
+            dirty.signal();
+        } finally {
+            syncLock.unlock();
+        }
+        flusher.join();
+        segment.force();
+    }
+}
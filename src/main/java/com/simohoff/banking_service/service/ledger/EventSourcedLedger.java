@@ -0,0 +1,233 @@
+package com.simohoff.banking_service.service.ledger;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.simohoff.banking_service.domain.Account;
+import com.simohoff.banking_service.domain.BalanceSnapshot;
+import com.simohoff.banking_service.domain.LedgerBalance;
+import com.simohoff.banking_service.domain.Money;
+import com.simohoff.banking_service.domain.Transaction;
+import com.simohoff.banking_service.domain.TransactionType;
+import com.simohoff.banking_service.dto.BatchTransferItemResult;
+import com.simohoff.banking_service.dto.BatchTransferResponse;
+import com.simohoff.banking_service.dto.TransferRequest;
+import com.simohoff.banking_service.dto.TransferResponse;
+import com.simohoff.banking_service.exception.AccountNotFoundException;
+import com.simohoff.banking_service.repository.BalanceSnapshotRepository;
+import com.simohoff.banking_service.repository.LedgerTail;
+import com.simohoff.banking_service.repository.TransactionRepository;
+import com.simohoff.banking_service.service.cache.AccountCache;
+import com.simohoff.banking_service.service.concurrency.AccountConcurrencyStrategy;
+import com.simohoff.banking_service.service.concurrency.AccountLockManager;
+import com.simohoff.banking_service.service.concurrency.StripedLockConcurrencyStrategy;
+import com.simohoff.banking_service.service.metrics.LedgerMetrics;
+import com.simohoff.banking_service.service.metrics.LedgerOperation;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event-Sourcing: die {@link Transaction}-Zeilen sind das Journal und die einzige Wahrheit,
+ * {@code Account.balance} wird in diesem Modus nicht mehr geschrieben.
+ *
+ * Eine Buchung hängt nur Transaktionen an, es gibt kein Update auf die Kontozeile und damit keinen
+ * {@code @Version}-Konflikt. Der Stand eines Kontos ist der neueste {@link BalanceSnapshot} plus die Summe
+ * der späteren Transaktionen (eine Aggregat-Query über idx_transactions_account_id); alle
+ * {@code banking.ledger.snapshot-interval} Buchungen wird ein neuer Snapshot angehängt, der Tail bleibt dadurch kurz.
+ * Aktuelle Stände liegen zusätzlich im Speicher.
+ *
+ * Buchungen auf einem Konto laufen über die gestreiften Locks aus {@link AccountLockManager} (Deckungsprüfung und
+ * monotone IDs pro Konto), der Modus ist damit wie die Strategie {@code striped} auf eine Instanz ausgelegt.
+ */
+@Service
+@ConditionalOnProperty(prefix = "banking.ledger", name = "event-sourced", havingValue = "true")
+public class EventSourcedLedger {
+
+    private final TransactionRepository transactionRepository;
+    private final BalanceSnapshotRepository snapshotRepository;
+    private final AccountCache accountCache;
+    private final EntityManager entityManager;
+    private final LedgerMetrics ledgerMetrics;
+    private final AccountConcurrencyStrategy appendStrategy;
+    private final Cache<Long, LedgerBalance> balances;
+    private final int snapshotInterval;
+
+    public EventSourcedLedger(TransactionRepository transactionRepository,
+            BalanceSnapshotRepository snapshotRepository,
+            AccountCache accountCache,
+            EntityManager entityManager,
+            LedgerMetrics ledgerMetrics,
+            AccountLockManager lockManager,
+            PlatformTransactionManager transactionManager,
+            LedgerProperties properties) {
+        this.transactionRepository = transactionRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.accountCache = accountCache;
+        this.entityManager = entityManager;
+        this.ledgerMetrics = ledgerMetrics;
+        this.appendStrategy = new StripedLockConcurrencyStrategy(lockManager, transactionManager);
+        this.balances = Caffeine.newBuilder()
+                .maximumSize(properties.cacheSize())
+                .build();
+        this.snapshotInterval = properties.snapshotInterval();
+    }
+
+    public Transaction credit(String iban, BigDecimal amount, String reference) {
+        return ledgerMetrics.record(LedgerOperation.CREDIT, List.of(iban),
+                () -> appendStrategy.execute("Credit", List.of(iban), () -> {
+                    long minorUnits = Money.toMinorUnits(amount);
+                    Long accountId = resolveAccountId(iban);
+                    LedgerBalance state = currentBalance(accountId);
+                    state.checkCredit(minorUnits);
+                    return append(accountId, state, minorUnits, TransactionType.CREDIT, reference);
+                }));
+    }
+
+    public Transaction debit(String iban, BigDecimal amount, String reference) {
+        return ledgerMetrics.record(LedgerOperation.DEBIT, List.of(iban),
+                () -> appendStrategy.execute("Debit", List.of(iban), () -> {
+                    long minorUnits = Money.toMinorUnits(amount);
+                    Long accountId = resolveAccountId(iban);
+                    LedgerBalance state = currentBalance(accountId);
+                    state.checkDebit(minorUnits);
+                    return append(accountId, state, minorUnits, TransactionType.DEBIT, reference);
+                }));
+    }
+
+    public TransferResponse transfer(String fromIban, String toIban, BigDecimal amount, String reference) {
+        return ledgerMetrics.record(LedgerOperation.TRANSFER, List.of(fromIban, toIban),
+                () -> appendStrategy.execute("Transfer", List.of(fromIban, toIban),
+                        () -> performTransfer(fromIban, toIban, amount, reference)));
+    }
+
+    /**
+     * Batch-Variante: jede Überweisung wird einzeln angehängt, fachliche Fehler betreffen nur die jeweilige.
+     */
+    public BatchTransferResponse transferBatch(List<TransferRequest> requests) {
+        List<BatchTransferItemResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest request = requests.get(i);
+            try {
+                results.add(BatchTransferItemResult.success(i, transfer(
+                        request.fromIban(), request.toIban(), request.amount(), request.reference())));
+            } catch (IllegalArgumentException | AccountNotFoundException e) {
+                results.add(BatchTransferItemResult.failure(i, e.getMessage()));
+            }
+        }
+        return BatchTransferResponse.from(results);
+    }
+
+    /**
+     * Aktueller Kontostand: aus dem Speicher, sonst neuester Snapshot plus Tail.
+     */
+    public BigDecimal balance(String iban) {
+        return Money.toBigDecimal(currentBalance(resolveAccountId(iban)).balance());
+    }
+
+    /**
+     * Baut den Stand aus neuestem Snapshot und Tail neu auf, ohne den Speicher zu nutzen.
+     */
+    LedgerBalance rebuild(Long accountId) {
+        LedgerBalance base = snapshotRepository.findFirstByAccountIdOrderByAccountIdAscLastTransactionIdDesc(accountId)
+                .map(LedgerBalance::of)
+                .orElse(LedgerBalance.EMPTY);
+        LedgerTail tail = transactionRepository.sumTail(accountId, base.lastTransactionId());
+        return base.plus(tail.amount(), tail.lastTransactionId(), tail.events());
+    }
+
+    void evict(Long accountId) {
+        balances.invalidate(accountId);
+    }
+
+    private TransferResponse performTransfer(String fromIban, String toIban, BigDecimal amount, String reference) {
+        if (fromIban.equals(toIban)) {
+            throw new IllegalArgumentException("Cannot transfer to same account");
+        }
+        Long fromId = resolveAccountId(fromIban);
+        Long toId = resolveAccountId(toIban);
+        String transferReference = reference != null ? reference : "Transfer";
+        long minorUnits = Money.toMinorUnits(amount);
+
+        LedgerBalance fromState = currentBalance(fromId);
+        LedgerBalance toState = currentBalance(toId);
+        fromState.checkDebit(minorUnits);
+        toState.checkCredit(minorUnits);
+
+        Transaction debitTransaction = append(fromId, fromState, minorUnits, TransactionType.DEBIT,
+                "Transfer to " + toIban + ": " + transferReference);
+        Transaction creditTransaction = append(toId, toState, minorUnits, TransactionType.CREDIT,
+                "Transfer from " + fromIban + ": " + transferReference);
+
+        return new TransferResponse(
+                debitTransaction.getId(),
+                creditTransaction.getId(),
+                fromIban,
+                toIban,
+                amount,
+                transferReference,
+                debitTransaction.getTimestamp());
+    }
+
+    /**
+     * Hängt eine Transaktion an (erwartet laufende Transaktion und gehaltenen Lock) und schreibt bei Bedarf
+     * einen Snapshot. Der neue Stand wird erst nach dem Commit in den Speicher übernommen.
+     */
+    private Transaction append(Long accountId, LedgerBalance state, long amount, TransactionType type,
+            String reference) {
+        Account account = entityManager.getReference(Account.class, accountId);
+        long balanceAfter = type == TransactionType.CREDIT
+                ? Money.add(state.balance(), amount)
+                : Money.subtract(state.balance(), amount);
+        Transaction transaction = transactionRepository.save(
+                new Transaction(amount, type, reference, account, balanceAfter));
+
+        LedgerBalance next = state.apply(transaction);
+        if (next.eventsSinceSnapshot() >= snapshotInterval) {
+            snapshotRepository.save(new BalanceSnapshot(account, next));
+            next = next.snapshotted();
+        }
+
+        LedgerBalance committed = next;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    remember(accountId, committed);
+                } else {
+                    evict(accountId);
+                }
+            }
+        });
+        return transaction;
+    }
+
+    private LedgerBalance currentBalance(Long accountId) {
+        LedgerBalance cached = balances.getIfPresent(accountId);
+        if (cached != null) {
+            return cached;
+        }
+        LedgerBalance rebuilt = rebuild(accountId);
+        remember(accountId, rebuilt);
+        return rebuilt;
+    }
+
+    /**
+     * Ein älterer Stand (kleinere lastTransactionId) überschreibt nie einen neueren.
+     */
+    private void remember(Long accountId, LedgerBalance state) {
+        balances.asMap().merge(accountId, state,
+                (current, fresh) -> fresh.isNewerThan(current) ? fresh : current);
+    }
+
+    private Long resolveAccountId(String iban) {
+        return accountCache.resolveId(iban)
+                .orElseThrow(() -> new AccountNotFoundException(iban));
+    }
+}
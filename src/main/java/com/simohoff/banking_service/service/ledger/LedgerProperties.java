@@ -0,0 +1,17 @@
+package com.simohoff.banking_service.service.ledger;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguration unter {@code banking.ledger.*}.
+ */
+@ConfigurationProperties(prefix = "banking.ledger")
+public record LedgerProperties(
+        @DefaultValue("false") boolean eventSourced,
+
+        // Nach so vielen Transaktionen wird ein BalanceSnapshot geschrieben
+        @DefaultValue("1000") int snapshotInterval,
+
+        @DefaultValue("100000") long cacheSize) {
+}
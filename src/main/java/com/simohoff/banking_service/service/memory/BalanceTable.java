@@ -0,0 +1,295 @@
+package com.simohoff.banking_service.service.memory;
+
+import com.simohoff.banking_service.domain.Money;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Kontostände im Speicher, ohne ein Objekt pro Konto: jedes Konto bekommt einen fortlaufenden Slot,
+ * ID, Saldo (in Cent) und Version liegen in {@code long[]}-Seiten, die IBAN in einer {@code String[]}-Seite.
+ * Der Index IBAN → Slot ist eine Hashtabelle mit offener Adressierung (lineares Sondieren) über ein {@code int[]}.
+ *
+ * Lesen (Index und Saldo) kommt ohne Lock und ohne Boxing aus: der Index wird optimistisch über
+ * {@link StampedLock} gelesen, Salden per {@code getVolatile}. Buchungen laufen unter gestreiften Locks, damit
+ * Deckungsprüfung und Abbuchung atomar sind. Seiten werden beim Wachsen nur angehängt, nie kopiert; ein
+ * Slot bleibt damit für immer an derselben Stelle und Buchungen müssen nicht auf das Wachsen warten.
+ *
+ * Speicherbedarf pro Konto: 3 × 8 Byte (ID, Saldo, Version) + 4 Byte Referenz auf die IBAN
+ * + im Mittel 2–4 × 4 Byte Index (Füllgrad 25–50 %) + die IBAN selbst (bei 22 Zeichen rund 64 Byte),
+ * zusammen gut 100 Byte.
+ */
+public final class BalanceTable {
+
+    private static final int PAGE_BITS = 16;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final StampedLock indexLock = new StampedLock();
+    private final ReentrantLock[] stripes;
+    private final int stripeMask;
+
+    // Slot + 1, 0 = leer
+    private volatile int[] index;
+    private volatile String[][] ibans = new String[0][];
+    private volatile long[][] ids = new long[0][];
+    private volatile long[][] balances = new long[0][];
+    private volatile long[][] versions = new long[0][];
+    private volatile int size;
+
+    /**
+     * @param expectedAccounts Startgröße, spart das Umhashen beim Laden
+     * @param lockStripes      Anzahl der Locks für Buchungen, wird auf eine Zweierpotenz aufgerundet
+     */
+    public BalanceTable(int expectedAccounts, int lockStripes) {
+        this.index = new int[tableSizeFor(Math.max(expectedAccounts, 16) * 2)];
+        int stripeCount = tableSizeFor(lockStripes);
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    /**
+     * @return Slot des Kontos oder -1
+     */
+    public int slotOf(String iban) {
+        long stamp = indexLock.tryOptimisticRead();
+        int slot = find(iban);
+        if (!indexLock.validate(stamp)) {
+            stamp = indexLock.readLock();
+            try {
+                slot = find(iban);
+            } finally {
+                indexLock.unlockRead(stamp);
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Legt das Konto an, sofern die IBAN noch nicht bekannt ist.
+     *
+     * @return Slot des (neuen oder vorhandenen) Kontos
+     */
+    public int insert(String iban, long id, long balance, long version) {
+        long stamp = indexLock.writeLock();
+        try {
+            int existing = find(iban);
+            if (existing >= 0) {
+                return existing;
+            }
+
+            int slot = size;
+            int page = slot >>> PAGE_BITS;
+            if (page == ibans.length) {
+                addPage();
+            }
+            int offset = slot & PAGE_MASK;
+            ibans[page][offset] = iban;
+            ids[page][offset] = id;
+            LONGS.setVolatile(balances[page], offset, balance);
+            LONGS.setVolatile(versions[page], offset, version);
+
+            if ((slot + 1) * 2L > index.length) {
+                rehash(index.length * 2);
+            }
+            put(index, iban, slot);
+            size = slot + 1;
+            return slot;
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String iban(int slot) {
+        return ibans[slot >>> PAGE_BITS][slot & PAGE_MASK];
+    }
+
+    public long accountId(int slot) {
+        return ids[slot >>> PAGE_BITS][slot & PAGE_MASK];
+    }
+
+    public long balance(int slot) {
+        return (long) LONGS.getVolatile(balances[slot >>> PAGE_BITS], slot & PAGE_MASK);
+    }
+
+    public long version(int slot) {
+        return (long) LONGS.getVolatile(versions[slot >>> PAGE_BITS], slot & PAGE_MASK);
+    }
+
+    /**
+     * Deckungsprüfung und Abbuchung in einem Schritt.
+     *
+     * @return Saldo nach der Buchung
+     * @throws IllegalArgumentException bei fehlender Deckung, der Saldo bleibt dann unverändert
+     */
+    public long debit(int slot, long amount) {
+        ReentrantLock lock = stripeFor(slot);
+        lock.lock();
+        try {
+            checkFunds(slot, amount);
+            return add(slot, -amount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long credit(int slot, long amount) {
+        ReentrantLock lock = stripeFor(slot);
+        lock.lock();
+        try {
+            return add(slot, amount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Überweisung als ein Schritt; die beiden Locks werden in fester Reihenfolge genommen.
+     *
+     * @return Salden nach der Buchung, {Sender, Empfänger}
+     */
+    public long[] transfer(int fromSlot, int toSlot, long amount) {
+        ReentrantLock first = stripeFor(Math.min(fromSlot, toSlot));
+        ReentrantLock second = stripeFor(Math.max(fromSlot, toSlot));
+        first.lock();
+        try {
+            if (second != first) {
+                second.lock();
+            }
+            try {
+                checkFunds(fromSlot, amount);
+                // Erst den Überlauf beim Empfänger prüfen, dann buchen
+                Money.add(balance(toSlot), amount);
+                return new long[]{add(fromSlot, -amount), add(toSlot, amount)};
+            } finally {
+                if (second != first) {
+                    second.unlock();
+                }
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+
+    /**
+     * Überschreibt Saldo und Version mit dem Stand aus der Datenbank.
+     */
+    public void reset(int slot, long balance, long version) {
+        int page = slot >>> PAGE_BITS;
+        int offset = slot & PAGE_MASK;
+        ReentrantLock lock = stripeFor(slot);
+        lock.lock();
+        try {
+            LONGS.setVolatile(balances[page], offset, balance);
+            LONGS.setVolatile(versions[page], offset, version);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkFunds(int slot, long amount) {
+        long balance = balance(slot);
+        if (balance < amount) {
+            throw new IllegalArgumentException("Insufficient funds. Balance: " + Money.format(balance)
+                    + ", Required: " + Money.format(amount));
+        }
+    }
+
+    // Läuft unter dem Lock des Slots
+    private long add(int slot, long delta) {
+        int page = slot >>> PAGE_BITS;
+        int offset = slot & PAGE_MASK;
+        long[] balancePage = balances[page];
+        long[] versionPage = versions[page];
+        long balance = Money.add((long) LONGS.getVolatile(balancePage, offset), delta);
+        LONGS.setVolatile(balancePage, offset, balance);
+        LONGS.setVolatile(versionPage, offset, (long) LONGS.getVolatile(versionPage, offset) + 1);
+        return balance;
+    }
+
+    private ReentrantLock stripeFor(int slot) {
+        return stripes[slot & stripeMask];
+    }
+
+    /**
+     * Kann unter optimistischem Lesen einen inkonsistenten Stand sehen; Ausnahmen und Fehltreffer werden dann
+     * von {@link StampedLock#validate} verworfen.
+     */
+    private int find(String iban) {
+        int[] table = index;
+        String[][] ibanPages = ibans;
+        int mask = table.length - 1;
+        for (int i = hash(iban) & mask; ; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == 0) {
+                return -1;
+            }
+            int slot = entry - 1;
+            int page = slot >>> PAGE_BITS;
+            if (page >= ibanPages.length) {
+                return -1;
+            }
+            if (iban.equals(ibanPages[page][slot & PAGE_MASK])) {
+                return slot;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] table = new int[capacity];
+        for (int slot = 0; slot < size; slot++) {
+            put(table, iban(slot), slot);
+        }
+        index = table;
+    }
+
+    private static void put(int[] table, String iban, int slot) {
+        int mask = table.length - 1;
+        int i = hash(iban) & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = slot + 1;
+    }
+
+    private void addPage() {
+        int pages = ibans.length + 1;
+        String[][] ibanPages = Arrays.copyOf(ibans, pages);
+        long[][] idPages = Arrays.copyOf(ids, pages);
+        long[][] balancePages = Arrays.copyOf(balances, pages);
+        long[][] versionPages = Arrays.copyOf(versions, pages);
+        ibanPages[pages - 1] = new String[PAGE_SIZE];
+        idPages[pages - 1] = new long[PAGE_SIZE];
+        balancePages[pages - 1] = new long[PAGE_SIZE];
+        versionPages[pages - 1] = new long[PAGE_SIZE];
+        ids = idPages;
+        balances = balancePages;
+        versions = versionPages;
+        ibans = ibanPages;
+    }
+
+    // String cached seinen Hash; das Mischen verteilt auch ähnliche IBANs über die Tabelle
+    private static int hash(String iban) {
+        int h = iban.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        if (size <= 0) {
+            throw new IllegalArgumentException("Capacity too large: " + capacity);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,439 @@
+package com.simohoff.banking_service.service.memory;
+
+import com.simohoff.banking_service.domain.Account;
+import com.simohoff.banking_service.domain.Money;
+import com.simohoff.banking_service.domain.Transaction;
+import com.simohoff.banking_service.domain.TransactionType;
+import com.simohoff.banking_service.dto.AccountResponse;
+import com.simohoff.banking_service.dto.BatchTransferItemResult;
+import com.simohoff.banking_service.dto.BatchTransferResponse;
+import com.simohoff.banking_service.dto.TransactionResponse;
+import com.simohoff.banking_service.dto.TransferRequest;
+import com.simohoff.banking_service.dto.TransferResponse;
+import com.simohoff.banking_service.exception.AccountNotFoundException;
+import com.simohoff.banking_service.repository.AccountBalanceRow;
+import com.simohoff.banking_service.repository.AccountRepository;
+import com.simohoff.banking_service.service.cache.AccountCache;
+import com.simohoff.banking_service.service.cache.AccountSnapshot;
+import com.simohoff.banking_service.service.metrics.LedgerMetrics;
+import com.simohoff.banking_service.service.metrics.LedgerOperation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Salden im Speicher für den Autorisierungspfad: Kontostand und Deckungsprüfung laufen gegen die
+ * {@link BalanceTable}, ohne JPA und ohne Boxing. Beim Start werden alle Konten geladen, unbekannte IBANs
+ * (z.B. nach dem Start angelegte Konten) beim ersten Zugriff nachgeladen.
+ *
+ * Eine Buchung wird sofort im Speicher entschieden und angewendet, fachliche Fehler kommen direkt zurück.
+ * Persistiert wird asynchron (Write-Behind): ein Thread sammelt die Buchungen und schreibt sie gemeinsam,
+ * Transaktionen per JPA, Salden als relative Updates ({@code balance = balance + ?}) im JDBC-Batch.
+ * Das Future einer Buchung wird erst nach diesem Commit erfüllt. Schlägt der Commit fehl, hält die Engine an:
+ * spätere Buchungen sind schon gegen den Stand im Speicher entschieden, ein Zurückrechnen würde ihre Salden
+ * verfälschen. Der Batch und alle wartenden Buchungen schlagen fehl, die Salden werden aus der Datenbank neu
+ * geladen, erst danach nimmt die Engine wieder Buchungen an.
+ *
+ * In diesem Modus müssen alle Buchungen über die Engine laufen, sonst weicht der Speicher von der Datenbank ab.
+ */
+@Service
+@ConditionalOnProperty(prefix = "banking.ledger-engine", name = "enabled", havingValue = "true")
+public class LedgerEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerEngine.class);
+
+    // Wie lange der Thread ohne Arbeit wartet, bevor er auf Shutdown prüft
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final AccountRepository accountRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountCache accountCache;
+    private final LedgerMetrics ledgerMetrics;
+    private final BalanceTable table;
+    private final long flushIntervalNanos;
+    private final int maxFlushSize;
+
+    private final BlockingQueue<PendingBooking<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    // Buchungen halten die Lese-Sperre vom Prüfen bis zum Einreihen, Neuladen und Shutdown die Schreib-Sperre
+    private final ReentrantReadWriteLock state = new ReentrantReadWriteLock();
+    private volatile boolean halted;
+    private volatile boolean closed;
+
+    public LedgerEngine(AccountRepository accountRepository,
+            EntityManager entityManager,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            AccountCache accountCache,
+            LedgerMetrics ledgerMetrics,
+            LedgerEngineProperties properties) {
+        this.accountRepository = accountRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accountCache = accountCache;
+        this.ledgerMetrics = ledgerMetrics;
+        this.table = new BalanceTable(properties.expectedAccounts(), properties.lockStripes());
+        this.flushIntervalNanos = properties.flushInterval().toNanos();
+        this.maxFlushSize = properties.maxFlushSize();
+        this.writer = new Thread(this::writeLoop, "ledger-engine-writer");
+        writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    void load() {
+        loadBalances();
+        writer.start();
+    }
+
+    /**
+     * Übernimmt alle Salden aus der Datenbank, bekannte Konten werden überschrieben.
+     */
+    private void loadBalances() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            // Nur Skalare, der Persistence Context bleibt auch bei Millionen Konten leer
+            try (Stream<AccountBalanceRow> rows = accountRepository.streamBalances()) {
+                rows.forEach(row -> {
+                    int slot = table.insert(row.iban(), row.id(), row.balance(), row.version());
+                    table.reset(slot, row.balance(), row.version());
+                });
+            }
+        });
+    }
+
+    /**
+     * Aktueller Kontostand in Cent, inklusive noch nicht persistierter Buchungen.
+     */
+    public long balanceMinorUnits(String iban) {
+        return table.balance(slotFor(iban));
+    }
+
+    public BigDecimal balance(String iban) {
+        return Money.toBigDecimal(balanceMinorUnits(iban));
+    }
+
+    /**
+     * Konto für {@code GET /api/accounts/{iban}}: Stammdaten aus dem {@link AccountCache}, Saldo aus dem Speicher.
+     * Der Write-Behind invalidiert den Cache nicht, dessen Saldo wird in diesem Modus nie gelesen.
+     */
+    public AccountResponse account(String iban) {
+        AccountSnapshot snapshot = accountCache.get(iban).orElseThrow(() -> new AccountNotFoundException(iban));
+        return snapshot.toResponse().withBalance(balance(iban));
+    }
+
+    public CompletableFuture<TransactionResponse> credit(String iban, BigDecimal amount, String reference) {
+        return credit(iban, amount, reference, UnaryOperator.identity());
+    }
+
+    /**
+     * Wie {@link #credit(String, BigDecimal, String)}; {@code inTransaction} läuft mit der Antwort in der
+     * Transaktion des Write-Behind (z.B. um die Antwort zu einem Idempotency-Key mit zu committen). Wirft er,
+     * scheitert der Write-Behind wie bei jedem anderen Fehler: die Engine hält an und lädt die Salden neu.
+     */
+    public CompletableFuture<TransactionResponse> credit(String iban, BigDecimal amount, String reference,
+            UnaryOperator<TransactionResponse> inTransaction) {
+        return ledgerMetrics.recordAsync(LedgerOperation.CREDIT, List.of(iban), () -> admit(() -> {
+            long minorUnits = Money.toMinorUnits(amount);
+            Account.validateAmount(minorUnits);
+            int slot = slotFor(iban);
+            long balanceAfter = table.credit(slot, minorUnits);
+            return submit(List.of(new Leg(slot, TransactionType.CREDIT, minorUnits, reference, balanceAfter)),
+                    transactions -> inTransaction.apply(TransactionResponse.from(transactions.get(0))));
+        }));
+    }
+
+    public CompletableFuture<TransactionResponse> debit(String iban, BigDecimal amount, String reference) {
+        return debit(iban, amount, reference, UnaryOperator.identity());
+    }
+
+    public CompletableFuture<TransactionResponse> debit(String iban, BigDecimal amount, String reference,
+            UnaryOperator<TransactionResponse> inTransaction) {
+        return ledgerMetrics.recordAsync(LedgerOperation.DEBIT, List.of(iban), () -> admit(() -> {
+            long minorUnits = Money.toMinorUnits(amount);
+            Account.validateAmount(minorUnits);
+            int slot = slotFor(iban);
+            long balanceAfter = table.debit(slot, minorUnits);
+            return submit(List.of(new Leg(slot, TransactionType.DEBIT, minorUnits, reference, balanceAfter)),
+                    transactions -> inTransaction.apply(TransactionResponse.from(transactions.get(0))));
+        }));
+    }
+
+    public CompletableFuture<TransferResponse> transfer(String fromIban, String toIban, BigDecimal amount,
+            String reference) {
+        return transfer(fromIban, toIban, amount, reference, UnaryOperator.identity());
+    }
+
+    public CompletableFuture<TransferResponse> transfer(String fromIban, String toIban, BigDecimal amount,
+            String reference, UnaryOperator<TransferResponse> inTransaction) {
+        return ledgerMetrics.recordAsync(LedgerOperation.TRANSFER, List.of(fromIban, toIban), () -> admit(() -> {
+            if (fromIban.equals(toIban)) {
+                throw new IllegalArgumentException("Cannot transfer to same account");
+            }
+            long minorUnits = Money.toMinorUnits(amount);
+            Account.validateAmount(minorUnits);
+            int fromSlot = slotFor(fromIban);
+            int toSlot = slotFor(toIban);
+            String transferReference = reference != null ? reference : "Transfer";
+
+            long[] balancesAfter = table.transfer(fromSlot, toSlot, minorUnits);
+            return submit(List.of(
+                            new Leg(fromSlot, TransactionType.DEBIT, minorUnits,
+                                    "Transfer to " + toIban + ": " + transferReference, balancesAfter[0]),
+                            new Leg(toSlot, TransactionType.CREDIT, minorUnits,
+                                    "Transfer from " + fromIban + ": " + transferReference, balancesAfter[1])),
+                    transactions -> inTransaction.apply(new TransferResponse(
+                            transactions.get(0).getId(),
+                            transactions.get(1).getId(),
+                            fromIban,
+                            toIban,
+                            amount,
+                            transferReference,
+                            transactions.get(0).getTimestamp())));
+        }));
+    }
+
+    /**
+     * Batch-Variante: alle Überweisungen werden im Speicher entschieden und gemeinsam persistiert,
+     * fachliche Fehler betreffen nur die jeweilige.
+     */
+    public BatchTransferResponse transferBatch(List<TransferRequest> requests) {
+        List<CompletableFuture<TransferResponse>> futures = new ArrayList<>(requests.size());
+        List<String> failures = new ArrayList<>(requests.size());
+        for (TransferRequest request : requests) {
+            try {
+                futures.add(transfer(request.fromIban(), request.toIban(), request.amount(), request.reference()));
+                failures.add(null);
+            } catch (IllegalArgumentException | AccountNotFoundException e) {
+                futures.add(null);
+                failures.add(e.getMessage());
+            }
+        }
+
+        List<BatchTransferItemResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            CompletableFuture<TransferResponse> future = futures.get(i);
+            results.add(future != null
+                    ? BatchTransferItemResult.success(i, await(future))
+                    : BatchTransferItemResult.failure(i, failures.get(i)));
+        }
+        return BatchTransferResponse.from(results);
+    }
+
+    BalanceTable table() {
+        return table;
+    }
+
+    private int slotFor(String iban) {
+        int slot = table.slotOf(iban);
+        if (slot >= 0) {
+            return slot;
+        }
+        // Nach dem Start angelegt: einmal aus der Datenbank nachladen
+        Account account = accountRepository.findByIban(iban)
+                .orElseThrow(() -> new AccountNotFoundException(iban));
+        return table.insert(account.getIban(), account.getId(), account.getBalanceMinorUnits(),
+                account.getVersion());
+    }
+
+    /**
+     * Entscheidet und reiht eine Buchung ein, sofern die Engine Buchungen annimmt.
+     */
+    private <T> CompletableFuture<T> admit(Supplier<CompletableFuture<T>> booking) {
+        Lock lock = state.readLock();
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Ledger engine is shut down");
+            }
+            if (halted) {
+                throw new IllegalStateException("Ledger engine halted after a failed write, reloading balances");
+            }
+            return booking.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(List<Leg> legs, Function<List<Transaction>, T> response) {
+        PendingBooking<T> booking = new PendingBooking<>(legs, response, new CompletableFuture<>());
+        queue.add(booking);
+        return booking.future();
+    }
+
+    private void writeLoop() {
+        List<PendingBooking<?>> batch = new ArrayList<>(maxFlushSize);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                if (halted && !recover()) {
+                    TimeUnit.MILLISECONDS.sleep(IDLE_POLL_MILLIS);
+                    continue;
+                }
+                PendingBooking<?> first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < maxFlushSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingBooking<?> next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush(List<PendingBooking<?>> batch) {
+        List<Runnable> completions = new ArrayList<>(batch.size());
+        // Konto-ID → {Saldo-Änderung, Anzahl Buchungen}
+        Map<Long, long[]> changes = new LinkedHashMap<>();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (PendingBooking<?> booking : batch) {
+                    List<Transaction> transactions = new ArrayList<>(booking.legs().size());
+                    for (Leg leg : booking.legs()) {
+                        long accountId = table.accountId(leg.slot());
+                        Transaction transaction = new Transaction(leg.amount(), leg.type(), leg.reference(),
+                                entityManager.getReference(Account.class, accountId), leg.balanceAfter());
+                        entityManager.persist(transaction);
+                        transactions.add(transaction);
+
+                        long[] change = changes.computeIfAbsent(accountId, id -> new long[2]);
+                        change[0] += leg.delta();
+                        change[1]++;
+                    }
+                    completions.add(booking.respond(transactions));
+                }
+
+                List<Object[]> updates = new ArrayList<>(changes.size());
+                changes.forEach((accountId, change) ->
+                        updates.add(new Object[]{Money.toBigDecimal(change[0]), change[1], accountId}));
+                jdbcTemplate.batchUpdate(
+                        "update accounts set balance = balance + ?, version = version + ? where id = ?", updates);
+            });
+        } catch (RuntimeException e) {
+            log.error("Write-behind of {} bookings failed, halting ledger engine", batch.size(), e);
+            halted = true;
+            for (PendingBooking<?> booking : batch) {
+                booking.future().completeExceptionally(e);
+            }
+            return;
+        }
+
+        completions.forEach(Runnable::run);
+    }
+
+    /**
+     * Nach einem fehlgeschlagenen Write-Behind: wartende Buchungen verwerfen, Salden aus der Datenbank laden.
+     *
+     * @return ob die Engine wieder Buchungen annimmt
+     */
+    private boolean recover() {
+        Lock lock = state.writeLock();
+        lock.lock();
+        try {
+            PendingBooking<?> pending;
+            while ((pending = queue.poll()) != null) {
+                pending.future().completeExceptionally(
+                        new IllegalStateException("Ledger engine halted after a failed write, booking discarded"));
+            }
+            loadBalances();
+            halted = false;
+            log.info("Ledger engine reloaded {} balances and accepts bookings again", table.size());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Reloading balances failed, ledger engine stays halted", e);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // Unter der Schreib-Sperre: jede angenommene Buchung steht danach in der Queue und wird noch geschrieben
+        Lock lock = state.writeLock();
+        lock.lock();
+        try {
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Eine Seite einer Buchung, bereits im Speicher angewendet; {@code balanceAfter} ist der Saldo direkt danach.
+     */
+    private record Leg(int slot, TransactionType type, long amount, String reference, long balanceAfter) {
+
+        long delta() {
+            return type == TransactionType.CREDIT ? amount : -amount;
+        }
+    }
+
+    private record PendingBooking<T>(
+            List<Leg> legs,
+            Function<List<Transaction>, T> response,
+            CompletableFuture<T> future) {
+
+        /**
+         * Baut die Antwort noch in der Transaktion des Write-Behind, erfüllt wird das Future erst nach dem Commit.
+         */
+        Runnable respond(List<Transaction> transactions) {
+            T result = response.apply(transactions);
+            return () -> future.complete(result);
+        }
+    }
+}
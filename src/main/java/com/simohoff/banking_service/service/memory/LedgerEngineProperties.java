@@ -0,0 +1,24 @@
+package com.simohoff.banking_service.service.memory;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Konfiguration unter {@code banking.ledger-engine.*}.
+ */
+@ConfigurationProperties(prefix = "banking.ledger-engine")
+public record LedgerEngineProperties(
+        @DefaultValue("false") boolean enabled,
+
+        // Startgröße des Index, spart das Umhashen beim Laden
+        @DefaultValue("100000") int expectedAccounts,
+
+        @DefaultValue("1024") int lockStripes,
+
+        // Wie lange Buchungen für einen Schreibvorgang gesammelt werden
+        @DefaultValue("5ms") Duration flushInterval,
+
+        @DefaultValue("1000") int maxFlushSize) {
+}
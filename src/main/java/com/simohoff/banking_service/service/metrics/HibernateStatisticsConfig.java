@@ -0,0 +1,25 @@
+package com.simohoff.banking_service.service.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opt-in: Hibernate-Statistiken für die {@code hibernate_*}-Metriken. Sie zählen und messen in jeder Session mit,
+ * deshalb nur mit {@code banking.metrics.hibernate.enabled=true}. Die Zusammenfassung, die Hibernate dann am Ende
+ * jeder Session ins Log schreiben würde, bleibt abgeschaltet.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "banking.metrics.hibernate", name = "enabled", havingValue = "true")
+public class HibernateStatisticsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateStatistics() {
+        return properties -> {
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            properties.put(AvailableSettings.LOG_SESSION_METRICS, false);
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package com.simohoff.banking_service.service.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Zählt Buchungen pro IBAN und veröffentlicht nur die {@code topN} heißesten Konten
+ * als {@code banking.ledger.hot_accounts{iban}} (Buchungen im letzten Intervall).
+ *
+ * Die Zähler liegen in einem größenbeschränkten Caffeine-Cache: dessen Admission-Policy
+ * behält häufig gebuchte Konten und verdrängt seltene, der Speicher bleibt dadurch fest.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.metrics.hot-accounts", name = "enabled", havingValue = "true")
+public class HotAccountTracker {
+
+    private static final int CANDIDATES_PER_SLOT = 100;
+
+    private final Cache<String, LongAdder> counters;
+    private final MultiGauge gauge;
+    private final int topN;
+    private final ScheduledExecutorService scheduler;
+
+    public HotAccountTracker(MeterRegistry meterRegistry, MetricsProperties properties) {
+        MetricsProperties.HotAccounts config = properties.hotAccounts();
+        this.topN = config.topN();
+        this.counters = Caffeine.newBuilder()
+                .maximumSize((long) topN * CANDIDATES_PER_SLOT)
+                .build();
+        this.gauge = MultiGauge.builder("banking.ledger.hot_accounts")
+                .description("Buchungen der heißesten Konten im letzten Intervall")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-account-tracker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long refreshMillis = config.refresh().toMillis();
+        scheduler.scheduleAtFixedRate(this::publish, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void record(Collection<String> ibans) {
+        for (String iban : ibans) {
+            counters.get(iban, key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Übernimmt die Zähler des abgelaufenen Intervalls und ersetzt die Gauges durch die aktuellen Top N.
+     */
+    void publish() {
+        List<Map.Entry<String, Long>> top = counters.asMap().entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sumThenReset()))
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(topN)
+                .toList();
+
+        gauge.register(top.stream()
+                .map(entry -> MultiGauge.Row.of(Tags.of("iban", entry.getKey()), entry.getValue()))
+                .toList(), true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,96 @@
+package com.simohoff.banking_service.service.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Timer (mit Percentile-Histogramm) und In-Flight-Gauges pro {@link LedgerOperation}.
+ * Metriken:
+ * {@code banking.ledger.operations{operation, outcome}} und {@code banking.ledger.inflight{operation}}.
+ * Konten werden nur über den optionalen {@link HotAccountTracker} erfasst, nie als Tag an diesen Metriken.
+ */
+@Component
+public class LedgerMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Optional<HotAccountTracker> hotAccountTracker;
+    private final Map<LedgerOperation, AtomicInteger> inFlight = new EnumMap<>(LedgerOperation.class);
+
+    public LedgerMetrics(MeterRegistry meterRegistry, Optional<HotAccountTracker> hotAccountTracker) {
+        this.meterRegistry = meterRegistry;
+        this.hotAccountTracker = hotAccountTracker;
+        for (LedgerOperation operation : LedgerOperation.values()) {
+            AtomicInteger counter = new AtomicInteger();
+            inFlight.put(operation, counter);
+            Gauge.builder("banking.ledger.inflight", counter, AtomicInteger::get)
+                    .description("Laufende Ledger-Operationen")
+                    .tag("operation", operation.tag())
+                    .register(meterRegistry);
+        }
+    }
+
+    public <T> T record(LedgerOperation operation, Collection<String> ibans, Supplier<T> work) {
+        hotAccountTracker.ifPresent(tracker -> tracker.record(ibans));
+        AtomicInteger running = inFlight.get(operation);
+        running.incrementAndGet();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            T result = work.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(timer(operation, outcome));
+            running.decrementAndGet();
+        }
+    }
+
+    public void record(LedgerOperation operation, Collection<String> ibans, Runnable work) {
+        record(operation, ibans, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Wie {@link #record}, die Zeit läuft aber bis zum Abschluss des Futures.
+     */
+    public <T> CompletableFuture<T> recordAsync(LedgerOperation operation, Collection<String> ibans,
+            Supplier<CompletableFuture<T>> work) {
+        hotAccountTracker.ifPresent(tracker -> tracker.record(ibans));
+        AtomicInteger running = inFlight.get(operation);
+        running.incrementAndGet();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<T> future;
+        try {
+            future = work.get();
+        } catch (RuntimeException e) {
+            sample.stop(timer(operation, "failure"));
+            running.decrementAndGet();
+            throw e;
+        }
+        return future.whenComplete((result, error) -> {
+            sample.stop(timer(operation, error == null ? "success" : "failure"));
+            running.decrementAndGet();
+        });
+    }
+
+    private Timer timer(LedgerOperation operation, String outcome) {
+        return Timer.builder("banking.ledger.operations")
+                .description("Dauer der Ledger-Operationen")
+                .tag("operation", operation.tag())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,19 @@
+package com.simohoff.banking_service.service.metrics;
+
+import java.util.Locale;
+
+/**
+ * Instrumentierte Ledger-Operationen, feste Menge für begrenzte Metrik-Kardinalität.
+ */
+public enum LedgerOperation {
+    CREDIT,
+    DEBIT,
+    TRANSFER,
+    TRANSFER_BATCH,
+    HISTORY,
+    STATEMENT;
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,34 @@
+package com.simohoff.banking_service.service.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Konfiguration unter {@code banking.metrics.*}.
+ */
+@ConfigurationProperties(prefix = "banking.metrics")
+public record MetricsProperties(
+        @DefaultValue HotAccounts hotAccounts,
+
+        @DefaultValue Hibernate hibernate) {
+
+    /**
+     * Opt-in: Metriken mit IBAN-Tag, aber nur für die {@code topN} meistgebuchten Konten.
+     */
+    public record HotAccounts(
+            @DefaultValue("false") boolean enabled,
+
+            @DefaultValue("10") int topN,
+
+            @DefaultValue("30s") Duration refresh) {
+    }
+
+    /**
+     * Opt-in: Hibernate-Statistiken für die {@code hibernate_*}-Metriken, siehe {@link HibernateStatisticsConfig}.
+     */
+    public record Hibernate(
+            @DefaultValue("false") boolean enabled) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.simohoff.banking_service.service.outbox;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+/**
+ * Veröffentlicht jede Buchung als Spring-Event im selben Prozess. Listener ({@code @EventListener} auf
+ * {@link LedgerEvent}) laufen synchron auf dem Relay-Thread: eine Exception lässt den Batch erneut ausliefern,
+ * langsame Listener halten die Auslieferung auf.
+ */
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher publisher;
+
+    public ApplicationEventOutboxSink(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void publish(List<LedgerEvent> events) {
+        events.forEach(publisher::publishEvent);
+    }
+}
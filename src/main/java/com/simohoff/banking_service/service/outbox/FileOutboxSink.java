@@ -0,0 +1,70 @@
+package com.simohoff.banking_service.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Hängt jeden Batch als NDJSON (eine Buchung pro Zeile) an eine Datei an und synchronisiert sie, bevor der Batch
+ * als ausgeliefert gilt. Konsumenten lesen die Datei fortlaufend ({@code tail -f}) statt die Historie abzufragen.
+ */
+public class FileOutboxSink implements OutboxSink, AutoCloseable {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+
+    public FileOutboxSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open outbox file " + file, e);
+        }
+    }
+
+    @Override
+    public void publish(List<LedgerEvent> events) {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 200);
+        try {
+            for (LedgerEvent event : events) {
+                lines.write(objectMapper.writeValueAsBytes(event));
+                lines.write('\n');
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox event", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write outbox file " + file, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
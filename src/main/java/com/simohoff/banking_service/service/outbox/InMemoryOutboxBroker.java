@@ -0,0 +1,54 @@
+package com.simohoff.banking_service.service.outbox;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Broker-Ersatz für Tests und Entwicklung: ein unbegrenztes Log im Speicher, gelesen über Offsets wie ein
+ * Topic mit einer Partition. Konsumenten merken sich ihren Offset und warten mit {@link #poll} auf neue Einträge.
+ */
+public class InMemoryOutboxBroker implements OutboxSink {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final List<LedgerEvent> log = new ArrayList<>();
+
+    @Override
+    public void publish(List<LedgerEvent> events) {
+        lock.lock();
+        try {
+            log.addAll(events);
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bis zu {@code max} Einträge ab {@code offset}; wartet höchstens {@code timeout}, falls noch keiner da ist.
+     */
+    public List<LedgerEvent> poll(int offset, int max, Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            while (log.size() <= offset && remaining > 0) {
+                remaining = appended.awaitNanos(remaining);
+            }
+            return List.copyOf(log.subList(Math.min(offset, log.size()), Math.min(log.size(), offset + max)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return log.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
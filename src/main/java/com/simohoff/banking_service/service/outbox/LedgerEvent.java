@@ -0,0 +1,22 @@
+package com.simohoff.banking_service.service.outbox;
+
+import com.simohoff.banking_service.domain.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Eine gebuchte Transaktion, wie sie an den {@link OutboxSink} geht. {@code eventId} steigt in
+ * Auslieferungsreihenfolge; nach einem Fehler kann ein Batch erneut kommen (at-least-once), Konsumenten
+ * erkennen Wiederholungen an der {@code eventId}.
+ */
+public record LedgerEvent(
+        long eventId,
+        long transactionId,
+        String iban,
+        TransactionType type,
+        BigDecimal amount,
+        BigDecimal balanceAfter,
+        String reference,
+        LocalDateTime timestamp) {
+}
@@ -0,0 +1,28 @@
+package com.simohoff.banking_service.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "banking.outbox", name = "enabled", havingValue = "true")
+public class OutboxConfig {
+
+    /**
+     * Wählt das Ziel anhand von {@code banking.outbox.sink}, sofern die Anwendung keinen eigenen
+     * {@link OutboxSink} als {@code @Component} mitbringt.
+     */
+    @Bean
+    @ConditionalOnMissingBean(OutboxSink.class)
+    public OutboxSink outboxSink(OutboxProperties properties, ObjectMapper objectMapper,
+            ApplicationEventPublisher publisher) {
+        return switch (properties.sink()) {
+            case FILE -> new FileOutboxSink(properties.file(), objectMapper);
+            case LISTENER -> new ApplicationEventOutboxSink(publisher);
+            case MEMORY -> new InMemoryOutboxBroker();
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package com.simohoff.banking_service.service.outbox;
+
+import com.simohoff.banking_service.domain.Transaction;
+import jakarta.persistence.PrePersist;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA Entity Listener auf {@link Transaction}: jede neue Buchung landet in der Outbox, sofern sie aktiv ist.
+ * Damit sind alle Schreibpfade (Service, Überweisungen, Engines) abgedeckt; eingespielte Journal-Einträge laufen
+ * per JDBC und erzeugen keine Events.
+ */
+@Component
+public class OutboxListener {
+
+    // ObjectProvider, weil die Outbox optional ist
+    private final ObjectProvider<OutboxWriter> writer;
+
+    public OutboxListener(ObjectProvider<OutboxWriter> writer) {
+        this.writer = writer;
+    }
+
+    @PrePersist
+    void beforePersist(Transaction transaction) {
+        OutboxWriter outbox = writer.getIfAvailable();
+        if (outbox != null) {
+            outbox.stage(transaction);
+        }
+    }
+}
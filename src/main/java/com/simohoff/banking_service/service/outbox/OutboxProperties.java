@@ -0,0 +1,25 @@
+package com.simohoff.banking_service.service.outbox;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Konfiguration unter {@code banking.outbox.*}.
+ */
+@ConfigurationProperties(prefix = "banking.outbox")
+public record OutboxProperties(
+        @DefaultValue("false") boolean enabled,
+
+        // Wird ignoriert, sobald die Anwendung selbst einen OutboxSink als Bean mitbringt
+        @DefaultValue("listener") OutboxSinkType sink,
+
+        @DefaultValue("data/outbox/events.ndjson") Path file,
+
+        @DefaultValue("500") int batchSize,
+
+        // Wartezeit, wenn nichts ansteht; nach jedem Commit wird der Relay sofort geweckt
+        @DefaultValue("100ms") Duration pollInterval) {
+}
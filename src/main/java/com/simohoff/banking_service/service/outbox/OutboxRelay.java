@@ -0,0 +1,156 @@
+package com.simohoff.banking_service.service.outbox;
+
+import com.simohoff.banking_service.domain.TransactionType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Liefert die Outbox aus: ein einzelner Thread liest die ältesten Einträge (nach ID) als Batch, übergibt sie
+ * dem {@link OutboxSink} und löscht sie danach. Gelesen wird nur unterhalb von {@link OutboxSequence#horizon()}:
+ * solange eine kleinere ID noch in einer offenen Transaktion steckt, wartet alles dahinter. Die Events kommen
+ * damit lückenlos in ID-Reihenfolge an, pro Konto auch bei parallelen Buchungen auf einen Hot Account.
+ *
+ * Zustellung at-least-once: schlägt der Sink fehl oder bricht der Prozess zwischen Auslieferung und Löschen ab,
+ * kommt der Batch erneut. Gedacht für genau einen Relay pro Datenbank.
+ *
+ * Metriken: {@code banking.outbox.published}, {@code banking.outbox.failures}, {@code banking.outbox.pending}
+ * und {@code banking.outbox.lag} (Buchung bis Auslieferung).
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.outbox", name = "enabled", havingValue = "true")
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String SELECT_BATCH = """
+            select o.id, o.transaction_id, a.iban, o.type, o.amount, o.balance_after, o.reference, o.booked_at
+            from outbox o join accounts a on a.id = o.account_id
+            where o.id < ?
+            order by o.id
+            fetch first ? rows only
+            """;
+
+    private static final String DELETE = "delete from outbox where id = ?";
+
+    private final OutboxSink sink;
+    private final OutboxSequence sequence;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final long pollNanos;
+    private final Counter published;
+    private final Counter failures;
+    private final Timer lag;
+    private volatile Thread thread;
+
+    public OutboxRelay(OutboxProperties properties, OutboxSink sink, OutboxSequence sequence,
+            JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.sink = sink;
+        this.sequence = sequence;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = properties.batchSize();
+        this.pollNanos = properties.pollInterval().toNanos();
+        this.published = Counter.builder("banking.outbox.published")
+                .description("Ausgelieferte Outbox-Einträge")
+                .register(meterRegistry);
+        this.failures = Counter.builder("banking.outbox.failures")
+                .description("Fehlgeschlagene Auslieferungen, der Batch wird wiederholt")
+                .register(meterRegistry);
+        this.lag = Timer.builder("banking.outbox.lag")
+                .description("Zeit von der Buchung bis zur Auslieferung")
+                .register(meterRegistry);
+        Gauge.builder("banking.outbox.pending", jdbcTemplate,
+                        template -> template.queryForObject("select count(*) from outbox", Long.class))
+                .description("Noch nicht ausgelieferte Outbox-Einträge")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        Thread relay = new Thread(this::relayLoop, "outbox-relay");
+        relay.setDaemon(true);
+        thread = relay;
+        relay.start();
+    }
+
+    /**
+     * Weckt den Relay nach einem Commit, statt bis zum nächsten Poll zu warten.
+     */
+    void wakeUp() {
+        Thread relay = thread;
+        if (relay != null) {
+            LockSupport.unpark(relay);
+        }
+    }
+
+    /**
+     * Liefert einen Batch aus.
+     *
+     * @return Anzahl der ausgelieferten Einträge
+     */
+    synchronized int drain() {
+        // Vor dem Lesen: alle IDs darunter sind dann schon committet oder verworfen
+        long horizon = sequence.horizon();
+        List<LedgerEvent> events = jdbcTemplate.query(SELECT_BATCH, (rs, rowNum) -> new LedgerEvent(
+                rs.getLong("id"),
+                rs.getLong("transaction_id"),
+                rs.getString("iban"),
+                TransactionType.valueOf(rs.getString("type")),
+                rs.getBigDecimal("amount"),
+                rs.getBigDecimal("balance_after"),
+                rs.getString("reference"),
+                rs.getTimestamp("booked_at").toLocalDateTime()), horizon, batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        sink.publish(events);
+
+        jdbcTemplate.batchUpdate(DELETE, events, batchSize, (ps, event) -> ps.setLong(1, event.eventId()));
+        published.increment(events.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (LedgerEvent event : events) {
+            lag.record(Duration.between(event.timestamp(), now));
+        }
+        return events.size();
+    }
+
+    private void relayLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            int delivered = 0;
+            try {
+                delivered = drain();
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Outbox delivery failed, retrying after {}", Duration.ofNanos(pollNanos), e);
+            }
+            // Voller Batch: es steht vermutlich mehr an, sofort weiter
+            if (delivered < batchSize) {
+                LockSupport.parkNanos(pollNanos);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        Thread relay = thread;
+        if (relay != null) {
+            relay.interrupt();
+            relay.join(Duration.ofSeconds(5).toMillis());
+        }
+    }
+}
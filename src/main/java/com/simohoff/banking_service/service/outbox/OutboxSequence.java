@@ -0,0 +1,56 @@
+package com.simohoff.banking_service.service.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Vergibt die Outbox-IDs aus {@code outbox_seq} und merkt sich, welche davon noch in offenen Transaktionen
+ * stecken. Die IDs folgen der Vergabe, nicht dem Commit: bei parallelen Buchungen (anderes Konto oder Hot Account)
+ * kann eine größere ID vor einer kleineren committen. {@link #horizon()} ist die kleinste noch offene ID; der
+ * {@link OutboxRelay} liefert nur darunter aus und überholt so keine Buchung, die noch committen kann.
+ *
+ * Vergabe und Horizont laufen unter derselben Sperre: eine ID, die nach dem Lesen des Horizonts vergeben wird,
+ * liegt immer darüber. Das gilt nur für Buchungen aus diesem Prozess.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.outbox", name = "enabled", havingValue = "true")
+public class OutboxSequence {
+
+    private static final String NEXT_VALUES = "select next value for outbox_seq from system_range(1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    // Kleinste ID jeder offenen Transaktion
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+
+    public OutboxSequence(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Vergibt {@code count} aufsteigende IDs und zählt sie als offen, bis {@link #release(long)} mit der ersten
+     * aufgerufen wird.
+     */
+    public synchronized List<Long> reserve(int count) {
+        List<Long> ids = jdbcTemplate.queryForList(NEXT_VALUES, Long.class, count);
+        inFlight.add(ids.get(0));
+        return ids;
+    }
+
+    /**
+     * Die Transaktion ist committet oder zurückgerollt.
+     */
+    public void release(long firstId) {
+        inFlight.remove(firstId);
+    }
+
+    /**
+     * Kleinste ID, die noch committen kann; alles darunter ist committet oder verworfen.
+     */
+    public synchronized long horizon() {
+        return inFlight.isEmpty() ? Long.MAX_VALUE : inFlight.first();
+    }
+}
@@ -0,0 +1,16 @@
+package com.simohoff.banking_service.service.outbox;
+
+import java.util.List;
+
+/**
+ * Ziel des {@link OutboxRelay}. Eigene Implementierungen (z.B. für einen echten Broker) werden als Bean
+ * registriert und ersetzen dann die über {@code banking.outbox.sink} gewählte.
+ */
+public interface OutboxSink {
+
+    /**
+     * Liefert einen Batch in der übergebenen Reihenfolge aus. Erst wenn die Methode ohne Exception zurückkehrt,
+     * werden die Einträge aus der Outbox gelöscht; bei einer Exception kommt derselbe Batch später erneut.
+     */
+    void publish(List<LedgerEvent> events);
+}
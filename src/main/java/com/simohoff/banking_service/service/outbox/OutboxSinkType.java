@@ -0,0 +1,10 @@
+package com.simohoff.banking_service.service.outbox;
+
+/**
+ * Mitgelieferte Ziele für {@code banking.outbox.sink}.
+ */
+public enum OutboxSinkType {
+    FILE,     // NDJSON-Datei, eine Buchung pro Zeile
+    LISTENER, // Spring-Event im Prozess (@EventListener für LedgerEvent)
+    MEMORY    // InMemoryOutboxBroker, Broker-Ersatz für Tests und Entwicklung
+}
@@ -0,0 +1,101 @@
+package com.simohoff.banking_service.service.outbox;
+
+import com.simohoff.banking_service.domain.Money;
+import com.simohoff.banking_service.domain.Transaction;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Schreibt neue Buchungen in derselben Transaktion in die Tabelle {@code outbox}: entweder sind Buchung und
+ * Outbox-Eintrag beide committet oder keines von beiden.
+ *
+ * Die Buchungen einer Transaktion werden gesammelt und kurz vor dem Commit als ein JDBC-Batch eingefügt, nach
+ * dem Flush (erst dann haben sie ihre IDs). Die Outbox-IDs vergibt {@link OutboxSequence}, die sie bis zum Ende der
+ * Transaktion als offen führt, damit der {@link OutboxRelay} keine später vergebene ID vorher ausliefert.
+ * Nach dem Commit wird der Relay geweckt.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.outbox", name = "enabled", havingValue = "true")
+public class OutboxWriter {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT = """
+            insert into outbox (id, transaction_id, account_id, type, amount, balance_after, reference, booked_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final OutboxSequence sequence;
+    private final OutboxRelay relay;
+
+    public OutboxWriter(JdbcTemplate jdbcTemplate, EntityManager entityManager, OutboxSequence sequence,
+            OutboxRelay relay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.sequence = sequence;
+        this.relay = relay;
+    }
+
+    /**
+     * Nimmt die Buchung in die laufende Transaktion auf, geschrieben wird vor dem Commit.
+     */
+    public void stage(Transaction transaction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Outbox entries can only be written within a transaction");
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Transaction> pending = (List<Transaction>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Transaction> transactions = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, transactions);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private List<Long> ids;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    entityManager.flush();
+                    ids = sequence.reserve(transactions.size());
+                    Iterator<Long> id = ids.iterator();
+                    jdbcTemplate.batchUpdate(INSERT, transactions, BATCH_SIZE, (ps, transaction) -> {
+                        ps.setLong(1, id.next());
+                        ps.setLong(2, transaction.getId());
+                        ps.setLong(3, transaction.getAccount().getId());
+                        ps.setString(4, transaction.getType().name());
+                        ps.setBigDecimal(5, Money.toBigDecimal(transaction.getAmountMinorUnits()));
+                        ps.setBigDecimal(6, Money.toBigDecimal(transaction.getBalanceAfterMinorUnits()));
+                        ps.setString(7, transaction.getReference());
+                        ps.setTimestamp(8, Timestamp.valueOf(transaction.getTimestamp()));
+                    });
+                }
+
+                @Override
+                public void afterCommit() {
+                    relay.wakeUp();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    // Auch nach einem Rollback: die IDs bleiben als Lücke, blockieren den Relay aber nicht mehr
+                    if (ids != null) {
+                        sequence.release(ids.get(0));
+                    }
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OutboxWriter.this);
+                }
+            });
+            pending = transactions;
+        }
+        pending.add(transaction);
+    }
+}
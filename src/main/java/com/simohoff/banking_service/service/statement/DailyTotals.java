@@ -0,0 +1,59 @@
+package com.simohoff.banking_service.service.statement;
+
+import com.simohoff.banking_service.domain.Money;
+import com.simohoff.banking_service.domain.TransactionType;
+
+import java.time.LocalDate;
+
+/**
+ * Änderung einer Zeile in {@code daily_statements} durch eine oder mehrere Buchungen (alle Beträge in Cent).
+ * {@code slot} ist 0, nur Hot Accounts verteilen ihre Umsätze auf mehrere Zeilen pro Tag.
+ */
+public final class DailyTotals {
+
+    private final long accountId;
+    private final LocalDate bookingDate;
+    private final int slot;
+    private long credits;
+    private long debits;
+    private long count;
+
+    public DailyTotals(long accountId, LocalDate bookingDate, int slot) {
+        this.accountId = accountId;
+        this.bookingDate = bookingDate;
+        this.slot = slot;
+    }
+
+    public void add(TransactionType type, long amount) {
+        if (type == TransactionType.CREDIT) {
+            credits = Money.add(credits, amount);
+        } else {
+            debits = Money.add(debits, amount);
+        }
+        count++;
+    }
+
+    public long accountId() {
+        return accountId;
+    }
+
+    public LocalDate bookingDate() {
+        return bookingDate;
+    }
+
+    public int slot() {
+        return slot;
+    }
+
+    public long credits() {
+        return credits;
+    }
+
+    public long debits() {
+        return debits;
+    }
+
+    public long count() {
+        return count;
+    }
+}
@@ -0,0 +1,27 @@
+package com.simohoff.banking_service.service.statement;
+
+import com.simohoff.banking_service.domain.Transaction;
+import jakarta.persistence.PrePersist;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA Entity Listener auf {@link Transaction}: jede neue Buchung fließt in den Tagesauszug ihres Kontos.
+ * {@code @PrePersist}, weil Hibernate {@code @PostPersist} erst beim Flush aufruft, unter Umständen also erst
+ * im Commit, wenn die Synchronisation vor dem Commit schon gelaufen ist.
+ */
+@Component
+public class StatementListener {
+
+    // ObjectProvider, weil der Listener schon beim Aufbau der EntityManagerFactory angelegt wird
+    private final ObjectProvider<StatementRollup> rollup;
+
+    public StatementListener(ObjectProvider<StatementRollup> rollup) {
+        this.rollup = rollup;
+    }
+
+    @PrePersist
+    void beforePersist(Transaction transaction) {
+        rollup.getObject().stage(transaction);
+    }
+}
@@ -0,0 +1,163 @@
+package com.simohoff.banking_service.service.statement;
+
+import com.simohoff.banking_service.domain.DailyStatementId;
+import com.simohoff.banking_service.domain.Money;
+import com.simohoff.banking_service.domain.Transaction;
+import com.simohoff.banking_service.service.HotAccountService;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schreibt die Tagesumsätze ({@code daily_statements}) inkrementell fort.
+ *
+ * Jede neue Buchung wird in der laufenden Transaktion pro Konto und Tag zusammengefasst; kurz vor dem Commit geht
+ * pro Zeile ein relatives Update raus (bzw. ein Insert für den ersten Umsatz des Tages), alles als JDBC-Batch.
+ * Buchungen auf dasselbe Konto sind serialisiert (Versions-Check, Locks oder ein einzelner Writer), auf Slot 0
+ * legt also nie jemand parallel dieselbe Zeile an. Ausnahme sind Hot Accounts ({@link HotAccountService}): deren
+ * Buchungen laufen parallel und landen auf einem zufälligen Slot 1..n, damit das Update auf den Tagesumsatz sie
+ * nicht wieder serialisiert; deren Zeilen werden einzeln angelegt und bei einem parallelen Insert aktualisiert.
+ */
+@Component
+public class StatementRollup {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String UPDATE = """
+            update daily_statements
+            set total_credits = total_credits + ?, total_debits = total_debits + ?,
+                transaction_count = transaction_count + ?
+            where account_id = ? and booking_date = ? and slot = ?
+            """;
+
+    private static final String INSERT = """
+            insert into daily_statements (account_id, booking_date, slot, total_credits, total_debits,
+                transaction_count)
+            values (?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final ObjectProvider<HotAccountService> hotAccounts;
+
+    public StatementRollup(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+            ObjectProvider<HotAccountService> hotAccounts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.hotAccounts = hotAccounts;
+    }
+
+    /**
+     * Nimmt die Buchung in den Tagesauszug ihres Kontos auf, geschrieben wird vor dem Commit.
+     */
+    public void stage(Transaction transaction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<DailyStatementId, DailyTotals> single = new LinkedHashMap<>();
+            add(single, transaction, slotFor(transaction));
+            write(jdbcTemplate, single.values());
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<DailyStatementId, DailyTotals> pending =
+                (Map<DailyStatementId, DailyTotals>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<DailyStatementId, DailyTotals> totals = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, totals);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // Erst die Buchungen selbst: ein Versionskonflikt fällt so vor den Auszügen auf
+                    // und wird wie gewohnt wiederholt
+                    entityManager.flush();
+                    write(jdbcTemplate, totals.values());
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(StatementRollup.this);
+                }
+            });
+            pending = totals;
+        }
+        add(pending, transaction, slotFor(transaction));
+    }
+
+    private int slotFor(Transaction transaction) {
+        HotAccountService hot = hotAccounts.getIfAvailable();
+        return hot != null ? hot.statementSlot(transaction.getAccount().getId()) : 0;
+    }
+
+    private static void add(Map<DailyStatementId, DailyTotals> totals, Transaction transaction, int slot) {
+        long accountId = transaction.getAccount().getId();
+        DailyStatementId key = new DailyStatementId(accountId, transaction.getTimestamp().toLocalDate(), slot);
+        totals.computeIfAbsent(key, id -> new DailyTotals(accountId, id.getBookingDate(), slot))
+                .add(transaction.getType(), transaction.getAmountMinorUnits());
+    }
+
+    /**
+     * Relatives Update pro Zeile, fehlende Zeilen werden angelegt (siehe Klassenkommentar zu parallelen Inserts).
+     */
+    public static void write(JdbcTemplate jdbcTemplate, Collection<DailyTotals> totals) {
+        if (totals.isEmpty()) {
+            return;
+        }
+        List<DailyTotals> rows = new ArrayList<>(totals);
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE, rows, BATCH_SIZE, StatementRollup::setUpdateParameters);
+
+        List<DailyTotals> missing = new ArrayList<>();
+        List<DailyTotals> missingHot = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : updated) {
+            for (int count : batch) {
+                if (count == 0) {
+                    DailyTotals row = rows.get(index);
+                    (row.slot() == 0 ? missing : missingHot).add(row);
+                }
+                index++;
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, missing, BATCH_SIZE, StatementRollup::setInsertParameters);
+        }
+        for (DailyTotals row : missingHot) {
+            try {
+                jdbcTemplate.update(INSERT, ps -> setInsertParameters(ps, row));
+            } catch (DuplicateKeyException e) {
+                // Inzwischen von einer parallelen Buchung angelegt
+                jdbcTemplate.update(UPDATE, ps -> setUpdateParameters(ps, row));
+            }
+        }
+    }
+
+    private static void setUpdateParameters(PreparedStatement ps, DailyTotals row) throws SQLException {
+        ps.setBigDecimal(1, Money.toBigDecimal(row.credits()));
+        ps.setBigDecimal(2, Money.toBigDecimal(row.debits()));
+        ps.setLong(3, row.count());
+        ps.setLong(4, row.accountId());
+        ps.setDate(5, Date.valueOf(row.bookingDate()));
+        ps.setInt(6, row.slot());
+    }
+
+    private static void setInsertParameters(PreparedStatement ps, DailyTotals row) throws SQLException {
+        ps.setLong(1, row.accountId());
+        ps.setDate(2, Date.valueOf(row.bookingDate()));
+        ps.setInt(3, row.slot());
+        ps.setBigDecimal(4, Money.toBigDecimal(row.credits()));
+        ps.setBigDecimal(5, Money.toBigDecimal(row.debits()));
+        ps.setLong(6, row.count());
+    }
+}
@@ -0,0 +1,170 @@
+package com.simohoff.banking_service.service.statement;
+
+import com.simohoff.banking_service.domain.ArchiveMarker;
+import com.simohoff.banking_service.domain.DailyStatement;
+import com.simohoff.banking_service.domain.Money;
+import com.simohoff.banking_service.domain.Transaction;
+import com.simohoff.banking_service.dto.StatementResponse;
+import com.simohoff.banking_service.exception.AccountNotFoundException;
+import com.simohoff.banking_service.repository.ArchiveMarkerRepository;
+import com.simohoff.banking_service.repository.DailyStatementRepository;
+import com.simohoff.banking_service.repository.TransactionRepository;
+import com.simohoff.banking_service.service.HotAccountService;
+import com.simohoff.banking_service.service.archive.TransactionArchive;
+import com.simohoff.banking_service.service.cache.AccountCache;
+import com.simohoff.banking_service.service.metrics.LedgerMetrics;
+import com.simohoff.banking_service.service.metrics.LedgerOperation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Stände und Auszüge aus vorberechneten Daten: der Saldo zu einem Zeitpunkt ist {@code balanceAfter} der letzten
+ * Buchung davor (ein Index-Seek), ein Auszug fasst die Zeilen aus {@code daily_statements} zusammen (31 pro Monat,
+ * bei Hot Accounts bis zu einer pro Slot und Tag). Beides ist unabhängig von der Länge der Historie.
+ * Liegt die letzte Buchung vor dem Zeitpunkt schon im Archiv, kommt der Saldo aus dem Saldovortrag
+ * ({@code archive_markers}) bzw. für Zeitpunkte innerhalb archivierter Monate aus dem {@link TransactionArchive}.
+ *
+ * Ausnahme Hot Accounts: ihr {@code balanceAfter} ist nur eine Näherung, der Saldo wird aus der Summe der Buchungen
+ * berechnet (proportional zur Historie, die für Hot Accounts nicht archiviert wird).
+ */
+@Service
+public class StatementService {
+
+    private final TransactionRepository transactionRepository;
+    private final DailyStatementRepository statementRepository;
+    private final ArchiveMarkerRepository markerRepository;
+    private final AccountCache accountCache;
+    private final LedgerMetrics ledgerMetrics;
+    // ObjectProvider, weil das Archiv optional ist
+    private final ObjectProvider<TransactionArchive> archive;
+    private final ObjectProvider<HotAccountService> hotAccounts;
+
+    public StatementService(TransactionRepository transactionRepository,
+            DailyStatementRepository statementRepository,
+            ArchiveMarkerRepository markerRepository,
+            AccountCache accountCache,
+            LedgerMetrics ledgerMetrics,
+            ObjectProvider<TransactionArchive> archive,
+            ObjectProvider<HotAccountService> hotAccounts) {
+        this.transactionRepository = transactionRepository;
+        this.statementRepository = statementRepository;
+        this.markerRepository = markerRepository;
+        this.accountCache = accountCache;
+        this.ledgerMetrics = ledgerMetrics;
+        this.archive = archive;
+        this.hotAccounts = hotAccounts;
+    }
+
+    /**
+     * Saldo nach der letzten Buchung bis einschließlich {@code at}, 0 vor der ersten Buchung.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal balanceAt(String iban, LocalDateTime at) {
+        return ledgerMetrics.record(LedgerOperation.STATEMENT, List.of(iban),
+                () -> Money.toBigDecimal(balanceAt(iban, resolveAccountId(iban), at)));
+    }
+
+    /**
+     * Auszug für {@code YYYY-MM} (Monat) oder {@code YYYY-MM-DD} (Tag).
+     */
+    @Transactional(readOnly = true)
+    public StatementResponse statement(String iban, String period) {
+        return ledgerMetrics.record(LedgerOperation.STATEMENT, List.of(iban),
+                () -> buildStatement(iban, period));
+    }
+
+    private StatementResponse buildStatement(String iban, String period) {
+        LocalDate from;
+        LocalDate to;
+        try {
+            if (period.length() == 7) {
+                YearMonth month = YearMonth.parse(period);
+                from = month.atDay(1);
+                to = month.atEndOfMonth();
+            } else {
+                from = LocalDate.parse(period);
+                to = from;
+            }
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Period must be YYYY-MM or YYYY-MM-DD");
+        }
+        Long accountId = resolveAccountId(iban);
+
+        long credits = 0;
+        long debits = 0;
+        long count = 0;
+        for (DailyStatement day : statementRepository
+                .findByIdAccountIdAndIdBookingDateBetweenOrderByIdBookingDateAsc(accountId, from, to)) {
+            credits = Money.add(credits, day.getTotalCreditsMinorUnits());
+            debits = Money.add(debits, day.getTotalDebitsMinorUnits());
+            count += day.getTransactionCount();
+        }
+        // Endsaldo aus dem laufenden Saldo, der Anfangssaldo ergibt sich aus den Umsätzen
+        long closing = balanceAt(iban, accountId, to.plusDays(1).atStartOfDay().minusNanos(1));
+        long opening = Money.add(Money.subtract(closing, credits), debits);
+        return new StatementResponse(iban, period, from, to,
+                Money.toBigDecimal(opening),
+                Money.toBigDecimal(closing),
+                Money.toBigDecimal(credits),
+                Money.toBigDecimal(debits),
+                count);
+    }
+
+    private long balanceAt(String iban, Long accountId, LocalDateTime at) {
+        HotAccountService hot = hotAccounts.getIfAvailable();
+        if (hot != null && hot.isHot(iban)) {
+            return hotBalanceAt(accountId, at);
+        }
+        return transactionRepository
+                .findFirstByAccountIdAndTimestampLessThanEqualOrderByTimestampDescIdDesc(accountId, at)
+                .map(Transaction::getBalanceAfterMinorUnits)
+                .orElseGet(() -> archivedBalanceAt(accountId, at));
+    }
+
+    /**
+     * Saldovortrag (falls das Konto vor der Umstellung archiviert wurde) plus Summe der Buchungen in der Tabelle.
+     */
+    private long hotBalanceAt(Long accountId, LocalDateTime at) {
+        ArchiveMarker marker = markerRepository.findById(accountId).orElse(null);
+        if (marker != null && at.isBefore(marker.getArchivedUntil())) {
+            return archivedBalanceAt(accountId, at);
+        }
+        long carried = marker != null ? marker.getBalanceAfterMinorUnits() : 0;
+        BigDecimal sum = transactionRepository.sumUpTo(accountId, at);
+        return sum != null ? Money.add(carried, Money.toMinorUnits(sum)) : carried;
+    }
+
+    /**
+     * Keine Buchung bis {@code at} in der Tabelle: vor der ersten Buchung (0) oder die Buchungen sind archiviert.
+     */
+    private long archivedBalanceAt(Long accountId, LocalDateTime at) {
+        return markerRepository.findById(accountId)
+                .map(marker -> {
+                    if (!at.isBefore(marker.getArchivedUntil())) {
+                        return marker.getBalanceAfterMinorUnits();
+                    }
+                    TransactionArchive cold = archive.getIfAvailable();
+                    if (cold == null) {
+                        throw new IllegalStateException("Balance at " + at + " lies in archived history, "
+                                + "but banking.archive is disabled");
+                    }
+                    return cold.latestAtOrBefore(accountId, at)
+                            .map(row -> Money.toMinorUnits(row.balanceAfter()))
+                            .orElse(0L);
+                })
+                .orElse(0L);
+    }
+
+    private Long resolveAccountId(String iban) {
+        return accountCache.resolveId(iban)
+                .orElseThrow(() -> new AccountNotFoundException(iban));
+    }
+}
@@ -0,0 +1,115 @@
+-- Schema für das Profil "prod" (statt ddl-auto: create-drop), entspricht den Entities unter domain/.
+-- Bei Änderungen an einer Entity hier nachziehen; ProdProfileTest prüft das mit ddl-auto: validate.
+
+create sequence account_seq start with 1 increment by 50;
+create sequence transaction_seq start with 1 increment by 100;
+create sequence balance_snapshot_seq start with 1 increment by 50;
+-- Vergibt OutboxSequence, siehe dort
+create sequence outbox_seq start with 1 increment by 1;
+
+create table accounts (
+    id bigint not null,
+    iban varchar(22) not null,
+    owner_name varchar(255) not null,
+    balance numeric(15,2) not null,
+    created_at timestamp(6) not null,
+    version bigint,
+    primary key (id),
+    constraint uk_accounts_iban unique (iban)
+);
+
+create table transactions (
+    id bigint not null,
+    account_id bigint not null,
+    amount numeric(15,2) not null,
+    type enum ('CREDIT','DEBIT') not null,
+    timestamp timestamp(6) not null,
+    reference varchar(255),
+    balance_after numeric(15,2) not null,
+    primary key (id),
+    constraint fk_transactions_account foreign key (account_id) references accounts
+);
+
+create index idx_transactions_account_history
+    on transactions (account_id, timestamp desc, id desc, amount, type, reference, balance_after);
+create index idx_transactions_account_id on transactions (account_id, id);
+
+create table balance_buckets (
+    account_id bigint not null,
+    bucket integer not null,
+    balance numeric(15,2) not null,
+    primary key (account_id, bucket)
+);
+
+create table balance_snapshots (
+    id bigint not null,
+    account_id bigint not null,
+    last_transaction_id bigint not null,
+    balance numeric(15,2) not null,
+    created_at timestamp(6) not null,
+    primary key (id),
+    constraint fk_balance_snapshots_account foreign key (account_id) references accounts
+);
+
+create index idx_balance_snapshots_account on balance_snapshots (account_id, last_transaction_id desc);
+
+create table daily_statements (
+    account_id bigint not null,
+    booking_date date not null,
+    slot integer not null,
+    total_credits numeric(15,2) not null,
+    total_debits numeric(15,2) not null,
+    transaction_count bigint not null,
+    primary key (account_id, booking_date, slot)
+);
+
+create table idempotency_keys (
+    idempotency_key varchar(255) not null,
+    request_hash varchar(64) not null,
+    response_body varchar(4000),
+    created_at timestamp(6) not null,
+    primary key (idempotency_key)
+);
+
+create table archive_markers (
+    account_id bigint not null,
+    archived_until timestamp(6) not null,
+    balance_after numeric(15,2) not null,
+    transaction_count bigint not null,
+    primary key (account_id)
+);
+
+create table outbox (
+    id bigint not null,
+    transaction_id bigint not null,
+    account_id bigint not null,
+    type enum ('CREDIT','DEBIT') not null,
+    amount numeric(15,2) not null,
+    balance_after numeric(15,2) not null,
+    reference varchar(255),
+    booked_at timestamp(6) not null,
+    primary key (id)
+);
+
+create table end_of_day_checkpoints (
+    business_date date not null,
+    range_start bigint not null,
+    range_end bigint not null,
+    next_account_id bigint not null,
+    accounts bigint not null,
+    mismatches bigint not null,
+    interest_postings bigint not null,
+    interest_total numeric(15,2) not null,
+    fee_postings bigint not null,
+    fee_total numeric(15,2) not null,
+    primary key (business_date, range_start)
+);
+
+create table reconciliation_mismatches (
+    business_date date not null,
+    account_id bigint not null,
+    balance numeric(15,2) not null,
+    expected numeric(15,2) not null,
+    detected_at timestamp(6) not null,
+    primary key (business_date, account_id)
+);
@@ -0,0 +1,44 @@
+package com.simohoff.banking_service;
+
+import com.simohoff.banking_service.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Startet mit dem Profil {@code prod}: {@code db/schema.sql} statt create-drop, geprüft mit
+ * {@code ddl-auto: validate} gegen die Entities.
+ */
+// Eigene Datenbank, die der anderen Kontexte hat schon Tabellen; validate braucht die JDBC-Metadaten
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:prod-profile-test",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=true"
+})
+@ActiveProfiles("prod")
+@DirtiesContext
+class ProdProfileTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Test
+    void shouldBookAgainstPreGeneratedSchema() {
+        // Given
+        accountService.createAccount("DE_PROD", "Prod");
+
+        // When
+        accountService.credit("DE_PROD", new BigDecimal("100"), "Einzahlung");
+        accountService.debit("DE_PROD", new BigDecimal("30"), "Miete");
+
+        // Then
+        assertThat(accountService.getAccount("DE_PROD").getBalance()).isEqualByComparingTo("70");
+        assertThat(accountService.getTransactionHistory("DE_PROD")).hasSize(2);
+    }
+}
@@ -0,0 +1,99 @@
+package com.simohoff.banking_service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Zeit bis zur ersten Antwort: Prozessstart bis zum ersten {@code GET /api/accounts/{iban}} (geht durch JPA),
+ * einmal mit dem Standardprofil, einmal mit Profil {@code prod}, AOT und CDS-Archiv. Braucht vorher
+ * {@code ./mvnw -Pprod package -DskipTests}, läuft nur mit
+ * {@code ./mvnw test -Pbench -Dtest=StartupTimeBenchmarkTest}.
+ */
+@Tag("benchmark")
+class StartupTimeBenchmarkTest {
+
+    private static final Path JAR = Path.of("target/extracted/banking-service-0.0.1-SNAPSHOT.jar");
+    private static final Path CDS_ARCHIVE = Path.of("target/extracted/application.jsa");
+    private static final int RUNS = 3;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void shouldAtLeastHalveTimeToFirstRequest() throws Exception {
+        // Given
+        assumeTrue(Files.exists(JAR) && Files.exists(CDS_ARCHIVE), "./mvnw -Pprod package not run");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        // When
+        Duration standard = median(java, "-jar", JAR.toString());
+        Duration fast = median(java, "-XX:SharedArchiveFile=" + CDS_ARCHIVE, "-Dspring.aot.enabled=true",
+                "-Dspring.profiles.active=prod", "-jar", JAR.toString());
+
+        // Then
+        System.out.printf("time to first request: standard %d ms, prod %d ms (%.1fx)%n",
+                standard.toMillis(), fast.toMillis(), (double) standard.toNanos() / fast.toNanos());
+        assertThat(fast.multipliedBy(2)).isLessThanOrEqualTo(standard);
+    }
+
+    private Duration median(String... command) throws Exception {
+        Duration[] runs = new Duration[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            runs[i] = timeToFirstRequest(command);
+        }
+        Arrays.sort(runs);
+        return runs[RUNS / 2];
+    }
+
+    private Duration timeToFirstRequest(String... command) throws Exception {
+        int port = freePort();
+        List<String> arguments = new ArrayList<>(List.of(command));
+        arguments.add("--server.port=" + port);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/accounts/DE_NONE"))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(arguments)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (true) {
+                assertThat(process.isAlive()).as("application exited with %s", arguments).isTrue();
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                    assertThat(response.statusCode()).isEqualTo(404);
+                    return elapsed;
+                } catch (ConnectException e) {
+                    Thread.sleep(5);
+                }
+            }
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.simohoff.banking_service;
+
+import com.simohoff.banking_service.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 10.000 gleichzeitig offene Credit-Requests gegen den Server mit virtuellen Threads.
+ * Der Client arbeitet asynchron, hält also alle Requests ohne eigenen Thread offen.
+ * Läuft nur mit {@code ./mvnw test -Pbench,java21 -Dtest=VirtualThreadLoadTest}
+ * (braucht ein ausreichend hohes {@code ulimit -n}).
+ */
+@Tag("benchmark")
+@EnabledForJreRange(min = JRE.JAVA_21)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "banking.concurrency.strategy=striped",
+        "banking.concurrency.lock-timeout=60s"
+})
+@ActiveProfiles("virtual")
+@DirtiesContext
+class VirtualThreadLoadTest {
+
+    private static final int REQUESTS = 10_000;
+    private static final int ACCOUNTS = 100;
+    // Standardgröße des Tomcat-Pools mit Plattform-Threads
+    private static final int PLATFORM_THREAD_POOL = 200;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldKeepTenThousandRequestsInFlight() throws Exception {
+        // Given
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountService.createAccount(iban(i), "Load " + i);
+        }
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        AtomicInteger clientInFlight = new AtomicInteger();
+        AtomicInteger clientPeak = new AtomicInteger();
+        AtomicInteger serverPeak = new AtomicInteger();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> serverPeak.accumulateAndGet(serverInFlight(), Math::max),
+                0, 5, TimeUnit.MILLISECONDS);
+
+        // When
+        long start = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + port + "/api/accounts/" + iban(i % ACCOUNTS) + "/credit"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"amount\": 1.00, \"reference\": \"Load\"}"))
+                    .build();
+            clientPeak.accumulateAndGet(clientInFlight.incrementAndGet(), Math::max);
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> clientInFlight.decrementAndGet()));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+        sampler.shutdownNow();
+
+        // Then
+        System.out.printf("%d requests in %d ms, client peak in-flight %d, server peak in-flight %d%n",
+                REQUESTS, TimeUnit.NANOSECONDS.toMillis(elapsed), clientPeak.get(), serverPeak.get());
+
+        for (CompletableFuture<HttpResponse<String>> future : futures) {
+            assertThat(future.get().statusCode()).isEqualTo(200);
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            total = total.add(accountService.getAccount(iban(i)).getBalance());
+        }
+        assertThat(total).isEqualByComparingTo(String.valueOf(REQUESTS));
+        // Mit Plattform-Threads wäre bei der Pool-Größe Schluss
+        assertThat(serverPeak.get()).isGreaterThan(PLATFORM_THREAD_POOL);
+    }
+
+    private int serverInFlight() {
+        return (int) meterRegistry.get("banking.ledger.inflight").tag("operation", "credit").gauge().value();
+    }
+
+    private static String iban(int index) {
+        return "DE_LOAD_" + index;
+    }
+}
@@ -57,4 +57,17 @@ class AccountTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("must be positive");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldNotOverflowBalance() {
+        // Given
+        Account account = new Account("DE123", "Max");
+        account.credit(new BigDecimal("9999999999999.99"), "Maximum");
+
+        // When / Then
+        assertThatThrownBy(() -> account.credit(new BigDecimal("0.01"), "Einer zu viel"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("out of range");
+        assertThat(account.getBalance()).isEqualByComparingTo("9999999999999.99");
+    }
+}
@@ -0,0 +1,53 @@
+package com.simohoff.banking_service.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void shouldConvertBetweenBigDecimalAndMinorUnits() {
+        assertThat(Money.toMinorUnits(new BigDecimal("12.34"))).isEqualTo(1_234);
+        assertThat(Money.toMinorUnits(new BigDecimal("100"))).isEqualTo(10_000);
+        assertThat(Money.toMinorUnits(new BigDecimal("0.500"))).isEqualTo(50);
+        assertThat(Money.toBigDecimal(1_234)).isEqualTo(new BigDecimal("12.34"));
+        assertThat(Money.format(-5)).isEqualTo("-0.05");
+    }
+
+    @Test
+    void shouldRejectMoreThanTwoDecimalPlaces() {
+        assertThatThrownBy(() -> Money.toMinorUnits(new BigDecimal("0.001")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("decimal places");
+    }
+
+    @Test
+    void shouldRejectAmountsOutsideColumnRange() {
+        assertThat(Money.toMinorUnits(new BigDecimal("9999999999999.99"))).isEqualTo(Money.MAX_MINOR_UNITS);
+        assertThatThrownBy(() -> Money.toMinorUnits(new BigDecimal("10000000000000")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("out of range");
+        assertThatThrownBy(() -> Money.toMinorUnits(new BigDecimal("1E+30")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("out of range");
+    }
+
+    @Test
+    void shouldDetectOverflow() {
+        assertThat(Money.add(Money.MAX_MINOR_UNITS - 1, 1)).isEqualTo(Money.MAX_MINOR_UNITS);
+        assertThatThrownBy(() -> Money.add(Money.MAX_MINOR_UNITS, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.subtract(-Money.MAX_MINOR_UNITS, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRejectMissingAmount() {
+        assertThatThrownBy(() -> Money.toMinorUnits(null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must be positive");
+    }
+}
@@ -0,0 +1,125 @@
+package com.simohoff.banking_service.repository;
+
+import com.simohoff.banking_service.domain.TransactionType;
+import com.simohoff.banking_service.dto.TransactionResponse;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stellt sicher, dass die Historie auch bei über einer Million Zeilen über den Composite-Index läuft, geprüft an
+ * der SQL, die Hibernate tatsächlich erzeugt.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.simohoff.banking_service.repository.TransactionHistoryIndexTest$SqlCapture")
+class TransactionHistoryIndexTest {
+
+    private static final int ACCOUNTS = 1_000;
+    private static final int TRANSACTIONS = 1_200_000;
+    private static final long FIRST_ACCOUNT_ID = 1_000_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Direkt per SQL, über JPA würde das Befüllen länger dauern als der eigentliche Test
+        jdbcTemplate.update("""
+                insert into accounts (id, iban, owner_name, balance, created_at, version)
+                select ? + x, 'DE_IDX_' || x, 'Index ' || x, 0, current_timestamp, 0
+                from system_range(0, ? - 1)
+                """, FIRST_ACCOUNT_ID, ACCOUNTS);
+        jdbcTemplate.update("""
+                insert into transactions (id, amount, type, timestamp, reference, account_id, balance_after)
+                select x, 1.00, 'CREDIT', dateadd('SECOND', x, timestamp '2020-01-01 00:00:00'), 'Bulk', ? + mod(x, ?),
+                       (x + ? - 1) / ?
+                from system_range(1, ?)
+                """, FIRST_ACCOUNT_ID, ACCOUNTS, ACCOUNTS, ACCOUNTS, TRANSACTIONS);
+    }
+
+    @Test
+    void shouldUseCompositeIndexForHistory() {
+        // Given
+        Long accountId = FIRST_ACCOUNT_ID + 42;
+        LocalDateTime cursor = LocalDateTime.of(2020, 1, 10, 0, 0);
+
+        // When - EXPLAIN auf die SQL, die Hibernate für die Repository-Methoden erzeugt
+        String firstPage = capture(() -> transactionRepository.findFirstPage(accountId, PageRequest.ofSize(50)));
+        String pageBefore = capture(() -> transactionRepository.findPageBefore(accountId, cursor, Long.MAX_VALUE,
+                PageRequest.ofSize(50)));
+        String balanceAt = capture(() -> transactionRepository
+                .findFirstByAccountIdAndTimestampLessThanEqualOrderByTimestampDescIdDesc(accountId, cursor));
+
+        // Then - Index-Seek ohne Sortierung aller Zeilen des Kontos
+        assertThat(explain(firstPage, accountId, 50))
+                .containsIgnoringCase("IDX_TRANSACTIONS_ACCOUNT_HISTORY")
+                .containsIgnoringCase("index sorted");
+        assertThat(explain(pageBefore, accountId, cursor, cursor, Long.MAX_VALUE, 50))
+                .containsIgnoringCase("IDX_TRANSACTIONS_ACCOUNT_HISTORY")
+                .containsIgnoringCase("index sorted");
+        assertThat(explain(balanceAt, accountId, cursor, 1))
+                .containsIgnoringCase("IDX_TRANSACTIONS_ACCOUNT_HISTORY")
+                .containsIgnoringCase("index sorted");
+    }
+
+    @Test
+    void shouldReadHistoryPageById() {
+        // When
+        Long accountId = accountRepository.findIdByIban("DE_IDX_42").orElseThrow();
+        List<TransactionResponse> page = transactionRepository.findFirstPage(accountId, PageRequest.ofSize(50));
+
+        // Then
+        assertThat(page).hasSize(50);
+        assertThat(page.get(0).timestamp()).isAfter(page.get(49).timestamp());
+        assertThat(page.get(0).type()).isEqualTo(TransactionType.CREDIT);
+        assertThat(page.get(0).amount()).isEqualByComparingTo("1.00");
+        assertThat(page.get(0).reference()).isEqualTo("Bulk");
+    }
+
+    /**
+     * Führt die Abfrage aus und liefert die letzte SQL, die Hibernate dafür an die Datenbank geschickt hat.
+     */
+    private static String capture(Runnable query) {
+        SqlCapture.STATEMENTS.clear();
+        query.run();
+        return SqlCapture.STATEMENTS.get(SqlCapture.STATEMENTS.size() - 1);
+    }
+
+    // Parameter in SQL-Reihenfolge; ein Limit, das Hibernate als Literal rendert, hat keinen Platzhalter
+    private String explain(String sql, Object... parameters) {
+        int placeholders = (int) sql.chars().filter(c -> c == '?').count();
+        return jdbcTemplate.queryForObject("explain " + sql, String.class,
+                Arrays.copyOf(parameters, placeholders));
+    }
+
+    /**
+     * Merkt sich jede SQL, die Hibernate vorbereitet.
+     */
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.simohoff.banking_service.repository;
+
+import com.simohoff.banking_service.domain.Account;
+import com.simohoff.banking_service.domain.Transaction;
+import com.simohoff.banking_service.domain.TransactionType;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Misst Inserts pro Sekunde für 100k Transaktionen, einmal ohne JDBC-Batching
+ * (Batch-Größe 1, entspricht dem alten IDENTITY-Verhalten) und einmal mit der konfigurierten Batch-Größe.
+ * Läuft nur mit {@code ./mvnw test -Pbench}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@DirtiesContext
+class TransactionInsertBenchmarkTest {
+
+    private static final int ROWS = 100_000;
+    private static final int CHUNK = 1_000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compareUnbatchedAndBatchedInserts() {
+        Account account = accountRepository.save(new Account("DE_INSERT_BENCH", "Bench"));
+
+        double unbatched = insert(account.getId(), 1);
+        double batched = insert(account.getId(), null);
+
+        System.out.printf("unbatched: %,.0f inserts/s%n", unbatched);
+        System.out.printf("batched:   %,.0f inserts/s%n", batched);
+
+        assertThat(transactionRepository.count()).isEqualTo(2L * ROWS);
+    }
+
+    private double insert(Long accountId, Integer batchSize) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long start = System.nanoTime();
+
+        for (int offset = 0; offset < ROWS; offset += CHUNK) {
+            long booked = offset;
+            transactionTemplate.executeWithoutResult(status -> {
+                if (batchSize != null) {
+                    entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                }
+                Account account = entityManager.getReference(Account.class, accountId);
+                for (int i = 0; i < CHUNK; i++) {
+                    entityManager.persist(new Transaction(100L, TransactionType.CREDIT, "Bench", account,
+                            100L * (booked + i + 1)));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+
+        return ROWS * 1_000_000_000.0 / (System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,196 @@
+package com.simohoff.banking_service.service;
+
+import com.simohoff.banking_service.dto.BatchTransferItemResult;
+import com.simohoff.banking_service.dto.BatchTransferResponse;
+import com.simohoff.banking_service.dto.TransactionResponse;
+import com.simohoff.banking_service.dto.TransferRequest;
+import com.simohoff.banking_service.exception.AccountNotFoundException;
+import com.simohoff.banking_service.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "banking.engine.enabled=true",
+        "banking.engine.shards=4"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class AccountCommandEngineTest {
+
+    @Autowired
+    private AccountCommandEngine engine;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CommandEngineProperties properties;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<String> ibans = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        String uniqueId = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < 4; i++) {
+            String iban = "DE_ENG" + i + "_" + uniqueId;
+            accountService.createAccount(iban, "Engine " + i);
+            ibans.add(iban);
+        }
+    }
+
+    @Test
+    void shouldApplyConcurrentCreditsWithoutLostUpdates() {
+        // When - 500 Einzahlungen auf dasselbe Konto, ohne auf einzelne Ergebnisse zu warten
+        List<CompletableFuture<TransactionResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            futures.add(engine.credit(ibans.get(0), BigDecimal.ONE, "Credit #" + i));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        // Then
+        assertThat(accountService.getAccount(ibans.get(0)).getBalance()).isEqualByComparingTo("500");
+        assertThat(accountService.getTransactions(ibans.get(0))).hasSize(500);
+    }
+
+    @Test
+    void shouldNotDeadlockOnCrossShardTransfers() throws Exception {
+        // Given
+        for (String iban : ibans) {
+            engine.credit(iban, new BigDecimal("1000"), "Initial").join();
+        }
+
+        // When - Überweisungen in beide Richtungen zwischen allen Konten
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int round = 0; round < 50; round++) {
+            for (String from : ibans) {
+                for (String to : ibans) {
+                    if (!from.equals(to)) {
+                        futures.add(engine.transfer(from, to, BigDecimal.ONE, "Round " + round));
+                    }
+                }
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        // Then - Jedes Konto hat gleich viel gesendet wie empfangen
+        for (String iban : ibans) {
+            assertThat(accountService.getAccount(iban).getBalance()).isEqualByComparingTo("1000");
+        }
+    }
+
+    @Test
+    void shouldFailOnlyTheAffectedCommand() {
+        // When
+        CompletableFuture<TransactionResponse> overdraft = engine.debit(ibans.get(1), BigDecimal.TEN, "Zu viel");
+        CompletableFuture<TransactionResponse> unknown = engine.credit("NOTEXISTING", BigDecimal.TEN, "Unbekannt");
+        CompletableFuture<TransactionResponse> credit = engine.credit(ibans.get(1), BigDecimal.TEN, "OK");
+
+        // Then
+        assertThatThrownBy(overdraft::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(unknown::join)
+                .hasCauseInstanceOf(AccountNotFoundException.class);
+        assertThat(credit.join().amount()).isEqualByComparingTo("10");
+    }
+
+    @Test
+    void shouldRetryOnVersionConflictWithWriterOutsideEngine() {
+        // Given
+        engine.credit(ibans.get(0), new BigDecimal("100"), "Initial").join();
+
+        // When - eine fremde Transaktion ändert das Konto, während die Engine es schon gelesen hat
+        CompletableFuture<TransactionResponse> debit = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("update accounts set balance = balance + 1, version = version + 1 where iban = ?",
+                    ibans.get(0));
+            CompletableFuture<TransactionResponse> pending = engine.debit(ibans.get(0), BigDecimal.TEN, "Konflikt");
+            sleep(300);
+            return pending;
+        });
+
+        // Then - der zweite Versuch bucht auf den neuen Stand
+        assertThat(debit.join().balanceAfter()).isEqualByComparingTo("91");
+        assertThat(accountService.getAccount(ibans.get(0)).getBalance()).isEqualByComparingTo("91");
+        assertThat(meterRegistry.find("banking.concurrency.retries").tag("operation", "debit").counters())
+                .extracting(Counter::count)
+                .isNotEmpty();
+    }
+
+    @Test
+    void shouldRejectWhenShardQueueIsFull() {
+        // Given - die erste Buchung hängt an der Zeilensperre einer fremden Transaktion, der Shard läuft voll
+        List<CompletableFuture<TransactionResponse>> accepted = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("update accounts set version = version + 1 where iban = ?", ibans.get(0));
+            for (int i = 0; i < properties.queueCapacity(); i++) {
+                accepted.add(engine.credit(ibans.get(0), BigDecimal.ONE, "Credit #" + i));
+            }
+
+            // When / Then
+            assertThatThrownBy(() -> engine.credit(ibans.get(0), BigDecimal.ONE, "Zu viel"))
+                    .isInstanceOf(TooManyRequestsException.class);
+        });
+
+        // Then - nach dem Commit laufen alle angenommenen Buchungen durch, der Shard nimmt wieder an
+        CompletableFuture.allOf(accepted.toArray(CompletableFuture[]::new)).join();
+        assertThat(engine.credit(ibans.get(0), BigDecimal.ONE, "Danach").join().balanceAfter())
+                .isEqualByComparingTo(String.valueOf(properties.queueCapacity() + 1));
+        assertThat(meterRegistry.get("banking.engine.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldBookBatchTransfersOnShards() {
+        // Given
+        engine.credit(ibans.get(0), new BigDecimal("100"), "Initial").join();
+
+        // When
+        BatchTransferResponse response = engine.transferBatch(List.of(
+                new TransferRequest(ibans.get(0), ibans.get(1), new BigDecimal("60"), "Eins"),
+                new TransferRequest(ibans.get(0), ibans.get(2), new BigDecimal("1000"), "Zu viel"),
+                new TransferRequest(ibans.get(0), "NOTEXISTING", BigDecimal.ONE, "Unbekannt"),
+                new TransferRequest(ibans.get(0), ibans.get(3), new BigDecimal("40"), "Rest")));
+
+        // Then - Fehler pro Eintrag, Ergebnisse in der Reihenfolge der Anfrage, jede Überweisung einzeln gemessen
+        assertThat(response.succeeded()).isEqualTo(2);
+        assertThat(response.results()).extracting(BatchTransferItemResult::success)
+                .containsExactly(true, false, false, true);
+        assertThat(accountService.getAccount(ibans.get(0)).getBalance()).isEqualByComparingTo("0");
+        assertThat(accountService.getAccount(ibans.get(3)).getBalance()).isEqualByComparingTo("40");
+        assertThat(meterRegistry.get("banking.ledger.operations").tag("operation", "transfer").timers())
+                .extracting(timer -> timer.count())
+                .containsExactly(2L, 2L);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.simohoff.banking_service.service;
+
+import com.simohoff.banking_service.dto.TransactionResponse;
+import com.simohoff.banking_service.dto.TransferResponse;
+import com.simohoff.banking_service.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "banking.async.enabled=true",
+        "banking.async.threads=2",
+        "banking.async.queue-capacity=1000"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class AsyncLedgerServiceTest {
+
+    @Autowired
+    private AsyncLedgerService asyncLedger;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        accountService.createAccount("DE_ASYNC_A", "Async A");
+        accountService.createAccount("DE_ASYNC_B", "Async B");
+    }
+
+    @Test
+    void shouldApplyConflictingCreditsWithScheduledRetries() {
+        // When - 20 Einzahlungen auf dasselbe Konto, optimistisch mit nur 2 Threads
+        List<CompletableFuture<TransactionResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(asyncLedger.credit("DE_ASYNC_A", BigDecimal.TEN, "Async #" + i));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        // Then
+        assertThat(accountService.getAccount("DE_ASYNC_A").getBalance()).isEqualByComparingTo("200");
+        assertThat(accountService.getTransactions("DE_ASYNC_A")).hasSize(20);
+    }
+
+    @Test
+    void shouldTransferAndFailFutureOnInsufficientFunds() {
+        // Given
+        asyncLedger.credit("DE_ASYNC_A", new BigDecimal("100"), "Initial").join();
+
+        // When
+        TransferResponse transfer = asyncLedger.transfer("DE_ASYNC_A", "DE_ASYNC_B", new BigDecimal("40"), "Miete")
+                .join();
+        CompletableFuture<TransactionResponse> overdraft = asyncLedger.debit("DE_ASYNC_A", new BigDecimal("61"), "Zu viel");
+
+        // Then
+        assertThat(transfer.amount()).isEqualByComparingTo("40");
+        assertThatThrownBy(overdraft::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Insufficient funds");
+        assertThat(accountService.getAccount("DE_ASYNC_A").getBalance()).isEqualByComparingTo("60");
+        assertThat(accountService.getAccount("DE_ASYNC_B").getBalance()).isEqualByComparingTo("40");
+    }
+
+    @Test
+    void shouldRejectWhenAllSlotsAreTaken() {
+        // Given - alle 1002 Plätze belegt, keine der Buchungen wird fertig
+        List<CompletableFuture<Object>> blocked = new ArrayList<>();
+        for (int i = 0; i < 1002; i++) {
+            CompletableFuture<Object> pending = new CompletableFuture<>();
+            asyncLedger.admit(() -> pending);
+            blocked.add(pending);
+        }
+
+        // When / Then
+        assertThatThrownBy(() -> asyncLedger.credit("DE_ASYNC_A", BigDecimal.ONE, "Abgewiesen"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(meterRegistry.get("banking.async.rejected").counter().count()).isEqualTo(1);
+
+        // Ein fertiger Platz wird sofort wieder frei
+        blocked.get(0).complete(null);
+        assertThat(asyncLedger.credit("DE_ASYNC_A", BigDecimal.ONE, "Angenommen").join().amount())
+                .isEqualByComparingTo("1");
+        blocked.forEach(pending -> pending.complete(null));
+    }
+}
@@ -20,14 +20,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 class ConcurrencyTest {
 
     @Autowired
-    private AccountService accountService;
+    protected AccountService accountService;
 
     @Autowired
-    private TransferService transferService;
+    protected TransferService transferService;
 
-    private String sourceIban;
-    private String targetIban1;
-    private String targetIban2;
+    protected String sourceIban;
+    protected String targetIban1;
+    protected String targetIban2;
 
     @BeforeEach
     void setUp() {
@@ -0,0 +1,140 @@
+package com.simohoff.banking_service.service;
+
+import com.simohoff.banking_service.repository.AccountRepository;
+import com.simohoff.banking_service.repository.TransactionRepository;
+import com.simohoff.banking_service.service.cache.AccountCache;
+import com.simohoff.banking_service.service.concurrency.AccountConcurrencyStrategy;
+import com.simohoff.banking_service.service.concurrency.AccountLockManager;
+import com.simohoff.banking_service.service.concurrency.LockingStrategy;
+import com.simohoff.banking_service.service.concurrency.OptimisticConcurrencyStrategy;
+import com.simohoff.banking_service.service.concurrency.PessimisticConcurrencyStrategy;
+import com.simohoff.banking_service.service.concurrency.StripedLockConcurrencyStrategy;
+import com.simohoff.banking_service.service.metrics.LedgerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vergleicht Durchsatz und p99 der drei Locking-Strategien auf einem heißen Konto.
+ * Läuft nur mit {@code ./mvnw test -Pbench}.
+ */
+@Tag("benchmark")
+class ContentionBenchmarkTest extends ConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 25;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AccountLockManager lockManager;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private LedgerMetrics ledgerMetrics;
+
+    @Autowired
+    private ObjectProvider<HotAccountService> hotAccounts;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void compareLockingStrategiesOnHotAccount() throws Exception {
+        List<AccountConcurrencyStrategy> strategies = List.of(
+                new OptimisticConcurrencyStrategy(transactionManager, meterRegistry),
+                new StripedLockConcurrencyStrategy(lockManager, transactionManager),
+                new PessimisticConcurrencyStrategy(accountRepository, transactionManager));
+
+        System.out.printf("%-12s %10s %10s %10s %8s%n", "strategy", "ops/s", "p50 ms", "p99 ms", "failed");
+        for (AccountConcurrencyStrategy strategy : strategies) {
+            Result result = run(strategy);
+            System.out.printf("%-12s %10.1f %10.2f %10.2f %8d%n",
+                    strategy.type(), result.throughput(), result.p50Millis(), result.p99Millis(), result.failed());
+
+            if (strategy.type() != LockingStrategy.OPTIMISTIC) {
+                assertThat(result.failed()).isZero();
+            }
+        }
+    }
+
+    private Result run(AccountConcurrencyStrategy strategy) throws Exception {
+        TransferService service = new TransferService(accountRepository, transactionRepository, strategy, accountCache,
+                new BatchProperties(1000), ledgerMetrics, hotAccounts);
+
+        String hotIban = "DE_HOT_" + strategy.type();
+        accountService.createAccount(hotIban, "Hot Account");
+        accountService.credit(hotIban, new BigDecimal("1000000"), "Initial");
+
+        List<String> targets = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            String target = "DE_HOT_" + strategy.type() + "_" + i;
+            accountService.createAccount(target, "Target " + i);
+            targets.add(target);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failed = new AtomicInteger();
+
+        for (String target : targets) {
+            executor.submit(() -> {
+                latch.await();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    long start = System.nanoTime();
+                    try {
+                        service.transfer(hotIban, target, BigDecimal.ONE, "Benchmark");
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                    latencies.add(System.nanoTime() - start);
+                }
+                return null;
+            });
+        }
+
+        long start = System.nanoTime();
+        latch.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new Result(
+                sorted.size() * 1_000_000_000.0 / elapsed,
+                percentile(sorted, 0.50) / 1_000_000.0,
+                percentile(sorted, 0.99) / 1_000_000.0,
+                failed.get());
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+
+    private record Result(double throughput, double p50Millis, double p99Millis, int failed) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.simohoff.banking_service.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Gutschriften aus 1..n Threads auf ein einzelnes Konto: Kontozeile mit {@code @Version} gegen Hot Account mit
+ * Buckets. Läuft nur mit {@code ./mvnw test -Pbench}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "banking.hot-accounts.enabled=true",
+        "banking.hot-accounts.ibans=DE_BENCH_HOT",
+        "banking.hot-accounts.buckets=32"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class HotAccountBenchmarkTest {
+
+    private static final int CREDITS_PER_THREAD = 100;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private HotAccountService hotAccounts;
+
+    @Test
+    void hotAccountScalesWithThreads() throws Exception {
+        accountService.createAccount("DE_BENCH_ROW", "Kontozeile");
+        accountService.createAccount("DE_BENCH_HOT", "Buckets");
+        int maxThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        System.out.printf("%-8s %12s %12s %8s%n", "threads", "row ops/s", "hot ops/s", "failed");
+        Result row = null;
+        Result hot = null;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            row = run(threads, amount -> accountService.credit("DE_BENCH_ROW", amount, "Gebühr"));
+            hot = run(threads, amount -> hotAccounts.credit("DE_BENCH_HOT", amount, "Gebühr"));
+            System.out.printf("%-8d %12.1f %12.1f %8d%n", threads, row.throughput(), hot.throughput(), row.failed());
+            assertThat(hot.failed()).isZero();
+        }
+
+        assertThat(hot.throughput()).isGreaterThan(row.throughput());
+    }
+
+    private Result run(int threads, Consumer<BigDecimal> credit) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger failed = new AtomicInteger();
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                latch.await();
+                for (int i = 0; i < CREDITS_PER_THREAD; i++) {
+                    try {
+                        credit.accept(BigDecimal.ONE);
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        long start = System.nanoTime();
+        latch.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+        return new Result(threads * CREDITS_PER_THREAD * 1_000_000_000.0 / elapsed, failed.get());
+    }
+
+    private record Result(double throughput, int failed) {
+    }
+}
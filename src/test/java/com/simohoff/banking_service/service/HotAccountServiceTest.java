@@ -0,0 +1,192 @@
+package com.simohoff.banking_service.service;
+
+import com.simohoff.banking_service.dto.BatchTransferResponse;
+import com.simohoff.banking_service.dto.StatementResponse;
+import com.simohoff.banking_service.dto.TransferRequest;
+import com.simohoff.banking_service.service.statement.StatementService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "banking.hot-accounts.enabled=true",
+        "banking.hot-accounts.ibans=DE_HOT_FEES",
+        "banking.hot-accounts.buckets=8"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class HotAccountServiceTest {
+
+    private static final String FEES = "DE_HOT_FEES";
+
+    @Autowired
+    private HotAccountService hotAccounts;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        accountService.createAccount(FEES, "Gebühren");
+        accountService.createAccount("DE_HOT_PAYER", "Zahler");
+        accountService.credit("DE_HOT_PAYER", new BigDecimal("1000"), "Initial");
+    }
+
+    @Test
+    void shouldSpreadConcurrentCreditsWithoutConflicts() throws Exception {
+        // When - 8 Threads × 25 Gutschriften auf dasselbe Konto
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 25; i++) {
+                    hotAccounts.credit(FEES, BigDecimal.ONE, "Gebühr");
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then - keine Wiederholungen, Summe stimmt, verteilt auf mehrere Buckets
+        assertThat(hotAccounts.balance(FEES)).isEqualByComparingTo("200");
+        assertThat(accountService.getTransactions(FEES)).hasSize(200);
+        assertThat(meterRegistry.find("banking.concurrency.retries").counter()).isNull();
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from balance_buckets where balance > 0", Integer.class)).isGreaterThan(1);
+    }
+
+    @Test
+    void shouldRebalanceWhenNoSingleBucketCoversDebit() {
+        // Given - 10 × 10 verteilt auf 8 Buckets, kein Bucket hat 95
+        for (int i = 0; i < 10; i++) {
+            hotAccounts.credit(FEES, BigDecimal.TEN, "Gebühr");
+        }
+
+        // When
+        hotAccounts.debit(FEES, new BigDecimal("95"), "Abführung");
+
+        // Then
+        assertThat(hotAccounts.balance(FEES)).isEqualByComparingTo("5");
+        assertThat(meterRegistry.counter("banking.hot-accounts.rebalances").count()).isEqualTo(1);
+        assertThat(accountService.getTransactions(FEES).get(0).getBalanceAfter()).isEqualByComparingTo("5");
+        assertThatThrownBy(() -> hotAccounts.debit(FEES, new BigDecimal("6"), "Zu viel"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Insufficient funds");
+        assertThat(hotAccounts.balance(FEES)).isEqualByComparingTo("5");
+    }
+
+    @Test
+    void shouldMoveExistingBalanceIntoBuckets() {
+        // Given - Buchung auf die Kontozeile, bevor das Konto als Hot Account benutzt wird
+        accountService.credit(FEES, new BigDecimal("50"), "Altbestand");
+
+        // When
+        hotAccounts.credit(FEES, new BigDecimal("5"), "Gebühr");
+
+        // Then
+        assertThat(accountService.getAccount(FEES).getBalance()).isEqualByComparingTo("0");
+        assertThat(hotAccounts.balance(FEES)).isEqualByComparingTo("55");
+        assertThat(accountService.getAccountSnapshot(FEES).balance()).isEqualByComparingTo("0");
+        hotAccounts.debit(FEES, new BigDecimal("55"), "Alles");
+        assertThat(hotAccounts.balance(FEES)).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void shouldTransferBetweenNormalAndHotAccount() {
+        // When
+        hotAccounts.transfer("DE_HOT_PAYER", FEES, new BigDecimal("30"), "Gebühr");
+        hotAccounts.transfer(FEES, "DE_HOT_PAYER", new BigDecimal("10"), "Erstattung");
+
+        // Then
+        assertThat(accountService.getAccount("DE_HOT_PAYER").getBalance()).isEqualByComparingTo("980");
+        assertThat(hotAccounts.balance(FEES)).isEqualByComparingTo("20");
+        assertThatThrownBy(() -> hotAccounts.transfer("DE_HOT_PAYER", FEES, new BigDecimal("5000"), "Zu viel"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(hotAccounts.balance(FEES)).isEqualByComparingTo("20");
+    }
+
+    @Test
+    void shouldSumStatementSlots() {
+        // Given
+        for (int i = 0; i < 20; i++) {
+            hotAccounts.credit(FEES, BigDecimal.ONE, "Gebühr");
+        }
+        hotAccounts.debit(FEES, new BigDecimal("3"), "Abführung");
+
+        // When
+        StatementResponse statement = statementService.statement(FEES, LocalDate.now().toString());
+
+        // Then
+        assertThat(statement.transactionCount()).isEqualTo(21);
+        assertThat(statement.totalCredits()).isEqualByComparingTo("20");
+        assertThat(statement.totalDebits()).isEqualByComparingTo("3");
+        assertThat(statement.openingBalance()).isEqualByComparingTo("0");
+        assertThat(statement.closingBalance()).isEqualByComparingTo("17");
+    }
+
+    @Test
+    void shouldBookBatchTransfersWithHotAccountIntoBuckets() {
+        // Given
+        accountService.createAccount("DE_HOT_OTHER", "Empfänger");
+
+        // When - die Hot-Account-Überweisungen laufen einzeln, die Reihenfolge bleibt
+        BatchTransferResponse response = transferService.transferBatch(List.of(
+                new TransferRequest("DE_HOT_PAYER", FEES, new BigDecimal("30"), "Gebühr"),
+                new TransferRequest("DE_HOT_PAYER", "DE_HOT_OTHER", new BigDecimal("100"), "Normal"),
+                new TransferRequest(FEES, "DE_HOT_OTHER", new BigDecimal("50"), "Zu viel"),
+                new TransferRequest(FEES, "DE_HOT_OTHER", new BigDecimal("20"), "Erstattung")));
+
+        // Then
+        assertThat(response.succeeded()).isEqualTo(3);
+        assertThat(response.results().get(2).error()).contains("Insufficient funds");
+        assertThat(hotAccounts.balance(FEES)).isEqualByComparingTo("10");
+        assertThat(accountService.getAccount(FEES).getBalance()).isEqualByComparingTo("0");
+        assertThat(accountService.getAccount("DE_HOT_PAYER").getBalance()).isEqualByComparingTo("870");
+        assertThat(accountService.getAccount("DE_HOT_OTHER").getBalance()).isEqualByComparingTo("120");
+    }
+
+    @Test
+    void shouldComputeBalanceAtFromBookingsInsteadOfBalanceAfter() {
+        // Given - balanceAfter überlappender Buchungen ist nur eine Näherung, hier absichtlich falsch
+        hotAccounts.credit(FEES, new BigDecimal("30"), "Gebühr");
+        hotAccounts.debit(FEES, new BigDecimal("5"), "Abführung");
+        jdbcTemplate.update("update transactions set balance_after = 999 where reference in ('Gebühr', 'Abführung')");
+
+        // When
+        BigDecimal balance = statementService.balanceAt(FEES, LocalDateTime.now());
+
+        // Then
+        assertThat(balance).isEqualByComparingTo("25");
+        assertThat(statementService.balanceAt(FEES, LocalDateTime.now().minusDays(1))).isEqualByComparingTo("0");
+        assertThat(statementService.statement(FEES, LocalDate.now().toString()).closingBalance())
+                .isEqualByComparingTo("25");
+    }
+}
@@ -0,0 +1,190 @@
+package com.simohoff.banking_service.service;
+
+import com.simohoff.banking_service.dto.TransactionResponse;
+import com.simohoff.banking_service.dto.TransferResponse;
+import com.simohoff.banking_service.exception.AccountNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "banking.coalescer.enabled=true",
+        // Großes Fenster, damit die Buchungen eines Tests sicher im selben Batch landen
+        "banking.coalescer.window=50ms"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class LedgerWriteCoalescerTest {
+
+    @Autowired
+    private LedgerWriteCoalescer coalescer;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<String> ibans = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        String uniqueId = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < 4; i++) {
+            String iban = "DE_GRP" + i + "_" + uniqueId;
+            accountService.createAccount(iban, "Group " + i);
+            ibans.add(iban);
+        }
+    }
+
+    @Test
+    void shouldApplyConcurrentCreditsInFewTransactions() {
+        // When - 500 Einzahlungen, verteilt auf alle Konten
+        List<CompletableFuture<TransactionResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            futures.add(coalescer.credit(ibans.get(i % ibans.size()), BigDecimal.ONE, "Credit #" + i));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        // Then
+        for (String iban : ibans) {
+            assertThat(accountService.getAccount(iban).getBalance()).isEqualByComparingTo("125");
+            assertThat(accountService.getTransactions(iban)).hasSize(125);
+        }
+        assertThat(futures).extracting(future -> future.join().id()).doesNotHaveDuplicates();
+        assertThat(batchCount()).isLessThan(500);
+    }
+
+    @Test
+    void shouldFailOnlyTheCallerWithInsufficientFunds() {
+        // Given
+        coalescer.credit(ibans.get(0), new BigDecimal("100"), "Initial").join();
+
+        // When - drei Buchungen im selben Batch, die mittlere ist nicht gedeckt
+        CompletableFuture<TransactionResponse> first = coalescer.debit(ibans.get(0), new BigDecimal("60"), "Ok");
+        CompletableFuture<TransactionResponse> second = coalescer.debit(ibans.get(0), new BigDecimal("60"), "Zu viel");
+        CompletableFuture<TransactionResponse> third = coalescer.credit(ibans.get(1), new BigDecimal("10"), "Ok");
+
+        // Then
+        assertThat(first.join().amount()).isEqualByComparingTo("60");
+        assertThat(third.join().amount()).isEqualByComparingTo("10");
+        assertThatThrownBy(second::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Insufficient funds");
+
+        assertThat(accountService.getAccount(ibans.get(0)).getBalance()).isEqualByComparingTo("40");
+        assertThat(accountService.getAccount(ibans.get(1)).getBalance()).isEqualByComparingTo("10");
+        assertThat(accountService.getTransactions(ibans.get(0))).hasSize(2);
+    }
+
+    @Test
+    void shouldFailOnlyTheCallerWithUnknownAccount() {
+        // When
+        CompletableFuture<TransactionResponse> unknown = coalescer.credit("DE_GRP_UNKNOWN", BigDecimal.ONE, "Weg");
+        CompletableFuture<TransactionResponse> known = coalescer.credit(ibans.get(0), BigDecimal.ONE, "Da");
+
+        // Then
+        assertThat(known.join().amount()).isEqualByComparingTo("1");
+        assertThatThrownBy(unknown::join).hasCauseInstanceOf(AccountNotFoundException.class);
+    }
+
+    @Test
+    void shouldKeepTotalBalanceOnConcurrentTransfers() throws Exception {
+        // Given
+        for (String iban : ibans) {
+            coalescer.credit(iban, new BigDecimal("1000"), "Initial").join();
+        }
+
+        // When - Überweisungen in beide Richtungen zwischen allen Konten
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int round = 0; round < 50; round++) {
+            for (String from : ibans) {
+                for (String to : ibans) {
+                    if (!from.equals(to)) {
+                        futures.add(coalescer.transfer(from, to, BigDecimal.ONE, "Round " + round));
+                    }
+                }
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        // Then - Jedes Konto hat gleich viel gesendet wie empfangen
+        for (String iban : ibans) {
+            assertThat(accountService.getAccount(iban).getBalance()).isEqualByComparingTo("1000");
+        }
+    }
+
+    @Test
+    void shouldLeaveSenderUntouchedWhenReceiverWouldOverflow() {
+        // Given
+        coalescer.credit(ibans.get(0), new BigDecimal("100"), "Initial").join();
+        coalescer.credit(ibans.get(1), new BigDecimal("9999999999999"), "Initial").join();
+
+        // When - beide im selben Batch, die erste würde den Saldo des Empfängers überlaufen lassen
+        CompletableFuture<TransferResponse> overflow = coalescer.transfer(ibans.get(0), ibans.get(1),
+                new BigDecimal("60"), "Überlauf");
+        CompletableFuture<TransferResponse> next = coalescer.transfer(ibans.get(0), ibans.get(2),
+                new BigDecimal("60"), "Danach");
+
+        // Then - die gescheiterte Überweisung hat den Sender nicht belastet
+        assertThatThrownBy(overflow::join).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(next.join().amount()).isEqualByComparingTo("60");
+        assertThat(accountService.getAccount(ibans.get(0)).getBalance()).isEqualByComparingTo("40");
+        assertThat(accountService.getAccount(ibans.get(1)).getBalance()).isEqualByComparingTo("9999999999999");
+    }
+
+    @Test
+    void shouldFailBatchOnVersionConflictInsteadOfRetrying() {
+        // Given
+        coalescer.credit(ibans.get(0), new BigDecimal("100"), "Initial").join();
+
+        // When - eine fremde Transaktion ändert das Konto, während der Batch es schon gelesen hat
+        CompletableFuture<TransactionResponse> debit = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("update accounts set balance = balance + 1, version = version + 1 where iban = ?",
+                    ibans.get(0));
+            CompletableFuture<TransactionResponse> pending = coalescer.debit(ibans.get(0), BigDecimal.TEN, "Konflikt");
+            sleep(300);
+            return pending;
+        });
+
+        // Then - der Konflikt geht an den Aufrufer, der Writer-Thread wiederholt nicht
+        assertThatThrownBy(debit::join).hasCauseInstanceOf(ConcurrencyFailureException.class);
+        assertThat(accountService.getAccount(ibans.get(0)).getBalance()).isEqualByComparingTo("101");
+        assertThat(coalescer.debit(ibans.get(0), BigDecimal.TEN, "Danach").join().balanceAfter())
+                .isEqualByComparingTo("91");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long batchCount() {
+        return meterRegistry.get("banking.coalescer.batch.size").summary().count();
+    }
+}
@@ -0,0 +1,10 @@
+package com.simohoff.banking_service.service;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Dieselben Concurrency-Szenarien mit SELECT ... FOR UPDATE.
+ */
+@TestPropertySource(properties = "banking.concurrency.strategy=pessimistic")
+class PessimisticLockConcurrencyTest extends ConcurrencyTest {
+}
@@ -0,0 +1,138 @@
+package com.simohoff.banking_service.service;
+
+import com.simohoff.banking_service.repository.AccountRepository;
+import com.simohoff.banking_service.repository.TransactionRepository;
+import com.simohoff.banking_service.service.cache.AccountCache;
+import com.simohoff.banking_service.service.concurrency.BackoffMode;
+import com.simohoff.banking_service.service.concurrency.OptimisticConcurrencyStrategy;
+import com.simohoff.banking_service.service.concurrency.RetryPolicy;
+import com.simohoff.banking_service.service.concurrency.RetryProperties;
+import com.simohoff.banking_service.service.metrics.LedgerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Retries insgesamt für die Szenarien aus {@link ConcurrencyTest} (2 und 64 Threads überweisen gleichzeitig vom
+ * selben Konto), fester exponentieller Backoff gegen Jitter und adaptiven Backoff. Das Zeitbudget ist großzügig,
+ * damit nur die Zahl der Retries verglichen wird. Läuft nur mit {@code ./mvnw test -Pbench}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class RetryBenchmarkTest {
+
+    private static final int ROUNDS = 3;
+    private static final Duration DEADLINE = Duration.ofMinutes(2);
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private LedgerMetrics ledgerMetrics;
+
+    @Autowired
+    private ObjectProvider<HotAccountService> hotAccounts;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void jitteredBackoffNeedsFewerRetries() throws Exception {
+        Map<String, RetryProperties> policies = new LinkedHashMap<>();
+        policies.put("exponential", properties(BackoffMode.EXPONENTIAL, false));
+        policies.put("full-jitter", properties(BackoffMode.FULL_JITTER, false));
+        policies.put("decorrelated", properties(BackoffMode.DECORRELATED, false));
+        policies.put("adaptive", properties(BackoffMode.FULL_JITTER, true));
+
+        System.out.printf("%-14s %8s %10s %8s%n", "policy", "threads", "retries", "failed");
+        for (int threads : new int[]{2, 64}) {
+            Map<String, Long> retries = new LinkedHashMap<>();
+            for (Map.Entry<String, RetryProperties> policy : policies.entrySet()) {
+                Result result = run(policy.getValue(), threads);
+                System.out.printf("%-14s %8d %10d %8d%n", policy.getKey(), threads, result.retries(),
+                        result.failed());
+                assertThat(result.failed()).isZero();
+                retries.put(policy.getKey(), result.retries());
+            }
+
+            assertThat(retries.get("full-jitter")).isLessThanOrEqualTo(retries.get("exponential"));
+        }
+    }
+
+    private Result run(RetryProperties properties, int threads) throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OptimisticConcurrencyStrategy strategy = new OptimisticConcurrencyStrategy(transactionManager,
+                new RetryPolicy(properties, meterRegistry));
+        TransferService service = new TransferService(accountRepository, transactionRepository, strategy,
+                accountCache, new BatchProperties(1000), ledgerMetrics, hotAccounts);
+
+        AtomicInteger failed = new AtomicInteger();
+        for (int round = 0; round < ROUNDS; round++) {
+            String prefix = "DE_RETRY_" + UUID.randomUUID().toString().substring(0, 8);
+            accountService.createAccount(prefix, "Source");
+            accountService.credit(prefix, new BigDecimal("100000"), "Initial");
+            for (int i = 0; i < threads; i++) {
+                accountService.createAccount(prefix + "_" + i, "Target " + i);
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch latch = new CountDownLatch(1);
+            for (int i = 0; i < threads; i++) {
+                String target = prefix + "_" + i;
+                executor.submit(() -> {
+                    latch.await();
+                    try {
+                        service.transfer(prefix, target, BigDecimal.TEN, "Concurrent Transfer");
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            latch.countDown();
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.MINUTES);
+        }
+
+        long retries = (long) meterRegistry.find("banking.concurrency.retries").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+        return new Result(retries, failed.get());
+    }
+
+    private static RetryProperties properties(BackoffMode mode, boolean adaptive) {
+        return new RetryProperties(mode, Duration.ofMillis(50), Duration.ofSeconds(10), DEADLINE, adaptive);
+    }
+
+    private record Result(long retries, int failed) {
+    }
+}
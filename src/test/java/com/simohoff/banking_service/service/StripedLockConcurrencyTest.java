@@ -0,0 +1,10 @@
+package com.simohoff.banking_service.service;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Dieselben Concurrency-Szenarien mit In-Process Lock-Striping.
+ */
+@TestPropertySource(properties = "banking.concurrency.strategy=striped")
+class StripedLockConcurrencyTest extends ConcurrencyTest {
+}
@@ -0,0 +1,111 @@
+package com.simohoff.banking_service.service;
+
+import com.simohoff.banking_service.dto.TransactionCursor;
+import com.simohoff.banking_service.dto.TransactionPage;
+import com.simohoff.banking_service.dto.TransactionResponse;
+import com.simohoff.banking_service.exception.AccountNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class TransactionHistoryTest {
+
+    private static final String IBAN = "DE_HISTORY";
+
+    @Autowired
+    private AccountService accountService;
+
+    @BeforeEach
+    void setUp() {
+        accountService.createAccount(IBAN, "History");
+
+        // 25 Einzahlungen mit Betrag 1..25
+        for (int i = 1; i <= 25; i++) {
+            accountService.credit(IBAN, new BigDecimal(i), "Credit #" + i);
+        }
+    }
+
+    @Test
+    void shouldPageThroughHistoryNewestFirst() {
+        // When
+        TransactionPage first = accountService.getTransactionPage(IBAN, null, null, 10);
+        TransactionPage second = accountService.getTransactionPage(IBAN,
+                TransactionCursor.decode(first.nextCursor()), null, 10);
+        TransactionPage third = accountService.getTransactionPage(IBAN,
+                TransactionCursor.decode(second.nextCursor()), null, 10);
+
+        // Then
+        assertThat(amounts(first)).containsExactly(25, 24, 23, 22, 21, 20, 19, 18, 17, 16);
+        assertThat(amounts(second)).containsExactly(15, 14, 13, 12, 11, 10, 9, 8, 7, 6);
+        assertThat(amounts(third)).containsExactly(5, 4, 3, 2, 1);
+
+        assertThat(first.previousCursor()).isNull();
+        assertThat(third.nextCursor()).isNull();
+    }
+
+    @Test
+    void shouldPageBackToNewerEntries() {
+        // Given
+        TransactionPage first = accountService.getTransactionPage(IBAN, null, null, 10);
+        TransactionPage second = accountService.getTransactionPage(IBAN,
+                TransactionCursor.decode(first.nextCursor()), null, 10);
+
+        // When
+        TransactionPage back = accountService.getTransactionPage(IBAN, null,
+                TransactionCursor.decode(second.previousCursor()), 10);
+
+        // Then
+        assertThat(amounts(back)).containsExactly(amounts(first).toArray(Integer[]::new));
+        assertThat(back.previousCursor()).isNull();
+    }
+
+    @Test
+    void shouldReadHistoryAsProjection() {
+        // When
+        List<TransactionResponse> history = accountService.getTransactionHistory(IBAN);
+
+        // Then - 1 + 2 + ... + 25 = 325
+        assertThat(history).hasSize(25);
+        assertThat(history.get(0).amount()).isEqualByComparingTo("25");
+        assertThat(history.get(0).balanceAfter()).isEqualByComparingTo("325");
+        assertThat(history.get(24).reference()).isEqualTo("Credit #1");
+    }
+
+    @Test
+    void shouldStreamWholeHistory() {
+        // When
+        List<BigDecimal> streamed = new ArrayList<>();
+        accountService.forEachTransaction(IBAN, transaction -> streamed.add(transaction.amount()));
+
+        // Then
+        assertThat(streamed).hasSize(25);
+        assertThat(streamed.get(0)).isEqualByComparingTo("25");
+    }
+
+    @Test
+    void shouldRejectInvalidPageRequests() {
+        assertThatThrownBy(() -> accountService.getTransactionPage(IBAN, null, null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode("kaputt"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> accountService.getTransactionPage("NOTEXISTING", null, null, 10))
+                .isInstanceOf(AccountNotFoundException.class);
+    }
+
+    private static List<Integer> amounts(TransactionPage page) {
+        return page.items().stream()
+                .map(TransactionResponse::amount)
+                .map(BigDecimal::intValueExact)
+                .toList();
+    }
+}
@@ -0,0 +1,77 @@
+package com.simohoff.banking_service.service;
+
+import com.simohoff.banking_service.dto.BatchTransferResponse;
+import com.simohoff.banking_service.dto.TransferRequest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vergleicht einzelne Überweisungen mit der Batch-Überweisung auf denselben Daten.
+ * Läuft nur mit {@code ./mvnw test -Pbench}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@DirtiesContext
+class TransferBatchBenchmarkTest {
+
+    private static final int ACCOUNTS = 100;
+    private static final int TRANSFERS = 10_000;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Test
+    void compareSingleAndBatchTransfers() {
+        List<TransferRequest> single = payroll("S");
+        List<TransferRequest> batch = payroll("B");
+
+        long start = System.nanoTime();
+        for (TransferRequest request : single) {
+            transferService.transfer(request.fromIban(), request.toIban(), request.amount(), request.reference());
+        }
+        double singlePerSecond = TRANSFERS * 1_000_000_000.0 / (System.nanoTime() - start);
+
+        start = System.nanoTime();
+        BatchTransferResponse response = transferService.transferBatch(batch);
+        double batchPerSecond = TRANSFERS * 1_000_000_000.0 / (System.nanoTime() - start);
+
+        System.out.printf("single: %,.0f transfers/s%n", singlePerSecond);
+        System.out.printf("batch:  %,.0f transfers/s (%.1fx)%n", batchPerSecond, batchPerSecond / singlePerSecond);
+
+        assertThat(response.succeeded()).isEqualTo(TRANSFERS);
+    }
+
+    /**
+     * Ein Arbeitgeber-Konto zahlt reihum an {@link #ACCOUNTS} Mitarbeiter-Konten.
+     */
+    private List<TransferRequest> payroll(String prefix) {
+        String employer = "DE_PAY_" + prefix;
+        accountService.createAccount(employer, "Employer");
+        accountService.credit(employer, new BigDecimal("100000000"), "Initial");
+
+        List<String> employees = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String iban = "DE_PAY_" + prefix + "_" + i;
+            accountService.createAccount(iban, "Employee " + i);
+            employees.add(iban);
+        }
+
+        List<TransferRequest> requests = new ArrayList<>(TRANSFERS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            requests.add(new TransferRequest(employer, employees.get(i % ACCOUNTS), BigDecimal.TEN, "Gehalt"));
+        }
+        return requests;
+    }
+}
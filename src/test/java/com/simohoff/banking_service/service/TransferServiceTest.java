@@ -1,6 +1,9 @@
 package com.simohoff.banking_service.service;
 
 import com.simohoff.banking_service.domain.Account;
+import com.simohoff.banking_service.dto.BatchTransferItemResult;
+import com.simohoff.banking_service.dto.BatchTransferResponse;
+import com.simohoff.banking_service.dto.TransferRequest;
 import com.simohoff.banking_service.dto.TransferResponse;
 import com.simohoff.banking_service.exception.AccountNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +13,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -106,4 +110,50 @@ class TransferServiceTest {
         // Bob: Transfer Credit
         assertThat(bobTransactions).hasSize(1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldExecuteBatchAndReportResultPerTransfer() {
+        // Given
+        List<TransferRequest> transfers = List.of(
+                new TransferRequest(account1Iban, account2Iban, new BigDecimal("100"), "Batch 1"),
+                new TransferRequest(account1Iban, account2Iban, new BigDecimal("200"), "Batch 2"),
+                new TransferRequest(account1Iban, "NOTEXISTING", new BigDecimal("50"), "Unbekannt"),
+                new TransferRequest(account2Iban, account1Iban, new BigDecimal("5000"), "Zu viel"));
+
+        // When
+        BatchTransferResponse response = transferService.transferBatch(transfers);
+
+        // Then
+        assertThat(response.total()).isEqualTo(4);
+        assertThat(response.succeeded()).isEqualTo(2);
+        assertThat(response.failed()).isEqualTo(2);
+        assertThat(response.results()).extracting(BatchTransferItemResult::index).containsExactly(0, 1, 2, 3);
+        assertThat(response.results().get(2).error()).contains("NOTEXISTING");
+        assertThat(response.results().get(3).error()).contains("Insufficient funds");
+
+        // Nur die erfolgreichen Überweisungen wurden gebucht
+        assertThat(accountService.getAccount(account1Iban).getBalance()).isEqualByComparingTo("700");
+        assertThat(accountService.getAccount(account2Iban).getBalance()).isEqualByComparingTo("300");
+        assertThat(accountService.getTransactions(account2Iban)).hasSize(2);
+    }
+
+    @Test
+    void shouldLeaveSenderUntouchedWhenReceiverWouldOverflow() {
+        // Given - Carol steht knapp unter dem Höchstbetrag
+        accountService.createAccount("DE333", "Carol");
+        accountService.credit("DE333", new BigDecimal("9999999999999"), "Initial");
+        List<TransferRequest> transfers = List.of(
+                new TransferRequest(account1Iban, "DE333", new BigDecimal("100"), "Überlauf"),
+                new TransferRequest(account1Iban, account2Iban, new BigDecimal("100"), "Danach"));
+
+        // When
+        BatchTransferResponse response = transferService.transferBatch(transfers);
+
+        // Then - die gescheiterte Überweisung hat Alice nicht belastet
+        assertThat(response.succeeded()).isEqualTo(1);
+        assertThat(response.results().get(0).error()).contains("out of range");
+        assertThat(accountService.getAccount(account1Iban).getBalance()).isEqualByComparingTo("900");
+        assertThat(accountService.getAccount("DE333").getBalance()).isEqualByComparingTo("9999999999999");
+        assertThat(accountService.getTransactions(account1Iban)).hasSize(2);
+    }
+}
@@ -0,0 +1,73 @@
+package com.simohoff.banking_service.service.archive;
+
+import com.simohoff.banking_service.domain.TransactionType;
+import com.simohoff.banking_service.dto.TransactionResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ein Monat mit 1.000 Konten à 1.000 Buchungen als Segment; gemessen wird, wie lange das Lesen eines Konto-Monats
+ * dauert (Binärsuche im Index, Entpacken, Dekodieren). Läuft nur mit {@code ./mvnw test -Pbench}.
+ */
+@Tag("benchmark")
+class ArchiveScanBenchmarkTest {
+
+    private static final int ACCOUNTS = 1_000;
+    private static final int ROWS_PER_ACCOUNT = 1_000;
+    private static final int READS = 2_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldScanAccountMonthInFewMilliseconds() throws Exception {
+        // Given
+        YearMonth month = YearMonth.of(2026, 1);
+        LocalDateTime end = month.atEndOfMonth().atTime(23, 0);
+        Path file = directory.resolve(ArchiveSegment.fileName(month));
+        long start = System.nanoTime();
+        try (ArchiveSegment.Writer writer = new ArchiveSegment.Writer(file)) {
+            for (int account = 1; account <= ACCOUNTS; account++) {
+                long balance = ROWS_PER_ACCOUNT * 1_000L;
+                for (int i = 0; i < ROWS_PER_ACCOUNT; i++) {
+                    writer.append(new ArchivedRow(account, (long) (ROWS_PER_ACCOUNT - i) * ACCOUNTS + account,
+                            end.minusMinutes(i * 40L), TransactionType.CREDIT, 1_000, balance, "Gehalt " + i));
+                    balance -= 1_000;
+                }
+            }
+            writer.commit();
+        }
+        long writeMillis = (System.nanoTime() - start) / 1_000_000;
+        ArchiveSegment segment = ArchiveSegment.open(file);
+
+        // When - zum Aufwärmen einmal alle Konten
+        for (int account = 1; account <= ACCOUNTS; account++) {
+            segment.read(account);
+        }
+        long rows = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            List<TransactionResponse> history = segment.read(1 + (i * 7919L) % ACCOUNTS);
+            rows += history.size();
+        }
+        double millisPerScan = (System.nanoTime() - start) / 1_000_000.0 / READS;
+
+        // Then
+        long bytes = Files.size(file);
+        System.out.printf("segment: %,d rows, %,d bytes (%.1f bytes/row), written in %d ms%n",
+                (long) ACCOUNTS * ROWS_PER_ACCOUNT, bytes, bytes / (double) (ACCOUNTS * ROWS_PER_ACCOUNT),
+                writeMillis);
+        System.out.printf("scan: %.3f ms per account-month (%d rows)%n", millisPerScan, ROWS_PER_ACCOUNT);
+        assertThat(rows).isEqualTo((long) READS * ROWS_PER_ACCOUNT);
+        assertThat(millisPerScan).isLessThan(5);
+    }
+}
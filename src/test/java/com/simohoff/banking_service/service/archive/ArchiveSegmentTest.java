@@ -0,0 +1,80 @@
+package com.simohoff.banking_service.service.archive;
+
+import com.simohoff.banking_service.domain.TransactionType;
+import com.simohoff.banking_service.dto.TransactionResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ArchiveSegmentTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2026, 1);
+    private static final LocalDateTime T = LocalDateTime.of(2026, 1, 15, 10, 30, 0, 123_456_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReadBackRowsPerAccount() {
+        // Given - pro Konto neueste zuerst, ein Verwendungszweck fehlt
+        Path file = directory.resolve(ArchiveSegment.fileName(MONTH));
+        try (ArchiveSegment.Writer writer = new ArchiveSegment.Writer(file)) {
+            writer.append(new ArchivedRow(1, 12, T.plusHours(2), TransactionType.DEBIT, 2_500, 7_500, "Miete"));
+            writer.append(new ArchivedRow(1, 10, T, TransactionType.CREDIT, 10_000, 10_000, null));
+            writer.append(new ArchivedRow(7, 11, T.plusMinutes(1), TransactionType.CREDIT, 1, 1, "Zinsen ä"));
+            writer.commit();
+        }
+
+        // When
+        ArchiveSegment segment = ArchiveSegment.open(file);
+
+        // Then
+        assertThat(segment.month()).isEqualTo(MONTH);
+        assertThat(segment.accounts()).isEqualTo(2);
+        List<TransactionResponse> first = segment.read(1);
+        assertThat(first).extracting(TransactionResponse::id).containsExactly(12L, 10L);
+        assertThat(first.get(0).timestamp()).isEqualTo(T.plusHours(2));
+        assertThat(first.get(0).type()).isEqualTo(TransactionType.DEBIT);
+        assertThat(first.get(0).amount()).isEqualByComparingTo("25.00");
+        assertThat(first.get(0).balanceAfter()).isEqualByComparingTo("75.00");
+        assertThat(first.get(1).reference()).isNull();
+        assertThat(first.get(1).timestamp()).isEqualTo(T);
+        assertThat(segment.read(7)).singleElement()
+                .satisfies(row -> assertThat(row.reference()).isEqualTo("Zinsen ä"));
+        assertThat(segment.read(3)).isEmpty();
+    }
+
+    @Test
+    void shouldNotLeaveFileBehindWithoutCommit() {
+        // Given
+        Path file = directory.resolve(ArchiveSegment.fileName(MONTH));
+
+        // When
+        try (ArchiveSegment.Writer writer = new ArchiveSegment.Writer(file)) {
+            writer.append(new ArchivedRow(1, 10, T, TransactionType.CREDIT, 100, 100, "Abbruch"));
+        }
+
+        // Then
+        assertThat(directory).isEmptyDirectory();
+        assertThat(Files.exists(file)).isFalse();
+    }
+
+    @Test
+    void shouldRejectUnorderedAccounts() {
+        try (ArchiveSegment.Writer writer = new ArchiveSegment.Writer(directory.resolve(
+                ArchiveSegment.fileName(MONTH)))) {
+            writer.append(new ArchivedRow(2, 10, T, TransactionType.CREDIT, 100, 100, null));
+
+            assertThatThrownBy(() -> writer.append(new ArchivedRow(1, 11, T, TransactionType.CREDIT, 100, 100,
+                    null)))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+}
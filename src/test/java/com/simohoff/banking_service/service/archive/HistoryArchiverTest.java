@@ -0,0 +1,166 @@
+package com.simohoff.banking_service.service.archive;
+
+import com.simohoff.banking_service.domain.ArchiveMarker;
+import com.simohoff.banking_service.domain.Transaction;
+import com.simohoff.banking_service.dto.TransactionCursor;
+import com.simohoff.banking_service.dto.TransactionPage;
+import com.simohoff.banking_service.dto.TransactionResponse;
+import com.simohoff.banking_service.repository.ArchiveMarkerRepository;
+import com.simohoff.banking_service.service.AccountService;
+import com.simohoff.banking_service.service.statement.StatementService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// Eigenes Verzeichnis pro Kontext, sonst liest ein Test die Segmente des vorherigen
+@SpringBootTest(properties = {
+        "banking.archive.enabled=true",
+        "banking.archive.directory=target/archive-test/${random.uuid}",
+        "banking.archive.horizon=30d",
+        "banking.hot-accounts.enabled=true",
+        "banking.hot-accounts.ibans=DE_ARCHIVE_HOT"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class HistoryArchiverTest {
+
+    private static final String IBAN = "DE_ARCHIVE";
+    // Liegt vollständig vor jetzt - 30 Tage
+    private static final LocalDateTime OLD = YearMonth.now().minusMonths(4).atDay(2).atTime(10, 0);
+
+    @Autowired
+    private HistoryArchiver archiver;
+
+    @Autowired
+    private TransactionArchive archive;
+
+    @Autowired
+    private ArchiveProperties properties;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private ArchiveMarkerRepository markerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        accountService.createAccount(IBAN, "Archiv");
+        accountService.credit(IBAN, new BigDecimal("100"), "Einzahlung");
+        accountService.credit(IBAN, new BigDecimal("50"), "Zinsen");
+        accountService.debit(IBAN, new BigDecimal("30"), "Miete");
+
+        // Die beiden Gutschriften in einem Statement in einen alten Monat verschieben (sonst könnte der Lauf nach
+        // dem Start zwischen zwei Updates liegen), die Abbuchung bleibt aktuell
+        List<Transaction> transactions = accountService.getTransactions(IBAN);
+        Long first = transactions.get(2).getId();
+        Long second = transactions.get(1).getId();
+        jdbcTemplate.update("update transactions set timestamp = case when id = ? then ? else ? end where id in (?, ?)",
+                first, Timestamp.valueOf(OLD), Timestamp.valueOf(OLD.plusHours(1)), first, second);
+    }
+
+    @Test
+    void shouldMoveOldMonthsIntoArchive() {
+        // When - der Lauf nach dem Start kann schon vorher zugeschlagen haben, archive() ist synchronisiert
+        archiver.archive();
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject("select count(*) from transactions", Integer.class)).isEqualTo(1);
+        assertThat(meterRegistry.counter("banking.archive.transactions").count()).isEqualTo(2);
+        assertThat(Files.exists(properties.directory().resolve(ArchiveSegment.fileName(YearMonth.from(OLD)))))
+                .isTrue();
+        assertThat(archive.segmentCount()).isEqualTo(1);
+        assertThat(archiver.archive()).isZero();
+
+        List<TransactionResponse> history = accountService.getTransactionHistory(IBAN);
+        assertThat(history).extracting(TransactionResponse::reference)
+                .containsExactly("Miete", "Zinsen", "Einzahlung");
+        assertThat(history).extracting(TransactionResponse::balanceAfter)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("120"), new BigDecimal("150"), new BigDecimal("100"));
+        assertThat(history.get(2).timestamp()).isEqualTo(OLD);
+
+        List<TransactionResponse> exported = new ArrayList<>();
+        accountService.forEachTransaction(IBAN, exported::add);
+        assertThat(exported).isEqualTo(history);
+    }
+
+    @Test
+    void shouldKeepHotAccountHistoryInTable() {
+        // Given - ein Hot Account mit einer Buchung im selben alten Monat
+        accountService.createAccount("DE_ARCHIVE_HOT", "Gebühren");
+        accountService.credit("DE_ARCHIVE_HOT", new BigDecimal("10"), "Gebühr");
+        jdbcTemplate.update("update transactions set timestamp = ? where reference = 'Gebühr'",
+                Timestamp.valueOf(OLD));
+
+        // When
+        archiver.archive();
+
+        // Then - nur das normale Konto ist archiviert, der nächste Lauf findet nichts mehr
+        assertThat(jdbcTemplate.queryForObject("select count(*) from transactions where reference = 'Gebühr'",
+                Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from transactions", Integer.class)).isEqualTo(2);
+        assertThat(archiver.archive()).isZero();
+        assertThat(statementService.balanceAt("DE_ARCHIVE_HOT", LocalDateTime.now())).isEqualByComparingTo("10");
+    }
+
+    @Test
+    void shouldPagePastHorizon() {
+        // Given
+        archiver.archive();
+
+        // When
+        TransactionPage first = accountService.getTransactionPage(IBAN, null, null, 2);
+        TransactionPage second = accountService.getTransactionPage(IBAN,
+                TransactionCursor.decode(first.nextCursor()), null, 2);
+        TransactionPage back = accountService.getTransactionPage(IBAN, null,
+                TransactionCursor.decode(second.previousCursor()), 2);
+
+        // Then - die erste Seite reicht von der Tabelle ins Archiv
+        assertThat(first.items()).extracting(TransactionResponse::reference).containsExactly("Miete", "Zinsen");
+        assertThat(second.items()).extracting(TransactionResponse::reference).containsExactly("Einzahlung");
+        assertThat(second.nextCursor()).isNull();
+        assertThat(back.items()).isEqualTo(first.items());
+        assertThat(back.previousCursor()).isNull();
+    }
+
+    @Test
+    void shouldCarryBalanceForward() {
+        // When
+        archiver.archive();
+
+        // Then - Saldovortrag nach der letzten archivierten Buchung
+        ArchiveMarker marker = markerRepository.findById(accountService.getAccount(IBAN).getId()).orElseThrow();
+        assertThat(marker.getBalanceAfter()).isEqualByComparingTo("150");
+        assertThat(marker.getTransactionCount()).isEqualTo(2);
+        assertThat(marker.getArchivedUntil()).isEqualTo(YearMonth.from(OLD).plusMonths(1).atDay(1).atStartOfDay());
+
+        assertThat(statementService.balanceAt(IBAN, OLD.minusDays(1))).isEqualByComparingTo("0");
+        assertThat(statementService.balanceAt(IBAN, OLD.plusMinutes(30))).isEqualByComparingTo("100");
+        assertThat(statementService.balanceAt(IBAN, LocalDateTime.now().minusMonths(1)))
+                .isEqualByComparingTo("150");
+        assertThat(statementService.balanceAt(IBAN, LocalDateTime.now())).isEqualByComparingTo("120");
+    }
+}
@@ -0,0 +1,80 @@
+package com.simohoff.banking_service.service.cache;
+
+import com.simohoff.banking_service.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class AccountCacheTest {
+
+    private static final String IBAN = "DE_CACHE";
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        // Given
+        accountService.createAccount(IBAN, "Cache");
+        double hitsBefore = gets("hit");
+
+        // When
+        accountService.getAccountSnapshot(IBAN);
+        accountService.getAccountSnapshot(IBAN);
+
+        // Then
+        assertThat(gets("hit") - hitsBefore).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNeverServeStaleBalanceAfterWrite() {
+        // Given
+        accountService.createAccount(IBAN, "Cache");
+        AccountSnapshot before = accountService.getAccountSnapshot(IBAN);
+
+        // When
+        accountService.credit(IBAN, new BigDecimal("100"), "Einzahlung");
+
+        // Then
+        AccountSnapshot after = accountService.getAccountSnapshot(IBAN);
+        assertThat(after.balance()).isEqualByComparingTo("100");
+        assertThat(after.version()).isGreaterThan(before.version());
+    }
+
+    @Test
+    void shouldIgnoreOlderVersion() {
+        // Given
+        accountService.createAccount(IBAN, "Cache");
+        accountService.credit(IBAN, new BigDecimal("100"), "Einzahlung");
+        AccountSnapshot current = accountService.getAccountSnapshot(IBAN);
+
+        // When - verspäteter Stand einer älteren Version
+        accountCache.update(new AccountSnapshot(current.id(), IBAN, current.ownerName(),
+                BigDecimal.ZERO, current.createdAt(), current.version() - 1));
+
+        // Then
+        assertThat(accountService.getAccountSnapshot(IBAN).balance()).isEqualByComparingTo("100");
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "accounts")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
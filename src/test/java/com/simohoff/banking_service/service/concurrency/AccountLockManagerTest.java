@@ -0,0 +1,63 @@
+package com.simohoff.banking_service.service.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccountLockManagerTest {
+
+    private final AccountLockManager lockManager = new AccountLockManager(
+            new ConcurrencyProperties(LockingStrategy.STRIPED, 1000, Duration.ofSeconds(5)));
+
+    @Test
+    void shouldRoundStripesUpToPowerOfTwo() {
+        assertThat(lockManager.stripeCount()).isEqualTo(1024);
+    }
+
+    @Test
+    void shouldAllowSameIbanTwice() {
+        // Transfer auf dasselbe Konto darf nicht am eigenen Lock hängen bleiben
+        String result = lockManager.withLocks(List.of("DE111", "DE111"), () -> "ok");
+
+        assertThat(result).isEqualTo("ok");
+    }
+
+    @Test
+    void shouldNotDeadlockOnOpposingTransfers() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        // When - A→B und B→A gleichzeitig, jeweils 1000 Mal
+        Future<?> forward = executor.submit(() -> {
+            latch.await();
+            for (int i = 0; i < 1000; i++) {
+                lockManager.withLocks(List.of("DE_A", "DE_B"), () -> null);
+            }
+            return null;
+        });
+        Future<?> backward = executor.submit(() -> {
+            latch.await();
+            for (int i = 0; i < 1000; i++) {
+                lockManager.withLocks(List.of("DE_B", "DE_A"), () -> null);
+            }
+            return null;
+        });
+
+        latch.countDown();
+        executor.shutdown();
+
+        // Then
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        forward.get();
+        backward.get();
+    }
+}
@@ -0,0 +1,85 @@
+package com.simohoff.banking_service.service.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RetryPolicyTest {
+
+    private static final RuntimeException CONFLICT = new RuntimeException("conflict");
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldKeepJitteredDelaysWithinBounds() {
+        // Given
+        RetryPolicy fullJitter = policy(BackoffMode.FULL_JITTER, Duration.ofSeconds(60), false);
+        RetryPolicy decorrelated = policy(BackoffMode.DECORRELATED, Duration.ofSeconds(60), false);
+
+        // When / Then - Obergrenze base * 2^n bzw. max-delay
+        RetryPolicy.Retry jittered = fullJitter.start("Credit", List.of("DE111"));
+        RetryPolicy.Retry spread = decorrelated.start("Credit", List.of("DE111"));
+        for (int attempt = 1; attempt <= 8; attempt++) {
+            assertThat(jittered.nextDelayMillis(CONFLICT)).isBetween(0L, Math.min(1000L, 10L << attempt));
+            assertThat(spread.nextDelayMillis(CONFLICT)).isBetween(10L, 1000L);
+        }
+    }
+
+    @Test
+    void shouldGrowExponentiallyWithoutJitter() {
+        // Given
+        RetryPolicy.Retry retry = policy(BackoffMode.EXPONENTIAL, Duration.ofSeconds(60), false)
+                .start("Credit", List.of("DE111"));
+
+        // When / Then
+        assertThat(retry.nextDelayMillis(CONFLICT)).isEqualTo(20);
+        assertThat(retry.nextDelayMillis(CONFLICT)).isEqualTo(40);
+        assertThat(retry.nextDelayMillis(CONFLICT)).isEqualTo(80);
+    }
+
+    @Test
+    void shouldGiveUpWhenDeadlineIsExhausted() {
+        // Given - Budget kleiner als der erste Backoff
+        RetryPolicy.Retry retry = policy(BackoffMode.EXPONENTIAL, Duration.ofMillis(15), false)
+                .start("Transfer batch", List.of("DE111", "DE222"));
+
+        // When / Then
+        assertThatThrownBy(() -> retry.nextDelayMillis(CONFLICT))
+                .hasMessageContaining("failed after 1 attempts")
+                .hasCause(CONFLICT);
+        assertThat(meterRegistry.counter("banking.concurrency.retries.exhausted", "operation", "transfer_batch")
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAdaptBackoffToObservedContention() {
+        // Given - ein ruhiges und ein heißes Konto
+        RetryPolicy policy = policy(BackoffMode.EXPONENTIAL, Duration.ofSeconds(60), true);
+        for (int i = 0; i < 20; i++) {
+            policy.start("Credit", List.of("DE_CALM")).succeeded();
+            policy.start("Credit", List.of("DE_HOT")).nextDelayMillis(CONFLICT);
+        }
+
+        // When - jeweils der erste Retry (ohne Adaption 20 ms)
+        long calm = policy.start("Credit", List.of("DE_CALM")).nextDelayMillis(CONFLICT);
+        long hot = policy.start("Credit", List.of("DE_HOT")).nextDelayMillis(CONFLICT);
+        long transfer = policy.start("Transfer", List.of("DE_CALM", "DE_HOT")).nextDelayMillis(CONFLICT);
+
+        // Then - bei Überweisungen zählt das heißere Konto
+        assertThat(policy.contention("DE_HOT")).isGreaterThan(RetryPolicy.HOT_RATE);
+        assertThat(calm).isLessThan(20);
+        assertThat(hot).isGreaterThan(30);
+        assertThat(transfer).isGreaterThan(30);
+        assertThat(meterRegistry.get("banking.concurrency.contention.hot").gauge().value()).isEqualTo(1);
+    }
+
+    private RetryPolicy policy(BackoffMode mode, Duration deadline, boolean adaptive) {
+        return new RetryPolicy(new RetryProperties(mode, Duration.ofMillis(10), Duration.ofSeconds(1), deadline,
+                adaptive), meterRegistry);
+    }
+}
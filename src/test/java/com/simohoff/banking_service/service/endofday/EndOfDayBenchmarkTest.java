@@ -0,0 +1,76 @@
+package com.simohoff.banking_service.service.endofday;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tagesabschluss über 100.000 Konten mit je 10 Buchungen, Konten und Buchungen direkt per JDBC angelegt.
+ * Läuft nur mit {@code ./mvnw test -Pbench}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "banking.end-of-day.enabled=true",
+        "banking.end-of-day.schedule=0 0 3 1 1 *",
+        "banking.end-of-day.interest-rate=0.02"
+})
+@DirtiesContext
+class EndOfDayBenchmarkTest {
+
+    private static final int ACCOUNTS = 100_000;
+    private static final int TRANSACTIONS_PER_ACCOUNT = 10;
+    private static final LocalDate BUSINESS_DATE = LocalDate.now().minusDays(1);
+
+    @Autowired
+    private EndOfDayJob job;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldReconcileAndPostInterestInParallel() {
+        // Given
+        Timestamp booked = Timestamp.valueOf(BUSINESS_DATE.atTime(12, 0));
+        List<Object[]> accounts = new ArrayList<>();
+        List<Object[]> transactions = new ArrayList<>();
+        // Weit hinter den IDs, die transaction_seq für die Zinsbuchungen vergibt
+        long transactionId = 1_000_000_000L;
+        for (int i = 1; i <= ACCOUNTS; i++) {
+            accounts.add(new Object[]{i, "DE_BENCH_" + i, "Benchmark", new BigDecimal(TRANSACTIONS_PER_ACCOUNT * 100),
+                    booked, 0});
+            for (int t = 1; t <= TRANSACTIONS_PER_ACCOUNT; t++) {
+                transactions.add(new Object[]{transactionId++, new BigDecimal(100), "CREDIT", booked, "Gehalt",
+                        new BigDecimal(t * 100), i});
+            }
+        }
+        jdbcTemplate.batchUpdate("""
+                insert into accounts (id, iban, owner_name, balance, created_at, version) values (?, ?, ?, ?, ?, ?)
+                """, accounts);
+        jdbcTemplate.batchUpdate("""
+                insert into transactions (id, amount, type, timestamp, reference, balance_after, account_id)
+                values (?, ?, ?, ?, ?, ?, ?)
+                """, transactions);
+
+        // When
+        EndOfDayReport report = job.run(BUSINESS_DATE);
+
+        // Then
+        System.out.printf("end of day: %,d accounts in %d ms, %,.0f accounts/s%n",
+                report.processed(), report.elapsed().toMillis(), report.accountsPerSecond());
+        assertThat(report.accounts()).isEqualTo(ACCOUNTS);
+        assertThat(report.mismatches()).isZero();
+        assertThat(report.interestPostings()).isEqualTo(ACCOUNTS);
+    }
+}
@@ -0,0 +1,167 @@
+package com.simohoff.banking_service.service.endofday;
+
+import com.simohoff.banking_service.domain.ReconciliationMismatch;
+import com.simohoff.banking_service.domain.Transaction;
+import com.simohoff.banking_service.repository.ReconciliationMismatchRepository;
+import com.simohoff.banking_service.service.AccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 3,65 % p.a. sind 0,01 % pro Tag: 1.000 EUR bringen 10 Cent; kleine Partitionen und Chunks, damit mehrere
+// Partitionen parallel laufen
+@SpringBootTest(properties = {
+        "banking.end-of-day.enabled=true",
+        "banking.end-of-day.schedule=0 0 3 1 1 *",
+        "banking.end-of-day.partition-size=2",
+        "banking.end-of-day.threads=2",
+        "banking.end-of-day.chunk-size=1",
+        "banking.end-of-day.interest-rate=0.0365",
+        "banking.end-of-day.monthly-fee=5"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class EndOfDayJobTest {
+
+    private static final List<String> IBANS = List.of("DE_EOD_1", "DE_EOD_2", "DE_EOD_3", "DE_EOD_4", "DE_EOD_5");
+    // Kein Monatsletzter, also keine Gebühr
+    private static final LocalDate BUSINESS_DATE = YearMonth.now().minusMonths(1).atDay(10);
+    private static final LocalDate MONTH_END = YearMonth.now().minusMonths(1).atEndOfMonth();
+
+    @Autowired
+    private EndOfDayJob job;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ReconciliationMismatchRepository mismatchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (String iban : IBANS) {
+            accountService.createAccount(iban, "Tagesabschluss");
+            accountService.credit(iban, new BigDecimal("1000"), "Einzahlung");
+        }
+        // Die Einzahlungen auf den Geschäftstag legen, sonst zählen sie erst nach dessen Ende
+        jdbcTemplate.update("update transactions set timestamp = ?",
+                Timestamp.valueOf(BUSINESS_DATE.atTime(10, 0)));
+    }
+
+    @Test
+    void shouldPostInterestOncePerBusinessDay() {
+        // When
+        EndOfDayReport report = job.run(BUSINESS_DATE);
+        EndOfDayReport again = job.run(BUSINESS_DATE);
+
+        // Then
+        assertThat(report.accounts()).isEqualTo(5);
+        assertThat(report.processed()).isEqualTo(5);
+        assertThat(report.mismatches()).isZero();
+        assertThat(report.interestPostings()).isEqualTo(5);
+        assertThat(report.interestTotal()).isEqualByComparingTo("0.50");
+        assertThat(report.feePostings()).isZero();
+
+        assertThat(again.processed()).isZero();
+        assertThat(again.interestPostings()).isEqualTo(5);
+        for (String iban : IBANS) {
+            assertThat(balance(iban)).isEqualByComparingTo("1000.10");
+            List<Transaction> transactions = accountService.getTransactions(iban);
+            assertThat(transactions).hasSize(2);
+            assertThat(transactions.get(0).getReference()).isEqualTo("Zinsen " + BUSINESS_DATE);
+        }
+    }
+
+    @Test
+    void shouldUseBalanceAtEndOfBusinessDay() {
+        // Given - nach Ende des Geschäftstags gebucht, bleibt für die Zinsen außen vor
+        accountService.credit("DE_EOD_1", new BigDecimal("9000"), "Bonus");
+
+        // When
+        EndOfDayReport report = job.run(BUSINESS_DATE);
+
+        // Then
+        assertThat(report.interestTotal()).isEqualByComparingTo("0.50");
+        assertThat(balance("DE_EOD_1")).isEqualByComparingTo("10000.10");
+    }
+
+    @Test
+    void shouldReportMismatchAndSkipPosting() {
+        // Given - Saldo an den Buchungen vorbei geändert
+        jdbcTemplate.update("update accounts set balance = balance + 1 where iban = ?", "DE_EOD_3");
+
+        // When
+        EndOfDayReport report = job.run(BUSINESS_DATE);
+
+        // Then
+        assertThat(report.accounts()).isEqualTo(5);
+        assertThat(report.mismatches()).isEqualTo(1);
+        assertThat(report.interestPostings()).isEqualTo(4);
+
+        List<ReconciliationMismatch> mismatches = mismatchRepository.findByIdBusinessDateOrderByIdAccountIdAsc(
+                BUSINESS_DATE);
+        assertThat(mismatches).hasSize(1);
+        assertThat(mismatches.get(0).getId().getAccountId())
+                .isEqualTo(accountService.getAccount("DE_EOD_3").getId());
+        assertThat(mismatches.get(0).getBalance()).isEqualByComparingTo("1001");
+        assertThat(mismatches.get(0).getExpected()).isEqualByComparingTo("1000");
+        assertThat(balance("DE_EOD_3")).isEqualByComparingTo("1001");
+    }
+
+    @Test
+    void shouldChargeMonthlyFeeOnlyWithSufficientFunds() {
+        // Given
+        accountService.createAccount("DE_EOD_POOR", "Tagesabschluss");
+        accountService.credit("DE_EOD_POOR", new BigDecimal("3"), "Einzahlung");
+
+        // When
+        EndOfDayReport report = job.run(MONTH_END);
+
+        // Then
+        assertThat(report.accounts()).isEqualTo(6);
+        assertThat(report.feePostings()).isEqualTo(5);
+        assertThat(report.feeTotal()).isEqualByComparingTo("25");
+        assertThat(balance("DE_EOD_1")).isEqualByComparingTo("995.10");
+        assertThat(balance("DE_EOD_POOR")).isEqualByComparingTo("3");
+    }
+
+    @Test
+    void shouldResumeAfterLastCommittedChunk() {
+        // Given - ein abgebrochener Lauf hat die erste Partition (zwei Konten) schon abgeschlossen
+        long first = accountService.getAccount(IBANS.get(0)).getId();
+        jdbcTemplate.update("""
+                insert into end_of_day_checkpoints (business_date, range_start, range_end, next_account_id, accounts,
+                        mismatches, interest_postings, interest_total, fee_postings, fee_total)
+                values (?, ?, ?, ?, 2, 0, 2, 0.20, 0, 0)
+                """, Date.valueOf(BUSINESS_DATE), first, first + 2, first + 2);
+
+        // When
+        EndOfDayReport report = job.run(BUSINESS_DATE);
+
+        // Then - die erste Partition wird nicht erneut verbucht
+        assertThat(report.processed()).isEqualTo(3);
+        assertThat(report.accounts()).isEqualTo(5);
+        assertThat(report.interestTotal()).isEqualByComparingTo("0.50");
+        assertThat(balance(IBANS.get(0))).isEqualByComparingTo("1000");
+        assertThat(balance(IBANS.get(1))).isEqualByComparingTo("1000");
+        assertThat(balance(IBANS.get(4))).isEqualByComparingTo("1000.10");
+    }
+
+    private BigDecimal balance(String iban) {
+        return jdbcTemplate.queryForObject("select balance from accounts where iban = ?", BigDecimal.class, iban);
+    }
+}
@@ -0,0 +1,268 @@
+package com.simohoff.banking_service.service.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simohoff.banking_service.dto.TransactionResponse;
+import com.simohoff.banking_service.exception.IdempotencyConflictException;
+import com.simohoff.banking_service.repository.IdempotencyRecordRepository;
+import com.simohoff.banking_service.service.AccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class IdempotencyServiceTest {
+
+    private static final String IBAN = "DE_IDEMPOTENT";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        accountService.createAccount(IBAN, "Idempotent");
+    }
+
+    @Test
+    void shouldReplayStoredResponseWithoutBookingAgain() {
+        // When
+        TransactionResponse first = credit("key-1", "100");
+        TransactionResponse replay = credit("key-1", "100.00");
+
+        // Then
+        assertThat(replay).isEqualTo(first);
+        assertThat(accountService.getAccount(IBAN).getBalance()).isEqualByComparingTo("100");
+        assertThat(accountService.getTransactions(IBAN)).hasSize(1);
+    }
+
+    @Test
+    void shouldReplayFromTableAfterRestart() {
+        // Given
+        TransactionResponse first = credit("key-restart", "100");
+
+        // When - neue Instanz ohne In-Memory-Store
+        IdempotencyService restarted = restartedService();
+        TransactionResponse replay = restarted.execute("key-restart", "credit|100", TransactionResponse.class,
+                () -> fail("must not book again"));
+
+        // Then
+        assertThat(replay).isEqualTo(first);
+        assertThat(accountService.getAccount(IBAN).getBalance()).isEqualByComparingTo("100");
+    }
+
+    @Test
+    void shouldCoalesceConcurrentDuplicates() throws Exception {
+        // Given
+        int numberOfThreads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        List<Future<TransactionResponse>> futures = new ArrayList<>();
+
+        // When - 8 Threads mit demselben Key
+        for (int i = 0; i < numberOfThreads; i++) {
+            futures.add(executor.submit(() -> {
+                latch.await();
+                return idempotencyService.execute("key-concurrent", "credit|50", TransactionResponse.class, () -> {
+                    executions.incrementAndGet();
+                    return TransactionResponse.from(
+                            accountService.credit(IBAN, new BigDecimal("50"), "Parallel"));
+                });
+            }));
+        }
+
+        latch.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // Then
+        TransactionResponse expected = futures.get(0).get();
+        for (Future<TransactionResponse> future : futures) {
+            assertThat(future.get()).isEqualTo(expected);
+        }
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(accountService.getAccount(IBAN).getBalance()).isEqualByComparingTo("50");
+    }
+
+    @Test
+    void shouldRejectKeyReusedForDifferentRequest() {
+        // Given
+        credit("key-reused", "100");
+
+        // When / Then
+        assertThatThrownBy(() -> credit("key-reused", "200"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("different request");
+        assertThat(accountService.getAccount(IBAN).getBalance()).isEqualByComparingTo("100");
+    }
+
+    @Test
+    void shouldReleaseKeyWhenBookingFails() {
+        // Given
+        assertThatThrownBy(() -> idempotencyService.execute("key-failed", "debit|100", TransactionResponse.class,
+                () -> TransactionResponse.from(accountService.debit(IBAN, new BigDecimal("100"), "Zu viel"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Insufficient funds");
+
+        // When - Client versucht es nach einer Einzahlung erneut
+        credit("key-topup", "100");
+        TransactionResponse retry = idempotencyService.execute("key-failed", "debit|100", TransactionResponse.class,
+                () -> TransactionResponse.from(accountService.debit(IBAN, new BigDecimal("100"), "Zu viel")));
+
+        // Then
+        assertThat(retry.amount()).isEqualByComparingTo("100");
+        assertThat(accountService.getAccount(IBAN).getBalance()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void shouldTakeOverOrphanedClaimAfterTimeout() {
+        // Given - Prozess bricht ab, bevor die Buchung fertig ist: der Claim bleibt ohne Antwort
+        idempotencyService.executeAsync("key-orphaned", "credit|100", TransactionResponse.class,
+                inTransaction -> new CompletableFuture<>());
+        IdempotencyService restarted = restartedService();
+
+        // When / Then - solange der Claim jung ist, läuft die Buchung womöglich noch
+        assertThatThrownBy(() -> restarted.execute("key-orphaned", "credit|100", TransactionResponse.class,
+                () -> fail("must not book while claimed")))
+                .isInstanceOf(IdempotencyConflictException.class);
+
+        jdbcTemplate.update("update idempotency_keys set created_at = ? where idempotency_key = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(1)), "key-orphaned");
+        TransactionResponse response = restarted.execute("key-orphaned", "credit|100", TransactionResponse.class,
+                () -> TransactionResponse.from(accountService.credit(IBAN, new BigDecimal("100"), "Einzahlung")));
+
+        // Then
+        assertThat(restartedService().execute("key-orphaned", "credit|100", TransactionResponse.class,
+                () -> fail("must not book again"))).isEqualTo(response);
+        assertThat(accountService.getAccount(IBAN).getBalance()).isEqualByComparingTo("100");
+    }
+
+    @Test
+    void shouldStoreResponseOfAsyncBookingInBookingTransaction() {
+        // Given - die Buchung committet auf einem fremden Thread, wie bei Engine oder Coalescer
+        ExecutorService bookingThread = Executors.newSingleThreadExecutor();
+
+        // When
+        TransactionResponse response = idempotencyService.executeAsync("key-async", "credit|100",
+                TransactionResponse.class,
+                inTransaction -> CompletableFuture.supplyAsync(() -> book(inTransaction), bookingThread)).join();
+        bookingThread.shutdown();
+
+        // Then
+        assertThat(repository.findById("key-async").orElseThrow().isCompleted()).isTrue();
+        assertThat(restartedService().execute("key-async", "credit|100", TransactionResponse.class,
+                () -> fail("must not book again"))).isEqualTo(response);
+    }
+
+    @Test
+    void shouldNotBookAgainWhenProcessDiesAfterBookingCommit() {
+        // Given - die Buchung committet, dann bricht der Prozess ab, bevor das Future erfüllt ist
+        ExecutorService bookingThread = Executors.newSingleThreadExecutor();
+        idempotencyService.executeAsync("key-crash", "credit|100", TransactionResponse.class, inTransaction -> {
+            CompletableFuture.supplyAsync(() -> book(inTransaction), bookingThread).join();
+            return new CompletableFuture<>();
+        });
+        bookingThread.shutdown();
+
+        // When - Wiederholung nach claim-timeout auf einer neu gestarteten Instanz
+        jdbcTemplate.update("update idempotency_keys set created_at = ? where idempotency_key = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(1)), "key-crash");
+        TransactionResponse retry = restartedService().executeAsync("key-crash", "credit|100",
+                TransactionResponse.class, inTransaction -> fail("must not book again")).join();
+
+        // Then
+        assertThat(retry.amount()).isEqualByComparingTo("100");
+        assertThat(accountService.getTransactions(IBAN)).hasSize(1);
+        assertThat(accountService.getAccount(IBAN).getBalance()).isEqualByComparingTo("100");
+    }
+
+    @Test
+    void shouldRollBackStaleOwnerAfterTakeOver() {
+        // Given - die Buchung hängt länger als claim-timeout
+        ExecutorService bookingThread = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<TransactionResponse> stale = idempotencyService.executeAsync("key-slow", "credit|100",
+                TransactionResponse.class, inTransaction -> CompletableFuture.supplyAsync(() -> {
+                    awaitQuietly(release);
+                    return book(inTransaction);
+                }, bookingThread));
+        jdbcTemplate.update("update idempotency_keys set created_at = ? where idempotency_key = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(1)), "key-slow");
+
+        // When - eine andere Instanz übernimmt den Claim und bucht, danach läuft die alte Buchung weiter
+        TransactionResponse takenOver = restartedService().execute("key-slow", "credit|100",
+                TransactionResponse.class,
+                () -> TransactionResponse.from(accountService.credit(IBAN, new BigDecimal("100"), "Einzahlung")));
+        release.countDown();
+
+        // Then - die alte Buchung wird samt Antwort zurückgerollt
+        assertThatThrownBy(stale::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IdempotencyConflictException.class);
+        bookingThread.shutdown();
+        assertThat(accountService.getTransactions(IBAN)).hasSize(1);
+        assertThat(accountService.getAccount(IBAN).getBalance()).isEqualByComparingTo("100");
+        assertThat(restartedService().execute("key-slow", "credit|100", TransactionResponse.class,
+                () -> fail("must not book again"))).isEqualTo(takenOver);
+    }
+
+    // Bucht wie eine Engine: Buchung und Antwort in einer Transaktion
+    private TransactionResponse book(UnaryOperator<TransactionResponse> inTransaction) {
+        return new TransactionTemplate(transactionManager).execute(status -> inTransaction.apply(
+                TransactionResponse.from(accountService.credit(IBAN, new BigDecimal("100"), "Einzahlung"))));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Neue Instanz ohne In-Memory-Store, wie nach einem Neustart
+    private IdempotencyService restartedService() {
+        return new IdempotencyService(repository, objectMapper, transactionManager,
+                new IdempotencyProperties(100, Duration.ofHours(1), Duration.ofSeconds(30)));
+    }
+
+    private TransactionResponse credit(String key, String amount) {
+        BigDecimal value = new BigDecimal(amount);
+        return idempotencyService.execute(key, "credit|" + value.stripTrailingZeros().toPlainString(),
+                TransactionResponse.class,
+                () -> TransactionResponse.from(accountService.credit(IBAN, value, "Einzahlung")));
+    }
+}
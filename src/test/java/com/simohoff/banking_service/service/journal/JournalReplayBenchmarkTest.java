@@ -0,0 +1,59 @@
+package com.simohoff.banking_service.service.journal;
+
+import com.simohoff.banking_service.domain.TransactionType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Schreibt 1.000.000 Buchungen ins Journal und misst, wie schnell sie wieder gelesen werden.
+ * Läuft nur mit {@code ./mvnw test -Pbench}.
+ */
+@Tag("benchmark")
+class JournalReplayBenchmarkTest {
+
+    private static final int ENTRIES = 1_000_000;
+    private static final int ACCOUNTS = 1_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReplayMoreThanOneMillionEntriesPerSecond() throws Exception {
+        // Given
+        LedgerJournal journal = new LedgerJournal(new JournalProperties(true, directory, DataSize.ofMegabytes(64)));
+        LocalDateTime now = LocalDateTime.now();
+        List<JournalEntry> batch = new ArrayList<>(ACCOUNTS);
+        for (int i = 1; i <= ENTRIES; i++) {
+            batch.add(new JournalEntry.TransactionApplied(i, i % ACCOUNTS, TransactionType.CREDIT,
+                    1_234, "Benchmark", now));
+            if (batch.size() == ACCOUNTS) {
+                journal.append(batch);
+                batch.clear();
+            }
+        }
+        journal.close();
+
+        // When
+        long[] sum = {0};
+        long start = System.nanoTime();
+        long read = JournalReader.read(directory, entry ->
+                sum[0] += ((JournalEntry.TransactionApplied) entry).amount());
+        double perSecond = read * 1_000_000_000.0 / (System.nanoTime() - start);
+
+        // Then
+        System.out.printf("replay: %,d entries in %d segments, %,.0f entries/s%n",
+                read, JournalReader.segments(directory).size(), perSecond);
+        assertThat(read).isEqualTo(ENTRIES);
+        assertThat(sum[0]).isEqualTo(ENTRIES * 1234L);
+        assertThat(perSecond).isGreaterThan(1_000_000);
+    }
+}
@@ -0,0 +1,102 @@
+package com.simohoff.banking_service.service.journal;
+
+import com.simohoff.banking_service.domain.ArchiveMarker;
+import com.simohoff.banking_service.dto.TransactionResponse;
+import com.simohoff.banking_service.repository.ArchiveMarkerRepository;
+import com.simohoff.banking_service.service.AccountService;
+import com.simohoff.banking_service.service.HotAccountService;
+import com.simohoff.banking_service.service.archive.HistoryArchiver;
+import com.simohoff.banking_service.service.archive.TransactionArchive;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+
+// Negativer Horizont: der laufende Monat ist sofort archivierbar, die Journal-Einträge tragen die echte Zeit
+@SpringBootTest(properties = {
+        "banking.journal.enabled=true",
+        "banking.journal.directory=target/journal-test/${random.uuid}",
+        "banking.archive.enabled=true",
+        "banking.archive.directory=target/archive-test/${random.uuid}",
+        "banking.archive.horizon=-40d",
+        "banking.hot-accounts.enabled=true",
+        "banking.hot-accounts.ibans=DE_WAL_HOT"
+})
+@DirtiesContext
+class JournalReplayerArchiveTest {
+
+    @Autowired
+    private JournalProperties properties;
+
+    @Autowired
+    private HistoryArchiver archiver;
+
+    @Autowired
+    private TransactionArchive archive;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private HotAccountService hotAccountService;
+
+    @Autowired
+    private ArchiveMarkerRepository markerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldNotReinsertArchivedMonths() {
+        // Given - beide Buchungen in einer Transaktion, damit der Lauf nach dem Start nicht dazwischen liegt;
+        // der Hot Account wird nicht archiviert
+        accountService.createAccount("DE_WAL_ARCHIVE", "Archiv");
+        accountService.createAccount("DE_WAL_HOT", "Gebühren");
+        transactionTemplate.executeWithoutResult(status -> {
+            accountService.credit("DE_WAL_ARCHIVE", new BigDecimal("100"), "Einzahlung");
+            accountService.debit("DE_WAL_ARCHIVE", new BigDecimal("30"), "Miete");
+        });
+        hotAccountService.credit("DE_WAL_HOT", new BigDecimal("40"), "Gebühr");
+        archiver.archive();
+        long accountId = accountService.getAccount("DE_WAL_ARCHIVE").getId();
+
+        // When - In-Memory-Datenbank geht verloren, Journal wird mit dem Archiv eingespielt
+        wipeDatabase();
+        JournalReplayer.ReplayResult result = JournalReplayer.replay(properties.directory(), jdbcTemplate, archive);
+
+        // Then - nur der Hot Account kommt zurück in die Tabelle, das Archiv bleibt die einzige Kopie
+        assertThat(result.transactions()).isEqualTo(1);
+        assertThat(result.archived()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from transactions where account_id = ?",
+                Integer.class, accountId)).isZero();
+        assertThat(accountService.getTransactionHistory("DE_WAL_ARCHIVE"))
+                .extracting(TransactionResponse::reference)
+                .containsExactly("Miete", "Einzahlung");
+        assertThat(accountService.getTransactionHistory("DE_WAL_HOT")).hasSize(1);
+        assertThat(accountService.getAccount("DE_WAL_ARCHIVE").getBalance()).isEqualByComparingTo("70");
+        assertThat(hotAccountService.balance("DE_WAL_HOT")).isEqualByComparingTo("40");
+
+        ArchiveMarker marker = markerRepository.findById(accountId).orElseThrow();
+        assertThat(marker.getBalanceAfter()).isEqualByComparingTo("70");
+        assertThat(marker.getTransactionCount()).isEqualTo(2);
+        assertThat(archiver.archive()).isZero();
+    }
+
+    private void wipeDatabase() {
+        jdbcTemplate.execute("delete from daily_statements");
+        jdbcTemplate.execute("delete from archive_markers");
+        jdbcTemplate.execute("delete from balance_buckets");
+        jdbcTemplate.execute("delete from transactions");
+        jdbcTemplate.execute("delete from balance_snapshots");
+        jdbcTemplate.execute("delete from accounts");
+    }
+}
@@ -0,0 +1,90 @@
+package com.simohoff.banking_service.service.journal;
+
+import com.simohoff.banking_service.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+// SELECT ... FOR UPDATE: das Konto ist nur bis zum Commit gesperrt, angehängt wird erst danach
+@SpringBootTest(properties = {
+        "banking.journal.enabled=true",
+        "banking.journal.directory=target/journal-test/${random.uuid}",
+        "banking.concurrency.strategy=pessimistic"
+})
+@DirtiesContext
+class JournalReplayerConcurrencyTest {
+
+    private static final String IBAN = "DE_WAL_PARALLEL";
+
+    @Autowired
+    private JournalProperties properties;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldReplayRunningBalancesInBookingOrder() throws Exception {
+        // Given - 8 Threads buchen gleichzeitig auf dasselbe Konto, jeder mit eigenem Betrag
+        int numberOfThreads = 8;
+        int bookingsPerThread = 50;
+        accountService.createAccount(IBAN, "Parallel");
+        accountService.credit(IBAN, new BigDecimal("1000"), "Startguthaben");
+
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < numberOfThreads; i++) {
+            BigDecimal amount = BigDecimal.valueOf(i + 1);
+            futures.add(executor.submit(() -> {
+                latch.await();
+                for (int j = 0; j < bookingsPerThread; j++) {
+                    if (j % 2 == 0) {
+                        accountService.credit(IBAN, amount, "Einzahlung");
+                    } else {
+                        accountService.debit(IBAN, amount, "Auszahlung");
+                    }
+                }
+                return null;
+            }));
+        }
+        latch.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        List<Map<String, Object>> live = balancesAfter();
+
+        // When - In-Memory-Datenbank geht verloren, Journal wird eingespielt
+        wipeDatabase();
+        JournalReplayer.replay(properties.directory(), jdbcTemplate);
+
+        // Then - jede Transaktion hat denselben laufenden Saldo wie vor dem Verlust
+        assertThat(live).hasSize(1 + numberOfThreads * bookingsPerThread);
+        assertThat(balancesAfter()).containsExactlyElementsOf(live);
+        assertThat(accountService.getAccount(IBAN).getBalance()).isEqualByComparingTo("1000");
+    }
+
+    private List<Map<String, Object>> balancesAfter() {
+        return jdbcTemplate.queryForList("select id, balance_after from transactions order by id");
+    }
+
+    private void wipeDatabase() {
+        jdbcTemplate.execute("delete from daily_statements");
+        jdbcTemplate.execute("delete from transactions");
+        jdbcTemplate.execute("delete from balance_snapshots");
+        jdbcTemplate.execute("delete from accounts");
+    }
+}
@@ -0,0 +1,85 @@
+package com.simohoff.banking_service.service.journal;
+
+import com.simohoff.banking_service.service.AccountService;
+import com.simohoff.banking_service.service.TransferService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+
+// Eigenes Verzeichnis pro Kontext, sonst spielt ein Test das Journal des vorherigen ein
+@SpringBootTest(properties = {
+        "banking.journal.enabled=true",
+        "banking.journal.directory=target/journal-test/${random.uuid}"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class JournalReplayerTest {
+
+    @Autowired
+    private JournalProperties properties;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldRestoreAccountsAndBalancesAfterDatabaseLoss() {
+        // Given
+        accountService.createAccount("DE_WAL_ALICE", "Alice");
+        accountService.createAccount("DE_WAL_BOB", "Bob");
+        accountService.credit("DE_WAL_ALICE", new BigDecimal("100"), "Einzahlung");
+        accountService.debit("DE_WAL_ALICE", new BigDecimal("10"), "Auszahlung");
+        transferService.transfer("DE_WAL_ALICE", "DE_WAL_BOB", new BigDecimal("25"), "Miete");
+        assertThatThrownBy(() -> accountService.debit("DE_WAL_BOB", new BigDecimal("1000"), "Zu viel"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // When - In-Memory-Datenbank geht verloren, Journal wird eingespielt
+        wipeDatabase();
+        JournalReplayer.ReplayResult result = JournalReplayer.replay(properties.directory(), jdbcTemplate);
+
+        // Then - die abgelehnte Buchung steht nicht im Journal
+        assertThat(result.accounts()).isEqualTo(2);
+        assertThat(result.transactions()).isEqualTo(4);
+        assertThat(accountService.getAccount("DE_WAL_ALICE").getBalance()).isEqualByComparingTo("65");
+        assertThat(accountService.getAccount("DE_WAL_BOB").getBalance()).isEqualByComparingTo("25");
+        assertThat(accountService.getTransactions("DE_WAL_ALICE")).hasSize(3);
+        assertThat(accountService.getTransactions("DE_WAL_ALICE").get(0).getBalanceAfter())
+                .isEqualByComparingTo("65");
+        assertThat(jdbcTemplate.queryForObject("select sum(transaction_count) from daily_statements", Long.class))
+                .isEqualTo(4);
+    }
+
+    @Test
+    void shouldContinueBookingAfterReplay() {
+        // Given
+        accountService.createAccount("DE_WAL_CAROL", "Carol");
+        accountService.credit("DE_WAL_CAROL", new BigDecimal("50"), "Einzahlung");
+        wipeDatabase();
+        JournalReplayer.replay(properties.directory(), jdbcTemplate);
+
+        // When - neue IDs dürfen nicht mit eingespielten kollidieren
+        accountService.createAccount("DE_WAL_DAVE", "Dave");
+        accountService.credit("DE_WAL_CAROL", new BigDecimal("5"), "Nach Neustart");
+
+        // Then
+        assertThat(accountService.getAccount("DE_WAL_CAROL").getBalance()).isEqualByComparingTo("55");
+        assertThat(accountService.getTransactions("DE_WAL_CAROL")).hasSize(2);
+    }
+
+    private void wipeDatabase() {
+        jdbcTemplate.execute("delete from daily_statements");
+        jdbcTemplate.execute("delete from transactions");
+        jdbcTemplate.execute("delete from balance_snapshots");
+        jdbcTemplate.execute("delete from accounts");
+    }
+}
@@ -0,0 +1,119 @@
+package com.simohoff.banking_service.service.journal;
+
+import com.simohoff.banking_service.domain.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LedgerJournalTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReadBackWhatWasAppended() throws Exception {
+        // Given
+        List<JournalEntry> entries = List.of(
+                new JournalEntry.AccountCreated(1, "DE_JOURNAL", "Jörg", NOW),
+                new JournalEntry.TransactionApplied(1, 1, TransactionType.CREDIT, 10_050,
+                        "Einzahlung", NOW),
+                new JournalEntry.TransactionApplied(2, 1, TransactionType.DEBIT, 1,
+                        null, NOW));
+
+        // When
+        LedgerJournal journal = open(DataSize.ofMegabytes(1));
+        journal.awaitDurable(journal.append(entries));
+        journal.close();
+
+        // Then
+        assertThat(readAll()).containsExactlyElementsOf(entries);
+    }
+
+    @Test
+    void shouldRotateSegmentsAndKeepOrder() throws Exception {
+        // Given
+        LedgerJournal journal = open(DataSize.ofKilobytes(1));
+        List<JournalEntry> entries = new ArrayList<>();
+
+        // When
+        for (long i = 1; i <= 200; i++) {
+            JournalEntry entry = new JournalEntry.TransactionApplied(i, 1, TransactionType.CREDIT,
+                    100, "Rotation " + i, NOW);
+            journal.append(List.of(entry));
+            entries.add(entry);
+        }
+        journal.close();
+
+        // Then
+        assertThat(JournalReader.segments(directory)).hasSizeGreaterThan(1);
+        assertThat(readAll()).containsExactlyElementsOf(entries);
+    }
+
+    @Test
+    void shouldContinueInNewSegmentAfterRestart() throws Exception {
+        // Given
+        LedgerJournal first = open(DataSize.ofKilobytes(64));
+        first.append(List.of(new JournalEntry.AccountCreated(1, "DE_FIRST", "Erster Start", NOW)));
+        first.close();
+
+        // When
+        LedgerJournal second = open(DataSize.ofKilobytes(64));
+        second.append(List.of(new JournalEntry.AccountCreated(2, "DE_SECOND", "Zweiter Start", NOW)));
+        second.close();
+
+        // Then
+        assertThat(JournalReader.segments(directory)).hasSize(2);
+        assertThat(readAll()).extracting(entry -> ((JournalEntry.AccountCreated) entry).iban())
+                .containsExactly("DE_FIRST", "DE_SECOND");
+    }
+
+    @Test
+    void shouldStopAtTornRecord() throws IOException {
+        // Given - zwei vollständige Records, der dritte wurde nur halb geschrieben
+        byte[] first = JournalCodec.encode(new JournalEntry.AccountCreated(1, "DE_A", "A", NOW));
+        byte[] second = JournalCodec.encode(new JournalEntry.AccountCreated(2, "DE_B", "B", NOW));
+        byte[] torn = JournalCodec.encode(new JournalEntry.AccountCreated(3, "DE_C", "C", NOW));
+        ByteBuffer file = ByteBuffer.allocate(4096)
+                .put(first)
+                .put(second)
+                .put(torn, 0, torn.length / 2);
+        Files.write(directory.resolve("journal-00000001.log"), file.array());
+
+        // When / Then
+        assertThat(readAll()).hasSize(2);
+    }
+
+    @Test
+    void shouldStopAtCorruptedChecksum() throws IOException {
+        // Given
+        byte[] record = JournalCodec.encode(new JournalEntry.AccountCreated(1, "DE_A", "A", NOW));
+        record[record.length - 1] ^= 0x01;
+        Files.write(directory.resolve("journal-00000001.log"), ByteBuffer.allocate(4096).put(record).array());
+
+        // When / Then
+        assertThat(readAll()).isEmpty();
+    }
+
+    private LedgerJournal open(DataSize segmentSize) {
+        return new LedgerJournal(new JournalProperties(true, directory, segmentSize));
+    }
+
+    private List<JournalEntry> readAll() {
+        List<JournalEntry> entries = new ArrayList<>();
+        JournalReader.read(directory, entries::add);
+        return entries;
+    }
+}
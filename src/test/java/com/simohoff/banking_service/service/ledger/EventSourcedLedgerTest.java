@@ -0,0 +1,129 @@
+package com.simohoff.banking_service.service.ledger;
+
+import com.simohoff.banking_service.domain.LedgerBalance;
+import com.simohoff.banking_service.repository.BalanceSnapshotRepository;
+import com.simohoff.banking_service.service.AccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "banking.ledger.event-sourced=true",
+        "banking.ledger.snapshot-interval=5"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class EventSourcedLedgerTest {
+
+    @Autowired
+    private EventSourcedLedger ledger;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BalanceSnapshotRepository snapshotRepository;
+
+    private Long aliceId;
+
+    @BeforeEach
+    void setUp() {
+        aliceId = accountService.createAccount("DE_ES_ALICE", "Alice").getId();
+        accountService.createAccount("DE_ES_BOB", "Bob");
+    }
+
+    @Test
+    void shouldDeriveBalanceFromJournalWithoutTouchingAccountRow() {
+        // Given
+        Long versionBefore = accountService.getAccount("DE_ES_ALICE").getVersion();
+
+        // When
+        ledger.credit("DE_ES_ALICE", new BigDecimal("100"), "Einzahlung");
+        ledger.debit("DE_ES_ALICE", new BigDecimal("30"), "Auszahlung");
+        ledger.transfer("DE_ES_ALICE", "DE_ES_BOB", new BigDecimal("20"), "Miete");
+
+        // Then
+        assertThat(ledger.balance("DE_ES_ALICE")).isEqualByComparingTo("50");
+        assertThat(ledger.balance("DE_ES_BOB")).isEqualByComparingTo("20");
+        assertThat(accountService.getTransactions("DE_ES_ALICE")).hasSize(3);
+        assertThat(accountService.getAccount("DE_ES_ALICE").getVersion()).isEqualTo(versionBefore);
+    }
+
+    @Test
+    void shouldRejectDebitWithoutFunds() {
+        // Given
+        ledger.credit("DE_ES_ALICE", new BigDecimal("10"), "Einzahlung");
+
+        // When / Then
+        assertThatThrownBy(() -> ledger.debit("DE_ES_ALICE", new BigDecimal("11"), "Zu viel"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Insufficient funds");
+        assertThat(ledger.balance("DE_ES_ALICE")).isEqualByComparingTo("10");
+        assertThat(accountService.getTransactions("DE_ES_ALICE")).hasSize(1);
+    }
+
+    @Test
+    void shouldRebuildFromSnapshotPlusTail() {
+        // When - 12 Buchungen, Snapshot alle 5
+        for (int i = 0; i < 12; i++) {
+            ledger.credit("DE_ES_ALICE", BigDecimal.TEN, "Einzahlung " + i);
+        }
+
+        // Then
+        assertThat(snapshotRepository.findFirstByAccountIdOrderByAccountIdAscLastTransactionIdDesc(aliceId))
+                .hasValueSatisfying(snapshot -> assertThat(snapshot.getBalance()).isEqualByComparingTo("100"));
+        assertThat(snapshotRepository.count()).isEqualTo(2);
+
+        LedgerBalance rebuilt = ledger.rebuild(aliceId);
+        assertThat(rebuilt.balance()).isEqualTo(12_000L);
+        assertThat(rebuilt.eventsSinceSnapshot()).isEqualTo(2);
+
+        ledger.evict(aliceId);
+        assertThat(ledger.balance("DE_ES_ALICE")).isEqualByComparingTo("120");
+    }
+
+    @Test
+    void shouldNeverOverdrawWithConcurrentDebits() throws Exception {
+        // Given
+        ledger.credit("DE_ES_ALICE", new BigDecimal("100"), "Initial");
+        int numberOfThreads = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+
+        // When - 10 Threads buchen je 30 ab, nur 3 dürfen durchgehen
+        for (int i = 0; i < numberOfThreads; i++) {
+            futures.add(executor.submit(() -> {
+                latch.await();
+                try {
+                    ledger.debit("DE_ES_ALICE", new BigDecimal("30"), "Parallel");
+                    return true;
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+            }));
+        }
+        latch.countDown();
+        executor.shutdown();
+        executor.awaitTermination(15, TimeUnit.SECONDS);
+
+        // Then
+        int successful = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get()) {
+                successful++;
+            }
+        }
+        assertThat(successful).isEqualTo(3);
+        assertThat(ledger.balance("DE_ES_ALICE")).isEqualByComparingTo("10");
+        assertThat(ledger.rebuild(aliceId).balance()).isEqualTo(1_000L);
+    }
+}
@@ -0,0 +1,56 @@
+package com.simohoff.banking_service.service.memory;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Speicherbedarf der {@link BalanceTable} bei 10 Mio. Konten mit 22-stelligen IBANs.
+ * Läuft nur mit {@code ./mvnw test -Pbench -Dtest=BalanceTableMemoryBenchmarkTest} (braucht rund 2 GB Heap).
+ */
+@Tag("benchmark")
+class BalanceTableMemoryBenchmarkTest {
+
+    private static final int ACCOUNTS = 10_000_000;
+    private static final int LOOKUPS = 10_000_000;
+
+    @Test
+    void shouldHoldTenMillionAccountsInAFewGigabytes() {
+        // Given
+        long before = usedHeap();
+
+        // When
+        BalanceTable table = new BalanceTable(ACCOUNTS, 1024);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            table.insert(iban(i), i, i, 0);
+        }
+        long bytesPerAccount = (usedHeap() - before) / ACCOUNTS;
+
+        long sum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            sum += table.balance(table.slotOf(iban((int) ((i * 7919L) % ACCOUNTS))));
+        }
+        long nanosPerLookup = (System.nanoTime() - start) / LOOKUPS;
+
+        // Then
+        System.out.printf("%d accounts: %d bytes/account, %d ns per lookup (incl. IBAN formatting, checksum %d)%n",
+                table.size(), bytesPerAccount, nanosPerLookup, sum);
+        assertThat(table.size()).isEqualTo(ACCOUNTS);
+        assertThat(bytesPerAccount).isLessThan(200);
+        assertThat(nanosPerLookup).isLessThan(1_000);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String iban(int index) {
+        return "DE%020d".formatted(index);
+    }
+}
@@ -0,0 +1,136 @@
+package com.simohoff.banking_service.service.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BalanceTableTest {
+
+    @Test
+    void shouldFindAccountsAcrossPagesAndRehashes() {
+        // Given - klein gestartet, damit mehrfach umgehasht und über mehrere Seiten verteilt wird
+        BalanceTable table = new BalanceTable(16, 16);
+        int accounts = 200_000;
+
+        // When
+        for (int i = 0; i < accounts; i++) {
+            table.insert(iban(i), 1_000L + i, i, 0);
+        }
+
+        // Then
+        assertThat(table.size()).isEqualTo(accounts);
+        for (int i = 0; i < accounts; i++) {
+            int slot = table.slotOf(iban(i));
+            assertThat(table.accountId(slot)).isEqualTo(1_000L + i);
+            assertThat(table.balance(slot)).isEqualTo(i);
+        }
+        assertThat(table.slotOf("DE_UNKNOWN")).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldKeepExistingSlotOnDuplicateInsert() {
+        // Given
+        BalanceTable table = new BalanceTable(16, 16);
+        int slot = table.insert("DE_TABLE", 1, 500, 3);
+
+        // When
+        int again = table.insert("DE_TABLE", 1, 0, 0);
+
+        // Then
+        assertThat(again).isEqualTo(slot);
+        assertThat(table.balance(slot)).isEqualTo(500);
+        assertThat(table.version(slot)).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRejectDebitWithoutFundsAndKeepBalance() {
+        // Given
+        BalanceTable table = new BalanceTable(16, 16);
+        int slot = table.insert("DE_TABLE", 1, 5_000, 0);
+
+        // When / Then
+        assertThatThrownBy(() -> table.debit(slot, 5_001))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Insufficient funds. Balance: 50.00, Required: 50.01");
+        assertThat(table.balance(slot)).isEqualTo(5_000);
+        assertThat(table.version(slot)).isZero();
+
+        table.debit(slot, 5_000);
+        assertThat(table.balance(slot)).isZero();
+        assertThat(table.version(slot)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTransferAtomically() {
+        // Given
+        BalanceTable table = new BalanceTable(16, 16);
+        int from = table.insert("DE_FROM", 1, 1_000, 0);
+        int to = table.insert("DE_TO", 2, 0, 0);
+
+        // When
+        table.transfer(from, to, 400);
+
+        // Then
+        assertThat(table.balance(from)).isEqualTo(600);
+        assertThat(table.balance(to)).isEqualTo(400);
+        assertThatThrownBy(() -> table.transfer(from, to, 601)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(table.balance(to)).isEqualTo(400);
+    }
+
+    @Test
+    void shouldNotLoseUpdatesUnderConcurrency() throws Exception {
+        // Given - 8 Threads buchen hin und her, während weitere Konten angelegt werden
+        BalanceTable table = new BalanceTable(16, 4);
+        int a = table.insert("DE_A", 1, 1_000_000, 0);
+        int b = table.insert("DE_B", 2, 1_000_000, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(9);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        for (int t = 0; t < 8; t++) {
+            boolean forward = t % 2 == 0;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 10_000; i++) {
+                    if (forward) {
+                        table.transfer(a, b, 1);
+                    } else {
+                        table.transfer(b, a, 1);
+                    }
+                    table.credit(a, 1);
+                }
+                return null;
+            }));
+        }
+        futures.add(executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < 100_000; i++) {
+                table.insert(iban(i), 10L + i, 0, 0);
+            }
+            return null;
+        }));
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(table.balance(a) + table.balance(b)).isEqualTo(2_000_000 + 8 * 10_000);
+        assertThat(table.slotOf("DE_A")).isEqualTo(a);
+        assertThat(table.slotOf(iban(99_999))).isGreaterThan(b);
+    }
+
+    private static String iban(int index) {
+        return "DE%020d".formatted(index);
+    }
+}
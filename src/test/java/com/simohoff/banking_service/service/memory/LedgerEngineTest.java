@@ -0,0 +1,169 @@
+package com.simohoff.banking_service.service.memory;
+
+import com.simohoff.banking_service.dto.TransactionResponse;
+import com.simohoff.banking_service.dto.TransferResponse;
+import com.simohoff.banking_service.exception.AccountNotFoundException;
+import com.simohoff.banking_service.repository.AccountRepository;
+import com.simohoff.banking_service.service.AccountService;
+import com.simohoff.banking_service.service.cache.AccountCache;
+import com.simohoff.banking_service.service.metrics.LedgerMetrics;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "banking.ledger-engine.enabled=true")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class LedgerEngineTest {
+
+    @Autowired
+    private LedgerEngine engine;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private LedgerMetrics ledgerMetrics;
+
+    @BeforeEach
+    void setUp() {
+        accountService.createAccount("DE_MEM_ALICE", "Alice");
+        accountService.createAccount("DE_MEM_BOB", "Bob");
+    }
+
+    @Test
+    void shouldServeBalanceFromMemoryAndPersistBehind() {
+        // When
+        TransactionResponse credit = engine.credit("DE_MEM_ALICE", new BigDecimal("100"), "Einzahlung").join();
+        engine.debit("DE_MEM_ALICE", new BigDecimal("30.50"), "Auszahlung").join();
+
+        // Then
+        assertThat(credit.id()).isNotNull();
+        assertThat(engine.balanceMinorUnits("DE_MEM_ALICE")).isEqualTo(6_950);
+        assertThat(accountService.getAccount("DE_MEM_ALICE").getBalance()).isEqualByComparingTo("69.50");
+        assertThat(accountService.getAccount("DE_MEM_ALICE").getVersion()).isEqualTo(2);
+        assertThat(accountService.getTransactions("DE_MEM_ALICE")).hasSize(2);
+    }
+
+    @Test
+    void shouldDecideInsufficientFundsInMemory() {
+        // Given
+        engine.credit("DE_MEM_ALICE", new BigDecimal("10"), "Einzahlung").join();
+
+        // When / Then - fachlicher Fehler kommt sofort, nicht über das Future
+        assertThatThrownBy(() -> engine.debit("DE_MEM_ALICE", new BigDecimal("10.01"), "Zu viel"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Insufficient funds");
+        assertThatThrownBy(() -> engine.credit("DE_MEM_UNKNOWN", BigDecimal.ONE, "Weg"))
+                .isInstanceOf(AccountNotFoundException.class);
+        assertThat(engine.balanceMinorUnits("DE_MEM_ALICE")).isEqualTo(1_000);
+        assertThat(accountService.getTransactions("DE_MEM_ALICE")).hasSize(1);
+    }
+
+    @Test
+    void shouldKeepMemoryAndDatabaseInSyncOnConcurrentTransfers() {
+        // Given
+        engine.credit("DE_MEM_ALICE", new BigDecimal("1000"), "Initial").join();
+        engine.credit("DE_MEM_BOB", new BigDecimal("1000"), "Initial").join();
+
+        // When
+        List<CompletableFuture<TransferResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            futures.add(i % 2 == 0
+                    ? engine.transfer("DE_MEM_ALICE", "DE_MEM_BOB", new BigDecimal("3"), "Hin " + i)
+                    : engine.transfer("DE_MEM_BOB", "DE_MEM_ALICE", new BigDecimal("1"), "Zurück " + i));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        // Then
+        assertThat(engine.balance("DE_MEM_ALICE")).isEqualByComparingTo("500");
+        assertThat(engine.balance("DE_MEM_BOB")).isEqualByComparingTo("1500");
+        assertThat(accountService.getAccount("DE_MEM_ALICE").getBalance()).isEqualByComparingTo("500");
+        assertThat(accountService.getAccount("DE_MEM_BOB").getBalance()).isEqualByComparingTo("1500");
+    }
+
+    @Test
+    void shouldHaltAndReloadBalancesAfterFailedWrite() {
+        // Given - die Datenbank lehnt Salden über 150 ab
+        engine.credit("DE_MEM_ALICE", new BigDecimal("100"), "Einzahlung").join();
+        jdbcTemplate.execute("alter table accounts add constraint chk_engine_test check (balance <= 150)");
+
+        // When
+        CompletableFuture<TransactionResponse> rejected =
+                engine.credit("DE_MEM_ALICE", new BigDecimal("100"), "Zu viel");
+        assertThatThrownBy(rejected::join).isInstanceOf(CompletionException.class);
+        jdbcTemplate.execute("alter table accounts drop constraint chk_engine_test");
+        TransactionResponse debit = awaitAccepted(() -> engine.debit("DE_MEM_ALICE", new BigDecimal("30"), "Miete"));
+
+        // Then - nicht zurückgerechnet, sondern aus der Datenbank geladen
+        assertThat(debit.balanceAfter()).isEqualByComparingTo("70");
+        assertThat(engine.balance("DE_MEM_ALICE")).isEqualByComparingTo("70");
+        assertThat(engine.account("DE_MEM_ALICE").balance()).isEqualByComparingTo("70");
+        assertThat(accountService.getAccount("DE_MEM_ALICE").getBalance()).isEqualByComparingTo("70");
+        assertThat(accountService.getTransactions("DE_MEM_ALICE")).hasSize(2);
+    }
+
+    @Test
+    void shouldLoadAllAccountsAtStartup() throws Exception {
+        // Given
+        engine.credit("DE_MEM_BOB", new BigDecimal("42"), "Einzahlung").join();
+
+        // When - zweite Engine auf demselben Datenbestand
+        LedgerEngine restarted = new LedgerEngine(accountRepository, entityManager, jdbcTemplate,
+                transactionManager, accountCache, ledgerMetrics,
+                new LedgerEngineProperties(true, 16, 16, Duration.ofMillis(1), 100));
+        restarted.load();
+
+        // Then
+        try {
+            assertThat(restarted.table().size()).isEqualTo(2);
+            assertThat(restarted.balance("DE_MEM_BOB")).isEqualByComparingTo("42");
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    // Bis die Engine die Salden neu geladen hat, lehnt sie Buchungen ab
+    private static <T> T awaitAccepted(Supplier<CompletableFuture<T>> booking) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (true) {
+            try {
+                return booking.get().join();
+            } catch (IllegalStateException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.simohoff.banking_service.service.metrics;
+
+import com.simohoff.banking_service.service.AccountService;
+import com.simohoff.banking_service.service.TransferService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "banking.metrics.hot-accounts.enabled=true",
+        "banking.metrics.hibernate.enabled=true"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class LedgerMetricsTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private HotAccountTracker hotAccountTracker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void shouldTimeOperationsByOutcome() {
+        // Given
+        accountService.createAccount("DE_METRICS_1", "Metrics 1");
+        accountService.createAccount("DE_METRICS_2", "Metrics 2");
+
+        // When
+        accountService.credit("DE_METRICS_1", new BigDecimal("100"), "Einzahlung");
+        transferService.transfer("DE_METRICS_1", "DE_METRICS_2", new BigDecimal("40"), "Miete");
+        accountService.getTransactions("DE_METRICS_1");
+        assertThatThrownBy(() -> accountService.debit("DE_METRICS_2", new BigDecimal("500"), "Zu viel"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // Then
+        assertThat(timer("credit", "success").count()).isEqualTo(1);
+        assertThat(timer("transfer", "success").count()).isEqualTo(1);
+        assertThat(timer("history", "success").count()).isEqualTo(1);
+        assertThat(timer("debit", "failure").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("banking.ledger.inflight").tag("operation", "transfer").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void shouldPublishOnlyTopHotAccounts() {
+        // Given
+        for (int i = 0; i < 15; i++) {
+            String iban = "DE_HOT_METRICS_" + i;
+            accountService.createAccount(iban, "Hot " + i);
+            accountService.credit(iban, new BigDecimal("10"), "Einzahlung");
+        }
+        accountService.credit("DE_HOT_METRICS_7", new BigDecimal("10"), "Noch eine");
+
+        // When
+        hotAccountTracker.publish();
+
+        // Then - Default top-n = 10
+        var gauges = meterRegistry.find("banking.ledger.hot_accounts").gauges();
+        assertThat(gauges).hasSize(10);
+        assertThat(meterRegistry.get("banking.ledger.hot_accounts").tag("iban", "DE_HOT_METRICS_7").gauge().value())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldPublishHibernateStatisticsWhenEnabled() {
+        // When
+        accountService.createAccount("DE_METRICS_HIBERNATE", "Hibernate");
+
+        // Then
+        assertThat(entityManagerFactory.unwrap(SessionFactory.class).getStatistics().isStatisticsEnabled()).isTrue();
+        assertThat(meterRegistry.get("hibernate.sessions.open").functionCounter().count()).isPositive();
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return meterRegistry.get("banking.ledger.operations")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .timer();
+    }
+}
@@ -0,0 +1,57 @@
+package com.simohoff.banking_service.service.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.simohoff.banking_service.domain.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FileOutboxSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldAppendOneLinePerEvent() throws Exception {
+        // Given
+        Path file = directory.resolve("outbox/events.ndjson");
+        LocalDateTime now = LocalDateTime.of(2026, 1, 31, 12, 0);
+
+        // When - zwei Batches, der zweite nach einem Neustart
+        try (FileOutboxSink sink = new FileOutboxSink(file, objectMapper)) {
+            sink.publish(List.of(
+                    event(1, "DE_FILE_ALICE", TransactionType.CREDIT, now),
+                    event(2, "DE_FILE_ALICE", TransactionType.DEBIT, now)));
+        }
+        try (FileOutboxSink sink = new FileOutboxSink(file, objectMapper)) {
+            sink.publish(List.of(event(3, "DE_FILE_BOB", TransactionType.CREDIT, now)));
+        }
+
+        // Then
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(3);
+        JsonNode last = objectMapper.readTree(lines.get(2));
+        assertThat(last.get("eventId").asLong()).isEqualTo(3);
+        assertThat(last.get("iban").asText()).isEqualTo("DE_FILE_BOB");
+        assertThat(last.get("amount").decimalValue()).isEqualByComparingTo("12.50");
+        assertThat(last.get("timestamp").asText()).isEqualTo("2026-01-31T12:00:00");
+    }
+
+    private static LedgerEvent event(long id, String iban, TransactionType type, LocalDateTime timestamp) {
+        return new LedgerEvent(id, 100 + id, iban, type, new BigDecimal("12.50"), new BigDecimal("12.50"),
+                "Test", timestamp);
+    }
+}
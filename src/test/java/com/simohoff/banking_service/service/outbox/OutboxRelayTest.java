@@ -0,0 +1,172 @@
+package com.simohoff.banking_service.service.outbox;
+
+import com.simohoff.banking_service.domain.TransactionType;
+import com.simohoff.banking_service.service.AccountService;
+import com.simohoff.banking_service.service.TransferService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "banking.outbox.enabled=true",
+        "banking.outbox.sink=memory",
+        "banking.outbox.batch-size=16"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxSink sink;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private InMemoryOutboxBroker broker;
+
+    @BeforeEach
+    void setUp() {
+        broker = (InMemoryOutboxBroker) sink;
+        accountService.createAccount("DE_OUTBOX_ALICE", "Alice");
+        accountService.createAccount("DE_OUTBOX_BOB", "Bob");
+    }
+
+    @Test
+    void shouldPublishCommittedBookingsOnly() throws Exception {
+        // Given
+        accountService.credit("DE_OUTBOX_ALICE", new BigDecimal("100"), "Einzahlung");
+        accountService.debit("DE_OUTBOX_ALICE", new BigDecimal("30"), "Auszahlung");
+        transferService.transfer("DE_OUTBOX_ALICE", "DE_OUTBOX_BOB", new BigDecimal("20"), "Miete");
+        assertThatThrownBy(() -> accountService.debit("DE_OUTBOX_BOB", new BigDecimal("1000"), "Zu viel"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // When - der Relay-Thread ist nach dem Commit geweckt worden
+        List<LedgerEvent> events = awaitEvents(4);
+        relay.drain();
+
+        // Then - die abgelehnte Abbuchung fehlt, die Outbox ist leer
+        assertThat(events).extracting(LedgerEvent::iban, LedgerEvent::type)
+                .containsExactly(
+                        tuple("DE_OUTBOX_ALICE", TransactionType.CREDIT),
+                        tuple("DE_OUTBOX_ALICE", TransactionType.DEBIT),
+                        tuple("DE_OUTBOX_ALICE", TransactionType.DEBIT),
+                        tuple("DE_OUTBOX_BOB", TransactionType.CREDIT));
+        assertThat(events.get(2).balanceAfter()).isEqualByComparingTo("50");
+        assertThat(events.get(3).reference()).isEqualTo("Transfer from DE_OUTBOX_ALICE: Miete");
+        assertThat(events).extracting(LedgerEvent::eventId).isSorted();
+        assertThat(broker.size()).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from outbox", Integer.class)).isZero();
+    }
+
+    @Test
+    void shouldKeepOrderPerAccountUnderConcurrency() throws Exception {
+        // Given - 4 Threads buchen je 25 Gutschriften, je zwei auf dasselbe Konto
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            String iban = thread % 2 == 0 ? "DE_OUTBOX_ALICE" : "DE_OUTBOX_BOB";
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 25; i++) {
+                    accountService.credit(iban, BigDecimal.ONE, "Gutschrift");
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // When
+        List<LedgerEvent> events = awaitEvents(100);
+
+        // Then - pro Konto steigt der Saldo in Auslieferungsreihenfolge lückenlos
+        Map<String, BigDecimal> last = new HashMap<>();
+        for (LedgerEvent event : events) {
+            BigDecimal previous = last.getOrDefault(event.iban(), BigDecimal.ZERO);
+            assertThat(event.balanceAfter()).isEqualByComparingTo(previous.add(BigDecimal.ONE));
+            last.put(event.iban(), event.balanceAfter());
+        }
+        assertThat(last.get("DE_OUTBOX_ALICE")).isEqualByComparingTo("50");
+        assertThat(last.get("DE_OUTBOX_BOB")).isEqualByComparingTo("50");
+    }
+
+    @Test
+    void shouldHoldBackLaterIdsWhileLowerIdIsInFlight() throws Exception {
+        // Given - Alices Buchung hat ihre Outbox-ID, committet aber erst nach Bobs
+        CountDownLatch reserved = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> alice = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            accountService.credit("DE_OUTBOX_ALICE", BigDecimal.TEN, "Langsam");
+            // Nach dem OutboxWriter registriert, läuft also nach dessen Insert
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    reserved.countDown();
+                    awaitQuietly(commit);
+                }
+            });
+        }));
+        assertThat(reserved.await(10, TimeUnit.SECONDS)).isTrue();
+        accountService.credit("DE_OUTBOX_BOB", BigDecimal.ONE, "Schnell");
+
+        // When
+        int whileInFlight = relay.drain();
+        commit.countDown();
+        alice.get();
+        executor.shutdown();
+        List<LedgerEvent> events = awaitEvents(2);
+
+        // Then - Bobs Buchung hat Alices nicht überholt
+        assertThat(whileInFlight).isZero();
+        assertThat(events).extracting(LedgerEvent::iban).containsExactly("DE_OUTBOX_ALICE", "DE_OUTBOX_BOB");
+        assertThat(events).extracting(LedgerEvent::eventId).isSorted();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<LedgerEvent> awaitEvents(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (broker.size() < count && System.nanoTime() < deadline) {
+            broker.poll(broker.size(), count, Duration.ofMillis(100));
+        }
+        return broker.poll(0, Integer.MAX_VALUE, Duration.ZERO);
+    }
+}
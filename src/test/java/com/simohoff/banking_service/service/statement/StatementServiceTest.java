@@ -0,0 +1,122 @@
+package com.simohoff.banking_service.service.statement;
+
+import com.simohoff.banking_service.domain.Transaction;
+import com.simohoff.banking_service.dto.StatementResponse;
+import com.simohoff.banking_service.dto.TransferRequest;
+import com.simohoff.banking_service.service.AccountService;
+import com.simohoff.banking_service.service.TransferService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class StatementServiceTest {
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @BeforeEach
+    void setUp() {
+        accountService.createAccount("DE_STMT_ALICE", "Alice");
+        accountService.createAccount("DE_STMT_BOB", "Bob");
+    }
+
+    @Test
+    void shouldStoreRunningBalanceOnEachTransaction() {
+        // When
+        accountService.credit("DE_STMT_ALICE", new BigDecimal("100"), "Einzahlung");
+        accountService.debit("DE_STMT_ALICE", new BigDecimal("30"), "Auszahlung");
+        transferService.transfer("DE_STMT_ALICE", "DE_STMT_BOB", new BigDecimal("20"), "Miete");
+
+        // Then - neueste zuerst
+        List<Transaction> history = accountService.getTransactions("DE_STMT_ALICE");
+        assertThat(history).extracting(Transaction::getBalanceAfter)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("50"), new BigDecimal("70"), new BigDecimal("100"));
+        assertThat(accountService.getTransactions("DE_STMT_BOB").get(0).getBalanceAfter())
+                .isEqualByComparingTo("20");
+    }
+
+    @Test
+    void shouldAnswerBalanceAtPointInTime() throws InterruptedException {
+        // Given
+        LocalDateTime beforeFirst = LocalDateTime.now();
+        Thread.sleep(5);
+        accountService.credit("DE_STMT_ALICE", new BigDecimal("100"), "Einzahlung");
+        Thread.sleep(5);
+        LocalDateTime afterFirst = LocalDateTime.now();
+        Thread.sleep(5);
+        accountService.debit("DE_STMT_ALICE", new BigDecimal("40"), "Auszahlung");
+
+        // When / Then
+        assertThat(statementService.balanceAt("DE_STMT_ALICE", beforeFirst)).isEqualByComparingTo("0");
+        assertThat(statementService.balanceAt("DE_STMT_ALICE", afterFirst)).isEqualByComparingTo("100");
+        assertThat(statementService.balanceAt("DE_STMT_ALICE", LocalDateTime.now())).isEqualByComparingTo("60");
+    }
+
+    @Test
+    void shouldRollUpDailyAndMonthlyStatements() {
+        // Given - Einzelbuchungen und ein Batch mit mehreren Buchungen pro Konto in einer Transaktion
+        accountService.credit("DE_STMT_ALICE", new BigDecimal("100"), "Einzahlung");
+        accountService.debit("DE_STMT_ALICE", new BigDecimal("10"), "Auszahlung");
+        transferService.transferBatch(List.of(
+                new TransferRequest("DE_STMT_ALICE", "DE_STMT_BOB", new BigDecimal("5"), "Eins"),
+                new TransferRequest("DE_STMT_ALICE", "DE_STMT_BOB", new BigDecimal("15"), "Zwei")));
+        LocalDate today = LocalDate.now();
+
+        // When
+        StatementResponse day = statementService.statement("DE_STMT_ALICE", today.toString());
+        StatementResponse month = statementService.statement("DE_STMT_ALICE", YearMonth.from(today).toString());
+
+        // Then
+        assertThat(day.openingBalance()).isEqualByComparingTo("0");
+        assertThat(day.closingBalance()).isEqualByComparingTo("70");
+        assertThat(day.totalCredits()).isEqualByComparingTo("100");
+        assertThat(day.totalDebits()).isEqualByComparingTo("30");
+        assertThat(day.transactionCount()).isEqualTo(4);
+        assertThat(month.closingBalance()).isEqualByComparingTo("70");
+        assertThat(month.transactionCount()).isEqualTo(4);
+        assertThat(month.from()).isEqualTo(YearMonth.from(today).atDay(1));
+        assertThat(statementService.statement("DE_STMT_BOB", today.toString()).closingBalance())
+                .isEqualByComparingTo("20");
+    }
+
+    @Test
+    void shouldCarryBalanceIntoPeriodWithoutBookings() {
+        // Given
+        accountService.credit("DE_STMT_ALICE", new BigDecimal("42"), "Einzahlung");
+        YearMonth nextMonth = YearMonth.now().plusMonths(1);
+
+        // When
+        StatementResponse statement = statementService.statement("DE_STMT_ALICE", nextMonth.toString());
+
+        // Then
+        assertThat(statement.openingBalance()).isEqualByComparingTo("42");
+        assertThat(statement.closingBalance()).isEqualByComparingTo("42");
+        assertThat(statement.transactionCount()).isZero();
+    }
+
+    @Test
+    void shouldRejectInvalidPeriod() {
+        assertThatThrownBy(() -> statementService.statement("DE_STMT_ALICE", "2026-13"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("YYYY-MM");
+    }
+}